@@ -0,0 +1,37 @@
+package benchmark;
+
+import model.AchievementCollection;
+import model.Game;
+import model.Snake;
+
+/**
+ * Measures AchievementCollection.getAchievement for the last statistical
+ * achievement of the second snake, the worst case of the lookup
+ */
+public class AchievementLookupBenchmark implements Benchmark {
+    private AchievementCollection achievements;
+    private Snake snake;
+
+    @Override
+    public String getName() {
+        return "AchievementCollection.getAchievement";
+    }
+
+    @Override
+    public boolean setUp(int boardSize, int snakeLength) {
+        Game game = new Game(10, 10);
+        achievements = game.getAchievements();
+        snake = game.getSnake2();
+        return true;
+    }
+
+    @Override
+    public long run() {
+        return (long) achievements.getAchievement("Apples Eaten", snake).getValue();
+    }
+
+    @Override
+    public boolean isParameterized() {
+        return false;
+    }
+}
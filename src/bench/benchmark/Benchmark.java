@@ -0,0 +1,68 @@
+package benchmark;
+
+/**
+ * A benchmark that is run by the BenchmarkRunner. Every benchmark is set up for
+ * one combination of board size and snake length and then measures a single
+ * operation many times.
+ */
+public interface Benchmark {
+    /**
+     * EFFECTS: returns the name of the benchmark
+     * 
+     * @return the name of the benchmark
+     */
+    String getName();
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: prepares the state for the given parameters; returns false if the
+     * combination does not make sense (e.g. the snakes do not fit on the board)
+     * 
+     * @param boardSize   the width and height of the board
+     * @param snakeLength the length of the snakes
+     * @return whether the benchmark can run with the given parameters
+     * @throws Exception if the state cannot be prepared
+     */
+    boolean setUp(int boardSize, int snakeLength) throws Exception;
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: runs the measured operation once and returns a value derived from
+     * its result so that the work cannot be optimized away
+     * 
+     * @return a value derived from the result of the operation
+     * @throws Exception if the operation fails
+     */
+    long run() throws Exception;
+
+    /**
+     * EFFECTS: returns how many operations can run before the state has to be set
+     * up again (e.g. because every operation grows a snake)
+     * 
+     * @return the number of operations per set up
+     */
+    default long getMaxOpsPerSetUp() {
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * EFFECTS: returns the size in bytes of the file the operation writes or
+     * reads, or -1 if it has none; printed next to the time, so that formats
+     * can be weighed by size against speed
+     * 
+     * @return the size of the file in bytes, or -1
+     */
+    default long getFileSize() {
+        return -1;
+    }
+
+    /**
+     * EFFECTS: returns whether the result depends on board size and snake length;
+     * benchmarks that do not are only run once
+     * 
+     * @return whether the benchmark is parameterized
+     */
+    default boolean isParameterized() {
+        return true;
+    }
+}
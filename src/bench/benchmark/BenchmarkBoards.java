@@ -0,0 +1,122 @@
+package benchmark;
+
+import model.Direction;
+import model.Game;
+import model.Position;
+import model.Snake;
+
+/**
+ * Builds boards for the benchmarks. Each snake lives in its own half of the
+ * board and follows a cycle that visits every cell of that half, so it can move
+ * forever without colliding. The food is parked in the last column, which the
+ * cycles never visit, so the state stays the same from tick to tick.
+ */
+public class BenchmarkBoards {
+    /**
+     * EFFECTS: returns the height of the region each snake cycles through on a
+     * board of the given size; the height is even so that the cycle closes
+     * 
+     * @param boardSize the width and height of the board
+     * @return the height of the region of each snake
+     */
+    public static int regionHeight(int boardSize) {
+        return (boardSize / 2) & ~1;
+    }
+
+    /**
+     * EFFECTS: returns whether snakes of the given length fit on a board of the
+     * given size
+     * 
+     * @param boardSize   the width and height of the board
+     * @param snakeLength the length of the snakes
+     * @return whether the snakes fit
+     */
+    public static boolean fits(int boardSize, int snakeLength) {
+        return boardSize >= 4 && snakeLength < boardSize * regionHeight(boardSize);
+    }
+
+    /**
+     * REQUIRE: fits(boardSize, snakeLength)
+     * EFFECTS: returns a game with both snakes stretched along their cycles and a
+     * single food that is never reached
+     * 
+     * @param boardSize   the width and height of the board
+     * @param snakeLength the length of the snakes
+     * @return the game
+     */
+    public static Game newGame(int boardSize, int snakeLength) {
+        Game game = new Game(boardSize, boardSize);
+        int height = regionHeight(boardSize);
+        layOut(game.getSnake1(), boardSize, height, 0, snakeLength);
+        layOut(game.getSnake2(), boardSize, height, height, snakeLength);
+        game.getFood().clear();
+        game.getFood().add(new Position(boardSize, 0));
+        return game;
+    }
+
+    /**
+     * REQUIRE: the snake has no body yet and snakeLength < width * height
+     * MODIFIES: snake
+     * EFFECTS: places the snake along the cycle of the region starting at row top,
+     * with its tail at the top left corner of the region
+     * 
+     * @param snake       the snake to lay out
+     * @param width       the width of the region
+     * @param height      the height of the region
+     * @param top         the first row of the region
+     * @param snakeLength the length of the snake
+     */
+    public static void layOut(Snake snake, int width, int height, int top, int snakeLength) {
+        int cell = Position.pack(0, top);
+        for (int i = 1; i < snakeLength; i++) {
+            snake.addBodyPart(Position.unpack(cell));
+            cell = next(cell, width, height, top).move(cell);
+        }
+        snake.setHead(Position.unpack(cell));
+        snake.setDirection(next(cell, width, height, top));
+    }
+
+    /**
+     * MODIFIES: game
+     * EFFECTS: turns both snakes so that they keep following their cycles
+     * 
+     * @param game a game made by newGame
+     */
+    public static void steer(Game game) {
+        int width = game.getMaxX();
+        int height = regionHeight(width);
+        Snake snake1 = game.getSnake1();
+        Snake snake2 = game.getSnake2();
+        snake1.setDirection(next(snake1.getHeadCell(), width, height, 0));
+        snake2.setDirection(next(snake2.getHeadCell(), width, height, height));
+    }
+
+    /**
+     * EFFECTS: returns the direction of the cycle at the given cell. The cycle
+     * goes right along the first row, snakes back and forth through the other
+     * rows (leaving out the first column) and returns up the first column.
+     * 
+     * @param cell   the packed coordinates of the cell
+     * @param width  the width of the region
+     * @param height the height of the region (even)
+     * @param top    the first row of the region
+     * @return the direction of the cycle at the cell
+     */
+    public static Direction next(int cell, int width, int height, int top) {
+        int x = Position.unpackX(cell);
+        int y = Position.unpackY(cell) - top;
+        if (y == 0) {
+            return x < width - 1 ? Direction.RIGHT : Direction.DOWN;
+        }
+        if (x == 0) {
+            return Direction.UP;
+        }
+        if (y % 2 == 1) {
+            if (x > 1) {
+                return Direction.LEFT;
+            }
+            return y == height - 1 ? Direction.LEFT : Direction.DOWN;
+        }
+        return x < width - 1 ? Direction.RIGHT : Direction.DOWN;
+    }
+}
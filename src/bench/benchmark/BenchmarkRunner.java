@@ -0,0 +1,241 @@
+package benchmark;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import persistence.SaveCodec;
+
+/**
+ * A small benchmark harness for the model and persistence hot paths. Every
+ * benchmark is run for each combination of board size and snake length: a few
+ * warm-up iterations let the JIT settle, then the average time per operation of
+ * the measured iterations is reported with its standard deviation.
+ * usage: BenchmarkRunner [--boards 50,200,1000] [--lengths 10,1000,100000]
+ * [--warmup 3] [--iterations 5] [--millis 1000] [name filter]
+ */
+public class BenchmarkRunner {
+    // a batch of operations is timed as one unit once it takes at least this long
+    private static final long MIN_BATCH_NANOS = 100_000;
+    private int[] boards = { 50, 200, 1000 };
+    private int[] lengths = { 10, 1000, 100_000 };
+    private int warmupIterations = 3;
+    private int iterations = 5;
+    private long iterationNanos = 1_000_000_000L;
+    private String filter = "";
+    // results of the benchmarks are folded in here so they cannot be optimized away
+    private long sink;
+
+    /**
+     * EFFECTS: returns all benchmarks of the suite
+     * 
+     * @return all benchmarks of the suite
+     */
+    public static List<Benchmark> suite() {
+        return new ArrayList<>(Arrays.asList(
+                new GameTickBenchmark(),
+                new SnakeMoveBenchmark(),
+                new SnakeGrowBenchmark(),
+                new SnakeCollisionBenchmark(),
+                new SpawnFoodBenchmark(),
+                new SpawnFoodOpenBenchmark(),
+                new AchievementLookupBenchmark(),
+                new JsonSaveBenchmark(),
+                new JsonSaveBenchmark(SaveCodec.GZIP),
+                new JsonSaveBenchmark(SaveCodec.FAST),
+                new JsonLoadBenchmark(),
+                new JsonLoadBenchmark(SaveCodec.GZIP),
+                new JsonLoadBenchmark(SaveCodec.FAST),
+                new JsonTreeLoadBenchmark(),
+                new SnapshotSaveBenchmark(),
+                new SnapshotLoadBenchmark(),
+                new JournalRecordBenchmark()));
+    }
+
+    /**
+     * EFFECTS: runs the benchmark suite with the given command line arguments
+     * 
+     * @param args the command line arguments
+     * @throws Exception if a benchmark fails
+     */
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner runner = new BenchmarkRunner();
+        runner.parseArguments(args);
+        runner.runAll(suite());
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: reads the options from the command line arguments
+     * 
+     * @param args the command line arguments
+     */
+    private void parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--boards":
+                    boards = parseInts(args[++i]);
+                    break;
+                case "--lengths":
+                    lengths = parseInts(args[++i]);
+                    break;
+                case "--warmup":
+                    warmupIterations = Integer.parseInt(args[++i]);
+                    break;
+                case "--iterations":
+                    iterations = Integer.parseInt(args[++i]);
+                    break;
+                case "--millis":
+                    iterationNanos = Long.parseLong(args[++i]) * 1_000_000L;
+                    break;
+                default:
+                    filter = args[i];
+            }
+        }
+    }
+
+    /**
+     * EFFECTS: returns the integers of a comma separated list
+     * 
+     * @param list the comma separated list
+     * @return the integers of the list
+     */
+    private static int[] parseInts(String list) {
+        return Arrays.stream(list.split(",")).mapToInt(Integer::parseInt).toArray();
+    }
+
+    /**
+     * EFFECTS: runs every benchmark whose name contains the filter for every
+     * combination of parameters and prints the results
+     * 
+     * @param benchmarks the benchmarks to run
+     * @throws Exception if a benchmark fails
+     */
+    public void runAll(List<Benchmark> benchmarks) throws Exception {
+        PrintStream out = System.out;
+        // the code under test prints progress messages (e.g. on every save)
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            out.printf("%-38s %6s %8s %14s %12s %14s %12s%n", "Benchmark", "Board", "Length", "ns/op", "+-", "ops/s",
+                    "bytes");
+            for (Benchmark benchmark : benchmarks) {
+                if (benchmark.getName().contains(filter)) {
+                    runParameterized(benchmark, out);
+                }
+            }
+        } finally {
+            System.setOut(out);
+        }
+        out.println("(checksum " + sink + ")");
+    }
+
+    /**
+     * EFFECTS: runs the benchmark for every combination of parameters, or once
+     * if it is not parameterized, and prints the results
+     * 
+     * @param benchmark the benchmark
+     * @param out       the stream to print the results to
+     * @throws Exception if the benchmark fails
+     */
+    private void runParameterized(Benchmark benchmark, PrintStream out) throws Exception {
+        if (!benchmark.isParameterized()) {
+            run(benchmark, 0, 0, out);
+            return;
+        }
+        for (int board : boards) {
+            for (int length : lengths) {
+                run(benchmark, board, length, out);
+            }
+        }
+    }
+
+    /**
+     * EFFECTS: warms up and measures the benchmark for the given parameters and
+     * prints the result; prints nothing if the parameters do not fit
+     * 
+     * @param benchmark the benchmark
+     * @param board     the board size
+     * @param length    the snake length
+     * @param out       the stream to print the result to
+     * @throws Exception if the benchmark fails
+     */
+    private void run(Benchmark benchmark, int board, int length, PrintStream out) throws Exception {
+        if (!benchmark.setUp(board, length)) {
+            return;
+        }
+        Measurement measurement = new Measurement(benchmark, board, length);
+        for (int i = 0; i < warmupIterations; i++) {
+            measurement.iterate();
+        }
+        double[] samples = new double[iterations];
+        for (int i = 0; i < iterations; i++) {
+            samples[i] = measurement.iterate();
+        }
+        double mean = Arrays.stream(samples).average().orElse(0);
+        double variance = Arrays.stream(samples).map(s -> (s - mean) * (s - mean)).sum() / Math.max(1, iterations - 1);
+        long size = benchmark.getFileSize();
+        out.printf("%-38s %6s %8s %14.1f %12.1f %14.0f %12s%n", benchmark.getName(),
+                benchmark.isParameterized() ? board : "-", benchmark.isParameterized() ? length : "-",
+                mean, Math.sqrt(variance), 1e9 / mean, size >= 0 ? size : "-");
+    }
+
+    /**
+     * The state of measuring one benchmark with one set of parameters
+     */
+    private class Measurement {
+        private final Benchmark benchmark;
+        private final int board;
+        private final int length;
+        private long opsSinceSetUp;
+        private long batchSize = 1;
+
+        /**
+         * REQUIRE: benchmark has just been set up with the given parameters
+         * EFFECTS: constructs a measurement of the benchmark
+         * 
+         * @param benchmark the benchmark
+         * @param board     the board size
+         * @param length    the snake length
+         */
+        Measurement(Benchmark benchmark, int board, int length) {
+            this.benchmark = benchmark;
+            this.board = board;
+            this.length = length;
+        }
+
+        /**
+         * EFFECTS: runs the benchmark for one iteration and returns the average
+         * time per operation in nanoseconds; setting the benchmark up again is not
+         * timed
+         * 
+         * @return the average time per operation in nanoseconds
+         * @throws Exception if the benchmark fails
+         */
+        double iterate() throws Exception {
+            long elapsed = 0;
+            long ops = 0;
+            while (elapsed < iterationNanos) {
+                if (opsSinceSetUp >= benchmark.getMaxOpsPerSetUp()) {
+                    benchmark.setUp(board, length);
+                    opsSinceSetUp = 0;
+                }
+                long batch = Math.min(batchSize, benchmark.getMaxOpsPerSetUp() - opsSinceSetUp);
+                long start = System.nanoTime();
+                for (long i = 0; i < batch; i++) {
+                    sink += benchmark.run();
+                }
+                long time = System.nanoTime() - start;
+                // batches cut short by a set-up say nothing about the batch size
+                if (time < MIN_BATCH_NANOS && batch == batchSize) {
+                    batchSize *= 2;
+                }
+                elapsed += time;
+                ops += batch;
+                opsSinceSetUp += batch;
+            }
+            return (double) elapsed / ops;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package benchmark;
+
+import model.Game;
+
+/**
+ * Measures Game.tick with both snakes following their cycles
+ */
+public class GameTickBenchmark implements Benchmark {
+    private Game game;
+
+    @Override
+    public String getName() {
+        return "Game.tick";
+    }
+
+    @Override
+    public boolean setUp(int boardSize, int snakeLength) {
+        if (!BenchmarkBoards.fits(boardSize, snakeLength)) {
+            return false;
+        }
+        game = BenchmarkBoards.newGame(boardSize, snakeLength);
+        return true;
+    }
+
+    @Override
+    public long run() {
+        BenchmarkBoards.steer(game);
+        game.tick();
+        return game.getSnake1().getHeadCell();
+    }
+}
@@ -0,0 +1,50 @@
+package benchmark;
+
+import java.io.File;
+import java.io.IOException;
+
+import model.Game;
+import persistence.SaveJournal;
+
+/**
+ * Measures Game.tick followed by SaveJournal.record, with both snakes
+ * following their cycles; compare with GameTickBenchmark for the cost of
+ * saving every tick
+ */
+public class JournalRecordBenchmark implements Benchmark {
+    // large enough that no checkpoint is written while measuring
+    private static final int CHECKPOINT_INTERVAL = Integer.MAX_VALUE;
+    private Game game;
+    private SaveJournal journal;
+    private File file;
+
+    @Override
+    public String getName() {
+        return "SaveJournal.record";
+    }
+
+    @Override
+    public boolean setUp(int boardSize, int snakeLength) throws IOException {
+        if (!BenchmarkBoards.fits(boardSize, snakeLength)) {
+            return false;
+        }
+        if (journal != null) {
+            journal.close();
+        }
+        game = BenchmarkBoards.newGame(boardSize, snakeLength);
+        file = File.createTempFile("snake-bench", ".snk");
+        file.deleteOnExit();
+        SaveJournal.journalPath(file.getPath()).toFile().deleteOnExit();
+        journal = new SaveJournal(file.getPath(), CHECKPOINT_INTERVAL);
+        journal.checkpoint(game);
+        return true;
+    }
+
+    @Override
+    public long run() throws IOException {
+        BenchmarkBoards.steer(game);
+        game.tick();
+        journal.record(game);
+        return journal.getCheckpointCount();
+    }
+}
@@ -0,0 +1,65 @@
+package benchmark;
+
+import java.io.File;
+
+import model.Game;
+import persistence.JsonLoader;
+import persistence.JsonSaver;
+import persistence.SaveCodec;
+
+/**
+ * Measures JsonLoader.loadGame of a saved game with long snakes, compressed
+ * with a given codec. Every operation loads into a new game, so the time
+ * includes creating the board. JsonTreeLoadBenchmark measures the same load
+ * through a JSONObject tree.
+ */
+public class JsonLoadBenchmark implements Benchmark {
+    private final SaveCodec codec;
+    private File file;
+    private int boardSize;
+
+    /**
+     * EFFECTS: constructs a benchmark of loading uncompressed saves
+     */
+    public JsonLoadBenchmark() {
+        this(SaveCodec.PLAIN);
+    }
+
+    /**
+     * EFFECTS: constructs a benchmark of loading saves compressed with the
+     * given codec
+     *
+     * @param codec the codec
+     */
+    public JsonLoadBenchmark(SaveCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public String getName() {
+        return codec == SaveCodec.PLAIN ? "JsonLoader.loadGame" : "JsonLoader.loadGame " + codec;
+    }
+
+    @Override
+    public boolean setUp(int boardSize, int snakeLength) throws Exception {
+        if (!BenchmarkBoards.fits(boardSize, snakeLength)) {
+            return false;
+        }
+        this.boardSize = boardSize;
+        file = File.createTempFile("snake-bench", ".json");
+        file.deleteOnExit();
+        return JsonSaver.saveGame(file.getPath(), BenchmarkBoards.newGame(boardSize, snakeLength), false, codec);
+    }
+
+    @Override
+    public long run() {
+        Game game = new Game(boardSize, boardSize);
+        JsonLoader.loadGame(file.getPath(), game, game.getSnake1(), game.getSnake2());
+        return game.getSnake1().getBody().size();
+    }
+
+    @Override
+    public long getFileSize() {
+        return file.length();
+    }
+}
@@ -0,0 +1,59 @@
+package benchmark;
+
+import java.io.File;
+
+import model.Game;
+import persistence.JsonSaver;
+import persistence.SaveCodec;
+
+/**
+ * Measures JsonSaver.saveGame of a game with long snakes, compressed with a
+ * given codec
+ */
+public class JsonSaveBenchmark implements Benchmark {
+    private final SaveCodec codec;
+    private Game game;
+    private File file;
+
+    /**
+     * EFFECTS: constructs a benchmark of uncompressed saves
+     */
+    public JsonSaveBenchmark() {
+        this(SaveCodec.PLAIN);
+    }
+
+    /**
+     * EFFECTS: constructs a benchmark of saves compressed with the given codec
+     *
+     * @param codec the codec
+     */
+    public JsonSaveBenchmark(SaveCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public String getName() {
+        return codec == SaveCodec.PLAIN ? "JsonSaver.saveGame" : "JsonSaver.saveGame " + codec;
+    }
+
+    @Override
+    public boolean setUp(int boardSize, int snakeLength) throws Exception {
+        if (!BenchmarkBoards.fits(boardSize, snakeLength)) {
+            return false;
+        }
+        game = BenchmarkBoards.newGame(boardSize, snakeLength);
+        file = File.createTempFile("snake-bench", ".json");
+        file.deleteOnExit();
+        return true;
+    }
+
+    @Override
+    public long run() {
+        return JsonSaver.saveGame(file.getPath(), game, false, codec) ? file.length() : 0;
+    }
+
+    @Override
+    public long getFileSize() {
+        return file.length();
+    }
+}
@@ -0,0 +1,49 @@
+package benchmark;
+
+import java.io.File;
+import java.util.Scanner;
+
+import org.json.JSONObject;
+
+import model.Game;
+import persistence.JsonLoader;
+import persistence.JsonSaver;
+
+/**
+ * Measures loading a saved game with long snakes the way JsonLoader.loadGame
+ * used to: reading the file line by line with a Scanner, parsing it into a
+ * JSONObject and updating the game from that. Compare with JsonLoadBenchmark.
+ */
+public class JsonTreeLoadBenchmark implements Benchmark {
+    private File file;
+    private int boardSize;
+
+    @Override
+    public String getName() {
+        return "Scanner+JSONObject load";
+    }
+
+    @Override
+    public boolean setUp(int boardSize, int snakeLength) throws Exception {
+        if (!BenchmarkBoards.fits(boardSize, snakeLength)) {
+            return false;
+        }
+        this.boardSize = boardSize;
+        file = File.createTempFile("snake-bench", ".json");
+        file.deleteOnExit();
+        return JsonSaver.saveGame(file.getPath(), BenchmarkBoards.newGame(boardSize, snakeLength));
+    }
+
+    @Override
+    public long run() throws Exception {
+        Game game = new Game(boardSize, boardSize);
+        StringBuilder jsonString = new StringBuilder();
+        try (Scanner scanner = new Scanner(file)) {
+            while (scanner.hasNextLine()) {
+                jsonString.append(scanner.nextLine());
+            }
+        }
+        JsonLoader.updateGame(game, game.getSnake1(), game.getSnake2(), new JSONObject(jsonString.toString()));
+        return game.getSnake1().getBody().size();
+    }
+}
@@ -0,0 +1,42 @@
+package benchmark;
+
+import java.util.Random;
+
+import model.Game;
+import model.Position;
+import model.Snake;
+
+/**
+ * Measures Snake.hasCollided on random cells of the board
+ */
+public class SnakeCollisionBenchmark implements Benchmark {
+    private static final int PROBES = 1024;
+    private final int[] probes = new int[PROBES];
+    private Snake snake;
+    private int next;
+
+    @Override
+    public String getName() {
+        return "Snake.hasCollided";
+    }
+
+    @Override
+    public boolean setUp(int boardSize, int snakeLength) {
+        if (!BenchmarkBoards.fits(boardSize, snakeLength)) {
+            return false;
+        }
+        Game game = BenchmarkBoards.newGame(boardSize, snakeLength);
+        snake = game.getSnake1();
+        Random random = new Random(42);
+        for (int i = 0; i < PROBES; i++) {
+            probes[i] = Position.pack(random.nextInt(boardSize), random.nextInt(boardSize));
+        }
+        return true;
+    }
+
+    @Override
+    public long run() {
+        next = (next + 1) & (PROBES - 1);
+        return snake.hasCollided(probes[next]) ? 1 : 0;
+    }
+}
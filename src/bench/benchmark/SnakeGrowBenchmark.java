@@ -0,0 +1,45 @@
+package benchmark;
+
+import model.Game;
+import model.Snake;
+
+/**
+ * Measures Snake.grow followed by Snake.move, so that the snake gets one unit
+ * longer per operation while it follows its cycle. The board is set up again
+ * before the snake fills its cycle.
+ */
+public class SnakeGrowBenchmark implements Benchmark {
+    private Game game;
+    private Snake snake;
+    private long maxOps;
+
+    @Override
+    public String getName() {
+        return "Snake.grow";
+    }
+
+    @Override
+    public boolean setUp(int boardSize, int snakeLength) {
+        int cycleLength = boardSize * BenchmarkBoards.regionHeight(boardSize);
+        if (!BenchmarkBoards.fits(boardSize, snakeLength) || cycleLength - snakeLength < 2) {
+            return false;
+        }
+        game = BenchmarkBoards.newGame(boardSize, snakeLength);
+        snake = game.getSnake1();
+        maxOps = cycleLength - snakeLength - 1;
+        return true;
+    }
+
+    @Override
+    public long run() {
+        snake.grow();
+        BenchmarkBoards.steer(game);
+        snake.move();
+        return snake.getHeadCell();
+    }
+
+    @Override
+    public long getMaxOpsPerSetUp() {
+        return maxOps;
+    }
+}
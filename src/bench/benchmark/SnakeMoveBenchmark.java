@@ -0,0 +1,34 @@
+package benchmark;
+
+import model.Game;
+import model.Snake;
+
+/**
+ * Measures Snake.move of a snake following its cycle
+ */
+public class SnakeMoveBenchmark implements Benchmark {
+    private Game game;
+    private Snake snake;
+
+    @Override
+    public String getName() {
+        return "Snake.move";
+    }
+
+    @Override
+    public boolean setUp(int boardSize, int snakeLength) {
+        if (!BenchmarkBoards.fits(boardSize, snakeLength)) {
+            return false;
+        }
+        game = BenchmarkBoards.newGame(boardSize, snakeLength);
+        snake = game.getSnake1();
+        return true;
+    }
+
+    @Override
+    public long run() {
+        BenchmarkBoards.steer(game);
+        snake.move();
+        return snake.getHeadCell();
+    }
+}
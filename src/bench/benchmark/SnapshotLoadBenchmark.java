@@ -0,0 +1,38 @@
+package benchmark;
+
+import java.io.File;
+
+import model.Game;
+import persistence.BinarySnapshot;
+
+/**
+ * Measures BinarySnapshot.loadGame of a saved game with long snakes. Every
+ * operation loads into a new game, like JsonLoadBenchmark.
+ */
+public class SnapshotLoadBenchmark implements Benchmark {
+    private File file;
+    private int boardSize;
+
+    @Override
+    public String getName() {
+        return "BinarySnapshot.loadGame";
+    }
+
+    @Override
+    public boolean setUp(int boardSize, int snakeLength) throws Exception {
+        if (!BenchmarkBoards.fits(boardSize, snakeLength)) {
+            return false;
+        }
+        this.boardSize = boardSize;
+        file = File.createTempFile("snake-bench", ".snap");
+        file.deleteOnExit();
+        return BinarySnapshot.saveGame(file.getPath(), BenchmarkBoards.newGame(boardSize, snakeLength));
+    }
+
+    @Override
+    public long run() {
+        Game game = new Game(boardSize, boardSize);
+        BinarySnapshot.loadGame(file.getPath(), game, game.getSnake1(), game.getSnake2());
+        return game.getSnake1().getBody().size();
+    }
+}
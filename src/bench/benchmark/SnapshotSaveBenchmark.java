@@ -0,0 +1,35 @@
+package benchmark;
+
+import java.io.File;
+
+import model.Game;
+import persistence.BinarySnapshot;
+
+/**
+ * Measures BinarySnapshot.saveGame of a game with long snakes
+ */
+public class SnapshotSaveBenchmark implements Benchmark {
+    private Game game;
+    private File file;
+
+    @Override
+    public String getName() {
+        return "BinarySnapshot.saveGame";
+    }
+
+    @Override
+    public boolean setUp(int boardSize, int snakeLength) throws Exception {
+        if (!BenchmarkBoards.fits(boardSize, snakeLength)) {
+            return false;
+        }
+        game = BenchmarkBoards.newGame(boardSize, snakeLength);
+        file = File.createTempFile("snake-bench", ".snap");
+        file.deleteOnExit();
+        return true;
+    }
+
+    @Override
+    public long run() {
+        return BinarySnapshot.saveGame(file.getPath(), game) ? file.length() : 0;
+    }
+}
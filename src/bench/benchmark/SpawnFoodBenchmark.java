@@ -0,0 +1,36 @@
+package benchmark;
+
+import model.Game;
+import model.Position;
+
+/**
+ * Measures Game.spawnNewFood on a nearly full board: both snakes are as long as
+ * their cycles allow, whatever the requested snake length
+ */
+public class SpawnFoodBenchmark implements Benchmark {
+    private Game game;
+
+    @Override
+    public String getName() {
+        return "Game.spawnNewFood (nearly full)";
+    }
+
+    @Override
+    public boolean setUp(int boardSize, int snakeLength) {
+        if (!BenchmarkBoards.fits(boardSize, snakeLength)) {
+            return false;
+        }
+        int fullLength = boardSize * BenchmarkBoards.regionHeight(boardSize) - 1;
+        game = BenchmarkBoards.newGame(boardSize, fullLength);
+        game.getFood().clear();
+        return true;
+    }
+
+    @Override
+    public long run() {
+        game.spawnNewFood();
+        Position food = game.getFood().iterator().next();
+        game.getFood().remove(food);
+        return food.getPosX();
+    }
+}
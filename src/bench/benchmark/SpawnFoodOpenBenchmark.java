@@ -0,0 +1,35 @@
+package benchmark;
+
+import model.Game;
+import model.Position;
+
+/**
+ * Measures Game.spawnNewFood on a board where the snakes have the requested
+ * length, so that the free cells are spread over the whole board
+ */
+public class SpawnFoodOpenBenchmark implements Benchmark {
+    private Game game;
+
+    @Override
+    public String getName() {
+        return "Game.spawnNewFood (open)";
+    }
+
+    @Override
+    public boolean setUp(int boardSize, int snakeLength) {
+        if (!BenchmarkBoards.fits(boardSize, snakeLength)) {
+            return false;
+        }
+        game = BenchmarkBoards.newGame(boardSize, snakeLength);
+        game.getFood().clear();
+        return true;
+    }
+
+    @Override
+    public long run() {
+        game.spawnNewFood();
+        Position food = game.getFood().iterator().next();
+        game.getFood().remove(food);
+        return food.getPosX();
+    }
+}
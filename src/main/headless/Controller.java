@@ -0,0 +1,20 @@
+package headless;
+
+import model.Direction;
+import model.Game;
+import model.Snake;
+
+/**
+ * Supplies the input for one snake when a game is run without a user interface
+ */
+public interface Controller {
+    /**
+     * EFFECTS: returns the direction the given snake should face for the next
+     * tick, or null to keep its current direction
+     * 
+     * @param game  the game being played
+     * @param snake the snake controlled by this controller
+     * @return the direction for the next tick, or null to keep the current one
+     */
+    Direction nextDirection(Game game, Snake snake);
+}
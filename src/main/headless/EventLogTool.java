@@ -0,0 +1,129 @@
+package headless;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+import model.Event;
+import model.EventCategory;
+import persistence.BinaryEventEncoder;
+import persistence.BinaryEventReader;
+
+/**
+ * Reads and combines binary event logs (see BinaryEventEncoder) from the
+ * command line. Logs are streamed, so they can be larger than memory.
+ * usage: EventLogTool dump file [--match id] [--category c] [--snake name]
+ * or: EventLogTool merge output input... (events keep their match ids)
+ */
+public class EventLogTool {
+    private long matchId = -1;
+    private EventCategory category;
+    private String snake;
+
+    /**
+     * EFFECTS: runs the command given by the command line arguments
+     * 
+     * @param args the command line arguments
+     * @throws IOException if a log cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 2 && args[0].equals("dump")) {
+            EventLogTool tool = new EventLogTool();
+            tool.parseFilter(args);
+            System.out.println(tool.dump(args[1]) + " matching events");
+        } else if (args.length >= 3 && args[0].equals("merge")) {
+            System.out.println(merge(args) + " events merged");
+        } else {
+            System.out.println("usage: EventLogTool dump file [--match id] [--category c] [--snake name]");
+            System.out.println("   or: EventLogTool merge output input...");
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: reads the filter options that follow the file name
+     * 
+     * @param args the command line arguments
+     */
+    private void parseFilter(String[] args) {
+        for (int i = 2; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--match":
+                    matchId = Long.parseLong(args[i + 1]);
+                    break;
+                case "--category":
+                    category = EventCategory.valueOf(args[i + 1].toUpperCase(Locale.ROOT));
+                    break;
+                case "--snake":
+                    snake = args[i + 1];
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+    }
+
+    /**
+     * EFFECTS: prints the events of the given log that match the filter and
+     * returns how many there were
+     * 
+     * @param path the log to read
+     * @return the number of matching events
+     * @throws IOException if the log cannot be read
+     */
+    private long dump(String path) throws IOException {
+        long count = 0;
+        try (BinaryEventReader reader = new BinaryEventReader(path)) {
+            while (reader.advance()) {
+                if (matches(reader)) {
+                    Event event = reader.toEvent();
+                    System.out.println(reader.getMatchId() + "\t" + event.getDate() + "\t" + event.getDescription());
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * EFFECTS: returns whether the current event of the reader matches the
+     * filter; no event is built for events that do not
+     * 
+     * @param reader the reader
+     * @return whether the current event matches
+     */
+    private boolean matches(BinaryEventReader reader) {
+        return (matchId < 0 || reader.getMatchId() == matchId)
+                && (category == null || reader.getType().getCategory() == category)
+                && (snake == null || snake.equals(reader.getSnakeName()));
+    }
+
+    /**
+     * EFFECTS: writes the events of the input logs into one output log, each
+     * with the match id it was logged with, and returns the number of events
+     * written
+     * 
+     * @param args merge, the output file and the input files
+     * @return the number of events written
+     * @throws IOException if a log cannot be read or written
+     */
+    private static long merge(String[] args) throws IOException {
+        long count = 0;
+        BinaryEventEncoder encoder = new BinaryEventEncoder();
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(Paths.get(args[1])), 1 << 16)) {
+            out.write(encoder.startFile());
+            for (int i = 2; i < args.length; i++) {
+                try (BinaryEventReader reader = new BinaryEventReader(args[i])) {
+                    while (reader.advance()) {
+                        out.write(encoder.encode(reader.toEvent()));
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,92 @@
+package headless;
+
+import java.util.List;
+import java.util.Locale;
+
+import model.Event;
+import model.EventCategory;
+import model.EventIndex;
+import model.EventLog;
+import model.Game;
+
+/**
+ * Runs headless games and then queries their event log from the command line.
+ * usage: EventQueryTool [--games 10] [--ticks 1000] [--category achievement]
+ * [--snake two] [--last 300]
+ * where --last is the length of the time range in seconds, ending now.
+ */
+public class EventQueryTool {
+    private int numGames = 10;
+    private long maxTicks = 1000;
+    private EventCategory category;
+    private String snake;
+    private long lastMillis = Long.MAX_VALUE;
+
+    /**
+     * EFFECTS: runs the games and prints the events that match the query given
+     * by the command line arguments
+     * 
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        EventQueryTool tool = new EventQueryTool();
+        tool.parseArguments(args);
+        tool.runGames();
+        for (Event event : tool.query(new EventIndex(EventLog.getInstance()))) {
+            System.out.println(event.getDate() + "\t" + event.getDescription());
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: reads the options from the command line arguments
+     * 
+     * @param args the command line arguments
+     */
+    private void parseArguments(String[] args) {
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--games":
+                    numGames = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--ticks":
+                    maxTicks = Long.parseLong(args[i + 1]);
+                    break;
+                case "--category":
+                    category = EventCategory.valueOf(args[i + 1].toUpperCase(Locale.ROOT));
+                    break;
+                case "--snake":
+                    snake = args[i + 1];
+                    break;
+                case "--last":
+                    lastMillis = Long.parseLong(args[i + 1]) * 1000;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+    }
+
+    /**
+     * EFFECTS: runs the games, which log their events to the event log
+     */
+    private void runGames() {
+        HeadlessRunner runner = new HeadlessRunner(() -> new Game(50, 30), GreedyController::new,
+                GreedyController::new, maxTicks);
+        System.out.println(runner.runParallel(numGames));
+    }
+
+    /**
+     * MODIFIES: index
+     * EFFECTS: returns the events that match the query
+     * 
+     * @param index the index of the event log
+     * @return the matching events
+     */
+    private List<Event> query(EventIndex index) {
+        long from = lastMillis == Long.MAX_VALUE ? Long.MIN_VALUE : System.currentTimeMillis() - lastMillis;
+        List<Event> events = index.query(from, Long.MAX_VALUE, category, snake);
+        System.out.println(events.size() + " matching events");
+        return events;
+    }
+}
@@ -0,0 +1,62 @@
+package headless;
+
+import model.Direction;
+import model.Game;
+import model.Position;
+import model.Snake;
+
+/**
+ * A simple bot that heads for the food along the shortest path and avoids
+ * walls and snakes that are right in front of it
+ */
+public class GreedyController implements Controller {
+    private static final Direction[] MOVES = { Direction.UP, Direction.DOWN, Direction.LEFT, Direction.RIGHT };
+
+    /**
+     * EFFECTS: returns the safe direction that gets the snake closest to the food,
+     * or null if no direction is safe
+     */
+    @Override
+    public Direction nextDirection(Game game, Snake snake) {
+        Position target = game.getFood().isEmpty() ? null : game.getFood().iterator().next();
+        Direction best = null;
+        int bestDistance = Integer.MAX_VALUE;
+        for (Direction direction : MOVES) {
+            int next = direction.move(snake.getHeadCell());
+            if (!isSafe(game, next)) {
+                continue;
+            }
+            int distance = target == null ? 0 : distance(next, target);
+            if (distance < bestDistance) {
+                best = direction;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * EFFECTS: returns whether moving a head onto the given cell does not end the
+     * game right away
+     * 
+     * @param game the game being played
+     * @param cell the packed coordinates of the cell
+     * @return whether the cell is safe to move onto
+     */
+    private static boolean isSafe(Game game, int cell) {
+        return !game.isOutOfBounds(cell)
+                && !game.getSnake1().hasCollided(cell)
+                && !game.getSnake2().hasCollided(cell);
+    }
+
+    /**
+     * EFFECTS: returns the manhattan distance between a cell and a position
+     * 
+     * @param cell the packed coordinates of the cell
+     * @param pos  the position
+     * @return the manhattan distance between them
+     */
+    private static int distance(int cell, Position pos) {
+        return Math.abs(Position.unpackX(cell) - pos.getPosX()) + Math.abs(Position.unpackY(cell) - pos.getPosY());
+    }
+}
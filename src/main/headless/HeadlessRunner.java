@@ -0,0 +1,175 @@
+package headless;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+import model.Direction;
+import model.Game;
+import model.Snake;
+
+/**
+ * Runs games without a user interface as fast as the CPU allows. The input of
+ * each snake comes from a pluggable controller. Many independent games can be
+ * run in parallel on a fork-join pool for load testing and bot evaluation.
+ */
+public class HeadlessRunner {
+    private final Supplier<Game> games;
+    private final Supplier<Controller> controllers1;
+    private final Supplier<Controller> controllers2;
+    private final long maxTicks;
+
+    /**
+     * REQUIRE: all suppliers return a new, independent object on every call;
+     * maxTicks is a positive integer
+     * EFFECTS: constructs a runner that plays the games made by the given
+     * supplier with the controllers made by the given suppliers
+     * 
+     * @param games        the supplier of the games to run
+     * @param controllers1 the supplier of controllers for the first snake
+     * @param controllers2 the supplier of controllers for the second snake
+     * @param maxTicks     the maximum number of ticks a single game is run for
+     */
+    public HeadlessRunner(Supplier<Game> games, Supplier<Controller> controllers1,
+            Supplier<Controller> controllers2, long maxTicks) {
+        this.games = games;
+        this.controllers1 = controllers1;
+        this.controllers2 = controllers2;
+        this.maxTicks = maxTicks;
+    }
+
+    /**
+     * EFFECTS: runs a single game on the current thread until it ends or reaches
+     * the tick limit and returns the result
+     * 
+     * @return the result of the game
+     */
+    public SimulationResult run() {
+        Game game = games.get();
+        Controller controller1 = controllers1.get();
+        Controller controller2 = controllers2.get();
+        long start = System.nanoTime();
+        long ticks = play(game, controller1, controller2, maxTicks);
+        long elapsed = System.nanoTime() - start;
+        return new SimulationResult(1, game.isEnded() ? 1 : 0, ticks, elapsed, game.getScore1(),
+                game.getScore2());
+    }
+
+    /**
+     * REQUIRE: maxTicks is a non-negative integer
+     * MODIFIES: game, controller1, controller2
+     * EFFECTS: plays the given game with the given controllers until it ends
+     * or reaches the tick limit and returns the number of ticks played
+     * 
+     * @param game        the game to play
+     * @param controller1 the controller of the first snake
+     * @param controller2 the controller of the second snake
+     * @param maxTicks    the maximum number of ticks to play
+     * @return the number of ticks played
+     */
+    public static long play(Game game, Controller controller1, Controller controller2, long maxTicks) {
+        long ticks = 0;
+        while (!game.isEnded() && ticks < maxTicks) {
+            steer(game, game.getSnake1(), controller1);
+            steer(game, game.getSnake2(), controller2);
+            game.tick();
+            game.updateRoundAchievements();
+            ticks++;
+        }
+        return ticks;
+    }
+
+    /**
+     * REQUIRE: numGames is a positive integer
+     * EFFECTS: runs the given number of independent games in parallel on the
+     * common fork-join pool and returns the combined result
+     * 
+     * @param numGames the number of games to run
+     * @return the combined result of all games
+     */
+    public SimulationResult runParallel(int numGames) {
+        return runParallel(numGames, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * REQUIRE: numGames is a positive integer; pool != null
+     * EFFECTS: runs the given number of independent games in parallel on the
+     * given fork-join pool and returns the combined result
+     * 
+     * @param numGames the number of games to run
+     * @param pool     the pool to run the games on
+     * @return the combined result of all games
+     */
+    public SimulationResult runParallel(int numGames, ForkJoinPool pool) {
+        long start = System.nanoTime();
+        SimulationResult result = pool.invoke(new GamesTask(0, numGames));
+        return result.withElapsedNanos(System.nanoTime() - start);
+    }
+
+    /**
+     * MODIFIES: snake
+     * EFFECTS: turns the snake to the direction chosen by the controller, if any
+     * 
+     * @param game       the game being played
+     * @param snake      the snake to steer
+     * @param controller the controller of the snake
+     */
+    private static void steer(Game game, Snake snake, Controller controller) {
+        Direction direction = controller.nextDirection(game, snake);
+        if (direction != null) {
+            snake.setDirection(direction);
+        }
+    }
+
+    /**
+     * Runs the games in [from, to), splitting the range until a single game is
+     * left
+     */
+    private class GamesTask extends RecursiveTask<SimulationResult> {
+        private static final long serialVersionUID = 1L;
+        private final int from;
+        private final int to;
+
+        /**
+         * EFFECTS: constructs a task that runs the games in [from, to)
+         * 
+         * @param from the first game (inclusive)
+         * @param to   the last game (exclusive)
+         */
+        GamesTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected SimulationResult compute() {
+            if (to - from == 1) {
+                return run();
+            }
+            int middle = (from + to) >>> 1;
+            GamesTask left = new GamesTask(from, middle);
+            left.fork();
+            SimulationResult right = new GamesTask(middle, to).compute();
+            return left.join().combine(right);
+        }
+    }
+
+    /**
+     * EFFECTS: runs greedy bots headlessly and prints the results
+     * usage: HeadlessRunner [games] [maxTicks] [width] [height]
+     * 
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        int numGames = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        long maxTicks = args.length > 1 ? Long.parseLong(args[1]) : 10_000;
+        int width = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+        int height = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+
+        HeadlessRunner runner = new HeadlessRunner(() -> new Game(width, height), GreedyController::new,
+                GreedyController::new, maxTicks);
+        System.out.println("Running " + numGames + " games on " + ForkJoinPool.commonPool().getParallelism()
+                + " threads...");
+        System.out.println(runner.runParallel(numGames));
+    }
+}
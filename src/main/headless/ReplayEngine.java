@@ -0,0 +1,192 @@
+package headless;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+import model.Direction;
+import model.Game;
+import model.Snake;
+import persistence.InputLog;
+
+/**
+ * Plays a recorded game (see InputRecorder) again without a user interface
+ * and as fast as the CPU allows. A game is determined by its seed and the
+ * inputs of its players, so the replay ends in exactly the state the recorded
+ * game ended in. Replays are run with the HeadlessRunner, so many of them can
+ * be run in parallel to benchmark the engine on recorded games. Seeking to a
+ * tick starts from the last keyframe before it, so it plays at most one
+ * keyframe interval of the game.
+ */
+public class ReplayEngine {
+    // how long a replay of a log without an end runs if the game does not end
+    public static final long DEFAULT_MAX_TICKS = 1_000_000;
+    private final InputLog log;
+    private final long maxTicks;
+
+    /**
+     * EFFECTS: constructs an engine that replays the given log
+     *
+     * @param log the recorded game
+     */
+    public ReplayEngine(InputLog log) {
+        this.log = log;
+        this.maxTicks = log.getTicks() >= 0 ? log.getTicks() : DEFAULT_MAX_TICKS;
+    }
+
+    /**
+     * EFFECTS: plays the recorded game again and returns it in its final state
+     *
+     * @return the replayed game
+     */
+    public Game replay() {
+        Game game = log.newGame();
+        HeadlessRunner.play(game, new InputCursor(log, 0), new InputCursor(log, 1), maxTicks);
+        return game;
+    }
+
+    /**
+     * EFFECTS: returns the recorded game in its state before the given tick,
+     * or in its final state if it ended before; starts from the last keyframe
+     * at or before the tick
+     *
+     * @param tick the tick, counting from 0
+     * @return the game
+     * @throws IOException if the keyframe is malformed
+     */
+    public Game seek(long tick) throws IOException {
+        long target = Math.max(0, Math.min(tick, maxTicks));
+        int keyframe = log.findKeyframe(target);
+        if (keyframe < 0) {
+            Game game = log.newGame();
+            advance(game, 0, target);
+            return game;
+        }
+        Game game = log.loadKeyframe(keyframe);
+        advance(game, log.getKeyframeTick(keyframe), target);
+        return game;
+    }
+
+    /**
+     * REQUIRES: game is the recorded game before fromTick and fromTick <= toTick
+     * MODIFIES: game
+     * EFFECTS: plays the recorded ticks from fromTick up to toTick on the given
+     * game, or until it ends; returns the number of ticks played
+     *
+     * @param game     the game
+     * @param fromTick the tick the game is at
+     * @param toTick   the tick to stop before
+     * @return the number of ticks played
+     */
+    public long advance(Game game, long fromTick, long toTick) {
+        return HeadlessRunner.play(game, new InputCursor(log, 0, fromTick), new InputCursor(log, 1, fromTick),
+                toTick - fromTick);
+    }
+
+    /**
+     * EFFECTS: returns the number of ticks the recorded game lasted, or how
+     * long a replay runs if the log has no end
+     *
+     * @return the number of ticks of a replay
+     */
+    public long getMaxTicks() {
+        return maxTicks;
+    }
+
+    /**
+     * EFFECTS: returns a runner whose every game is a replay of the recorded
+     * game
+     *
+     * @return the runner
+     */
+    public HeadlessRunner newRunner() {
+        return new HeadlessRunner(log::newGame, () -> new InputCursor(log, 0), () -> new InputCursor(log, 1),
+                maxTicks);
+    }
+
+    /**
+     * EFFECTS: replays the recorded game in the given file, prints how it
+     * ended and then how fast the given number of replays run in parallel
+     * usage: ReplayEngine file [replays]
+     *
+     * @param args the command line arguments
+     * @throws IOException if the file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("usage: ReplayEngine file [replays]");
+            return;
+        }
+        InputLog log = InputLog.read(args[0]);
+        int replays = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        ReplayEngine engine = new ReplayEngine(log);
+        Game game = engine.replay();
+        System.out.println("Seed " + log.getSeed() + ", " + log.getInputCount() + " inputs: score "
+                + game.getScore1() + " - " + game.getScore2() + (game.isEnded() ? ", ended" : ", not ended"));
+        System.out.println("Running " + replays + " replays on " + ForkJoinPool.commonPool().getParallelism()
+                + " threads...");
+        System.out.println(engine.newRunner().runParallel(replays));
+    }
+
+    /**
+     * Feeds the recorded inputs of one snake to a game, one tick at a time. The
+     * cursor of the first snake also sorts the free cells of the game before
+     * every keyframe tick, as the recorder did (see InputRecorder), so that the
+     * replay spawns the same food
+     */
+    private static class InputCursor implements Controller {
+        private final InputLog log;
+        private final int snake;
+        private long tick;
+        private int next;
+        private int nextKeyframe;
+
+        /**
+         * EFFECTS: constructs a cursor at the first tick of the inputs of the
+         * snake with the given index
+         *
+         * @param log   the recorded game
+         * @param snake the index of the snake, 0 or 1
+         */
+        InputCursor(InputLog log, int snake) {
+            this(log, snake, 0);
+        }
+
+        /**
+         * EFFECTS: constructs a cursor at the given tick of the inputs of the
+         * snake with the given index
+         *
+         * @param log   the recorded game
+         * @param snake the index of the snake, 0 or 1
+         * @param tick  the tick to start at
+         */
+        InputCursor(InputLog log, int snake, long tick) {
+            this.log = log;
+            this.snake = snake;
+            this.tick = tick;
+            this.next = log.findInput(tick);
+            this.nextKeyframe = log.findKeyframe(tick - 1) + 1;
+        }
+
+        /**
+         * MODIFIES: this, game
+         * EFFECTS: returns the direction recorded for the snake before the
+         * current tick, or null if there is none, and moves to the next tick;
+         * sorts the free cells of the game first if the tick has a keyframe
+         */
+        @Override
+        public Direction nextDirection(Game game, Snake ignored) {
+            if (snake == 0 && nextKeyframe < log.getKeyframeCount() && log.getKeyframeTick(nextKeyframe) == tick) {
+                game.sortFreeCells();
+                nextKeyframe++;
+            }
+            Direction direction = null;
+            for (; next < log.getInputCount() && log.getInputTick(next) <= tick; next++) {
+                if (log.getInputSnake(next) == snake) {
+                    direction = log.getInputDirection(next);
+                }
+            }
+            tick++;
+            return direction;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package headless;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import model.Game;
+import persistence.BinarySnapshot;
+import persistence.JsonLoader;
+import persistence.JsonSaver;
+
+/**
+ * Converts saved games between the JSON format and binary snapshots (see
+ * BinarySnapshot) from the command line. The format of the input is detected
+ * from its first bytes and the output is written in the other format. JSON
+ * saves do not record the board size, so it can be given for them.
+ * usage: SaveConverter input output [--board width height] [--pretty]
+ */
+public class SaveConverter {
+    private static final int DEFAULT_WIDTH = 50;
+    private static final int DEFAULT_HEIGHT = 30;
+
+    /**
+     * EFFECTS: converts the save given by the command line arguments
+     *
+     * @param args the command line arguments
+     * @throws IOException if the input cannot be read or is not a valid save
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("usage: SaveConverter input output [--board width height] [--pretty]");
+            return;
+        }
+        int width = DEFAULT_WIDTH;
+        int height = DEFAULT_HEIGHT;
+        boolean pretty = false;
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].equals("--board") && i + 2 < args.length) {
+                width = Integer.parseInt(args[++i]);
+                height = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--pretty")) {
+                pretty = true;
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        convert(args[0], args[1], width, height, pretty);
+    }
+
+    /**
+     * EFFECTS: converts the save at input into the other format and writes it
+     * to output; returns whether the output was written
+     *
+     * @param input  the save to convert
+     * @param output the path to write the converted save to
+     * @param width  the board width for JSON input
+     * @param height the board height for JSON input
+     * @param pretty whether JSON output is indented
+     * @return whether the output was written
+     * @throws IOException if the input cannot be read or is not a valid save
+     */
+    public static boolean convert(String input, String output, int width, int height, boolean pretty)
+            throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(Paths.get(input)));
+        if (BinarySnapshot.isSnapshot(bytes)) {
+            return JsonSaver.saveGame(output, BinarySnapshot.decodeNewGame(bytes), pretty);
+        }
+        Game game = new Game(width, height);
+        // the save brings its own food
+        game.getFood().clear();
+        if (!JsonLoader.loadGame(input, game, game.getSnake1(), game.getSnake2())) {
+            throw new IOException("Cannot read " + input);
+        }
+        return BinarySnapshot.saveGame(output, game);
+    }
+}
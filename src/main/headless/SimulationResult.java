@@ -0,0 +1,127 @@
+package headless;
+
+/**
+ * The outcome of one or more games run by the headless runner
+ */
+public class SimulationResult {
+    private final int games;
+    private final int endedGames;
+    private final long ticks;
+    private final long elapsedNanos;
+    private final long score1;
+    private final long score2;
+
+    /**
+     * REQUIRE: all arguments are non-negative
+     * EFFECTS: constructs a result with the given totals
+     * 
+     * @param games        the number of games run
+     * @param endedGames   the number of games that ended before the tick limit
+     * @param ticks        the total number of ticks over all games
+     * @param elapsedNanos the wall-clock time it took to run the games
+     * @param score1       the total score of the first snakes
+     * @param score2       the total score of the second snakes
+     */
+    public SimulationResult(int games, int endedGames, long ticks, long elapsedNanos, long score1, long score2) {
+        this.games = games;
+        this.endedGames = endedGames;
+        this.ticks = ticks;
+        this.elapsedNanos = elapsedNanos;
+        this.score1 = score1;
+        this.score2 = score2;
+    }
+
+    /**
+     * EFFECTS: returns the combined result of this and another result that ran at
+     * the same time, so the elapsed time is the longer of the two
+     * 
+     * @param other the other result
+     * @return the combined result
+     */
+    public SimulationResult combine(SimulationResult other) {
+        return new SimulationResult(games + other.games, endedGames + other.endedGames, ticks + other.ticks,
+                Math.max(elapsedNanos, other.elapsedNanos), score1 + other.score1, score2 + other.score2);
+    }
+
+    /**
+     * EFFECTS: returns a copy of this result with the given elapsed time
+     * 
+     * @param nanos the wall-clock time in nanoseconds
+     * @return a copy of this result with the given elapsed time
+     */
+    public SimulationResult withElapsedNanos(long nanos) {
+        return new SimulationResult(games, endedGames, ticks, nanos, score1, score2);
+    }
+
+    /**
+     * EFFECTS: returns the number of ticks per second over all games
+     * 
+     * @return the number of ticks per second
+     */
+    public double getTicksPerSecond() {
+        return elapsedNanos == 0 ? 0 : ticks * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * EFFECTS: returns the number of games run
+     * 
+     * @return the number of games run
+     */
+    public int getGames() {
+        return games;
+    }
+
+    /**
+     * EFFECTS: returns the number of games that ended before the tick limit
+     * 
+     * @return the number of games that ended before the tick limit
+     */
+    public int getEndedGames() {
+        return endedGames;
+    }
+
+    /**
+     * EFFECTS: returns the total number of ticks
+     * 
+     * @return the total number of ticks
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * EFFECTS: returns the wall-clock time in nanoseconds
+     * 
+     * @return the wall-clock time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * EFFECTS: returns the total score of the first snakes
+     * 
+     * @return the total score of the first snakes
+     */
+    public long getScore1() {
+        return score1;
+    }
+
+    /**
+     * EFFECTS: returns the total score of the second snakes
+     * 
+     * @return the total score of the second snakes
+     */
+    public long getScore2() {
+        return score2;
+    }
+
+    @Override
+    public String toString() {
+        return "Games: " + games + " (" + endedGames + " ended)"
+                + "\nTicks: " + ticks
+                + "\nElapsed: " + elapsedNanos / 1_000_000 + " ms"
+                + "\nTicks per second: " + Math.round(getTicksPerSecond())
+                + "\nScore 1: " + score1 + ", Score 2: " + score2;
+    }
+}
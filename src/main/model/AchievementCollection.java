@@ -1,20 +1,31 @@
 package model;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.json.JSONObject;
 
 import model.achievements.Achievement;
+import model.achievements.Stat;
 import model.achievements.StatisticalAchievement;
+import persistence.JsonStreamWriter;
 import persistence.Jsonizable;
 
 /**
  * AchievementCollection is a collection of achievements that can be earned by
  * the player.
  * It provides methods to add unique achievements and get achievements.
+ * Achievements are kept in the order they were added and indexed by snake and
+ * title, so lookups do not depend on the number of achievements.
  */
 public class AchievementCollection implements Jsonizable {
     private final ArrayList<Achievement> achievements;
+    // achievements of each snake by title
+    private final Map<Snake, Map<String, Achievement>> index;
+    // statistical achievements of each snake indexed by Stat.ordinal()
+    private final Map<Snake, StatisticalAchievement[]> stats;
 
     /**
      * REQUIRE: snake is a valid snake
@@ -26,6 +37,8 @@ public class AchievementCollection implements Jsonizable {
      */
     public AchievementCollection(Snake snake1, Snake snake2) {
         this.achievements = new ArrayList<>();
+        this.index = new HashMap<>();
+        this.stats = new HashMap<>();
         setUpStats(snake1, snake2);
     }
 
@@ -41,9 +54,9 @@ public class AchievementCollection implements Jsonizable {
      */
     public void setUpStats(Snake snake1, Snake snake2) {
         setUpStats(snake1);
-        EventLog.getInstance().logEvent(new Event("Initialized statistical achievements for " + snake1.getName()));
+        EventLog.getInstance().log(snake1.getMatchId(), EventType.STATS_INITIALIZED, snake1.getName(), null, 0);
         setUpStats(snake2);
-        EventLog.getInstance().logEvent(new Event("Initialized statistical achievements for " + snake2.getName()));
+        EventLog.getInstance().log(snake2.getMatchId(), EventType.STATS_INITIALIZED, snake2.getName(), null, 0);
     }
 
     /**
@@ -54,30 +67,45 @@ public class AchievementCollection implements Jsonizable {
      * @param snake the snake
      */
     private void setUpStats(Snake snake) {
-        achievements.add(new StatisticalAchievement("Key Stroke", "Number of keys pressed", snake, 0));
-        achievements.add(new StatisticalAchievement("Step Upwards", "Number of steps going upwards", snake, 0));
-        achievements.add(new StatisticalAchievement("Step Downwards", "Number of steps going downwards", snake, 0));
-        achievements.add(new StatisticalAchievement("Step Leftwards", "Number of steps going leftwards", snake, 0));
-        achievements.add(new StatisticalAchievement("Step Rightwards", "Number of steps going rightwards", snake, 0));
-        achievements.add(new StatisticalAchievement("Total Rounds", "Number of rounds played", snake, 0));
-        achievements.add(new StatisticalAchievement("Apples Eaten", "Number of apples eaten", snake, 0));
+        StatisticalAchievement[] snakeStats = new StatisticalAchievement[Stat.values().length];
+        for (Stat stat : Stat.values()) {
+            snakeStats[stat.ordinal()] = new StatisticalAchievement(stat.getTitle(), stat.getDescription(), snake, 0);
+            put(snakeStats[stat.ordinal()]);
+        }
+        stats.put(snake, snakeStats);
+    }
+
+    /**
+     * REQUIRES: achievement != null and the collection has no achievement with
+     * the same title and snake
+     * MODIFIES: this
+     * EFFECTS: appends the given achievement and indexes it by snake and title
+     * 
+     * @param achievement the achievement to be added
+     */
+    private void put(Achievement achievement) {
+        achievements.add(achievement);
+        index.computeIfAbsent(achievement.getSnake(), snake -> new HashMap<>()).put(achievement.getTitle(),
+                achievement);
     }
 
     /**
      * REQUIRES: achievement != null
-     * EFFECTS: adds the given achievement to the collection if it is not already in
-     * the collection
+     * EFFECTS: adds the given achievement to the collection unless the collection
+     * already has an achievement with the same title for the same snake
      * 
      * @param achievement the achievement to be added
      * @return true if the achievement was added, false otherwise
      */
     public boolean addAchievement(Achievement achievement) {
-        if (!this.achievements.contains(achievement)) {
-            this.achievements.add(achievement);
-            EventLog.getInstance().logEvent(new Event("Added achievement " + achievement.getTitle()));
+        if (getAchievement(achievement.getTitle(), achievement.getSnake()) == null) {
+            put(achievement);
+            EventLog.getInstance().log(achievement.getSnake().getMatchId(), EventType.ACHIEVEMENT_ADDED,
+                    achievement.getTitle(), achievement.getSnake().getName(), 0);
             return true;
         }
-        EventLog.getInstance().logEvent(new Event("Failed to add achievement " + achievement.getTitle()));
+        EventLog.getInstance().log(achievement.getSnake().getMatchId(), EventType.ACHIEVEMENT_REJECTED,
+                achievement.getTitle(), achievement.getSnake().getName(), 0);
         return false;
     }
 
@@ -101,12 +129,23 @@ public class AchievementCollection implements Jsonizable {
      *         exist
      */
     public Achievement getAchievement(String title, Snake snake) {
-        for (Achievement achievement : this.achievements) {
-            if (achievement.getTitle().equals(title) && achievement.getSnake().equals(snake)) {
-                return achievement;
-            }
-        }
-        return null;
+        Map<String, Achievement> byTitle = index.get(snake);
+        return byTitle == null ? null : byTitle.get(title);
+    }
+
+    /**
+     * REQUIRES: stat != null
+     * EFFECTS: returns the statistical achievement of the given snake for the
+     * given stat, null if the snake has no statistical achievements in this
+     * collection. The result can be kept and updated directly.
+     * 
+     * @param stat  the stat
+     * @param snake the snake of the achievement
+     * @return the statistical achievement of the snake for the stat
+     */
+    public StatisticalAchievement getStat(Stat stat, Snake snake) {
+        StatisticalAchievement[] snakeStats = stats.get(snake);
+        return snakeStats == null ? null : snakeStats[stat.ordinal()];
     }
 
     /**
@@ -131,4 +170,22 @@ public class AchievementCollection implements Jsonizable {
         }
         return json;
     }
+
+    /**
+     * EFFECTS: writes the JSON representation of the achievement collection to
+     * the given writer without building it first
+     */
+    @Override
+    public void writeJson(JsonStreamWriter writer) throws IOException {
+        writer.beginObject();
+        // like toJson, there is no achievements key while the collection is empty
+        if (!this.achievements.isEmpty()) {
+            writer.name("achievements").beginArray();
+            for (Achievement achievement : this.achievements) {
+                writer.value(achievement);
+            }
+            writer.endArray();
+        }
+        writer.endObject();
+    }
 }
@@ -0,0 +1,150 @@
+package model;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * A growable circular buffer of packed cell coordinates (see Position.pack).
+ * Adding or removing at either end is O(1) and does not allocate unless the
+ * buffer has to grow. Index 0 is the first (oldest) element.
+ */
+public class CellRing {
+    private static final int INITIAL_CAPACITY = 16;
+    // capacity is always a power of two so indices can be wrapped with a mask
+    private int[] cells;
+    private int first;
+    private int size;
+
+    /**
+     * EFFECTS: constructs an empty buffer
+     */
+    public CellRing() {
+        this.cells = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: adds the given cell after the last element
+     *
+     * @param cell the packed coordinates to add
+     */
+    public void addLast(int cell) {
+        ensureCapacity();
+        cells[(first + size) & (cells.length - 1)] = cell;
+        size++;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: adds the given cell before the first element
+     *
+     * @param cell the packed coordinates to add
+     */
+    public void addFirst(int cell) {
+        ensureCapacity();
+        first = (first - 1) & (cells.length - 1);
+        cells[first] = cell;
+        size++;
+    }
+
+    /**
+     * REQUIRE: size() > 0
+     * MODIFIES: this
+     * EFFECTS: removes and returns the first element
+     *
+     * @return the packed coordinates that were removed
+     */
+    public int removeFirst() {
+        int cell = cells[first];
+        first = (first + 1) & (cells.length - 1);
+        size--;
+        return cell;
+    }
+
+    /**
+     * REQUIRE: 0 <= index < size()
+     * EFFECTS: returns the element at the given index
+     *
+     * @param index the index, 0 being the first element
+     * @return the packed coordinates at the index
+     */
+    public int get(int index) {
+        return cells[(first + index) & (cells.length - 1)];
+    }
+
+    /**
+     * EFFECTS: returns whether the buffer contains the given cell
+     *
+     * @param cell the packed coordinates
+     * @return whether the buffer contains the given cell
+     */
+    public boolean contains(int cell) {
+        for (int i = 0; i < size; i++) {
+            if (get(i) == cell) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * EFFECTS: returns the number of elements
+     *
+     * @return the number of elements
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * EFFECTS: returns a copy of the elements in order
+     *
+     * @return a new array with the packed coordinates, first element first
+     */
+    public int[] toArray() {
+        int[] copy = new int[size];
+        int firstPart = Math.min(size, cells.length - first);
+        System.arraycopy(cells, first, copy, 0, firstPart);
+        System.arraycopy(cells, 0, copy, firstPart, size - firstPart);
+        return copy;
+    }
+
+    /**
+     * EFFECTS: returns a read-only list view of the buffer as positions; the view
+     * follows later changes to the buffer
+     *
+     * @return a read-only list view of the buffer
+     */
+    public List<Position> asPositions() {
+        return new AbstractList<>() {
+            @Override
+            public Position get(int index) {
+                if (index < 0 || index >= size) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+                }
+                return Position.unpack(CellRing.this.get(index));
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: doubles the capacity if the buffer is full, keeping the order
+     */
+    private void ensureCapacity() {
+        if (size < cells.length) {
+            return;
+        }
+        int[] grown = new int[cells.length * 2];
+        for (int i = 0; i < size; i++) {
+            grown[i] = get(i);
+        }
+        cells = grown;
+        first = 0;
+    }
+}
@@ -1,7 +1,10 @@
 package model;
 
+import java.io.IOException;
+
 import org.json.JSONObject;
 
+import persistence.JsonStreamWriter;
 import persistence.Jsonizable;
 
 /**
@@ -44,6 +47,19 @@ public enum Direction implements Jsonizable {
                 pos.getPosY() + directY);
     }
 
+    /**
+     * EFFECTS: returns the packed coordinates that are one step in the direction
+     * of this direction from the given packed coordinates
+     * 
+     * @param cell the packed coordinates
+     * @return the packed coordinates one step in this direction
+     */
+    public int move(int cell) {
+        return Position.pack(
+                Position.unpackX(cell) + directX,
+                Position.unpackY(cell) + directY);
+    }
+
     /**
      * EFFECTS: returns the JSON representation of this direction
      */
@@ -54,4 +70,17 @@ public enum Direction implements Jsonizable {
         json.put("directY", directY);
         return json;
     }
+
+    /**
+     * EFFECTS: writes the JSON representation of this direction to the given
+     * writer
+     */
+    @Override
+    public void writeJson(JsonStreamWriter writer) throws IOException {
+        writer.beginObject();
+        writer.name("name").value(this.name());
+        writer.name("directX").value(directX);
+        writer.name("directY").value(directY);
+        writer.endObject();
+    }
 }
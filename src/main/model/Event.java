@@ -1,15 +1,27 @@
 package model;
 
-import java.util.Calendar;
 import java.util.Date;
 
 
 /**
  * Represents an alarm system event.
+ * An event only records the time, the match it belongs to, its type and the
+ * arguments of its description; the description itself is built the first
+ * time it is read.
  */
 public class Event {
+    /**
+     * the match id of events that do not belong to a match
+     */
+    public static final long NO_MATCH = 0;
     private static final int HASH_CONSTANT = 13;
-    private Date dateLogged;
+    private final long timeLogged;
+    private final long matchId;
+    private final EventType type;
+    private final String first;
+    private final String second;
+    private final double value;
+    // built from type and the arguments on first use
     private String description;
 
     /**
@@ -19,17 +31,139 @@ public class Event {
      * @param description a description of the event
      */
     public Event(String description) {
-        dateLogged = Calendar.getInstance().getTime();
+        this(EventType.MESSAGE, description, null, 0);
         this.description = description;
     }
 
+    /**
+     * Creates an event of the given type with the given string argument and the
+     * current date/time stamp.
+     *
+     * @param type  the type of the event
+     * @param first the argument of the description, or null if there is none
+     */
+    public Event(EventType type, String first) {
+        this(type, first, null, 0);
+    }
+
+    /**
+     * Creates an event of the given type with the given arguments and the
+     * current date/time stamp.
+     *
+     * @param type   the type of the event
+     * @param first  the first string argument of the description
+     * @param second the second string argument of the description
+     * @param value  the numeric argument of the description
+     */
+    public Event(EventType type, String first, String second, double value) {
+        this(System.currentTimeMillis(), NO_MATCH, type, first, second, value);
+    }
+
+    /**
+     * Creates an event of the given type with the given arguments that was
+     * logged at the given time, e.g. when reading a saved log.
+     *
+     * @param timeLogged the time of the event in milliseconds since the epoch
+     * @param type       the type of the event
+     * @param first      the first string argument of the description
+     * @param second     the second string argument of the description
+     * @param value      the numeric argument of the description
+     */
+    public Event(long timeLogged, EventType type, String first, String second, double value) {
+        this(timeLogged, NO_MATCH, type, first, second, value);
+    }
+
+    /**
+     * Creates an event of the given match and type with the given arguments
+     * that was logged at the given time, e.g. when reading a saved log.
+     *
+     * @param timeLogged the time of the event in milliseconds since the epoch
+     * @param matchId    the id of the match of the event, or NO_MATCH
+     * @param type       the type of the event
+     * @param first      the first string argument of the description
+     * @param second     the second string argument of the description
+     * @param value      the numeric argument of the description
+     */
+    public Event(long timeLogged, long matchId, EventType type, String first, String second, double value) {
+        this.timeLogged = timeLogged;
+        this.matchId = matchId;
+        this.type = type;
+        this.first = first;
+        this.second = second;
+        this.value = value;
+    }
+
     /**
      * Gets the date of this event (includes time).
      *
      * @return the date of the event
      */
     public Date getDate() {
-        return dateLogged;
+        return new Date(timeLogged);
+    }
+
+    /**
+     * Gets the time of this event in milliseconds since the epoch.
+     *
+     * @return the time of the event
+     */
+    public long getTime() {
+        return timeLogged;
+    }
+
+    /**
+     * Gets the id of the match this event belongs to.
+     *
+     * @return the match id of the event, or NO_MATCH
+     */
+    public long getMatchId() {
+        return matchId;
+    }
+
+    /**
+     * Gets the type of this event.
+     *
+     * @return the type of the event
+     */
+    public EventType getType() {
+        return type;
+    }
+
+    /**
+     * Gets the first string argument of the description of this event.
+     *
+     * @return the first string argument, or null if there is none
+     */
+    public String getFirstArgument() {
+        return first;
+    }
+
+    /**
+     * Gets the second string argument of the description of this event.
+     *
+     * @return the second string argument, or null if there is none
+     */
+    public String getSecondArgument() {
+        return second;
+    }
+
+    /**
+     * Gets the numeric argument of the description of this event.
+     *
+     * @return the numeric argument
+     */
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * Gets the name of the snake this event is about.
+     *
+     * @return the name of the snake of the event, or null if it is not about a
+     *         snake
+     */
+    public String getSnakeName() {
+        return type.snakeOf(first, second);
     }
 
     /**
@@ -38,6 +172,9 @@ public class Event {
      * @return the description of the event
      */
     public String getDescription() {
+        if (description == null) {
+            description = type.describe(first, second, value);
+        }
         return description;
     }
 
@@ -53,17 +190,18 @@ public class Event {
 
         Event otherEvent = (Event) other;
 
-        return (this.dateLogged.equals(otherEvent.dateLogged)
-                && this.description.equals(otherEvent.description));
+        return (this.timeLogged == otherEvent.timeLogged
+                && this.matchId == otherEvent.matchId
+                && this.getDescription().equals(otherEvent.getDescription()));
     }
 
     @Override
     public int hashCode() {
-        return (HASH_CONSTANT * dateLogged.hashCode() + description.hashCode());
+        return (HASH_CONSTANT * Long.hashCode(timeLogged) + getDescription().hashCode());
     }
 
     @Override
     public String toString() {
-        return dateLogged.toString() + "\n" + description;
+        return getDate().toString() + "\n" + getDescription();
     }
 }
@@ -0,0 +1,24 @@
+package model;
+
+/**
+ * The categories of logged events, from rare to frequent. The event log can
+ * keep, sample or drop each category (see EventFilter).
+ */
+public enum EventCategory {
+    /**
+     * free-form messages
+     */
+    MESSAGE,
+    /**
+     * games and the event log starting and ending
+     */
+    LIFECYCLE,
+    /**
+     * achievements being unlocked
+     */
+    ACHIEVEMENT,
+    /**
+     * statistical achievements being updated, several times per tick
+     */
+    STATISTIC
+}
@@ -0,0 +1,123 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Decides which events are logged. Each category is kept completely, dropped
+ * completely or sampled, keeping one in every n events of that category.
+ * The filter is consulted before an event is constructed (see
+ * EventLog.shouldLog), so dropped events cost almost nothing.
+ * A filter can be given at start-up with the system property
+ * snake.eventFilter, e.g. -Dsnake.eventFilter=statistic=0,achievement=1 drops
+ * all statistic events and keeps all achievement events.
+ */
+public class EventFilter {
+    /**
+     * the system property that holds the filter used at start-up
+     */
+    public static final String PROPERTY = "snake.eventFilter";
+    // 0 drops the category, 1 keeps every event, n keeps one in every n events
+    private final int[] sampleEvery;
+    private final AtomicLongArray seen;
+
+    /**
+     * EFFECTS: constructs a filter that keeps every event
+     */
+    public EventFilter() {
+        this.sampleEvery = new int[EventCategory.values().length];
+        this.seen = new AtomicLongArray(sampleEvery.length);
+        Arrays.fill(sampleEvery, 1);
+    }
+
+    /**
+     * REQUIRES: every >= 0
+     * MODIFIES: this
+     * EFFECTS: keeps one in every given number of events of the given category;
+     * 0 drops the category and 1 keeps all of it
+     *
+     * @param category the category
+     * @param every    keep one in this many events
+     * @return this filter
+     */
+    public EventFilter setSampling(EventCategory category, int every) {
+        sampleEvery[category.ordinal()] = every;
+        return this;
+    }
+
+    /**
+     * EFFECTS: returns one in how many events of the given category are kept,
+     * 0 if the category is dropped
+     *
+     * @param category the category
+     * @return one in how many events of the category are kept
+     */
+    public int getSampling(EventCategory category) {
+        return sampleEvery[category.ordinal()];
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: returns whether the next event of the given category should be
+     * logged
+     *
+     * @param category the category of the event
+     * @return whether the event should be logged
+     */
+    public boolean accept(EventCategory category) {
+        int every = sampleEvery[category.ordinal()];
+        if (every <= 1) {
+            return every == 1;
+        }
+        return seen.getAndIncrement(category.ordinal()) % every == 0;
+    }
+
+    /**
+     * EFFECTS: returns the filter described by the given specification, a comma
+     * separated list of category=n entries; categories that are not listed keep
+     * every event
+     *
+     * @param spec the specification of the filter
+     * @return the filter
+     * @throws IllegalArgumentException if the specification is malformed
+     */
+    public static EventFilter parse(String spec) {
+        EventFilter filter = new EventFilter();
+        for (String entry : spec.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid event filter entry: " + entry);
+            }
+            EventCategory category = EventCategory.valueOf(parts[0].trim().toUpperCase(Locale.ROOT));
+            int every = Integer.parseInt(parts[1].trim());
+            if (every < 0) {
+                throw new IllegalArgumentException("Invalid event sampling: " + entry);
+            }
+            filter.setSampling(category, every);
+        }
+        return filter;
+    }
+
+    /**
+     * EFFECTS: returns the filter given by the system property, or a filter that
+     * keeps every event if the property is not set or malformed
+     *
+     * @return the filter for start-up
+     */
+    public static EventFilter fromSystemProperty() {
+        String spec = System.getProperty(PROPERTY);
+        if (spec == null) {
+            return new EventFilter();
+        }
+        try {
+            return parse(spec);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+            return new EventFilter();
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Indexes the events of an event log by time, category and snake so that
+ * queries like "all achievement unlocks of snake two in the last five minutes"
+ * only look at matching events. The index remembers the sequence numbers of
+ * the events (see EventLog.get); new events are added to the index before
+ * every query, so logging itself stays lock-free, and events that drop out of
+ * the log are dropped from the index.
+ */
+public class EventIndex {
+    /**
+     * the width of a time bucket in milliseconds
+     */
+    public static final long BUCKET_MILLIS = 1000;
+    private final EventLog log;
+    // the next sequence number to index
+    private long indexed;
+    private final SequenceList[] byCategory;
+    private final Map<String, SequenceList> bySnake = new HashMap<>();
+    // bucketKeys.get(i) is a time bucket, bucketStarts.get(i) the first event at or
+    // after that bucket; later events may be slightly older (clocks of threads)
+    private final SequenceList bucketKeys = new SequenceList();
+    private final SequenceList bucketStarts = new SequenceList();
+
+    /**
+     * REQUIRES: log != null
+     * EFFECTS: constructs an index over the given event log
+     *
+     * @param log the event log to index
+     */
+    public EventIndex(EventLog log) {
+        this.log = log;
+        this.byCategory = new SequenceList[EventCategory.values().length];
+        for (int i = 0; i < byCategory.length; i++) {
+            byCategory[i] = new SequenceList();
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: returns the events in the log that were logged in the given time
+     * range and match the given category and snake, in the order they were
+     * logged
+     *
+     * @param fromMillis the start of the time range (inclusive), in milliseconds
+     *                   since the epoch
+     * @param toMillis   the end of the time range (exclusive)
+     * @param category   the category of the events, or null for any category
+     * @param snake      the name of the snake of the events, or null for events
+     *                   about any snake or none
+     * @return the matching events
+     */
+    public synchronized List<Event> query(long fromMillis, long toMillis, EventCategory category, String snake) {
+        update();
+        List<Event> events = new ArrayList<>();
+        if (fromMillis >= toMillis) {
+            return events;
+        }
+        long start = Math.max(log.getFirstSequence(), sequenceAt(Math.floorDiv(fromMillis, BUCKET_MILLIS)));
+        // one bucket of slack for events that were stamped just before they were logged
+        long end = sequenceAt(Math.floorDiv(toMillis - 1, BUCKET_MILLIS) + 2);
+        SequenceList candidates = snake != null ? bySnake.get(snake)
+                : category != null ? byCategory[category.ordinal()] : null;
+        if (candidates != null) {
+            for (int i = candidates.lowerBound(start); i < candidates.size() && candidates.get(i) < end; i++) {
+                addIfMatches(events, candidates.get(i), fromMillis, toMillis, category, snake);
+            }
+        } else if (snake == null) {
+            for (long sequence = start; sequence < end; sequence++) {
+                addIfMatches(events, sequence, fromMillis, toMillis, category, null);
+            }
+        }
+        return events;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: returns the events in the log that were logged in the last given
+     * number of milliseconds and match the given category and snake
+     *
+     * @param millis   the length of the time range, ending now
+     * @param category the category of the events, or null for any category
+     * @param snake    the name of the snake of the events, or null for any
+     * @return the matching events
+     */
+    public List<Event> queryLast(long millis, EventCategory category, String snake) {
+        return query(System.currentTimeMillis() - millis, Long.MAX_VALUE, category, snake);
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: adds the events logged since the last update to the index and
+     * forgets the events that are no longer in the log
+     */
+    public synchronized void update() {
+        long first = log.getFirstSequence();
+        long end = log.getEndSequence();
+        for (long sequence = Math.max(indexed, first); sequence < end; sequence++) {
+            Event event = log.get(sequence);
+            if (event != null) {
+                add(sequence, event);
+            }
+        }
+        indexed = Math.max(indexed, end);
+        trim(first);
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: adds the given event to the index
+     *
+     * @param sequence the sequence number of the event
+     * @param event    the event
+     */
+    private void add(long sequence, Event event) {
+        byCategory[event.getType().getCategory().ordinal()].add(sequence);
+        String snake = event.getSnakeName();
+        if (snake != null) {
+            bySnake.computeIfAbsent(snake, name -> new SequenceList()).add(sequence);
+        }
+        long bucket = Math.floorDiv(event.getTime(), BUCKET_MILLIS);
+        if (bucketKeys.size() == 0 || bucket > bucketKeys.get(bucketKeys.size() - 1)) {
+            bucketKeys.add(bucket);
+            bucketStarts.add(sequence);
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: removes the sequence numbers below first from the index
+     *
+     * @param first the sequence number of the oldest event in the log
+     */
+    private void trim(long first) {
+        for (SequenceList list : byCategory) {
+            list.removeBelow(first);
+        }
+        bySnake.values().removeIf(list -> list.removeBelow(first) == 0);
+        // keep the bucket that the oldest event falls into
+        while (bucketStarts.size() > 1 && bucketStarts.get(1) <= first) {
+            bucketStarts.removeFirst();
+            bucketKeys.removeFirst();
+        }
+    }
+
+    /**
+     * EFFECTS: returns the sequence number of the first event from which on
+     * all events may lie in the given time bucket or later
+     *
+     * @param bucket the time bucket
+     * @return the sequence number of the first such event
+     */
+    private long sequenceAt(long bucket) {
+        int i = bucketKeys.lowerBound(bucket);
+        return i < bucketKeys.size() ? bucketStarts.get(i) : indexed;
+    }
+
+    /**
+     * MODIFIES: events
+     * EFFECTS: adds the event with the given sequence number to the list if it
+     * is still in the log and matches the query
+     *
+     * @param events     the list of matching events
+     * @param sequence   the sequence number of the event
+     * @param fromMillis the start of the time range (inclusive)
+     * @param toMillis   the end of the time range (exclusive)
+     * @param category   the category, or null for any
+     * @param snake      the name of the snake, or null for any
+     */
+    private void addIfMatches(List<Event> events, long sequence, long fromMillis, long toMillis,
+            EventCategory category, String snake) {
+        Event event = log.get(sequence);
+        if (event != null && matches(event, fromMillis, toMillis, category, snake)) {
+            events.add(event);
+        }
+    }
+
+    /**
+     * EFFECTS: returns whether the event lies in the time range and matches the
+     * category and snake
+     *
+     * @param event      the event
+     * @param fromMillis the start of the time range (inclusive)
+     * @param toMillis   the end of the time range (exclusive)
+     * @param category   the category, or null for any
+     * @param snake      the name of the snake, or null for any
+     * @return whether the event matches
+     */
+    private static boolean matches(Event event, long fromMillis, long toMillis, EventCategory category,
+            String snake) {
+        return event.getTime() >= fromMillis && event.getTime() < toMillis
+                && (category == null || event.getType().getCategory() == category)
+                && (snake == null || snake.equals(event.getSnakeName()));
+    }
+
+    /**
+     * A strictly ascending list of longs that grows at the end and shrinks at
+     * the front.
+     */
+    private static final class SequenceList {
+        private long[] values = new long[16];
+        private int first;
+        private int size;
+
+        void add(long value) {
+            if (first + size == values.length) {
+                // reuse the space at the front before growing
+                long[] grown = size * 2 > values.length ? new long[values.length * 2] : values;
+                System.arraycopy(values, first, grown, 0, size);
+                values = grown;
+                first = 0;
+            }
+            values[first + size++] = value;
+        }
+
+        long get(int index) {
+            return values[first + index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        void removeFirst() {
+            first++;
+            size--;
+        }
+
+        int removeBelow(long value) {
+            int removed = lowerBound(value);
+            first += removed;
+            size -= removed;
+            return size;
+        }
+
+        // the index of the first value that is not below the given value
+        int lowerBound(long value) {
+            int i = Arrays.binarySearch(values, first, first + size, value);
+            return (i < 0 ? -i - 1 : i) - first;
+        }
+    }
+}
@@ -3,26 +3,84 @@ package model;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Represents a log of alarm system events.
  * We use the Singleton Design Pattern to ensure that there is only
  * one EventLog in the system and that the system has global access
  * to the single instance of the EventLog.
+ * The events are kept in a fixed-capacity ring buffer that any number of
+ * threads can log to without locking. When the buffer is full, the oldest
+ * events are dropped or the logging thread waits for a consumer (see
+ * OverflowPolicy).
  */
 public class EventLog implements Iterable<Event> {
+    /**
+     * The number of events kept by default.
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    /**
+     * What happens when an event is logged while the buffer is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * the oldest event is overwritten; logging never waits
+         */
+        DROP_OLDEST,
+        /**
+         * logging waits until a consumer has drained the oldest event (see drainTo);
+         * only use this when a consumer is running
+         */
+        BLOCK
+    }
+
+    /**
+     * An event together with the sequence number it was logged under.
+     */
+    private static final class Entry {
+        private final long sequence;
+        private final Event event;
+
+        private Entry(long sequence, Event event) {
+            this.sequence = sequence;
+            this.event = event;
+        }
+    }
+
     /**
      * the only EventLog in the system (Singleton Design Pattern)
      */
-    private static EventLog theLog;
-    private Collection<Event> events;
+    private static volatile EventLog theLog;
+    // the entry of sequence number s lives in slot s & mask
+    private final AtomicReferenceArray<Entry> slots;
+    private final int mask;
+    private final OverflowPolicy policy;
+    // the next sequence number to hand out
+    private final AtomicLong tail = new AtomicLong();
+    // the next sequence number drainTo hands to the consumer
+    private final AtomicLong consumed = new AtomicLong();
+    // events below this sequence number have been cleared
+    private volatile long floor;
+    private volatile EventFilter filter = EventFilter.fromSystemProperty();
 
     /**
      * Prevent external construction.
      * (Singleton Design Pattern).
+     *
+     * @param capacity the maximum number of events kept, rounded up to a power of
+     *                 two
+     * @param policy   what to do when the log is full
      */
-    private EventLog() {
-        events = new ArrayList<Event>();
+    private EventLog(int capacity, OverflowPolicy policy) {
+        int size = Math.max(2, Integer.highestOneBit(Math.max(1, capacity - 1)) << 1);
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.policy = policy;
     }
 
     /**
@@ -33,31 +91,284 @@ public class EventLog implements Iterable<Event> {
      * @return instance of EventLog
      */
     public static EventLog getInstance() {
-        if (theLog == null) {
-            theLog = new EventLog();
+        EventLog log = theLog;
+        if (log == null) {
+            synchronized (EventLog.class) {
+                if (theLog == null) {
+                    theLog = new EventLog(DEFAULT_CAPACITY, OverflowPolicy.DROP_OLDEST);
+                }
+                log = theLog;
+            }
         }
+        return log;
+    }
+
+    /**
+     * Replaces the event log by an empty one with the given capacity and
+     * overflow policy. Meant to be called once at start-up; events logged to
+     * the previous instance are not carried over.
+     *
+     * @param capacity the maximum number of events kept, rounded up to a power of
+     *                 two
+     * @param policy   what to do when the log is full
+     * @return the new instance of EventLog
+     */
+    public static synchronized EventLog configure(int capacity, OverflowPolicy policy) {
+        theLog = new EventLog(capacity, policy);
         return theLog;
     }
 
     /**
-     * Adds an event to the event log.
+     * Returns whether an event of the given type passes the filter of this log.
+     * Callers check this before constructing an event, so filtered events cost
+     * nothing; every call counts towards the sampling of the type's category.
+     *
+     * @param type the type of the event
+     * @return whether the event should be logged
+     */
+    public boolean shouldLog(EventType type) {
+        return filter.accept(type.getCategory());
+    }
+
+    /**
+     * Logs an event of the given type with the given argument if it passes the
+     * filter of this log.
+     *
+     * @param type  the type of the event
+     * @param first the argument of the description, or null if there is none
+     */
+    public void log(EventType type, String first) {
+        log(Event.NO_MATCH, type, first, null, 0);
+    }
+
+    /**
+     * Logs an event of the given type with the given arguments if it passes the
+     * filter of this log.
+     *
+     * @param type   the type of the event
+     * @param first  the first string argument of the description
+     * @param second the second string argument of the description
+     * @param value  the numeric argument of the description
+     */
+    public void log(EventType type, String first, String second, double value) {
+        log(Event.NO_MATCH, type, first, second, value);
+    }
+
+    /**
+     * Logs an event of the given match and type with the given arguments if it
+     * passes the filter of this log.
+     *
+     * @param matchId the id of the match of the event (see GameConfig)
+     * @param type    the type of the event
+     * @param first   the first string argument of the description, or null
+     * @param second  the second string argument of the description, or null
+     * @param value   the numeric argument of the description
+     */
+    public void log(long matchId, EventType type, String first, String second, double value) {
+        if (shouldLog(type)) {
+            logEvent(new Event(System.currentTimeMillis(), matchId, type, first, second, value));
+        }
+    }
+
+    /**
+     * Returns the filter that decides which events are logged.
+     *
+     * @return the filter of this log
+     */
+    public EventFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * Sets the filter that decides which events are logged.
+     *
+     * @param filter the new filter
+     */
+    public void setFilter(EventFilter filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * Adds an event to the event log, whatever the filter says. Never waits unless the policy is BLOCK
+     * and the log is full.
      *
      * @param e the event to be added
      */
     public void logEvent(Event e) {
-        events.add(e);
+        long sequence = tail.getAndIncrement();
+        if (policy == OverflowPolicy.BLOCK) {
+            while (sequence - consumed.get() >= slots.length()) {
+                LockSupport.parkNanos(1000);
+            }
+        }
+        Entry entry = new Entry(sequence, e);
+        int slot = (int) sequence & mask;
+        Entry old = slots.get(slot);
+        // a writer that lapped this one may already have stored a newer event
+        while ((old == null || old.sequence < sequence) && !slots.compareAndSet(slot, old, entry)) {
+            old = slots.get(slot);
+        }
     }
 
     /**
      * Clears the event log and logs the event.
      */
     public void clear() {
-        events.clear();
-        logEvent(new Event("Event log cleared."));
+        long end = tail.get();
+        floor = end;
+        consumed.accumulateAndGet(end, Math::max);
+        log(EventType.LOG_CLEARED, null);
+    }
+
+    /**
+     * Removes up to maxEvents of the oldest events that have not been drained
+     * yet and adds them to the given collection, in the order they were logged.
+     * Only one thread should drain the log at a time.
+     *
+     * @param sink      the collection to add the events to
+     * @param maxEvents the maximum number of events to drain
+     * @return the number of events added to the collection
+     */
+    public int drainTo(Collection<? super Event> sink, int maxEvents) {
+        long last = end();
+        long start = Math.max(consumed.get(), firstRetained(last));
+        long end = Math.min(last, start + maxEvents);
+        int drained = 0;
+        for (long sequence = start; sequence < end; sequence++) {
+            Event event = read(sequence);
+            if (event != null) {
+                sink.add(event);
+                drained++;
+            }
+        }
+        consumed.accumulateAndGet(end, Math::max);
+        return drained;
+    }
+
+    /**
+     * Returns the events that are currently in the log, in the order they were
+     * logged. Events logged while the snapshot is taken may or may not be in it,
+     * but every event in it was logged before every event that is not.
+     *
+     * @return the events in the log
+     */
+    public List<Event> snapshot() {
+        long end = end();
+        List<Event> events = new ArrayList<>();
+        for (long sequence = firstRetained(end); sequence < end; sequence++) {
+            Event event = read(sequence);
+            if (event != null) {
+                events.add(event);
+            }
+        }
+        return events;
     }
 
+    /**
+     * Returns an iterator over a snapshot of the events logged so far (see
+     * snapshot), so that other threads can keep logging while it is used.
+     *
+     * @return an iterator over the logged events
+     */
     @Override
     public Iterator<Event> iterator() {
-        return events.iterator();
+        return snapshot().iterator();
+    }
+
+    /**
+     * Returns the sequence number of the oldest event in the log; events are
+     * numbered in the order they were logged.
+     *
+     * @return the sequence number of the oldest event
+     */
+    public long getFirstSequence() {
+        return firstRetained(end());
+    }
+
+    /**
+     * Returns the sequence number the next event will be read under, i.e. one
+     * more than the sequence number of the newest event.
+     *
+     * @return the sequence number after the newest event
+     */
+    public long getEndSequence() {
+        return end();
+    }
+
+    /**
+     * Returns the event with the given sequence number.
+     *
+     * @param sequence the sequence number
+     * @return the event, or null if it has been cleared or overwritten or has
+     *         not been logged yet
+     */
+    public Event get(long sequence) {
+        long end = end();
+        if (sequence < firstRetained(end) || sequence >= end) {
+            return null;
+        }
+        return read(sequence);
+    }
+
+    /**
+     * Returns the maximum number of events kept.
+     *
+     * @return the maximum number of events kept
+     */
+    public int getCapacity() {
+        return slots.length();
+    }
+
+    /**
+     * Returns what happens when an event is logged while the log is full.
+     *
+     * @return the overflow policy
+     */
+    public OverflowPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Returns the sequence number after the newest event that can be read
+     * without waiting for a consumer; with BLOCK, events of threads that are
+     * waiting for room are left out.
+     *
+     * @return the sequence number after the newest readable event
+     */
+    private long end() {
+        long end = tail.get();
+        if (policy == OverflowPolicy.BLOCK) {
+            end = Math.min(end, consumed.get() + slots.length());
+        }
+        return end;
+    }
+
+    /**
+     * Returns the sequence number of the oldest event before end that has
+     * neither been cleared nor overwritten.
+     *
+     * @param end the sequence number after the newest event
+     * @return the sequence number of the oldest retained event
+     */
+    private long firstRetained(long end) {
+        return Math.max(floor, end - slots.length());
+    }
+
+    /**
+     * Returns the event with the given sequence number, waiting for it if it
+     * has been handed out but not stored yet; returns null if it has already
+     * been overwritten.
+     *
+     * @param sequence a sequence number below tail
+     * @return the event with the sequence number, or null if it is gone
+     */
+    private Event read(long sequence) {
+        int slot = (int) sequence & mask;
+        Entry entry = slots.get(slot);
+        while (entry == null || entry.sequence < sequence) {
+            Thread.onSpinWait();
+            entry = slots.get(slot);
+        }
+        return entry.sequence == sequence ? entry.event : null;
     }
 }
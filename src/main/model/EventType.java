@@ -0,0 +1,118 @@
+package model;
+
+/**
+ * The kinds of events that are logged. Each kind has a template for its
+ * description in which {first} and {second} stand for the string arguments and
+ * {value} for the numeric argument of the event, so the description only has
+ * to be built when somebody reads it. Every kind belongs to a category that
+ * the event log can filter on.
+ */
+public enum EventType {
+    MESSAGE(EventCategory.MESSAGE, "{first}", SnakeArgument.NONE),
+    STATS_INITIALIZED(EventCategory.LIFECYCLE, "Initialized statistical achievements for {first}",
+            SnakeArgument.FIRST),
+    ACHIEVEMENT_ADDED(EventCategory.ACHIEVEMENT, "Added achievement {first}", SnakeArgument.SECOND),
+    ACHIEVEMENT_REJECTED(EventCategory.ACHIEVEMENT, "Failed to add achievement {first}", SnakeArgument.SECOND),
+    ACHIEVEMENT_UPDATED(EventCategory.STATISTIC, "Updated achievement {first} from {second} by {value}",
+            SnakeArgument.SECOND),
+    GAME_ENDED(EventCategory.LIFECYCLE, "Game ended", SnakeArgument.NONE),
+    LOG_CLEARED(EventCategory.LIFECYCLE, "Event log cleared.", SnakeArgument.NONE);
+
+    /**
+     * Which string argument of an event names its snake.
+     */
+    private enum SnakeArgument {
+        NONE, FIRST, SECOND
+    }
+
+    private final EventCategory category;
+    private final String template;
+    private final SnakeArgument snakeArgument;
+
+    /**
+     * EFFECTS: constructs an event type of the given category with the given
+     * description template
+     * 
+     * @param category      the category of the events of this type
+     * @param template      the template of the description
+     * @param snakeArgument the string argument that holds the name of the snake
+     *                      of the event
+     */
+    EventType(EventCategory category, String template, SnakeArgument snakeArgument) {
+        this.category = category;
+        this.template = template;
+        this.snakeArgument = snakeArgument;
+    }
+
+    /**
+     * EFFECTS: returns the name of the snake of an event of this type with the
+     * given arguments, null if events of this type are not about a snake
+     * 
+     * @param first  the first string argument
+     * @param second the second string argument
+     * @return the name of the snake of the event
+     */
+    public String snakeOf(String first, String second) {
+        switch (snakeArgument) {
+            case FIRST:
+                return first;
+            case SECOND:
+                return second;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * EFFECTS: returns the category of the events of this type
+     * 
+     * @return the category of the events of this type
+     */
+    public EventCategory getCategory() {
+        return category;
+    }
+
+    /**
+     * EFFECTS: returns the description of an event of this type with the given
+     * arguments
+     * 
+     * @param first  the first string argument
+     * @param second the second string argument
+     * @param value  the numeric argument
+     * @return the description of the event
+     */
+    public String describe(String first, String second, double value) {
+        StringBuilder description = new StringBuilder();
+        int start = 0;
+        int open = template.indexOf('{');
+        // arguments are substituted in a single pass, so braces in them are kept
+        while (open >= 0) {
+            int close = template.indexOf('}', open);
+            description.append(template, start, open);
+            description.append(argument(template.substring(open + 1, close), first, second, value));
+            start = close + 1;
+            open = template.indexOf('{', start);
+        }
+        return description.append(template, start, template.length()).toString();
+    }
+
+    /**
+     * EFFECTS: returns the argument with the given name
+     * 
+     * @param name   first, second or value
+     * @param first  the first string argument
+     * @param second the second string argument
+     * @param value  the numeric argument
+     * @return the argument as a string
+     */
+    private static String argument(String name, String first, String second, double value) {
+        switch (name) {
+            case "first":
+                return first;
+            case "second":
+                return second;
+            default:
+                return String.valueOf(value);
+        }
+    }
+}
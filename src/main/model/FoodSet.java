@@ -0,0 +1,125 @@
+package model;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * The set of food positions on the board. Every change is mirrored into a layer
+ * of the occupancy grid so that food cells are never reported as free, and into
+ * an array of packed cells that the game loop can scan without allocating.
+ */
+public class FoodSet extends AbstractSet<Position> {
+    private final Set<Position> food = new HashSet<>();
+    // packed coordinates of the food, in no particular order
+    private int[] cells = new int[4];
+    private final OccupancyGrid grid;
+    private final int layer;
+
+    /**
+     * REQUIRE: grid != null and layer is a valid layer of grid that is only used
+     * by this set
+     * EFFECTS: constructs an empty food set that records food in the given layer
+     * of the grid
+     *
+     * @param grid  the occupancy grid of the board
+     * @param layer the layer of the grid that holds the food
+     */
+    public FoodSet(OccupancyGrid grid, int layer) {
+        this.grid = grid;
+        this.layer = layer;
+    }
+
+    @Override
+    public boolean add(Position pos) {
+        if (!food.add(pos)) {
+            return false;
+        }
+        if (food.size() > cells.length) {
+            cells = Arrays.copyOf(cells, cells.length * 2);
+        }
+        cells[food.size() - 1] = pos.pack();
+        if (grid.contains(pos.getPosX(), pos.getPosY())) {
+            grid.occupy(layer, pos.getPosX(), pos.getPosY());
+        }
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!food.remove(o)) {
+            return false;
+        }
+        vacate((Position) o);
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return food.contains(o);
+    }
+
+    @Override
+    public Iterator<Position> iterator() {
+        Iterator<Position> iterator = food.iterator();
+        return new Iterator<>() {
+            private Position last;
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Position next() {
+                last = iterator.next();
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                iterator.remove();
+                vacate(last);
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return food.size();
+    }
+
+    /**
+     * REQUIRE: 0 <= index < size()
+     * EFFECTS: returns the packed coordinates (see Position.pack) of the food at
+     * the given index
+     *
+     * @param index the index of the food
+     * @return the packed coordinates of the food
+     */
+    public int getCell(int index) {
+        return cells[index];
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: removes the given food position from the packed cells and the grid
+     *
+     * @param pos the food position
+     */
+    private void vacate(Position pos) {
+        int cell = pos.pack();
+        // food.size() has already shrunk, so it is the index of the last cell
+        for (int i = 0; i <= food.size(); i++) {
+            if (cells[i] == cell) {
+                cells[i] = cells[food.size()];
+                break;
+            }
+        }
+        if (grid.contains(pos.getPosX(), pos.getPosY())) {
+            grid.vacate(layer, pos.getPosX(), pos.getPosY());
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package model;
+
+/**
+ * An index of the free cells in a rectangular region of the board. The free
+ * cells are kept in a dense array together with a cell-to-slot map, so a cell
+ * can be taken or released in O(1) (swap-remove) and a uniformly random free
+ * cell can be picked in O(1).
+ * <p>
+ * The order of the free cells depends on the order they were taken and
+ * released in. sort puts them back in row-major order, so that two games with
+ * the same free cells, such as a recorded game and the same game restored from
+ * one of its keyframes, pick the same random free cells from then on.
+ */
+public class FreeCellIndex {
+    private final int width;
+    private final int height;
+    // dense array of free cell ids (y * width + x); the first size entries are used
+    private final int[] cells;
+    // slot of each cell id in cells, or -1 if the cell is taken
+    private final int[] slots;
+    private int size;
+
+    /**
+     * REQUIRE: width and height are non-negative integers
+     * EFFECTS: constructs an index of the given size in which every cell is free
+     *
+     * @param width  the number of columns
+     * @param height the number of rows
+     */
+    public FreeCellIndex(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.size = width * height;
+        this.cells = new int[size];
+        this.slots = new int[size];
+        for (int i = 0; i < size; i++) {
+            cells[i] = i;
+            slots[i] = i;
+        }
+    }
+
+    /**
+     * EFFECTS: returns whether the given cell lies in the indexed region
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return whether the given cell lies in the indexed region
+     */
+    public boolean covers(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    /**
+     * REQUIRE: covers(x, y)
+     * EFFECTS: returns whether the given cell is free
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return whether the given cell is free
+     */
+    public boolean isFree(int x, int y) {
+        return slots[y * width + x] >= 0;
+    }
+
+    /**
+     * REQUIRE: covers(x, y)
+     * MODIFIES: this
+     * EFFECTS: marks the given cell as taken; does nothing if it is already taken
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     */
+    public void take(int x, int y) {
+        int id = y * width + x;
+        int slot = slots[id];
+        if (slot < 0) {
+            return;
+        }
+        // move the last free cell into the vacated slot
+        int last = cells[--size];
+        cells[slot] = last;
+        slots[last] = slot;
+        slots[id] = -1;
+    }
+
+    /**
+     * REQUIRE: covers(x, y)
+     * MODIFIES: this
+     * EFFECTS: marks the given cell as free; does nothing if it is already free
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     */
+    public void release(int x, int y) {
+        int id = y * width + x;
+        if (slots[id] >= 0) {
+            return;
+        }
+        cells[size] = id;
+        slots[id] = size;
+        size++;
+    }
+
+    /**
+     * REQUIRE: 0 <= slot < size()
+     * EFFECTS: returns the packed coordinates (see Position.pack) of the free cell
+     * in the given slot; passing a uniformly random slot picks a uniformly
+     * random free cell
+     *
+     * @param slot the slot of the free cell
+     * @return the packed coordinates of the free cell
+     */
+    public int get(int slot) {
+        int id = cells[slot];
+        return Position.pack(id % width, id / width);
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: puts the free cells in row-major order, so that the cell in each
+     * slot only depends on which cells are free
+     */
+    public void sort() {
+        size = 0;
+        for (int id = 0; id < slots.length; id++) {
+            if (slots[id] >= 0) {
+                cells[size] = id;
+                slots[id] = size++;
+            }
+        }
+    }
+
+    /**
+     * EFFECTS: returns the number of free cells
+     *
+     * @return the number of free cells
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -1,11 +1,13 @@
 package model;
 
 import model.achievements.GeneralAchievement;
+import model.achievements.Stat;
+import model.achievements.StatisticalAchievement;
+import persistence.JsonStreamWriter;
 import persistence.Jsonizable;
 
-import java.util.HashSet;
+import java.io.IOException;
 import java.util.Set;
-import java.util.concurrent.ThreadLocalRandom;
 
 import org.json.JSONObject;
 
@@ -13,13 +15,29 @@ import org.json.JSONObject;
  * The class that contains the game state
  */
 public class Game implements Jsonizable {
-    private static int TICKS_PER_SECOND;
     private final Snake snake1;
     private final Snake snake2;
-    private final Set<Position> food = new HashSet<>();
+    // layer of the occupancy grid that holds the food (layers 0 and 1 are the snakes)
+    private static final int FOOD_LAYER = 2;
+    // cells covered by each snake and by the food
+    private final OccupancyGrid occupancy;
+    // free cells of the region food spawns in
+    private final FreeCellIndex freeCells;
+    private final FoodSet food;
     private final int maxX;
     private final int maxY;
     private final AchievementCollection achievements;
+    private final GameConfig config;
+    // the only source of randomness, so that a game is determined by its seed
+    private final GameRandom random;
+    // achievements updated by the game loop, resolved once so that updating them
+    // needs no lookup; step achievements are indexed by Direction.ordinal()
+    private final StatisticalAchievement applesEaten1;
+    private final StatisticalAchievement applesEaten2;
+    private final StatisticalAchievement totalRounds1;
+    private final StatisticalAchievement totalRounds2;
+    private final StatisticalAchievement[] steps1;
+    private final StatisticalAchievement[] steps2;
     private int score1 = 0;
     private int score2 = 0;
     private boolean ended = false;
@@ -28,40 +46,68 @@ public class Game implements Jsonizable {
 
     /**
      * REQUIRE: maxX and maxY are positive integers
-     * EFFECTS: constructs a new game with the given dimensions
+     * EFFECTS: constructs a new game with the given dimensions and the default
+     * configuration
      * 
      * @param maxX the maximum width
      * @param maxY the maximum height
      */
     public Game(int maxX, int maxY) {
+        this(maxX, maxY, new GameConfig());
+    }
+
+    /**
+     * REQUIRE: maxX and maxY are positive integers; config != null and is not
+     * shared with another game
+     * EFFECTS: constructs a new game with the given dimensions and configuration
+     * 
+     * @param maxX   the maximum width
+     * @param maxY   the maximum height
+     * @param config the configuration of the game
+     */
+    public Game(int maxX, int maxY, GameConfig config) {
+        this.config = config;
+        this.random = new GameRandom(config.getSeed());
         this.maxX = maxX;
         this.maxY = maxY;
 
-        this.snake1 = new Snake(1, 1, "one");
-        this.snake2 = new Snake(1, maxY - 1, "two");
+        // the board spans 0..maxX and 0..maxY inclusive (see isOutOfBounds), while
+        // food only spawns in 0..maxX-1 and 0..maxY-1
+        this.freeCells = new FreeCellIndex(maxX, maxY);
+        this.occupancy = new OccupancyGrid(maxX + 1, maxY + 1, 3, freeCells);
+        this.food = new FoodSet(occupancy, FOOD_LAYER);
+        this.snake1 = new Snake(1, 1, "one", occupancy, 0, config.getMatchId());
+        this.snake2 = new Snake(1, maxY - 1, "two", occupancy, 1, config.getMatchId());
 
         this.achievements = new AchievementCollection(snake1, snake2);
-
-        food.add(generateRandomPosition());
+        this.applesEaten1 = achievements.getStat(Stat.APPLES_EATEN, snake1);
+        this.applesEaten2 = achievements.getStat(Stat.APPLES_EATEN, snake2);
+        this.totalRounds1 = achievements.getStat(Stat.TOTAL_ROUNDS, snake1);
+        this.totalRounds2 = achievements.getStat(Stat.TOTAL_ROUNDS, snake2);
+        this.steps1 = resolveStepAchievements(snake1);
+        this.steps2 = resolveStepAchievements(snake2);
+
+        placeFood();
     }
 
     /**
-     * EFFECTS: returns the number of ticks per second (difficulty)
+     * EFFECTS: returns the random number generator of the game, whose state
+     * goes with the saved state of a game that is to go on exactly the same way
      * 
-     * @return the number of ticks per second
+     * @return the random number generator
      */
-    public static int getTicksPerSecond() {
-        return TICKS_PER_SECOND;
+    public GameRandom getRandom() {
+        return random;
     }
 
     /**
-     * REQUIRE: ticksPerSecond is a positive integer
-     * EFFECTS: sets the number of ticks per second (difficulty)
+     * EFFECTS: returns the configuration of the game, including the number of
+     * ticks per second (difficulty)
      * 
-     * @param ticksPerSecond the number of ticks per second
+     * @return the configuration of the game
      */
-    public static void setTicksPerSecond(int ticksPerSecond) {
-        TICKS_PER_SECOND = ticksPerSecond;
+    public GameConfig getConfig() {
+        return config;
     }
 
     /**
@@ -73,12 +119,15 @@ public class Game implements Jsonizable {
         snake1.move();
         snake2.move();
 
+        // packed coordinates keep the tick free of allocations
+        int head1 = snake1.getHeadCell();
+        int head2 = snake2.getHeadCell();
         if (snake1.hasCollidedWithSelf()
-                || isOutOfBounds(snake1.getHead())
+                || isOutOfBounds(head1)
                 || snake2.hasCollidedWithSelf()
-                || isOutOfBounds(snake2.getHead())
-                || snake1.hasCollided(snake2.getHead())
-                || snake2.hasCollided(snake1.getHead())) {
+                || isOutOfBounds(head2)
+                || snake1.hasCollided(head2)
+                || snake2.hasCollided(head1)) {
 
             ended = true;
             return;
@@ -93,26 +142,45 @@ public class Game implements Jsonizable {
 
     /**
      * MODIFIES: this
-     * EFFECTS: spawns a new food at a random position that is not occupied
+     * EFFECTS: spawns a new food at a uniformly random position that is not
+     * occupied; does nothing if there is no free position left
      */
     public void spawnNewFood() {
-        Position pos = generateRandomPosition();
-
-        while (!isValidPosition(pos)) {
-            // check if the apple attempts to spawn on the snake (achievement)
-            // check snake 1
-            if (snake1.hasCollided(pos)) {
-                achievements.addAchievement(new GeneralAchievement("The Chosen One",
-                        "The apple attempts to spawn inside a snake's body", snake1));
-            } else if (snake2.hasCollided(pos)) {
-                achievements.addAchievement(new GeneralAchievement("The Chosen One",
-                        "The apple attempts to spawn inside a snake's body", snake2));
-            }
-
-            pos = generateRandomPosition();
+        // a single random probe landing on a snake unlocks the achievement, just
+        // like the first attempt of sampling random positions would
+        Position probe = generateRandomPosition();
+        if (snake1.hasCollided(probe)) {
+            achievements.addAchievement(new GeneralAchievement("The Chosen One",
+                    "The apple attempts to spawn inside a snake's body", snake1));
+        } else if (snake2.hasCollided(probe)) {
+            achievements.addAchievement(new GeneralAchievement("The Chosen One",
+                    "The apple attempts to spawn inside a snake's body", snake2));
         }
 
-        food.add(pos);
+        placeFood();
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: puts the free cells food spawns in back in row-major order (see
+     * FreeCellIndex.sort), so that from now on the food spawns where it would
+     * in any game with the same board and random number generator
+     */
+    public void sortFreeCells() {
+        freeCells.sort();
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: adds a food at a uniformly random free position; does nothing if
+     * there is no free position left
+     */
+    private void placeFood() {
+        if (freeCells.size() == 0) {
+            return;
+        }
+        int cell = freeCells.get(random.nextInt(freeCells.size()));
+        food.add(Position.unpack(cell));
     }
 
     /**
@@ -126,6 +194,19 @@ public class Game implements Jsonizable {
         return pos.getPosX() < 0 || pos.getPosY() < 0 || pos.getPosX() > maxX || pos.getPosY() > maxY;
     }
 
+    /**
+     * EFFECTS: returns whether the given packed coordinates (see Position.pack)
+     * are out of bounds
+     * 
+     * @param cell the packed coordinates
+     * @return whether the given cell is out of bounds
+     */
+    public boolean isOutOfBounds(int cell) {
+        int x = Position.unpackX(cell);
+        int y = Position.unpackY(cell);
+        return x < 0 || y < 0 || x > maxX || y > maxY;
+    }
+
     /**
      * REQUIRE: pos != null
      * EFFECTS: returns whether a given position is valid (not out of bounds, not
@@ -135,7 +216,8 @@ public class Game implements Jsonizable {
      * @return whether a given position is valid
      */
     public boolean isValidPosition(Position pos) {
-        return !isOutOfBounds(pos) && !food.contains(pos) && !snake1.hasCollided(pos) && !snake2.hasCollided(pos);
+        // the food has its own layer in the occupancy grid
+        return !isOutOfBounds(pos) && !occupancy.isOccupied(pos.getPosX(), pos.getPosY());
     }
 
     /**
@@ -143,30 +225,44 @@ public class Game implements Jsonizable {
      * EFFECTS: checks if the snakes eat the food and handles it accordingly
      */
     private void handleFood() {
-        Position eatenFood = food.stream().filter(snake1::hasCollided).findFirst().orElse(null);
-        if (eatenFood == null) {
-            eatenFood = food.stream().filter(snake2::hasCollided).findFirst().orElse(null);
-        }
-
-        if (snake1.hasCollided(eatenFood)) {
+        int eaten = indexOfFoodTouching(snake1);
+        if (eaten >= 0) {
             score1++;
             snake1.grow();
             noEatCount1 = 0;
             noEatCount1++;
-            this.achievements.getAchievement("Apples Eaten", snake1)
-                    .updateValue(achievements.getAchievement("Apples Eaten", snake1).getValue() + 1);
-        } else if (snake2.hasCollided(eatenFood)) {
-            score2++;
-            snake2.grow();
-            noEatCount2 = 0;
-            noEatCount1++;
-            achievements.getAchievement("Apples Eaten", snake2)
-                    .updateValue(achievements.getAchievement("Apples Eaten", snake2).getValue() + 1);
+            applesEaten1.updateValue(applesEaten1.getValue() + 1);
         } else {
-            noEatCount1++;
-            noEatCount2++;
+            eaten = indexOfFoodTouching(snake2);
+            if (eaten >= 0) {
+                score2++;
+                snake2.grow();
+                noEatCount2 = 0;
+                noEatCount1++;
+                applesEaten2.updateValue(applesEaten2.getValue() + 1);
+            } else {
+                noEatCount1++;
+                noEatCount2++;
+                return;
+            }
+        }
+        food.remove(Position.unpack(food.getCell(eaten)));
+    }
+
+    /**
+     * EFFECTS: returns the index of the first food that the given snake touches,
+     * or -1 if there is none
+     * 
+     * @param snake the snake
+     * @return the index of the food touched by the snake, or -1
+     */
+    private int indexOfFoodTouching(Snake snake) {
+        for (int i = 0; i < food.size(); i++) {
+            if (snake.hasCollided(food.getCell(i))) {
+                return i;
+            }
         }
-        food.remove(eatenFood);
+        return -1;
     }
 
     /**
@@ -176,32 +272,91 @@ public class Game implements Jsonizable {
      */
     private Position generateRandomPosition() {
         return new Position(
-                ThreadLocalRandom.current().nextInt(maxX),
-                ThreadLocalRandom.current().nextInt(maxY));
+                random.nextInt(maxX),
+                random.nextInt(maxY));
     }
 
     /**
      * MODIFIES: this
      * EFFECTS: check whether the general achievements are fulfilled and adds them
-     * to the collection if they are
+     * to the collection if they are not in it yet
      */
     public void updateAchievement() {
         if (noEatCount1 >= 1000) {
-            achievements.addAchievement(new GeneralAchievement("The Survivor",
-                    "Survive for 1000 rounds without eating any apples or colliding", snake1));
+            unlock("The Survivor", "Survive for 1000 rounds without eating any apples or colliding", snake1);
         }
         if (noEatCount2 >= 1000) {
-            achievements.addAchievement(new GeneralAchievement("The Survivor",
-                    "Survive for 1000 rounds without eating any apples or colliding", snake2));
+            unlock("The Survivor", "Survive for 1000 rounds without eating any apples or colliding", snake2);
         }
         if (score1 >= 100) {
-            achievements.addAchievement(new GeneralAchievement("The Eater", "Eat 100 apples in total", snake1));
+            unlock("The Eater", "Eat 100 apples in total", snake1);
         }
         if (score2 >= 100) {
-            achievements.addAchievement(new GeneralAchievement("The Eater", "Eat 100 apples in total", snake2));
+            unlock("The Eater", "Eat 100 apples in total", snake2);
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: adds the general achievement with the given title and description
+     * for the given snake unless the snake already has it
+     * 
+     * @param title       the title of the achievement
+     * @param description the description of the achievement
+     * @param snake       the snake that earned the achievement
+     */
+    private void unlock(String title, String description, Snake snake) {
+        if (achievements.getAchievement(title, snake) == null) {
+            achievements.addAchievement(new GeneralAchievement(title, description, snake));
         }
     }
 
+    /**
+     * MODIFIES: this
+     * EFFECTS: updates the statistical achievements that count rounds and steps
+     * for both snakes; called once after every tick. Each update logs a
+     * statistic event, so this allocates nothing only while the filter of the
+     * event log drops statistic events (e.g. -Dsnake.eventFilter=statistic=0)
+     */
+    public void updateRoundAchievements() {
+        totalRounds1.updateValue(1);
+        totalRounds2.updateValue(1);
+        updateStepAchievement(steps1, snake1);
+        updateStepAchievement(steps2, snake2);
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: updates the step achievement matching the direction of the snake
+     *
+     * @param steps the step achievements of the snake
+     * @param snake the snake to update the step achievement for
+     */
+    private static void updateStepAchievement(StatisticalAchievement[] steps, Snake snake) {
+        StatisticalAchievement step = steps[snake.getDirection().ordinal()];
+        if (step != null) {
+            step.updateValue(1);
+        }
+    }
+
+    /**
+     * EFFECTS: returns the step achievements of the given snake indexed by the
+     * ordinal of their direction; PAUSE has no step achievement
+     *
+     * @param snake the snake
+     * @return the step achievements of the snake
+     */
+    private StatisticalAchievement[] resolveStepAchievements(Snake snake) {
+        StatisticalAchievement[] steps = new StatisticalAchievement[Direction.values().length];
+        for (Direction direction : Direction.values()) {
+            Stat step = Stat.step(direction);
+            if (step != null) {
+                steps[direction.ordinal()] = achievements.getStat(step, snake);
+            }
+        }
+        return steps;
+    }
+
     /**
      * EFFECTS: returns the first snake
      * 
@@ -220,6 +375,15 @@ public class Game implements Jsonizable {
         return snake2;
     }
 
+    /**
+     * EFFECTS: returns the occupancy grid of the snakes on the board
+     * 
+     * @return the occupancy grid of the snakes on the board
+     */
+    public OccupancyGrid getOccupancy() {
+        return occupancy;
+    }
+
     /**
      * EFFECTS: returns the food
      * 
@@ -285,8 +449,19 @@ public class Game implements Jsonizable {
         return ended;
     }
 
+    /**
+     * MODIFIES: this
+     * EFFECTS: sets whether the game has ended without logging it - for loading
+     * purposes
+     * 
+     * @param ended whether the game has ended
+     */
+    public void setEnded(boolean ended) {
+        this.ended = ended;
+    }
+
     public void endGame() {
-        EventLog.getInstance().logEvent(new Event("Game ended"));
+        EventLog.getInstance().log(config.getMatchId(), EventType.GAME_ENDED, null, null, 0);
         ended = true;
     }
 
@@ -367,21 +542,30 @@ public class Game implements Jsonizable {
         return json;
     }
 
+    /**
+     * EFFECTS: returns an immutable snapshot of the saved state of the game,
+     * which can be written while the game goes on
+     *
+     * @return the snapshot
+     */
+    public GameSnapshot snapshot() {
+        return new GameSnapshot(this);
+    }
+
     /**
      * EFFECTS: returns the JSON representation of the game
      */
     public JSONObject toJson() {
-        JSONObject json = new JSONObject();
-        json.put("snake1", snake1.toJson());
-        json.put("snake2", snake2.toJson());
-        json.put("food", foodToJson());
-        json.put("score1", score1);
-        json.put("score2", score2);
-        json.put("noEatCount1", noEatCount1);
-        json.put("noEatCount2", noEatCount2);
-        json.put("achievements", achievements.toJson());
-        json.put("TICKS_PER_SECOND", TICKS_PER_SECOND);
-        return json;
+        return snapshot().toJson();
+    }
+
+    /**
+     * EFFECTS: writes the JSON representation of the game to the given writer
+     * without building it first
+     */
+    @Override
+    public void writeJson(JsonStreamWriter writer) throws IOException {
+        snapshot().writeJson(writer);
     }
 
 }
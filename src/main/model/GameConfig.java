@@ -0,0 +1,115 @@
+package model;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The timing configuration, random seed and match id of a single game. Every
+ * game owns its own configuration, so games with different speeds can run in
+ * the same process, and games with the same seed place their food the same
+ * way. The match id tags the events the game logs, so that the events of
+ * matches played at the same time can be told apart in one event log.
+ */
+public class GameConfig {
+    public static final int DEFAULT_TICKS_PER_SECOND = 10;
+    // the last match id handed out in this process; 0 is Event.NO_MATCH
+    private static final AtomicLong LAST_MATCH_ID = new AtomicLong();
+    private int ticksPerSecond;
+    private final long seed;
+    private final long matchId;
+
+    /**
+     * EFFECTS: constructs a configuration with the default number of ticks per
+     * second
+     */
+    public GameConfig() {
+        this(DEFAULT_TICKS_PER_SECOND);
+    }
+
+    /**
+     * REQUIRE: ticksPerSecond is a positive integer
+     * EFFECTS: constructs a configuration with the given number of ticks per
+     * second and a random seed
+     * 
+     * @param ticksPerSecond the number of ticks per second
+     */
+    public GameConfig(int ticksPerSecond) {
+        this(ticksPerSecond, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * REQUIRE: ticksPerSecond is a positive integer
+     * EFFECTS: constructs a configuration with the given number of ticks per
+     * second and seed
+     * 
+     * @param ticksPerSecond the number of ticks per second
+     * @param seed           the seed of the random number generator of the game
+     */
+    public GameConfig(int ticksPerSecond, long seed) {
+        this(ticksPerSecond, seed, LAST_MATCH_ID.incrementAndGet());
+    }
+
+    /**
+     * REQUIRE: ticksPerSecond is a positive integer; matchId > 0
+     * EFFECTS: constructs a configuration with the given number of ticks per
+     * second, seed and match id
+     * 
+     * @param ticksPerSecond the number of ticks per second
+     * @param seed           the seed of the random number generator of the game
+     * @param matchId        the id of the match the events of the game belong to
+     */
+    public GameConfig(int ticksPerSecond, long seed, long matchId) {
+        this.ticksPerSecond = ticksPerSecond;
+        this.seed = seed;
+        this.matchId = matchId;
+    }
+
+    /**
+     * EFFECTS: returns the seed of the random number generator of the game
+     * 
+     * @return the seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * EFFECTS: returns the id of the match the events of the game belong to,
+     * unique among the games of this process unless it was given
+     * 
+     * @return the match id
+     */
+    public long getMatchId() {
+        return matchId;
+    }
+
+    /**
+     * EFFECTS: returns the number of ticks per second (difficulty)
+     * 
+     * @return the number of ticks per second
+     */
+    public int getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+
+    /**
+     * REQUIRE: ticksPerSecond is a positive integer
+     * MODIFIES: this
+     * EFFECTS: sets the number of ticks per second (difficulty)
+     * 
+     * @param ticksPerSecond the number of ticks per second
+     */
+    public void setTicksPerSecond(int ticksPerSecond) {
+        this.ticksPerSecond = ticksPerSecond;
+    }
+
+    /**
+     * EFFECTS: returns the delay between two ticks in milliseconds; a
+     * non-positive tick rate is treated as one tick per second
+     * 
+     * @return the delay between two ticks in milliseconds
+     */
+    public long getTickDelayMillis() {
+        return 1000L / Math.max(1, ticksPerSecond);
+    }
+}
@@ -0,0 +1,87 @@
+package model;
+
+/**
+ * The random number generator of a single game. It is the SplitMix64
+ * generator: small, fast and fully determined by its seed, so that a game can
+ * be played again exactly from its seed and the inputs of its players. It is
+ * not thread-safe; every game owns its own generator.
+ */
+public class GameRandom {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final long UNSIGNED_INT = 0xFFFFFFFFL;
+    private final long seed;
+    private long state;
+
+    /**
+     * EFFECTS: constructs a generator with the given seed
+     *
+     * @param seed the seed
+     */
+    public GameRandom(long seed) {
+        this.seed = seed;
+        this.state = seed;
+    }
+
+    /**
+     * EFFECTS: returns the seed the generator was constructed with
+     *
+     * @return the seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * EFFECTS: returns the current state of the generator, from which it goes
+     * on the same way when restored with setState
+     *
+     * @return the state
+     */
+    public long getState() {
+        return state;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: restores a state returned by getState
+     *
+     * @param state the state
+     */
+    public void setState(long state) {
+        this.state = state;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: returns the next pseudorandom long
+     *
+     * @return the next pseudorandom long
+     */
+    public long nextLong() {
+        state += GOLDEN_GAMMA;
+        long z = state;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * REQUIRE: bound > 0
+     * MODIFIES: this
+     * EFFECTS: returns a uniformly distributed pseudorandom int in [0, bound)
+     *
+     * @param bound the upper bound (exclusive)
+     * @return a pseudorandom int in [0, bound)
+     */
+    public int nextInt(int bound) {
+        // multiply-shift with rejection of the few values that would bias it
+        long product = (nextLong() >>> 32) * bound;
+        if ((product & UNSIGNED_INT) < bound) {
+            long threshold = ((1L << 32) - bound) % bound;
+            while ((product & UNSIGNED_INT) < threshold) {
+                product = (nextLong() >>> 32) * bound;
+            }
+        }
+        return (int) (product >>> 32);
+    }
+}
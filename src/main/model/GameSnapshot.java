@@ -0,0 +1,212 @@
+package model;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import model.achievements.Achievement;
+import model.achievements.StatisticalAchievement;
+import persistence.JsonStreamWriter;
+import persistence.Jsonizable;
+
+/**
+ * An immutable copy of the saved state of a game: scores, snakes, food and
+ * achievements. It is taken on the game thread between two ticks and can then
+ * be written on another thread while the game goes on. Taking it copies the
+ * bodies as arrays of packed cells (see Position.pack) and nothing else that
+ * grows with the board; its JSON is the JSON of the game (see Game.toJson).
+ */
+public final class GameSnapshot implements Jsonizable {
+    private final SnakeState snake1;
+    private final SnakeState snake2;
+    private final Position[] food;
+    private final int score1;
+    private final int score2;
+    private final int noEatCount1;
+    private final int noEatCount2;
+    private final int ticksPerSecond;
+    // titles, descriptions and snakes of achievements never change, values do
+    private final Achievement[] achievements;
+    private final double[] values;
+
+    /**
+     * REQUIRES: game != null
+     * EFFECTS: constructs a snapshot of the current state of the given game
+     *
+     * @param game the game
+     */
+    GameSnapshot(Game game) {
+        this.snake1 = new SnakeState(game.getSnake1());
+        this.snake2 = new SnakeState(game.getSnake2());
+        this.food = game.getFood().toArray(new Position[0]);
+        this.score1 = game.getScore1();
+        this.score2 = game.getScore2();
+        this.noEatCount1 = game.getNoEatCount1();
+        this.noEatCount2 = game.getNoEatCount2();
+        this.ticksPerSecond = game.getConfig().getTicksPerSecond();
+        List<Achievement> all = game.getAchievements().getAchievements();
+        this.achievements = all.toArray(new Achievement[0]);
+        this.values = new double[achievements.length];
+        for (int i = 0; i < achievements.length; i++) {
+            values[i] = achievements[i].getValue();
+        }
+    }
+
+    /**
+     * EFFECTS: returns the JSON representation of the game at the time of the
+     * snapshot
+     */
+    @Override
+    public JSONObject toJson() {
+        JSONObject json = new JSONObject();
+        json.put("snake1", snake1.toJson());
+        json.put("snake2", snake2.toJson());
+        JSONObject foodJson = new JSONObject();
+        if (food.length > 0) {
+            // only the last food is kept under its single key
+            foodJson.put("food", food[food.length - 1].toJson());
+        }
+        json.put("food", foodJson);
+        json.put("score1", score1);
+        json.put("score2", score2);
+        json.put("noEatCount1", noEatCount1);
+        json.put("noEatCount2", noEatCount2);
+        JSONObject achievementsJson = new JSONObject();
+        for (int i = 0; i < achievements.length; i++) {
+            achievementsJson.append("achievements", achievementToJson(i));
+        }
+        json.put("achievements", achievementsJson);
+        json.put("TICKS_PER_SECOND", ticksPerSecond);
+        return json;
+    }
+
+    /**
+     * EFFECTS: writes the JSON representation of the game at the time of the
+     * snapshot to the given writer without building it first
+     */
+    @Override
+    public void writeJson(JsonStreamWriter writer) throws IOException {
+        writer.beginObject();
+        writer.name("snake1").value(snake1);
+        writer.name("snake2").value(snake2);
+        writer.name("food").beginObject();
+        if (food.length > 0) {
+            writer.name("food").value(food[food.length - 1]);
+        }
+        writer.endObject();
+        writer.name("score1").value(score1);
+        writer.name("score2").value(score2);
+        writer.name("noEatCount1").value(noEatCount1);
+        writer.name("noEatCount2").value(noEatCount2);
+        writer.name("achievements").beginObject();
+        if (achievements.length > 0) {
+            writer.name("achievements").beginArray();
+            for (int i = 0; i < achievements.length; i++) {
+                writeAchievementJson(writer, i);
+            }
+            writer.endArray();
+        }
+        writer.endObject();
+        writer.name("TICKS_PER_SECOND").value(ticksPerSecond);
+        writer.endObject();
+    }
+
+    /**
+     * EFFECTS: returns the JSON representation of the achievement with the
+     * given index, with its value at the time of the snapshot
+     *
+     * @param index the index of the achievement
+     * @return the JSON representation of the achievement
+     */
+    private JSONObject achievementToJson(int index) {
+        JSONObject json = achievements[index].toJson();
+        if (achievements[index] instanceof StatisticalAchievement) {
+            json.put("value", values[index]);
+        }
+        return json;
+    }
+
+    /**
+     * EFFECTS: writes the JSON representation of the achievement with the given
+     * index, with its value at the time of the snapshot
+     *
+     * @param writer the writer to write to
+     * @param index  the index of the achievement
+     * @throws IOException if writing fails
+     */
+    private void writeAchievementJson(JsonStreamWriter writer, int index) throws IOException {
+        Achievement achievement = achievements[index];
+        writer.beginObject();
+        writer.name("title").value(achievement.getTitle());
+        writer.name("description").value(achievement.getDescription());
+        writer.name("snake").value(achievement.getSnake().getName());
+        if (achievement instanceof StatisticalAchievement) {
+            writer.name("value").value(values[index]);
+        }
+        writer.endObject();
+    }
+
+    /**
+     * The saved state of a snake
+     */
+    private static final class SnakeState implements Jsonizable {
+        private final String name;
+        private final int head;
+        private final int[] body;
+        private final Direction direction;
+        private final int lastRemoved;
+        private final int numApplesEaten;
+
+        SnakeState(Snake snake) {
+            this.name = snake.getName();
+            this.head = snake.getHeadCell();
+            this.body = snake.copyBodyCells();
+            this.direction = snake.getDirection();
+            this.lastRemoved = snake.getLastRemoved().pack();
+            this.numApplesEaten = snake.getNumApplesEaten();
+        }
+
+        @Override
+        public JSONObject toJson() {
+            JSONObject json = new JSONObject();
+            json.put("head", Position.unpack(head).toJson());
+            JSONArray bodyJson = new JSONArray();
+            for (int cell : body) {
+                bodyJson.put(Position.unpack(cell).toJson());
+            }
+            json.put("body", bodyJson);
+            json.put("direction", direction.toJson());
+            json.put("lastRemoved", Position.unpack(lastRemoved).toJson());
+            json.put("name", name);
+            json.put("numApplesEaten", numApplesEaten);
+            return json;
+        }
+
+        @Override
+        public void writeJson(JsonStreamWriter writer) throws IOException {
+            writer.beginObject();
+            writer.name("head");
+            writeCell(writer, head);
+            writer.name("body").beginArray();
+            for (int cell : body) {
+                writeCell(writer, cell);
+            }
+            writer.endArray();
+            writer.name("direction").value(direction);
+            writer.name("lastRemoved");
+            writeCell(writer, lastRemoved);
+            writer.name("name").value(name);
+            writer.name("numApplesEaten").value(numApplesEaten);
+            writer.endObject();
+        }
+
+        private static void writeCell(JsonStreamWriter writer, int cell) throws IOException {
+            writer.beginObject();
+            writer.name("posX").value(Position.unpackX(cell));
+            writer.name("posY").value(Position.unpackY(cell));
+            writer.endObject();
+        }
+    }
+}
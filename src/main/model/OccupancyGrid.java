@@ -0,0 +1,154 @@
+package model;
+
+/**
+ * A packed occupancy grid over the game board. Every layer is a byte plane
+ * (one byte per cell) that counts how many segments of one owner cover the
+ * cell, so collision and validity checks cost the same no matter how long the
+ * snakes are. Counts (instead of bits) keep overlapping segments, such as a
+ * head that ran into its own body, correct when one of them moves away.
+ * An optional free-cell index is kept in sync with the cells that no layer
+ * occupies.
+ */
+public class OccupancyGrid {
+    private final int width;
+    private final int height;
+    private final byte[][] layers;
+    private final FreeCellIndex freeCells;
+
+    /**
+     * REQUIRE: width, height and numLayers are non-negative integers
+     * EFFECTS: constructs an empty grid of the given size with the given number
+     * of layers
+     *
+     * @param width     the number of columns
+     * @param height    the number of rows
+     * @param numLayers the number of independent owners (layers)
+     */
+    public OccupancyGrid(int width, int height, int numLayers) {
+        this(width, height, numLayers, null);
+    }
+
+    /**
+     * REQUIRE: width, height and numLayers are non-negative integers; freeCells is
+     * null or a fully free index that is not larger than the grid
+     * EFFECTS: constructs an empty grid of the given size with the given number
+     * of layers that keeps the given free-cell index up to date
+     *
+     * @param width     the number of columns
+     * @param height    the number of rows
+     * @param numLayers the number of independent owners (layers)
+     * @param freeCells the free-cell index to maintain, or null
+     */
+    public OccupancyGrid(int width, int height, int numLayers, FreeCellIndex freeCells) {
+        this.width = width;
+        this.height = height;
+        this.layers = new byte[numLayers][width * height];
+        this.freeCells = freeCells;
+    }
+
+    /**
+     * EFFECTS: returns whether the given cell lies on this grid
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return whether the given cell lies on this grid
+     */
+    public boolean contains(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    /**
+     * REQUIRE: contains(x, y) and 0 <= layer < number of layers
+     * MODIFIES: this
+     * EFFECTS: records one more segment of the given layer at the given cell
+     *
+     * @param layer the layer (owner) of the segment
+     * @param x     the x coordinate
+     * @param y     the y coordinate
+     */
+    public void occupy(int layer, int x, int y) {
+        if (freeCells != null && freeCells.covers(x, y) && !isOccupied(x, y)) {
+            freeCells.take(x, y);
+        }
+        layers[layer][y * width + x]++;
+    }
+
+    /**
+     * REQUIRE: contains(x, y), 0 <= layer < number of layers and the cell is
+     * occupied by the layer
+     * MODIFIES: this
+     * EFFECTS: removes one segment of the given layer from the given cell
+     *
+     * @param layer the layer (owner) of the segment
+     * @param x     the x coordinate
+     * @param y     the y coordinate
+     */
+    public void vacate(int layer, int x, int y) {
+        layers[layer][y * width + x]--;
+        if (freeCells != null && freeCells.covers(x, y) && !isOccupied(x, y)) {
+            freeCells.release(x, y);
+        }
+    }
+
+    /**
+     * REQUIRE: contains(x, y) and 0 <= layer < number of layers
+     * EFFECTS: returns the number of segments of the given layer at the given cell
+     *
+     * @param layer the layer (owner)
+     * @param x     the x coordinate
+     * @param y     the y coordinate
+     * @return the number of segments of the layer at the cell
+     */
+    public int count(int layer, int x, int y) {
+        return layers[layer][y * width + x];
+    }
+
+    /**
+     * EFFECTS: returns whether any layer occupies the given cell; cells that are
+     * not on the grid are never occupied
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return whether any layer occupies the given cell
+     */
+    public boolean isOccupied(int x, int y) {
+        if (!contains(x, y)) {
+            return false;
+        }
+        int index = y * width + x;
+        for (byte[] layer : layers) {
+            if (layer[index] != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * EFFECTS: returns the free-cell index kept by this grid, or null if there is
+     * none
+     *
+     * @return the free-cell index kept by this grid
+     */
+    public FreeCellIndex getFreeCells() {
+        return freeCells;
+    }
+
+    /**
+     * EFFECTS: returns the number of columns
+     *
+     * @return the number of columns
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * EFFECTS: returns the number of rows
+     *
+     * @return the number of rows
+     */
+    public int getHeight() {
+        return height;
+    }
+}
@@ -1,9 +1,11 @@
 package model;
 
+import java.io.IOException;
 import java.util.Objects;
 
 import org.json.JSONObject;
 
+import persistence.JsonStreamWriter;
 import persistence.Jsonizable;
 
 /**
@@ -25,6 +27,58 @@ public class Position implements Jsonizable {
         this.posY = y;
     }
 
+    /**
+     * REQUIRE: x and y fit in a signed 16-bit integer
+     * EFFECTS: packs the given coordinates into a single int (x in the high half,
+     * y in the low half) so that cells can be stored without allocating
+     * 
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return the packed coordinates
+     */
+    public static int pack(int x, int y) {
+        return (x << 16) | (y & 0xFFFF);
+    }
+
+    /**
+     * EFFECTS: returns the x coordinate of the given packed coordinates
+     * 
+     * @param cell the packed coordinates
+     * @return the x coordinate
+     */
+    public static int unpackX(int cell) {
+        return cell >> 16;
+    }
+
+    /**
+     * EFFECTS: returns the y coordinate of the given packed coordinates
+     * 
+     * @param cell the packed coordinates
+     * @return the y coordinate
+     */
+    public static int unpackY(int cell) {
+        return (short) cell;
+    }
+
+    /**
+     * EFFECTS: returns the position of the given packed coordinates
+     * 
+     * @param cell the packed coordinates
+     * @return the position of the packed coordinates
+     */
+    public static Position unpack(int cell) {
+        return new Position(unpackX(cell), unpackY(cell));
+    }
+
+    /**
+     * EFFECTS: returns this position as packed coordinates
+     * 
+     * @return this position as packed coordinates
+     */
+    public int pack() {
+        return pack(posX, posY);
+    }
+
     /**
      * EFFECTS: returns the x coordinate
      * 
@@ -69,4 +123,15 @@ public class Position implements Jsonizable {
         json.put("posY", posY);
         return json;
     }
+
+    /**
+     * EFFECTS: writes the position as a JSON object to the given writer
+     */
+    @Override
+    public void writeJson(JsonStreamWriter writer) throws IOException {
+        writer.beginObject();
+        writer.name("posX").value(posX);
+        writer.name("posY").value(posY);
+        writer.endObject();
+    }
 }
@@ -1,40 +1,92 @@
 package model;
 
-import java.util.ArrayList;
+import java.io.IOException;
 import java.util.List;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import persistence.JsonStreamWriter;
 import persistence.Jsonizable;
 
 /**
  * The class that represents a snake in the game
  */
 public class Snake implements Jsonizable {
-    private Position head;
+    // packed coordinates of the head (see Position.pack)
+    private int head;
+    // the head as a position, created on demand and reset on every move
+    private Position headView;
     // first element is last part, last element is next to head
-    private final List<Position> body;
+    private final CellRing body;
+    private final List<Position> bodyView;
     // current facing direction
     private Direction direction;
     // the last position that was removed as a result of moving
-    private Position lastRemoved = new Position(0, 0);
+    private int lastRemoved = Position.pack(0, 0);
     private final String name;
     private int numApplesEaten;
+    // the occupancy grid shared with the game and this snake's layer in it
+    private final OccupancyGrid grid;
+    private final int layer;
+    // number of segments (head included) that lie outside the grid
+    private int offGridSegments;
+    // the match the events about this snake belong to (see GameConfig)
+    private final long matchId;
 
     /**
      * REQUIRE: posX and posY are positive integers
-     * EFFECTS: constructs a new snake with the given position and name
+     * EFFECTS: constructs a new snake with the given position and name that is
+     * not placed on any game board
      * 
      * @param posX the x coordinate of the head
      * @param posY the y coordinate of the head
      * @param name the name of the snake
      */
     public Snake(int posX, int posY, String name) {
-        this.head = new Position(posX, posY);
-        this.body = new ArrayList<>();
+        this(posX, posY, name, new OccupancyGrid(0, 0, 1), 0);
+    }
+
+    /**
+     * REQUIRE: posX and posY are positive integers; grid != null and layer is a
+     * valid layer of grid that is not used by another snake
+     * EFFECTS: constructs a new snake with the given position and name that
+     * records its segments in the given layer of the occupancy grid
+     *
+     * @param posX  the x coordinate of the head
+     * @param posY  the y coordinate of the head
+     * @param name  the name of the snake
+     * @param grid  the occupancy grid of the game board
+     * @param layer the layer of the grid that belongs to this snake
+     */
+    public Snake(int posX, int posY, String name, OccupancyGrid grid, int layer) {
+        this(posX, posY, name, grid, layer, Event.NO_MATCH);
+    }
+
+    /**
+     * REQUIRE: posX and posY are positive integers; grid != null and layer is a
+     * valid layer of grid that is not used by another snake
+     * EFFECTS: constructs a new snake of the given match with the given position
+     * and name that records its segments in the given layer of the occupancy
+     * grid
+     *
+     * @param posX    the x coordinate of the head
+     * @param posY    the y coordinate of the head
+     * @param name    the name of the snake
+     * @param grid    the occupancy grid of the game board
+     * @param layer   the layer of the grid that belongs to this snake
+     * @param matchId the id of the match the snake plays in (see GameConfig)
+     */
+    public Snake(int posX, int posY, String name, OccupancyGrid grid, int layer, long matchId) {
+        this.matchId = matchId;
+        this.head = Position.pack(posX, posY);
+        this.body = new CellRing();
+        this.bodyView = body.asPositions();
         this.direction = Direction.RIGHT;
         this.name = name;
+        this.grid = grid;
+        this.layer = layer;
+        occupy(head);
     }
 
     /**
@@ -42,11 +94,14 @@ public class Snake implements Jsonizable {
      */
     public void move() {
         // add the head to the end to fill the gap from moving
-        body.add(head);
+        body.addLast(head);
         // remove the tail of the snake to maintain size
-        lastRemoved = body.remove(0);
+        lastRemoved = body.removeFirst();
+        vacate(lastRemoved);
 
-        this.head = direction.move(this.head);
+        head = direction.move(head);
+        headView = null;
+        occupy(head);
     }
 
     /**
@@ -57,7 +112,24 @@ public class Snake implements Jsonizable {
      *         otherwise
      */
     public boolean hasCollided(Position pos) {
-        return head.equals(pos) || body.contains(pos);
+        return pos != null && hasCollided(pos.pack());
+    }
+
+    /**
+     * EFFECTS: returns whether the snake has collided with the given packed
+     * coordinates
+     * 
+     * @param cell the packed coordinates to check
+     * @return true if the snake has collided with the given cell, false otherwise
+     */
+    public boolean hasCollided(int cell) {
+        int x = Position.unpackX(cell);
+        int y = Position.unpackY(cell);
+        if (grid.contains(x, y)) {
+            return grid.count(layer, x, y) > 0;
+        }
+        // only segments that left the grid can be at an off-grid position
+        return offGridSegments > 0 && (head == cell || body.contains(cell));
     }
 
     /**
@@ -66,7 +138,13 @@ public class Snake implements Jsonizable {
      * @return true if the snake has collided with itself, false otherwise
      */
     public boolean hasCollidedWithSelf() {
-        return body.contains(head);
+        int x = Position.unpackX(head);
+        int y = Position.unpackY(head);
+        if (grid.contains(x, y)) {
+            // the head itself accounts for one of the segments in its cell
+            return grid.count(layer, x, y) > 1;
+        }
+        return offGridSegments > 1 && body.contains(head);
     }
 
     /**
@@ -74,7 +152,65 @@ public class Snake implements Jsonizable {
      * EFFECTS: grows the snake (length) by one unit
      */
     public void grow() {
-        body.add(0, lastRemoved);
+        body.addFirst(lastRemoved);
+        occupy(lastRemoved);
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: appends the given position to the body next to the head - for
+     * loading purposes
+     *
+     * @param pos the position of the body part
+     */
+    public void addBodyPart(Position pos) {
+        addBodyCell(pos.pack());
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: appends the segment at the given packed coordinates to the body
+     * next to the head - for loading purposes
+     *
+     * @param cell the packed coordinates of the body part
+     */
+    public void addBodyCell(int cell) {
+        body.addLast(cell);
+        occupy(cell);
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: records a segment at the given packed coordinates in the occupancy
+     * grid
+     *
+     * @param cell the packed coordinates of the segment
+     */
+    private void occupy(int cell) {
+        int x = Position.unpackX(cell);
+        int y = Position.unpackY(cell);
+        if (grid.contains(x, y)) {
+            grid.occupy(layer, x, y);
+        } else {
+            offGridSegments++;
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: removes a segment at the given packed coordinates from the
+     * occupancy grid
+     *
+     * @param cell the packed coordinates of the segment
+     */
+    private void vacate(int cell) {
+        int x = Position.unpackX(cell);
+        int y = Position.unpackY(cell);
+        if (grid.contains(x, y)) {
+            grid.vacate(layer, x, y);
+        } else {
+            offGridSegments--;
+        }
     }
 
     /**
@@ -93,16 +229,50 @@ public class Snake implements Jsonizable {
      * @return the head position of the snake
      */
     public Position getHead() {
+        if (headView == null) {
+            headView = Position.unpack(head);
+        }
+        return headView;
+    }
+
+    /**
+     * EFFECTS: returns the packed coordinates of the head of the snake
+     * 
+     * @return the packed coordinates of the head of the snake
+     */
+    public int getHeadCell() {
         return head;
     }
 
     /**
-     * EFFECTS: returns the body of the snake
+     * EFFECTS: returns a read-only view of the body of the snake
      * 
      * @return the body of the snake
      */
     public List<Position> getBody() {
-        return body;
+        return bodyView;
+    }
+
+    /**
+     * REQUIRE: 0 <= index < getBody().size()
+     * EFFECTS: returns the packed coordinates of the body part at the given
+     * index, 0 being the tail
+     * 
+     * @param index the index of the body part
+     * @return the packed coordinates of the body part
+     */
+    public int getBodyCell(int index) {
+        return body.get(index);
+    }
+
+    /**
+     * EFFECTS: returns a copy of the packed coordinates of the body, from the
+     * tail to the part next to the head
+     * 
+     * @return the packed coordinates of the body
+     */
+    public int[] copyBodyCells() {
+        return body.toArray();
     }
 
     /**
@@ -114,6 +284,15 @@ public class Snake implements Jsonizable {
         return name;
     }
 
+    /**
+     * EFFECTS: returns the id of the match the snake plays in
+     * 
+     * @return the match id, or Event.NO_MATCH
+     */
+    public long getMatchId() {
+        return matchId;
+    }
+
     /**
      * EFFECTS: returns the number of apples eaten by the snake
      * 
@@ -131,6 +310,17 @@ public class Snake implements Jsonizable {
         numApplesEaten++;
     }
 
+    /**
+     * MODIFIES: this
+     * EFFECTS: sets the number of apples eaten by the snake - for loading
+     * purposes
+     * 
+     * @param numApplesEaten the number of apples eaten
+     */
+    public void setNumApplesEaten(int numApplesEaten) {
+        this.numApplesEaten = numApplesEaten;
+    }
+
     /**
      * EFFECTS: returns the direction of the snake
      * 
@@ -147,7 +337,10 @@ public class Snake implements Jsonizable {
      * @param head the head position of the snake
      */
     public void setHead(Position head) {
-        this.head = head;
+        vacate(this.head);
+        this.head = head.pack();
+        this.headView = head;
+        occupy(this.head);
     }
 
     /**
@@ -157,28 +350,48 @@ public class Snake implements Jsonizable {
      */
     public JSONObject toJson() {
         JSONObject json = new JSONObject();
-        json.put("head", head.toJson());
+        json.put("head", getHead().toJson());
 
         JSONArray bodyJson = new JSONArray();
-        for (Position pos : body) {
+        for (Position pos : bodyView) {
             bodyJson.put(pos.toJson());
         }
         json.put("body", bodyJson);
 
         json.put("direction", direction.toJson());
-        json.put("lastRemoved", lastRemoved.toJson());
+        json.put("lastRemoved", getLastRemoved().toJson());
         json.put("name", name);
         json.put("numApplesEaten", numApplesEaten);
         return json;
     }
 
+    /**
+     * EFFECTS: writes the JSON representation of the snake to the given writer
+     * without building it first
+     */
+    @Override
+    public void writeJson(JsonStreamWriter writer) throws IOException {
+        writer.beginObject();
+        writer.name("head").value(getHead());
+        writer.name("body").beginArray();
+        for (Position pos : bodyView) {
+            writer.value(pos);
+        }
+        writer.endArray();
+        writer.name("direction").value(direction);
+        writer.name("lastRemoved").value(getLastRemoved());
+        writer.name("name").value(name);
+        writer.name("numApplesEaten").value(numApplesEaten);
+        writer.endObject();
+    }
+
     /**
      * MODIFIES: this
      * EFFECTS: sets the last removed position - for loading purposes
      * @param position the last removed position
      */
     public void setLastRemoved(Position position) {
-        this.lastRemoved = position;
+        this.lastRemoved = position.pack();
     }
 
     /**
@@ -186,6 +399,16 @@ public class Snake implements Jsonizable {
      * @return the last removed position
      */
     public Position getLastRemoved() {
+        return Position.unpack(lastRemoved);
+    }
+
+    /**
+     * EFFECTS: returns the packed coordinates (see Position.pack) of the last
+     * removed position
+     *
+     * @return the packed coordinates of the last removed position
+     */
+    public int getLastRemovedCell() {
         return lastRemoved;
     }
 }
@@ -1,9 +1,12 @@
 package model.achievements;
 
-import model.Event;
+import java.io.IOException;
+
 import model.EventLog;
+import model.EventType;
 import model.Snake;
 import org.json.JSONObject;
+import persistence.JsonStreamWriter;
 
 /**
  * The abstract class for achievements that each achievement inherits from.
@@ -61,8 +64,8 @@ public class BaseAchievement implements Achievement {
      * MODIFIES: EventLog
      */
     public void updateValue(double value) {
-        EventLog.getInstance().logEvent(new Event("Updated achievement " + this.title + " from " + snake.getName()
-                + " by " + value));
+        EventLog.getInstance().log(snake.getMatchId(), EventType.ACHIEVEMENT_UPDATED, this.title, snake.getName(),
+                value);
     }
 
     /**
@@ -75,4 +78,28 @@ public class BaseAchievement implements Achievement {
         json.put("snake", snake.getName());
         return json;
     }
+
+    /**
+     * EFFECTS: writes the JSON representation of this achievement to the given
+     * writer
+     */
+    @Override
+    public void writeJson(JsonStreamWriter writer) throws IOException {
+        writer.beginObject();
+        writeJsonMembers(writer);
+        writer.endObject();
+    }
+
+    /**
+     * EFFECTS: writes the members of the JSON representation of this
+     * achievement to the given writer
+     * 
+     * @param writer the writer to write to
+     * @throws IOException if writing fails
+     */
+    protected void writeJsonMembers(JsonStreamWriter writer) throws IOException {
+        writer.name("title").value(title);
+        writer.name("description").value(description);
+        writer.name("snake").value(snake.getName());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,72 @@
+package model.achievements;
+
+import model.Direction;
+
+/**
+ * The statistical achievements every snake starts with. A stat is a handle
+ * that looks up the statistical achievement of a snake without comparing
+ * titles (see AchievementCollection.getStat).
+ */
+public enum Stat {
+    KEY_STROKE("Key Stroke", "Number of keys pressed"),
+    STEP_UPWARDS("Step Upwards", "Number of steps going upwards"),
+    STEP_DOWNWARDS("Step Downwards", "Number of steps going downwards"),
+    STEP_LEFTWARDS("Step Leftwards", "Number of steps going leftwards"),
+    STEP_RIGHTWARDS("Step Rightwards", "Number of steps going rightwards"),
+    TOTAL_ROUNDS("Total Rounds", "Number of rounds played"),
+    APPLES_EATEN("Apples Eaten", "Number of apples eaten");
+
+    private final String title;
+    private final String description;
+
+    /**
+     * EFFECTS: constructs a stat with the given title and description
+     * 
+     * @param title       the title of the statistical achievement
+     * @param description the description of the statistical achievement
+     */
+    Stat(String title, String description) {
+        this.title = title;
+        this.description = description;
+    }
+
+    /**
+     * EFFECTS: returns the title of the statistical achievement
+     * 
+     * @return the title of the statistical achievement
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * EFFECTS: returns the description of the statistical achievement
+     * 
+     * @return the description of the statistical achievement
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * EFFECTS: returns the stat counting steps in the given direction, null for
+     * PAUSE
+     * 
+     * @param direction the direction of the step
+     * @return the stat counting steps in the direction
+     */
+    public static Stat step(Direction direction) {
+        switch (direction) {
+            case UP:
+                return STEP_UPWARDS;
+            case DOWN:
+                return STEP_DOWNWARDS;
+            case LEFT:
+                return STEP_LEFTWARDS;
+            case RIGHT:
+                return STEP_RIGHTWARDS;
+            default:
+                return null;
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package model.achievements;
 
+import java.io.IOException;
+
 import org.json.JSONObject;
 
 import model.Snake;
+import persistence.JsonStreamWriter;
 
 /**
  * StatisticalAchievement is a type of achievement that has a value associated.
@@ -70,4 +73,14 @@ public class StatisticalAchievement extends BaseAchievement {
         return json;
     }
 
+    /**
+     * EFFECTS: writes the members of the JSON representation of this
+     * achievement, including its value, to the given writer
+     */
+    @Override
+    protected void writeJsonMembers(JsonStreamWriter writer) throws IOException {
+        super.writeJsonMembers(writer);
+        writer.name("value").value(this.getValue());
+    }
+
 }
@@ -0,0 +1,61 @@
+package persistence;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Replaces files atomically: the new contents are written to a temporary file
+ * next to the target, forced to the disk and then renamed over the target, so
+ * a crash while writing leaves either the old or the new file, never a mix.
+ */
+final class AtomicFiles {
+    /**
+     * Writes the contents of a file
+     */
+    interface Contents {
+        /**
+         * MODIFIES: channel
+         * EFFECTS: writes the contents to the given channel
+         *
+         * @param channel the channel of the temporary file
+         * @throws IOException if writing fails
+         */
+        void writeTo(FileChannel channel) throws IOException;
+    }
+
+    private AtomicFiles() {
+    }
+
+    /**
+     * MODIFIES: the file at target
+     * EFFECTS: replaces the file at target with the given contents; the file
+     * is unchanged if writing fails
+     *
+     * @param target   the file to replace
+     * @param contents the new contents
+     * @throws IOException if writing or renaming fails
+     */
+    static void write(Path target, Contents contents) throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        // a unique name, so that concurrent saves of the same file do not collide
+        Path temp = Files.createTempFile(directory, "." + target.getFileName(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                contents.writeTo(channel);
+                channel.force(true);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package persistence;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import org.json.JSONObject;
+
+/**
+ * Saves a game in the background so that saving never stalls the game loop.
+ * The game thread hands over an immutable snapshot (see model.GameSnapshot),
+ * which takes no longer than copying the snakes; a background thread writes
+ * it with JsonSaver.writeJson, which replaces the file atomically. If the
+ * writer falls behind, only the newest snapshot is written.
+ */
+public class AutoSaver implements AutoCloseable {
+    // handed over instead of a snapshot to have the save deleted
+    private static final Jsonizable DISCARD = JSONObject::new;
+    private final String path;
+    private final SaveCodec codec;
+    private final long intervalNanos;
+    private final AtomicReference<Jsonizable> pending = new AtomicReference<>();
+    private final Thread thread;
+    // when onTick takes the next snapshot; only used by the game thread
+    private long nextSaveNanos;
+    private volatile int saveCount;
+    private volatile boolean running;
+
+    /**
+     * REQUIRES: path is a file that can be written to and intervalMillis > 0
+     * EFFECTS: constructs an auto saver that writes to the given file at most
+     * once per given interval when started
+     *
+     * @param path           the file to save to
+     * @param intervalMillis the time between two automatic saves
+     */
+    public AutoSaver(String path, long intervalMillis) {
+        this(path, intervalMillis, SaveCodec.PLAIN);
+    }
+
+    /**
+     * REQUIRES: path is a file that can be written to and intervalMillis > 0
+     * EFFECTS: constructs an auto saver that writes to the given file at most
+     * once per given interval when started, compressed with the given codec
+     *
+     * @param path           the file to save to
+     * @param intervalMillis the time between two automatic saves
+     * @param codec          the codec to compress the saves with
+     */
+    public AutoSaver(String path, long intervalMillis, SaveCodec codec) {
+        this.path = path;
+        this.codec = codec;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        this.thread = new Thread(this::run, "auto-saver");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: starts saving in the background; the first automatic save is due
+     * one interval from now
+     */
+    public void start() {
+        nextSaveNanos = System.nanoTime() + intervalNanos;
+        running = true;
+        thread.start();
+    }
+
+    /**
+     * REQUIRES: called on the game thread between two ticks
+     * MODIFIES: this
+     * EFFECTS: takes a snapshot and hands it to the background thread if an
+     * automatic save is due; returns whether it did
+     *
+     * @param snapshot takes the snapshot to save
+     * @return whether a snapshot was taken
+     */
+    public boolean onTick(Supplier<? extends Jsonizable> snapshot) {
+        long now = System.nanoTime();
+        if (now - nextSaveNanos < 0) {
+            return false;
+        }
+        nextSaveNanos = now + intervalNanos;
+        save(snapshot.get());
+        return true;
+    }
+
+    /**
+     * REQUIRES: snapshot does not change anymore
+     * MODIFIES: this
+     * EFFECTS: hands the given snapshot to the background thread to be saved,
+     * replacing a snapshot that has not been written yet
+     *
+     * @param snapshot the snapshot to save
+     */
+    public void save(Jsonizable snapshot) {
+        pending.set(snapshot);
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: has the background thread delete the save instead of writing
+     * the snapshot that is still pending, if any, so that a game that has
+     * ended cannot be loaded from it
+     */
+    public void discard() {
+        save(DISCARD);
+    }
+
+    /**
+     * EFFECTS: returns how many snapshots have been written so far
+     *
+     * @return the number of snapshots written
+     */
+    public int getSaveCount() {
+        return saveCount;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: writes the snapshot that is still pending, if any, and stops the
+     * background thread; waits for the thread to finish unless interrupted, in
+     * which case the interrupt status is set again and the thread finishes on
+     * its own
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: writes snapshots as they are handed over until closed, then
+     * writes the last pending one
+     */
+    private void run() {
+        while (running) {
+            writePending();
+            if (running && pending.get() == null) {
+                LockSupport.park(this);
+            }
+        }
+        writePending();
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: writes the pending snapshot, or deletes the save if it was
+     * discarded; if writing fails, the error is printed and the previous save
+     * stays in place
+     */
+    private void writePending() {
+        Jsonizable snapshot = pending.getAndSet(null);
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            if (snapshot == DISCARD) {
+                Files.deleteIfExists(Paths.get(path));
+            } else {
+                JsonSaver.writeJson(path, snapshot, false, codec);
+                saveCount++;
+            }
+        } catch (IOException | RuntimeException e) {
+            // keep the thread alive for the next snapshot
+            System.out.println("Error autosaving game: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package persistence;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import model.Event;
+
+/**
+ * Encodes events in a compact binary format. A file is a sequence of segments;
+ * every segment starts with the magic bytes and a version and has its own
+ * string table and time base, so segments can simply be appended to each
+ * other. After the header, a segment holds records that start with a tag:
+ * <ul>
+ * <li>STRING: varint id, varint length, UTF-8 bytes; defines the next entry of
+ * the string table before its first use</li>
+ * <li>EVENT: varint match id, zig-zag varint difference of the time to the
+ * previous event of the segment in milliseconds, varint type code (ordinal of
+ * EventType), a flags byte and the arguments that the flags announce: varint
+ * string ids of the first and second argument and the value, as a zig-zag
+ * varint if it is a whole number and as 8 bytes otherwise</li>
+ * </ul>
+ * Every event is written with the match id it was logged with (see
+ * Event.getMatchId), so the events of many matches, even of matches played at
+ * the same time, can be multiplexed into one file and told apart again.
+ */
+public class BinaryEventEncoder implements EventEncoder {
+    static final byte[] MAGIC = { 'S', 'N', 'E', 'V' };
+    static final int VERSION = 1;
+    static final int TAG_STRING = 1;
+    static final int TAG_EVENT = 2;
+    static final int HAS_FIRST = 1;
+    static final int HAS_SECOND = 2;
+    static final int HAS_VALUE = 4;
+    static final int DOUBLE_VALUE = 8;
+    private final Map<String, Integer> strings = new HashMap<>();
+    private long lastTime;
+    private byte[] bytes = new byte[64];
+    private int size;
+
+    @Override
+    public byte[] startFile() {
+        strings.clear();
+        lastTime = 0;
+        size = 0;
+        for (byte b : MAGIC) {
+            writeByte(b);
+        }
+        writeByte(VERSION);
+        return Arrays.copyOf(bytes, size);
+    }
+
+    @Override
+    public byte[] encode(Event event) {
+        size = 0;
+        int first = intern(event.getFirstArgument());
+        int second = intern(event.getSecondArgument());
+        double value = event.getValue();
+        int flags = (first >= 0 ? HAS_FIRST : 0) | (second >= 0 ? HAS_SECOND : 0) | (value != 0 ? HAS_VALUE : 0);
+        boolean whole = value == (long) value;
+        if (value != 0 && !whole) {
+            flags |= DOUBLE_VALUE;
+        }
+        writeByte(TAG_EVENT);
+        writeVarLong(event.getMatchId());
+        writeVarLong(zigZag(event.getTime() - lastTime));
+        lastTime = event.getTime();
+        writeVarLong(event.getType().ordinal());
+        writeByte(flags);
+        writeIds(flags, first, second);
+        if (value != 0) {
+            writeValue(value, whole);
+        }
+        return Arrays.copyOf(bytes, size);
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: writes the string ids the flags announce
+     *
+     * @param flags  the flags of the event
+     * @param first  the id of the first argument
+     * @param second the id of the second argument
+     */
+    private void writeIds(int flags, int first, int second) {
+        if ((flags & HAS_FIRST) != 0) {
+            writeVarLong(first);
+        }
+        if ((flags & HAS_SECOND) != 0) {
+            writeVarLong(second);
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: writes the value as a zig-zag varint if it is whole, as the 8
+     * bytes of the double otherwise
+     *
+     * @param value the value
+     * @param whole whether the value is a whole number
+     */
+    private void writeValue(double value, boolean whole) {
+        if (whole) {
+            writeVarLong(zigZag((long) value));
+            return;
+        }
+        long raw = Double.doubleToLongBits(value);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            writeByte((int) (raw >>> shift));
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: returns the id of the given string in the string table, writing
+     * its definition first if it is new; returns -1 for null
+     *
+     * @param string the string
+     * @return the id of the string, or -1 for null
+     */
+    private int intern(String string) {
+        if (string == null) {
+            return -1;
+        }
+        Integer id = strings.get(string);
+        if (id != null) {
+            return id;
+        }
+        int newId = strings.size();
+        strings.put(string, newId);
+        byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+        writeByte(TAG_STRING);
+        writeVarLong(newId);
+        writeVarLong(utf8.length);
+        ensureCapacity(utf8.length);
+        System.arraycopy(utf8, 0, bytes, size, utf8.length);
+        size += utf8.length;
+        return newId;
+    }
+
+    /**
+     * EFFECTS: returns the zig-zag encoding of the given number, which keeps
+     * small negative numbers small
+     *
+     * @param n the number
+     * @return the zig-zag encoding
+     */
+    static long zigZag(long n) {
+        return (n << 1) ^ (n >> 63);
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: writes the given unsigned number in 7-bit groups, low group first,
+     * with the high bit of each byte telling whether more groups follow
+     *
+     * @param n the number
+     */
+    private void writeVarLong(long n) {
+        while ((n & ~0x7FL) != 0) {
+            writeByte((int) ((n & 0x7F) | 0x80));
+            n >>>= 7;
+        }
+        writeByte((int) n);
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: writes the low byte of the given number
+     *
+     * @param b the byte
+     */
+    private void writeByte(int b) {
+        ensureCapacity(1);
+        bytes[size++] = (byte) b;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: grows the scratch buffer so that the given number of bytes fit
+     *
+     * @param extra the number of bytes to add
+     */
+    private void ensureCapacity(int extra) {
+        if (size + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+        }
+    }
+}
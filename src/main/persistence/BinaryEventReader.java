@@ -0,0 +1,292 @@
+package persistence;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import model.Event;
+import model.EventType;
+
+/**
+ * Reads a file written with BinaryEventEncoder one event at a time, so logs of
+ * any size can be decoded and filtered without loading them into memory.
+ * advance() moves to the next event, whose fields can then be inspected
+ * without building an Event; toEvent() builds one for the events that are
+ * kept.
+ */
+public class BinaryEventReader implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final EventType[] TYPES = EventType.values();
+    private final InputStream in;
+    // bytes read from the stream but not decoded yet are buffer[position..limit)
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private final List<String> strings = new ArrayList<>();
+    private long lastTime;
+    private long matchId;
+    private EventType type;
+    private String first;
+    private String second;
+    private double value;
+
+    /**
+     * EFFECTS: constructs a reader of the given stream
+     *
+     * @param in the stream to read, positioned at the start of a segment
+     */
+    public BinaryEventReader(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * EFFECTS: constructs a reader of the given file
+     *
+     * @param path the file to read
+     * @throws IOException if the file cannot be opened
+     */
+    public BinaryEventReader(String path) throws IOException {
+        this(Files.newInputStream(Paths.get(path)));
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: moves to the next event and returns true, or returns false at the
+     * end of the stream
+     *
+     * @return whether there is another event
+     * @throws IOException if the stream cannot be read or is malformed
+     */
+    public boolean advance() throws IOException {
+        while (true) {
+            int tag = read();
+            if (tag < 0) {
+                return false;
+            } else if (tag == BinaryEventEncoder.TAG_EVENT) {
+                readEvent();
+                return true;
+            } else if (tag == BinaryEventEncoder.TAG_STRING) {
+                readString();
+            } else if (tag == BinaryEventEncoder.MAGIC[0]) {
+                readHeader();
+            } else {
+                throw new IOException("Unknown record tag " + tag);
+            }
+        }
+    }
+
+    /**
+     * EFFECTS: returns the match id of the current event
+     *
+     * @return the match id of the current event
+     */
+    public long getMatchId() {
+        return matchId;
+    }
+
+    /**
+     * EFFECTS: returns the time of the current event in milliseconds since the
+     * epoch
+     *
+     * @return the time of the current event
+     */
+    public long getTime() {
+        return lastTime;
+    }
+
+    /**
+     * EFFECTS: returns the type of the current event
+     *
+     * @return the type of the current event
+     */
+    public EventType getType() {
+        return type;
+    }
+
+    /**
+     * EFFECTS: returns the name of the snake of the current event, or null if it
+     * is not about a snake
+     *
+     * @return the name of the snake of the current event
+     */
+    public String getSnakeName() {
+        return type.snakeOf(first, second);
+    }
+
+    /**
+     * EFFECTS: returns the current event
+     *
+     * @return the current event
+     */
+    public Event toEvent() {
+        return new Event(lastTime, matchId, type, first, second, value);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: reads the rest of a segment header and starts a new segment
+     *
+     * @throws IOException if the header is malformed
+     */
+    private void readHeader() throws IOException {
+        byte[] magic = new byte[BinaryEventEncoder.MAGIC.length];
+        magic[0] = BinaryEventEncoder.MAGIC[0];
+        readFully(magic, 1, magic.length - 1);
+        if (!Arrays.equals(magic, BinaryEventEncoder.MAGIC)) {
+            throw new IOException("Not a binary event log");
+        }
+        int version = readByte();
+        if (version != BinaryEventEncoder.VERSION) {
+            throw new IOException("Unsupported event log version " + version);
+        }
+        strings.clear();
+        lastTime = 0;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: reads a string definition into the string table
+     *
+     * @throws IOException if the record is malformed
+     */
+    private void readString() throws IOException {
+        long id = readVarLong();
+        if (id != strings.size()) {
+            throw new IOException("String " + id + " defined out of order");
+        }
+        byte[] utf8 = new byte[(int) readVarLong()];
+        readFully(utf8, 0, utf8.length);
+        strings.add(new String(utf8, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: reads an event record into the current event
+     *
+     * @throws IOException if the record is malformed
+     */
+    private void readEvent() throws IOException {
+        matchId = readVarLong();
+        lastTime += unZigZag(readVarLong());
+        long code = readVarLong();
+        if (code >= TYPES.length) {
+            throw new IOException("Unknown event type " + code);
+        }
+        type = TYPES[(int) code];
+        int flags = readByte();
+        first = (flags & BinaryEventEncoder.HAS_FIRST) != 0 ? string(readVarLong()) : null;
+        second = (flags & BinaryEventEncoder.HAS_SECOND) != 0 ? string(readVarLong()) : null;
+        value = 0;
+        if ((flags & BinaryEventEncoder.DOUBLE_VALUE) != 0) {
+            long raw = 0;
+            for (int i = 0; i < 8; i++) {
+                raw = (raw << 8) | readByte();
+            }
+            value = Double.longBitsToDouble(raw);
+        } else if ((flags & BinaryEventEncoder.HAS_VALUE) != 0) {
+            value = unZigZag(readVarLong());
+        }
+    }
+
+    /**
+     * EFFECTS: returns the string with the given id
+     *
+     * @param id the id of the string
+     * @return the string
+     * @throws IOException if the string has not been defined
+     */
+    private String string(long id) throws IOException {
+        if (id >= strings.size()) {
+            throw new IOException("Undefined string " + id);
+        }
+        return strings.get((int) id);
+    }
+
+    /**
+     * EFFECTS: decodes a zig-zag encoded number
+     *
+     * @param n the zig-zag encoding
+     * @return the number
+     */
+    private static long unZigZag(long n) {
+        return (n >>> 1) ^ -(n & 1);
+    }
+
+    /**
+     * EFFECTS: reads a varint (see BinaryEventEncoder)
+     *
+     * @return the number
+     * @throws IOException if the stream ends or the varint is too long
+     */
+    private long readVarLong() throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    /**
+     * EFFECTS: reads a byte
+     *
+     * @return the byte as an unsigned number
+     * @throws IOException if the stream ends
+     */
+    private int readByte() throws IOException {
+        int b = read();
+        if (b < 0) {
+            throw new EOFException("Truncated event log");
+        }
+        return b;
+    }
+
+    /**
+     * EFFECTS: reads exactly the given number of bytes into the array
+     *
+     * @param target the array to read into
+     * @param offset the first index to fill
+     * @param length the number of bytes to read
+     * @throws IOException if the stream ends
+     */
+    private void readFully(byte[] target, int offset, int length) throws IOException {
+        for (int i = offset; i < offset + length; i++) {
+            target[i] = (byte) readByte();
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: reads a byte, refilling the buffer from the stream when it is
+     * empty
+     *
+     * @return the byte as an unsigned number, or -1 at the end of the stream
+     * @throws IOException if the stream cannot be read
+     */
+    private int read() throws IOException {
+        while (position == limit) {
+            limit = in.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit < 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++] & 0xFF;
+    }
+}
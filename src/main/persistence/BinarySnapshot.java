@@ -0,0 +1,663 @@
+package persistence;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import model.AchievementCollection;
+import model.Direction;
+import model.Game;
+import model.Position;
+import model.Snake;
+import model.achievements.Achievement;
+import model.achievements.GeneralAchievement;
+import model.achievements.StatisticalAchievement;
+
+/**
+ * Saves and loads games in a compact binary format, next to the JSON format of
+ * JsonSaver and JsonLoader. A snapshot starts with a 16 byte header: the magic
+ * number "SNKS", the format version (2 bytes), reserved flags (2 bytes), the
+ * length of the payload and the CRC32 of the payload. The payload starts with
+ * a table of its sections: their count (int), then the offset from the start
+ * of the payload and the length of each (ints). The sections hold, as
+ * big-endian numbers:
+ * <ul>
+ * <li>the playable state, which is enough to resume the game:
+ * <ul>
+ * <li>the board size, ticks per second, scores and no-eat counts (ints)</li>
+ * <li>both snakes: name, head (packed cell, see Position.pack), direction
+ * ordinal (byte), last removed cell, apples eaten and the body from tail to
+ * head, either as packed cells or as the first cell followed by the direction
+ * of each further segment in 2 bits</li>
+ * <li>the food as packed cells</li>
+ * </ul>
+ * </li>
+ * <li>the achievements, which can be loaded later (see decodePlayable): kind
+ * (byte), title, description, snake name and, for statistical achievements,
+ * the value (double)</li>
+ * </ul>
+ * Strings are an int length followed by UTF-8 bytes. Version 1 snapshots,
+ * which have no table and the achievements right after the food, can still be
+ * read.
+ */
+public class BinarySnapshot {
+    static final int MAGIC = 0x534E4B53;
+    static final int VERSION = 2;
+    static final int HEADER_BYTES = 16;
+    private static final int UNSECTIONED_VERSION = 1;
+    // the playable state and the achievements
+    private static final int SECTIONS = 2;
+    private static final int TABLE_BYTES = Integer.BYTES + SECTIONS * 2 * Integer.BYTES;
+    private static final int PACKED_BODY = 0;
+    private static final int DIRECTION_BODY = 1;
+    private static final int GENERAL_ACHIEVEMENT = 0;
+    private static final int STATISTICAL_ACHIEVEMENT = 1;
+    // the directions a body can be encoded with, indexed by their 2 bit code
+    private static final Direction[] STEPS = { Direction.UP, Direction.DOWN, Direction.RIGHT, Direction.LEFT };
+    private ByteBuffer buffer;
+
+    private BinarySnapshot(int capacity) {
+        this.buffer = ByteBuffer.allocate(capacity);
+    }
+
+    /**
+     * REQUIRES: path is a valid path that can be written to; game != null
+     * EFFECTS: saves the given game to the given path as a binary snapshot,
+     * replacing the file atomically; returns whether it was saved
+     *
+     * @param path the path to save the game to
+     * @param game the game to save
+     * @return whether the game was saved
+     */
+    public static boolean saveGame(String path, Game game) {
+        ByteBuffer snapshot = encode(game);
+        try {
+            AtomicFiles.write(Paths.get(path), channel -> {
+                while (snapshot.hasRemaining()) {
+                    channel.write(snapshot);
+                }
+            });
+        } catch (Exception e) {
+            System.out.println("Error saving file: " + e.getMessage());
+            return false;
+        }
+        System.out.println("Game successfully saved to " + path);
+        return true;
+    }
+
+    /**
+     * REQUIRES: game, snake1, snake2 are valid and not null
+     * MODIFIES: game, snake1, snake2
+     * EFFECTS: loads the binary snapshot at the given path into the given
+     * objects; returns false if the file cannot be read or is not a valid
+     * snapshot. A damaged file fails its checksum before anything is loaded.
+     *
+     * @param path   the path to the snapshot
+     * @param game   the game to update
+     * @param snake1 the first snake to update
+     * @param snake2 the second snake to update
+     * @return whether the game was loaded
+     */
+    public static boolean loadGame(String path, Game game, Snake snake1, Snake snake2) {
+        try {
+            decode(ByteBuffer.wrap(Files.readAllBytes(Paths.get(path))), game, snake1, snake2);
+            return true;
+        } catch (Exception e) {
+            System.out.println("Error loading file: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * EFFECTS: returns whether the given bytes start with the magic number of a
+     * snapshot
+     *
+     * @param bytes the bytes, from their position on
+     * @return whether they look like a snapshot
+     */
+    public static boolean isSnapshot(ByteBuffer bytes) {
+        return bytes.remaining() >= Integer.BYTES && bytes.getInt(bytes.position()) == MAGIC;
+    }
+
+    /**
+     * REQUIRES: game != null
+     * EFFECTS: returns the snapshot of the given game, ready to be read
+     *
+     * @param game the game
+     * @return the snapshot, including the header
+     */
+    public static ByteBuffer encode(Game game) {
+        int bodies = game.getSnake1().getBody().size() + game.getSnake2().getBody().size();
+        BinarySnapshot snapshot = new BinarySnapshot(HEADER_BYTES + 1024 + bodies * Integer.BYTES);
+        snapshot.buffer.position(HEADER_BYTES);
+        snapshot.writeSections(game);
+        ByteBuffer bytes = snapshot.buffer;
+        int payloadLength = bytes.position() - HEADER_BYTES;
+        CRC32 crc = new CRC32();
+        crc.update(bytes.array(), HEADER_BYTES, payloadLength);
+        bytes.putInt(0, MAGIC);
+        bytes.putShort(4, (short) VERSION);
+        bytes.putShort(6, (short) 0);
+        bytes.putInt(8, payloadLength);
+        bytes.putInt(12, (int) crc.getValue());
+        bytes.flip();
+        return bytes;
+    }
+
+    /**
+     * REQUIRES: game, snake1, snake2 are valid and not null
+     * MODIFIES: game, snake1, snake2, bytes
+     * EFFECTS: reads the snapshot from the given bytes into the given objects
+     *
+     * @param bytes  the snapshot, including the header
+     * @param game   the game to update
+     * @param snake1 the first snake to update
+     * @param snake2 the second snake to update
+     * @throws IOException if the bytes are not a valid snapshot
+     */
+    public static void decode(ByteBuffer bytes, Game game, Snake snake1, Snake snake2) throws IOException {
+        readGame(readSections(bytes), game, snake1, snake2);
+    }
+
+    /**
+     * REQUIRES: game, snake1, snake2 are valid and not null
+     * MODIFIES: game, snake1, snake2, bytes
+     * EFFECTS: reads the playable state of the snapshot from the given bytes
+     * into the given objects and returns its achievements, which are only
+     * read when they are hydrated
+     *
+     * @param bytes  the snapshot, including the header
+     * @param game   the game to update
+     * @param snake1 the first snake to update
+     * @param snake2 the second snake to update
+     * @return the achievements of the snapshot, not loaded yet
+     * @throws IOException if the bytes are not a valid snapshot
+     */
+    public static PendingAchievements decodePlayable(ByteBuffer bytes, Game game, Snake snake1, Snake snake2)
+            throws IOException {
+        ByteBuffer[] sections = readSections(bytes);
+        readPlayable(sections[0], game, snake1, snake2);
+        // in a version 1 snapshot, the achievements follow the playable state
+        return new PendingAchievements(sections[1].slice(), game, snake1, snake2);
+    }
+
+    /**
+     * MODIFIES: bytes
+     * EFFECTS: returns a new game of the board size in the given snapshot, with
+     * the snapshot loaded into it instead of randomly placed food
+     *
+     * @param bytes the snapshot, including the header
+     * @return the game
+     * @throws IOException if the bytes are not a valid snapshot
+     */
+    public static Game decodeNewGame(ByteBuffer bytes) throws IOException {
+        ByteBuffer[] sections = readSections(bytes);
+        ByteBuffer playable = sections[0];
+        if (playable.remaining() < 2 * Integer.BYTES) {
+            throw new IOException("Malformed snapshot");
+        }
+        int maxX = playable.getInt(playable.position());
+        int maxY = playable.getInt(playable.position() + Integer.BYTES);
+        if (maxX <= 0 || maxY <= 0 || maxX > Short.MAX_VALUE || maxY > Short.MAX_VALUE) {
+            throw new IOException("Malformed board size " + maxX + "x" + maxY);
+        }
+        Game game = new Game(maxX, maxY);
+        game.getFood().clear();
+        readGame(sections, game, game.getSnake1(), game.getSnake2());
+        return game;
+    }
+
+    /**
+     * MODIFIES: bytes
+     * EFFECTS: checks the header and the checksum of the snapshot and returns
+     * its payload
+     *
+     * @param bytes the snapshot, including the header
+     * @return the payload
+     * @throws IOException if the bytes are not a valid snapshot
+     */
+    private static ByteBuffer checkHeader(ByteBuffer bytes) throws IOException {
+        if (bytes.remaining() < HEADER_BYTES || bytes.getInt() != MAGIC) {
+            throw new IOException("Not a binary snapshot");
+        }
+        int version = bytes.getShort();
+        if (version != VERSION && version != UNSECTIONED_VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        bytes.getShort();
+        int length = bytes.getInt();
+        int checksum = bytes.getInt();
+        if (length < 0 || length > bytes.remaining()) {
+            throw new IOException("Truncated snapshot");
+        }
+        ByteBuffer payload = bytes.slice();
+        payload.limit(length);
+        bytes.position(bytes.position() + length);
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        if ((int) crc.getValue() != checksum) {
+            throw new IOException("Snapshot checksum mismatch");
+        }
+        return payload;
+    }
+
+    /**
+     * MODIFIES: bytes
+     * EFFECTS: checks the header and the checksum of the snapshot and returns
+     * its playable state and its achievements; in a version 1 snapshot both
+     * are the whole payload, the achievements following the playable state
+     *
+     * @param bytes the snapshot, including the header
+     * @return the playable state and the achievements
+     * @throws IOException if the bytes are not a valid snapshot
+     */
+    private static ByteBuffer[] readSections(ByteBuffer bytes) throws IOException {
+        int start = bytes.position();
+        ByteBuffer payload = checkHeader(bytes);
+        if (bytes.getShort(start + Integer.BYTES) == UNSECTIONED_VERSION) {
+            return new ByteBuffer[] { payload, payload };
+        }
+        if (payload.remaining() < TABLE_BYTES || payload.getInt(0) != SECTIONS) {
+            throw new IOException("Malformed section table");
+        }
+        ByteBuffer[] sections = new ByteBuffer[SECTIONS];
+        for (int i = 0; i < SECTIONS; i++) {
+            int offset = payload.getInt((2 * i + 1) * Integer.BYTES);
+            int length = payload.getInt((2 * i + 2) * Integer.BYTES);
+            if (offset < TABLE_BYTES || length < 0 || length > payload.limit() - offset) {
+                throw new IOException("Malformed section table");
+            }
+            ByteBuffer section = payload.duplicate();
+            section.position(offset);
+            section.limit(offset + length);
+            sections[i] = section.slice();
+        }
+        return sections;
+    }
+
+    /**
+     * REQUIRES: the sections passed their checksum
+     * MODIFIES: sections, game, snake1, snake2
+     * EFFECTS: reads the playable state and the achievements into the given
+     * objects
+     *
+     * @param sections the playable state and the achievements
+     * @param game     the game to update
+     * @param snake1   the first snake to update
+     * @param snake2   the second snake to update
+     * @throws IOException if a section is malformed
+     */
+    private static void readGame(ByteBuffer[] sections, Game game, Snake snake1, Snake snake2)
+            throws IOException {
+        readPlayable(sections[0], game, snake1, snake2);
+        for (Achievement saved : readAchievements(sections[1], snake1, snake2)) {
+            restore(game.getAchievements(), saved);
+        }
+    }
+
+    /**
+     * REQUIRES: the section passed its checksum
+     * MODIFIES: section, game, snake1, snake2
+     * EFFECTS: reads the playable state into the given objects
+     *
+     * @param section the playable state of a snapshot
+     * @param game    the game to update
+     * @param snake1  the first snake to update
+     * @param snake2  the second snake to update
+     * @throws IOException if the section is malformed
+     */
+    private static void readPlayable(ByteBuffer section, Game game, Snake snake1, Snake snake2)
+            throws IOException {
+        try {
+            // the board size is only needed by decodeNewGame
+            section.getInt();
+            section.getInt();
+            game.getConfig().setTicksPerSecond(section.getInt());
+            game.setScore1(section.getInt());
+            game.setScore2(section.getInt());
+            game.setNoEatCount1(section.getInt());
+            game.setNoEatCount2(section.getInt());
+            readSnake(section, snake1);
+            readSnake(section, snake2);
+            for (int count = section.getInt(); count > 0; count--) {
+                game.getFood().add(Position.unpack(section.getInt()));
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Malformed snapshot", e);
+        }
+    }
+
+    /**
+     * REQUIRES: the section passed its checksum
+     * MODIFIES: section
+     * EFFECTS: returns the achievements in the given section, detached from
+     * any game; reading them touches nothing but the section, so that it can
+     * be done on any thread
+     *
+     * @param section the achievements of a snapshot
+     * @param snake1  the first snake
+     * @param snake2  the second snake
+     * @return the achievements, in the order they were saved
+     * @throws IOException if the section is malformed
+     */
+    static List<Achievement> readAchievements(ByteBuffer section, Snake snake1, Snake snake2) throws IOException {
+        try {
+            int count = section.getInt();
+            if (count < 0) {
+                throw new IOException("Malformed achievement count");
+            }
+            List<Achievement> achievements = new ArrayList<>(Math.min(count, section.remaining()));
+            for (int i = 0; i < count; i++) {
+                achievements.add(readAchievement(section, snake1, snake2));
+            }
+            return achievements;
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Malformed snapshot", e);
+        }
+    }
+
+    /**
+     * MODIFIES: achievements
+     * EFFECTS: sets the value of the statistical achievement with the title
+     * and snake of the given one, or adds the given achievement
+     *
+     * @param achievements the achievements of the game
+     * @param saved        the achievement read from a snapshot
+     */
+    private static void restore(AchievementCollection achievements, Achievement saved) {
+        Achievement live = achievements.getAchievement(saved.getTitle(), saved.getSnake());
+        if (saved instanceof StatisticalAchievement && live instanceof StatisticalAchievement) {
+            ((StatisticalAchievement) live).setValue(saved.getValue());
+        } else {
+            achievements.addAchievement(saved);
+        }
+    }
+
+    /**
+     * MODIFIES: payload, snake
+     * EFFECTS: reads a snake into the given snake
+     *
+     * @param payload the payload positioned at the snake
+     * @param snake   the snake to update
+     * @throws IOException if the snake is malformed
+     */
+    private static void readSnake(ByteBuffer payload, Snake snake) throws IOException {
+        readString(payload);
+        snake.setHead(Position.unpack(payload.getInt()));
+        snake.setDirection(Direction.values()[payload.get()]);
+        snake.setLastRemoved(Position.unpack(payload.getInt()));
+        snake.setNumApplesEaten(payload.getInt());
+        int length = payload.getInt();
+        int encoding = payload.get();
+        if (length < 0) {
+            throw new IOException("Malformed snake");
+        } else if (encoding == PACKED_BODY) {
+            for (int i = 0; i < length; i++) {
+                snake.addBodyCell(payload.getInt());
+            }
+        } else if (encoding == DIRECTION_BODY) {
+            readDirectionBody(payload, snake, length);
+        } else {
+            throw new IOException("Unknown body encoding " + encoding);
+        }
+    }
+
+    /**
+     * REQUIRES: length >= 0
+     * MODIFIES: payload, snake
+     * EFFECTS: reads a body that is encoded as its first cell and the 2 bit
+     * directions of the steps to the other cells
+     *
+     * @param payload the payload positioned at the body
+     * @param snake   the snake to update
+     * @param length  the number of body parts
+     */
+    private static void readDirectionBody(ByteBuffer payload, Snake snake, int length) {
+        if (length == 0) {
+            return;
+        }
+        int cell = payload.getInt();
+        snake.addBodyCell(cell);
+        int bits = 0;
+        for (int i = 1; i < length; i++) {
+            if ((i - 1) % 4 == 0) {
+                bits = payload.get();
+            }
+            cell = STEPS[bits & 3].move(cell);
+            bits >>= 2;
+            snake.addBodyCell(cell);
+        }
+    }
+
+    /**
+     * MODIFIES: payload
+     * EFFECTS: reads an achievement
+     *
+     * @param payload the payload positioned at the achievement
+     * @param snake1  the first snake
+     * @param snake2  the second snake
+     * @return the achievement
+     * @throws IOException if the achievement is malformed
+     */
+    private static Achievement readAchievement(ByteBuffer payload, Snake snake1, Snake snake2)
+            throws IOException {
+        int kind = payload.get();
+        String title = readString(payload);
+        String description = readString(payload);
+        Snake snake = snake1.getName().equals(readString(payload)) ? snake1 : snake2;
+        if (kind == STATISTICAL_ACHIEVEMENT) {
+            return new StatisticalAchievement(title, description, snake, payload.getDouble());
+        } else if (kind == GENERAL_ACHIEVEMENT) {
+            return new GeneralAchievement(title, description, snake);
+        }
+        throw new IOException("Unknown achievement kind " + kind);
+    }
+
+    /**
+     * MODIFIES: payload
+     * EFFECTS: reads a string
+     *
+     * @param payload the payload positioned at the string
+     * @return the string
+     * @throws IOException if the string is malformed
+     */
+    private static String readString(ByteBuffer payload) throws IOException {
+        int length = payload.getInt();
+        if (length < 0 || length > payload.remaining()) {
+            throw new IOException("Malformed string");
+        }
+        byte[] utf8 = new byte[length];
+        payload.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: writes the payload of the snapshot of the given game: the
+     * section table, the playable state and the achievements
+     *
+     * @param game the game
+     */
+    private void writeSections(Game game) {
+        int start = buffer.position();
+        buffer.position(start + TABLE_BYTES);
+        writePlayable(game);
+        int achievements = buffer.position();
+        writeAchievements(game);
+        int end = buffer.position();
+        buffer.putInt(start, SECTIONS);
+        buffer.putInt(start + Integer.BYTES, TABLE_BYTES);
+        buffer.putInt(start + 2 * Integer.BYTES, achievements - start - TABLE_BYTES);
+        buffer.putInt(start + 3 * Integer.BYTES, achievements - start);
+        buffer.putInt(start + 4 * Integer.BYTES, end - achievements);
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: writes the playable state of the given game
+     *
+     * @param game the game
+     */
+    private void writePlayable(Game game) {
+        buffer.putInt(game.getMaxX());
+        buffer.putInt(game.getMaxY());
+        buffer.putInt(game.getConfig().getTicksPerSecond());
+        buffer.putInt(game.getScore1());
+        buffer.putInt(game.getScore2());
+        buffer.putInt(game.getNoEatCount1());
+        buffer.putInt(game.getNoEatCount2());
+        writeSnake(game.getSnake1());
+        writeSnake(game.getSnake2());
+        Set<Position> food = game.getFood();
+        ensureCapacity(Integer.BYTES * (food.size() + 1));
+        buffer.putInt(food.size());
+        for (Position pos : food) {
+            buffer.putInt(pos.pack());
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: writes the achievements of the given game
+     *
+     * @param game the game
+     */
+    private void writeAchievements(Game game) {
+        ensureCapacity(Integer.BYTES);
+        buffer.putInt(game.getAchievements().getAchievements().size());
+        for (Achievement achievement : game.getAchievements().getAchievements()) {
+            writeAchievement(achievement);
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: writes the given snake, encoding the body with directions if
+     * every segment is next to the previous one
+     *
+     * @param snake the snake
+     */
+    private void writeSnake(Snake snake) {
+        writeString(snake.getName());
+        int length = snake.getBody().size();
+        ensureCapacity(18 + length * Integer.BYTES);
+        buffer.putInt(snake.getHeadCell());
+        buffer.put((byte) snake.getDirection().ordinal());
+        buffer.putInt(snake.getLastRemoved().pack());
+        buffer.putInt(snake.getNumApplesEaten());
+        buffer.putInt(length);
+        int start = buffer.position();
+        buffer.put((byte) DIRECTION_BODY);
+        if (!writeDirectionBody(snake, length)) {
+            buffer.position(start);
+            buffer.put((byte) PACKED_BODY);
+            for (int i = 0; i < length; i++) {
+                buffer.putInt(snake.getBodyCell(i));
+            }
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: writes the body of the given snake as its first cell and the 2
+     * bit directions of the steps to the other cells; returns false if a
+     * segment is not next to the previous one, leaving a partial encoding
+     *
+     * @param snake  the snake
+     * @param length the number of body parts
+     * @return whether the body could be encoded
+     */
+    private boolean writeDirectionBody(Snake snake, int length) {
+        if (length == 0) {
+            return true;
+        }
+        int previous = snake.getBodyCell(0);
+        buffer.putInt(previous);
+        int bits = 0;
+        for (int i = 1; i < length; i++) {
+            int cell = snake.getBodyCell(i);
+            int code = stepCode(previous, cell);
+            if (code < 0) {
+                return false;
+            }
+            bits |= code << (2 * ((i - 1) % 4));
+            if ((i - 1) % 4 == 3 || i == length - 1) {
+                buffer.put((byte) bits);
+                bits = 0;
+            }
+            previous = cell;
+        }
+        return true;
+    }
+
+    /**
+     * EFFECTS: returns the 2 bit code of the direction that leads from one cell
+     * to the other, or -1 if they are not next to each other
+     *
+     * @param from the packed coordinates of the first cell
+     * @param to   the packed coordinates of the second cell
+     * @return the code of the direction, or -1
+     */
+    private static int stepCode(int from, int to) {
+        for (int code = 0; code < STEPS.length; code++) {
+            if (STEPS[code].move(from) == to) {
+                return code;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: writes the given achievement
+     *
+     * @param achievement the achievement
+     */
+    private void writeAchievement(Achievement achievement) {
+        boolean statistical = achievement instanceof StatisticalAchievement;
+        ensureCapacity(1);
+        buffer.put((byte) (statistical ? STATISTICAL_ACHIEVEMENT : GENERAL_ACHIEVEMENT));
+        writeString(achievement.getTitle());
+        writeString(achievement.getDescription());
+        writeString(achievement.getSnake().getName());
+        if (statistical) {
+            ensureCapacity(Double.BYTES);
+            buffer.putDouble(achievement.getValue());
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: writes the given string
+     *
+     * @param string the string
+     */
+    private void writeString(String string) {
+        byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+        ensureCapacity(Integer.BYTES + utf8.length);
+        buffer.putInt(utf8.length);
+        buffer.put(utf8);
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: grows the buffer so that the given number of bytes fit
+     *
+     * @param extra the number of bytes to add
+     */
+    private void ensureCapacity(int extra) {
+        if (buffer.remaining() < extra) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + extra));
+            buffer.flip();
+            grown.put(buffer);
+            buffer = grown;
+        }
+    }
+}
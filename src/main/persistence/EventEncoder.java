@@ -0,0 +1,29 @@
+package persistence;
+
+import model.Event;
+
+/**
+ * Turns logged events into the bytes of an event log file. An encoder may keep
+ * state between events of the same file (like a string table), which starts
+ * over with every new file.
+ */
+public interface EventEncoder {
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: forgets the state of the previous file and returns the bytes that
+     * start a new file, or a continued file that is appended to
+     *
+     * @return the bytes that start a file
+     */
+    byte[] startFile();
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: returns the bytes of the given event
+     *
+     * @param event the event
+     * @return the bytes of the event
+     */
+    byte[] encode(Event event);
+}
@@ -0,0 +1,329 @@
+package persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import model.Event;
+import model.EventLog;
+
+/**
+ * Writes the events of an event log to an append-only file, by default as text
+ * with one line per event (see EventEncoder). A background thread drains the
+ * log in batches and writes them through a reusable buffer, so the threads
+ * that log events never wait for the disk.
+ * When the file would grow past its maximum size it is rotated: the file
+ * becomes path.1, path.1 becomes path.2 and so on, keeping a fixed number of
+ * old files.
+ * If writing or rotating fails, the file is cut back to what was written
+ * before the failed batch and reopened, so the encoding starts afresh and
+ * matches what is on the disk.
+ */
+public class EventLogFileSink implements AutoCloseable {
+    private static final int BATCH_SIZE = 1024;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private final EventLog log;
+    private final Path path;
+    private final long flushIntervalNanos;
+    private final long maxFileBytes;
+    private final int maxBackups;
+    private final EventEncoder encoder;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final List<Event> batch = new ArrayList<>(BATCH_SIZE);
+    private final Thread thread;
+    // null while the file could not be reopened after a failure
+    private FileChannel channel;
+    // size of the file including the bytes still in the buffer
+    private long fileBytes;
+    // size of the file up to the last complete write
+    private long writtenBytes;
+    private volatile boolean running;
+
+    /**
+     * REQUIRES: log != null, path is a file that can be written to,
+     * flushIntervalMillis > 0, maxFileBytes > 0 and maxBackups >= 0
+     * EFFECTS: constructs a sink that writes the events of the given log to the
+     * given file as text once started
+     *
+     * @param log                 the event log to drain
+     * @param path                the file to append the events to
+     * @param flushIntervalMillis how often new events are written to the file
+     * @param maxFileBytes        the size at which the file is rotated
+     * @param maxBackups          the number of rotated files to keep
+     */
+    public EventLogFileSink(EventLog log, String path, long flushIntervalMillis, long maxFileBytes,
+            int maxBackups) {
+        this(log, path, flushIntervalMillis, maxFileBytes, maxBackups, new TextEventEncoder());
+    }
+
+    /**
+     * REQUIRES: log != null, path is a file that can be written to,
+     * flushIntervalMillis > 0, maxFileBytes > 0, maxBackups >= 0 and encoder is
+     * only used by this sink
+     * EFFECTS: constructs a sink that writes the events of the given log to the
+     * given file with the given encoder once started
+     *
+     * @param log                 the event log to drain
+     * @param path                the file to append the events to
+     * @param flushIntervalMillis how often new events are written to the file
+     * @param maxFileBytes        the size at which the file is rotated
+     * @param maxBackups          the number of rotated files to keep
+     * @param encoder             the format of the file
+     */
+    public EventLogFileSink(EventLog log, String path, long flushIntervalMillis, long maxFileBytes,
+            int maxBackups, EventEncoder encoder) {
+        this.log = log;
+        this.path = Paths.get(path);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.maxFileBytes = maxFileBytes;
+        this.maxBackups = maxBackups;
+        this.encoder = encoder;
+        this.thread = new Thread(this::run, "event-log-sink");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: opens the file and starts writing events in the background
+     *
+     * @throws IOException if the file cannot be opened
+     */
+    public void start() throws IOException {
+        channel = open();
+        running = true;
+        thread.start();
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: writes the events that are still in the log, stops the background
+     * thread and closes the file; waits for the thread to finish unless
+     * interrupted, in which case the interrupt status is set again and the
+     * thread finishes on its own
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: writes the events of the log every flush interval until closed,
+     * then writes the remaining events and closes the file
+     */
+    private void run() {
+        while (running) {
+            writePending();
+            LockSupport.parkNanos(flushIntervalNanos);
+        }
+        writePending();
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            System.out.println("Error closing event log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: drains all events from the log and writes them to the file; if
+     * writing fails, the error is printed, the events of the failed batch are
+     * lost and the file is reopened. While the file cannot be reopened, the
+     * events stay in the log.
+     */
+    private void writePending() {
+        if (channel == null) {
+            reopen();
+            if (channel == null) {
+                return;
+            }
+        }
+        try {
+            while (log.drainTo(batch, BATCH_SIZE) > 0) {
+                for (Event event : batch) {
+                    write(event);
+                }
+                batch.clear();
+            }
+            flush();
+        } catch (IOException e) {
+            System.out.println("Error writing event log: " + e.getMessage());
+            batch.clear();
+            buffer.clear();
+            reopen();
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: closes the file and opens it again, cut back to its last
+     * complete write, with a new encoding; leaves it closed if it cannot be
+     * opened
+     */
+    private void reopen() {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            System.out.println("Error closing event log: " + e.getMessage());
+        }
+        channel = null;
+        try {
+            channel = open();
+        } catch (IOException e) {
+            System.out.println("Error reopening event log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: encodes the given event and adds it to the file; rotates the file
+     * first if the event would make it larger than the maximum size
+     *
+     * @param event the event
+     * @throws IOException if writing or rotating fails
+     */
+    private void write(Event event) throws IOException {
+        byte[] record = encoder.encode(event);
+        if (fileBytes > 0 && fileBytes + record.length > maxFileBytes) {
+            flush();
+            rotate();
+            // the new file starts a new encoding
+            record = encoder.encode(event);
+        }
+        append(record);
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: adds the given bytes to the buffer, writing the buffer to the file
+     * first if they do not fit
+     *
+     * @param bytes the bytes to add
+     * @throws IOException if writing fails
+     */
+    private void append(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.remaining()) {
+            flush();
+        }
+        fileBytes += bytes.length;
+        if (bytes.length > buffer.capacity()) {
+            writeToFile(ByteBuffer.wrap(bytes));
+        } else {
+            buffer.put(bytes);
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: writes the contents of the buffer to the file and empties it
+     *
+     * @throws IOException if writing fails
+     */
+    private void flush() throws IOException {
+        buffer.flip();
+        if (buffer.hasRemaining()) {
+            writeToFile(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: writes the given bytes to the file
+     *
+     * @param bytes the bytes to write
+     * @throws IOException if writing fails
+     */
+    private void writeToFile(ByteBuffer bytes) throws IOException {
+        long end = writtenBytes + bytes.remaining();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        writtenBytes = end;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: moves the current file and the rotated files one number up,
+     * deleting the oldest one, and starts a new empty file
+     *
+     * @throws IOException if a file cannot be moved or opened
+     */
+    private void rotate() throws IOException {
+        FileChannel old = channel;
+        channel = null;
+        old.close();
+        writtenBytes = 0;
+        if (maxBackups == 0) {
+            Files.delete(path);
+        } else {
+            Files.deleteIfExists(backup(maxBackups));
+            for (int i = maxBackups - 1; i >= 1; i--) {
+                if (Files.exists(backup(i))) {
+                    Files.move(backup(i), backup(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(path, backup(1), StandardCopyOption.REPLACE_EXISTING);
+        }
+        channel = open();
+    }
+
+    /**
+     * EFFECTS: returns the path of the rotated file with the given number
+     *
+     * @param number the number of the rotated file, 1 being the newest
+     * @return the path of the rotated file
+     */
+    private Path backup(int number) {
+        return path.resolveSibling(path.getFileName() + "." + number);
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: opens the file for appending, creating it if needed, cuts off
+     * what a failed write left after the last complete one, and starts a new
+     * encoding in it
+     *
+     * @return a channel that appends to the file
+     * @throws IOException if the file cannot be opened
+     */
+    private FileChannel open() throws IOException {
+        FileChannel opened = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        try {
+            if (writtenBytes > 0 && opened.size() > writtenBytes) {
+                opened.truncate(writtenBytes);
+            }
+            writtenBytes = opened.size();
+        } catch (IOException e) {
+            opened.close();
+            throw e;
+        }
+        fileBytes = writtenBytes;
+        byte[] start = encoder.startFile();
+        if (start.length > 0) {
+            buffer.put(start);
+            fileBytes += start.length;
+        }
+        return opened;
+    }
+}
@@ -0,0 +1,394 @@
+package persistence;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import model.Direction;
+import model.Game;
+import model.GameConfig;
+
+/**
+ * A game recorded by InputRecorder: the board, the seed, the inputs of the
+ * players in the order they were made and the keyframes. Reading a log only
+ * decodes the inputs; a keyframe is decoded when a replay starts from it. A
+ * log whose recorder was not closed, e.g. because of a crash, has all inputs
+ * and keyframes up to the crash but no end and no index, so its keyframes are
+ * found while its inputs are read.
+ */
+public class InputLog {
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final int INDEX_ENTRY_BYTES = Long.BYTES + Integer.BYTES;
+    // the whole file, from the header on
+    private final ByteBuffer file;
+    private int maxX;
+    private int maxY;
+    private int ticksPerSecond;
+    private long seed;
+    // tick, snake index and direction of each input
+    private long[] inputTicks = new long[16];
+    private byte[] snakes = new byte[16];
+    private Direction[] inputDirections = new Direction[16];
+    private int inputs;
+    // tick and file offset of each keyframe
+    private long[] keyframeTicks = new long[0];
+    private int[] keyframeOffsets = new int[0];
+    private int keyframes;
+    private long ticks = -1;
+
+    /**
+     * EFFECTS: constructs the log in the given file
+     *
+     * @param file the file, from the header on
+     * @throws IOException if the file is not an input log
+     */
+    private InputLog(ByteBuffer file) throws IOException {
+        this.file = file;
+        readHeader();
+        boolean indexed = readIndex();
+        readRecords(indexed);
+    }
+
+    /**
+     * EFFECTS: reads the log in the given file, which may be compressed (see
+     * SaveCodec)
+     *
+     * @param path the file written by an InputRecorder
+     * @return the log
+     * @throws IOException if the file cannot be read or is not an input log
+     */
+    public static InputLog read(String path) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream in = SaveCodec.decompress(Files.newInputStream(Paths.get(path)))) {
+            in.transferTo(bytes);
+        } catch (EOFException e) {
+            // a compressed log whose recorder was not closed ends early
+        }
+        return decode(ByteBuffer.wrap(bytes.toByteArray()));
+    }
+
+    /**
+     * EFFECTS: decodes the log in the given bytes; a record that was cut short
+     * ends the log
+     *
+     * @param bytes the bytes written by an InputRecorder, from their position on
+     * @return the log
+     * @throws IOException if the bytes are not an input log
+     */
+    public static InputLog decode(ByteBuffer bytes) throws IOException {
+        return new InputLog(bytes.slice());
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: reads the header of the file
+     *
+     * @throws IOException if the file is not an input log
+     */
+    private void readHeader() throws IOException {
+        if (file.remaining() < InputRecorder.HEADER_BYTES || file.getInt() != InputRecorder.MAGIC) {
+            throw new IOException("Not an input log");
+        }
+        int version = file.getShort();
+        if (version != InputRecorder.VERSION) {
+            throw new IOException("Unsupported input log version " + version);
+        }
+        file.getShort();
+        maxX = file.getInt();
+        maxY = file.getInt();
+        ticksPerSecond = file.getInt();
+        seed = file.getLong();
+        if (maxX <= 0 || maxY <= 0 || maxX > Short.MAX_VALUE || maxY > Short.MAX_VALUE) {
+            throw new IOException("Malformed board size " + maxX + "x" + maxY);
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: reads the index of the keyframes at the end of the file;
+     * returns false if the file has no index
+     *
+     * @return whether the index was read
+     */
+    private boolean readIndex() {
+        int end = file.limit();
+        if (end < InputRecorder.HEADER_BYTES + 3 * Integer.BYTES
+                || file.getInt(end - Integer.BYTES) != InputRecorder.INDEX_MAGIC) {
+            return false;
+        }
+        int offset = file.getInt(end - 2 * Integer.BYTES);
+        if (offset < InputRecorder.HEADER_BYTES || offset > end - 3 * Integer.BYTES) {
+            return false;
+        }
+        int count = file.getInt(offset);
+        if (count < 0 || (long) count * INDEX_ENTRY_BYTES != end - 3 * Integer.BYTES - offset) {
+            return false;
+        }
+        keyframeTicks = new long[count];
+        keyframeOffsets = new int[count];
+        for (int i = 0; i < count; i++) {
+            keyframeTicks[i] = file.getLong(offset + Integer.BYTES + i * INDEX_ENTRY_BYTES);
+            keyframeOffsets[i] = file.getInt(offset + Integer.BYTES + i * INDEX_ENTRY_BYTES + Long.BYTES);
+        }
+        keyframes = count;
+        return true;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: reads the records after the header up to the end of the game
+     * or the first record that was cut short, skipping over the keyframes
+     *
+     * @param indexed whether the keyframes are known from the index
+     * @throws IOException if a record is malformed
+     */
+    private void readRecords(boolean indexed) throws IOException {
+        long tick = 0;
+        try {
+            while (file.hasRemaining()) {
+                tick += readVarLong();
+                int code = file.get() & 0xFF;
+                if (code == InputRecorder.END) {
+                    ticks = tick;
+                    return;
+                } else if (code == InputRecorder.KEYFRAME) {
+                    skipKeyframe(tick, indexed);
+                } else {
+                    addInput(tick, code);
+                }
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            // the last record was cut short
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: moves past the keyframe at the current position, remembering it
+     * unless it is known from the index
+     *
+     * @param tick    the tick of the keyframe
+     * @param indexed whether the keyframes are known from the index
+     */
+    private void skipKeyframe(long tick, boolean indexed) {
+        int offset = file.position();
+        int length = file.getInt();
+        // throws IllegalArgumentException if the keyframe was cut short
+        file.position(file.position() + length);
+        if (!indexed) {
+            if (keyframes == keyframeTicks.length) {
+                keyframeTicks = Arrays.copyOf(keyframeTicks, Math.max(16, keyframes * 2));
+                keyframeOffsets = Arrays.copyOf(keyframeOffsets, Math.max(16, keyframes * 2));
+            }
+            keyframeTicks[keyframes] = tick;
+            keyframeOffsets[keyframes++] = offset;
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: adds the input with the given code
+     *
+     * @param tick the tick of the input
+     * @param code the code of the input
+     * @throws IOException if the code is malformed
+     */
+    private void addInput(long tick, int code) throws IOException {
+        int ordinal = code & ~InputRecorder.SNAKE2;
+        if (ordinal >= DIRECTIONS.length) {
+            throw new IOException("Malformed input " + code);
+        }
+        if (inputs == inputTicks.length) {
+            inputTicks = Arrays.copyOf(inputTicks, inputs * 2);
+            snakes = Arrays.copyOf(snakes, inputs * 2);
+            inputDirections = Arrays.copyOf(inputDirections, inputs * 2);
+        }
+        inputTicks[inputs] = tick;
+        snakes[inputs] = (byte) ((code & InputRecorder.SNAKE2) != 0 ? 1 : 0);
+        inputDirections[inputs++] = DIRECTIONS[ordinal];
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: reads a varint
+     *
+     * @return the number
+     * @throws IOException if the varint is too long
+     */
+    private long readVarLong() throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = file.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    /**
+     * EFFECTS: returns a new game with the board, speed and seed of the
+     * recorded game, ready for the first tick
+     *
+     * @return the game
+     */
+    public Game newGame() {
+        Game game = new Game(maxX, maxY, new GameConfig(ticksPerSecond, seed));
+        game.sortFreeCells();
+        return game;
+    }
+
+    /**
+     * REQUIRES: 0 <= index < getKeyframeCount()
+     * EFFECTS: returns a new game in the state of the keyframe with the given
+     * index, ready for the tick of the keyframe
+     *
+     * @param index the index of the keyframe
+     * @return the game
+     * @throws IOException if the keyframe is malformed
+     */
+    public Game loadKeyframe(int index) throws IOException {
+        ByteBuffer keyframe = file.duplicate();
+        int offset = keyframeOffsets[index];
+        if (offset < InputRecorder.HEADER_BYTES || offset > file.limit() - Integer.BYTES) {
+            throw new IOException("Malformed keyframe offset " + offset);
+        }
+        int length = keyframe.getInt(offset);
+        if (length < Long.BYTES + 1 || length > file.limit() - offset - Integer.BYTES) {
+            throw new IOException("Truncated keyframe");
+        }
+        keyframe.limit(offset + Integer.BYTES + length).position(offset + Integer.BYTES);
+        Game game = newGame();
+        game.getFood().clear();
+        game.getRandom().setState(keyframe.getLong());
+        boolean ended = keyframe.get() != 0;
+        BinarySnapshot.decode(keyframe, game, game.getSnake1(), game.getSnake2());
+        game.setEnded(ended);
+        game.sortFreeCells();
+        return game;
+    }
+
+    /**
+     * EFFECTS: returns the index of the last keyframe at or before the given
+     * tick, or -1 if there is none
+     *
+     * @param tick the tick
+     * @return the index of the keyframe, or -1
+     */
+    public int findKeyframe(long tick) {
+        int found = Arrays.binarySearch(keyframeTicks, 0, keyframes, tick);
+        return found >= 0 ? found : -found - 2;
+    }
+
+    /**
+     * EFFECTS: returns the index of the first input at or after the given tick,
+     * or getInputCount() if there is none
+     *
+     * @param tick the tick
+     * @return the index of the input
+     */
+    public int findInput(long tick) {
+        int low = 0;
+        int high = inputs;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (inputTicks[middle] < tick) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * EFFECTS: returns the seed of the recorded game
+     *
+     * @return the seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * EFFECTS: returns the number of ticks the recorded game lasted, or -1 if
+     * the log has no end
+     *
+     * @return the number of ticks, or -1
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * EFFECTS: returns the number of keyframes
+     *
+     * @return the number of keyframes
+     */
+    public int getKeyframeCount() {
+        return keyframes;
+    }
+
+    /**
+     * REQUIRES: 0 <= index < getKeyframeCount()
+     * EFFECTS: returns the tick before which the keyframe with the given index
+     * was taken
+     *
+     * @param index the index of the keyframe
+     * @return the tick of the keyframe
+     */
+    public long getKeyframeTick(int index) {
+        return keyframeTicks[index];
+    }
+
+    /**
+     * EFFECTS: returns the number of inputs
+     *
+     * @return the number of inputs
+     */
+    public int getInputCount() {
+        return inputs;
+    }
+
+    /**
+     * REQUIRES: 0 <= index < getInputCount()
+     * EFFECTS: returns the tick before which the input with the given index was
+     * made, counting from 0
+     *
+     * @param index the index of the input
+     * @return the tick of the input
+     */
+    public long getInputTick(int index) {
+        return inputTicks[index];
+    }
+
+    /**
+     * REQUIRES: 0 <= index < getInputCount()
+     * EFFECTS: returns the index of the snake of the input with the given index,
+     * 0 for the first snake and 1 for the second
+     *
+     * @param index the index of the input
+     * @return the index of the snake
+     */
+    public int getInputSnake(int index) {
+        return snakes[index];
+    }
+
+    /**
+     * REQUIRES: 0 <= index < getInputCount()
+     * EFFECTS: returns the direction of the input with the given index
+     *
+     * @param index the index of the input
+     * @return the direction
+     */
+    public Direction getInputDirection(int index) {
+        return inputDirections[index];
+    }
+}
@@ -0,0 +1,250 @@
+package persistence;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import model.Direction;
+import model.Game;
+import model.Snake;
+
+/**
+ * Records a game as its seed and the inputs of its players, from which the
+ * game can be played again exactly (see InputLog). A file starts with a 28
+ * byte header: the magic number "SNKR", the format version (2 bytes), reserved
+ * flags (2 bytes), the board width and height, the ticks per second and the
+ * seed (8 bytes). Each record that follows is the number of ticks since the
+ * previous record as a varint (see BinaryEventEncoder) and a code byte:
+ * <ul>
+ * <li>an input: the index of the snake (bit 3) and the ordinal of its new
+ * direction</li>
+ * <li>KEYFRAME: the length of the rest of the keyframe (int), the state of
+ * the random number generator (long), whether the game has ended (byte) and a
+ * binary snapshot of the game (see BinarySnapshot); written every keyframe
+ * interval before the inputs of the tick, so that a replay can start there
+ * instead of at the seed; the free cells of the game are sorted at every
+ * keyframe and at the start (see Game.sortFreeCells), so that the replay
+ * spawns the same food</li>
+ * <li>END: the end of the game; follows the last tick of a closed file</li>
+ * </ul>
+ * After END comes the index of the keyframes: their number, the tick (long)
+ * and the file offset of the length (int) of each, then the offset of the
+ * index and the magic number "SNKI".
+ */
+public class InputRecorder implements AutoCloseable {
+    // a minute at the default speed
+    public static final int DEFAULT_KEYFRAME_TICKS = 600;
+    static final int MAGIC = 0x534E4B52;
+    static final int INDEX_MAGIC = 0x534E4B49;
+    static final int VERSION = 3;
+    static final int HEADER_BYTES = 28;
+    static final int SNAKE2 = 0x08;
+    static final int KEYFRAME = 0xFE;
+    static final int END = 0xFF;
+    private final DataOutputStream out;
+    private final int keyframeInterval;
+    // the directions last recorded, null before the first tick
+    private final Direction[] directions = new Direction[2];
+    private long ticks;
+    private long lastRecordTick;
+    private long[] keyframeTicks = new long[16];
+    private int[] keyframeOffsets = new int[16];
+    private int keyframes;
+
+    /**
+     * REQUIRES: the game has not been ticked yet and was made with its seed
+     * (see GameConfig); path can be written to
+     * MODIFIES: game
+     * EFFECTS: constructs a recorder of the given game that writes to the
+     * given file with the default keyframe interval
+     *
+     * @param path the file to write to
+     * @param game the game to record
+     * @throws IOException if the file cannot be written
+     */
+    public InputRecorder(String path, Game game) throws IOException {
+        this(path, game, SaveCodec.PLAIN);
+    }
+
+    /**
+     * REQUIRES: the game has not been ticked yet and was made with its seed;
+     * path can be written to
+     * MODIFIES: game
+     * EFFECTS: constructs a recorder of the given game that writes to the
+     * given file with the default keyframe interval, compressed with the given
+     * codec; file offsets in the index are offsets into the uncompressed log
+     *
+     * @param path  the file to write to
+     * @param game  the game to record
+     * @param codec the codec to compress the log with
+     * @throws IOException if the file cannot be written
+     */
+    public InputRecorder(String path, Game game, SaveCodec codec) throws IOException {
+        this(codec.compress(Files.newOutputStream(Paths.get(path))), game, DEFAULT_KEYFRAME_TICKS);
+    }
+
+    /**
+     * REQUIRES: the game has not been ticked yet and was made with its seed
+     * MODIFIES: game
+     * EFFECTS: constructs a recorder of the given game that writes to the
+     * given stream with the default keyframe interval
+     *
+     * @param out  the stream to write to
+     * @param game the game to record
+     * @throws IOException if the header cannot be written
+     */
+    public InputRecorder(OutputStream out, Game game) throws IOException {
+        this(out, game, DEFAULT_KEYFRAME_TICKS);
+    }
+
+    /**
+     * REQUIRES: the game has not been ticked yet and was made with its seed;
+     * keyframeInterval > 0
+     * MODIFIES: game
+     * EFFECTS: constructs a recorder of the given game that writes to the
+     * given stream, with a keyframe every given number of ticks
+     *
+     * @param out              the stream to write to
+     * @param game             the game to record
+     * @param keyframeInterval the number of ticks between two keyframes
+     * @throws IOException if the header cannot be written
+     */
+    public InputRecorder(OutputStream out, Game game, int keyframeInterval) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+        this.keyframeInterval = keyframeInterval;
+        this.out.writeInt(MAGIC);
+        this.out.writeShort(VERSION);
+        this.out.writeShort(0);
+        this.out.writeInt(game.getMaxX());
+        this.out.writeInt(game.getMaxY());
+        this.out.writeInt(game.getConfig().getTicksPerSecond());
+        this.out.writeLong(game.getConfig().getSeed());
+        this.out.flush();
+        // as InputLog.newGame does, so that replays spawn the same food
+        game.sortFreeCells();
+    }
+
+    /**
+     * REQUIRES: called right before every tick of the game
+     * MODIFIES: this, game
+     * EFFECTS: records a keyframe if one is due and the directions of the
+     * snakes that changed since the previous tick; every record is flushed, so
+     * that a crash keeps it
+     *
+     * @param game the game
+     * @throws IOException if writing fails
+     */
+    public void beforeTick(Game game) throws IOException {
+        boolean changed = ticks > 0 && ticks % keyframeInterval == 0;
+        if (changed) {
+            recordKeyframe(game);
+        }
+        changed |= recordDirection(game.getSnake1(), 0) | recordDirection(game.getSnake2(), 1);
+        if (changed) {
+            out.flush();
+        }
+        ticks++;
+    }
+
+    /**
+     * EFFECTS: returns the number of ticks recorded so far
+     *
+     * @return the number of ticks recorded
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: records the number of ticks the game lasted and the index of
+     * the keyframes and closes the file
+     *
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            writeVarLong(ticks - lastRecordTick);
+            out.write(END);
+            int indexOffset = out.size();
+            out.writeInt(keyframes);
+            for (int i = 0; i < keyframes; i++) {
+                out.writeLong(keyframeTicks[i]);
+                out.writeInt(keyframeOffsets[i]);
+            }
+            out.writeInt(indexOffset);
+            out.writeInt(INDEX_MAGIC);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * MODIFIES: this, game
+     * EFFECTS: records the state of the game before the current tick
+     *
+     * @param game the game
+     * @throws IOException if writing fails
+     */
+    private void recordKeyframe(Game game) throws IOException {
+        // as InputLog.loadKeyframe does, so that replays from here spawn the same food
+        game.sortFreeCells();
+        ByteBuffer snapshot = BinarySnapshot.encode(game);
+        writeVarLong(ticks - lastRecordTick);
+        lastRecordTick = ticks;
+        out.write(KEYFRAME);
+        if (keyframes == keyframeTicks.length) {
+            keyframeTicks = Arrays.copyOf(keyframeTicks, keyframes * 2);
+            keyframeOffsets = Arrays.copyOf(keyframeOffsets, keyframes * 2);
+        }
+        keyframeTicks[keyframes] = ticks;
+        keyframeOffsets[keyframes++] = out.size();
+        out.writeInt(Long.BYTES + 1 + snapshot.remaining());
+        out.writeLong(game.getRandom().getState());
+        out.writeBoolean(game.isEnded());
+        out.write(snapshot.array(), snapshot.position(), snapshot.remaining());
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: records the direction of the snake with the given index if it
+     * changed; returns whether it did
+     *
+     * @param snake the snake
+     * @param index the index of the snake
+     * @return whether an input was recorded
+     * @throws IOException if writing fails
+     */
+    private boolean recordDirection(Snake snake, int index) throws IOException {
+        Direction direction = snake.getDirection();
+        if (direction == directions[index]) {
+            return false;
+        }
+        directions[index] = direction;
+        writeVarLong(ticks - lastRecordTick);
+        out.write((index == 1 ? SNAKE2 : 0) | direction.ordinal());
+        lastRecordTick = ticks;
+        return true;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: writes the given unsigned number as a varint
+     *
+     * @param n the number
+     * @throws IOException if writing fails
+     */
+    private void writeVarLong(long n) throws IOException {
+        while ((n & ~0x7FL) != 0) {
+            out.write((int) ((n & 0x7F) | 0x80));
+            n >>>= 7;
+        }
+        out.write((int) n);
+    }
+}
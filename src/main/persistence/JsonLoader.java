@@ -1,8 +1,6 @@
 package persistence;
 
-import java.io.File;
-import java.util.List;
-import java.util.Scanner;
+import java.io.IOException;
 
 import org.json.JSONObject;
 
@@ -10,6 +8,7 @@ import model.Direction;
 import model.Game;
 import model.Position;
 import model.Snake;
+import model.achievements.Achievement;
 import model.achievements.GeneralAchievement;
 import model.achievements.StatisticalAchievement;
 
@@ -21,8 +20,8 @@ public class JsonLoader {
      * REQUIRES: path is a valid path to a JSON file;
      * Game, snake1, snake2 are valid objects
      * MODIFIES: game, snake1, snake2
-     * EFFECTS: loads the game from the given JSON file and updates the given
-     * objects
+     * EFFECTS: loads the game from the given JSON file, which may be
+     * compressed (see SaveCodec), and updates the given objects
      * 
      * @param path   the path to the JSON file
      * @param game   the game to update
@@ -30,19 +29,271 @@ public class JsonLoader {
      * @param snake2 the second snake to update
      */
     public static boolean loadGame(String path, Game game, Snake snake1, Snake snake2) {
-        StringBuilder jsonString = new StringBuilder();
-        try (Scanner scanner = new Scanner(new File(path))) {
-            while (scanner.hasNextLine()) {
-                jsonString.append(scanner.nextLine());
-            }
+        JsonPullParser parser;
+        try {
+            parser = JsonPullParser.open(path);
         } catch (Exception e) {
             System.out.println("Error loading file: " + e.getMessage());
             return false;
         }
-        updateGame(game, snake1, snake2, new JSONObject(jsonString.toString()));
+        try (JsonPullParser open = parser) {
+            readGame(game, snake1, snake2, open);
+        } catch (IOException e) {
+            System.out.println("Error closing file: " + e.getMessage());
+        }
         return true;
     }
 
+    /**
+     * REQUIRES: game, snake1, snake2 are valid and not null
+     * MODIFIES: game, snake1, snake2, parser
+     * EFFECTS: reads a saved game from the parser and updates the given objects
+     * like updateGame, without building a JSON object first
+     * 
+     * @param game   the game to update
+     * @param snake1 the first snake to update
+     * @param snake2 the second snake to update
+     * @param parser the parser positioned at the saved game
+     * @return false if loading the achievements stopped at a general achievement
+     */
+    public static boolean readGame(Game game, Snake snake1, Snake snake2, JsonPullParser parser) {
+        boolean complete = true;
+        parser.beginObject();
+        while (parser.hasNext()) {
+            String name = parser.nextName();
+            if (name.equals("snake1") || name.equals("snake2")) {
+                // the snake named "one" is saved as snake1, the other one as snake2
+                readSnake(name.equals("snake1") == snake1.getName().equals("one") ? snake1 : snake2, parser);
+            } else if (name.equals("food")) {
+                readFood(game, parser);
+            } else if (name.equals("achievements")) {
+                complete = readAchievements(game, snake1, snake2, parser);
+            } else {
+                readCount(game, name, parser);
+            }
+        }
+        parser.endObject();
+        return complete;
+    }
+
+    /**
+     * MODIFIES: game, parser
+     * EFFECTS: reads the count with the given name into the game; skips
+     * unknown members
+     * 
+     * @param game   the game to update
+     * @param name   the name of the member
+     * @param parser the parser positioned at the value of the member
+     */
+    private static void readCount(Game game, String name, JsonPullParser parser) {
+        switch (name) {
+            case "noEatCount1":
+                game.setNoEatCount1(parser.nextInt());
+                break;
+            case "noEatCount2":
+                game.setNoEatCount2(parser.nextInt());
+                break;
+            case "score1":
+                game.setScore1(parser.nextInt());
+                break;
+            case "score2":
+                game.setScore2(parser.nextInt());
+                break;
+            case "TICKS_PER_SECOND":
+                game.getConfig().setTicksPerSecond(parser.nextInt());
+                break;
+            default:
+                parser.skipValue();
+        }
+    }
+
+    /**
+     * MODIFIES: snake, parser
+     * EFFECTS: reads the head, direction and body of a saved snake into the
+     * given snake
+     * 
+     * @param snake  the snake to update
+     * @param parser the parser positioned at the saved snake
+     */
+    private static void readSnake(Snake snake, JsonPullParser parser) {
+        parser.beginObject();
+        while (parser.hasNext()) {
+            String name = parser.nextName();
+            if (name.equals("head")) {
+                snake.setHead(readPosition(parser));
+            } else if (name.equals("direction")) {
+                snake.setDirection(Direction.valueOf(readDirectionName(parser)));
+            } else if (name.equals("body")) {
+                parser.beginArray();
+                while (parser.hasNext()) {
+                    snake.addBodyPart(readPosition(parser));
+                }
+                parser.endArray();
+            } else {
+                parser.skipValue();
+            }
+        }
+        parser.endObject();
+    }
+
+    /**
+     * MODIFIES: parser
+     * EFFECTS: reads a saved direction and returns its name
+     * 
+     * @param parser the parser positioned at the saved direction
+     * @return the name of the direction
+     */
+    private static String readDirectionName(JsonPullParser parser) {
+        String directionName = null;
+        parser.beginObject();
+        while (parser.hasNext()) {
+            if (parser.nextName().equals("name")) {
+                directionName = parser.nextString();
+            } else {
+                parser.skipValue();
+            }
+        }
+        parser.endObject();
+        return directionName;
+    }
+
+    /**
+     * MODIFIES: parser
+     * EFFECTS: reads a saved position
+     * 
+     * @param parser the parser positioned at the saved position
+     * @return the position
+     */
+    private static Position readPosition(JsonPullParser parser) {
+        int posX = 0;
+        int posY = 0;
+        parser.beginObject();
+        while (parser.hasNext()) {
+            String name = parser.nextName();
+            if (name.equals("posX")) {
+                posX = parser.nextInt();
+            } else if (name.equals("posY")) {
+                posY = parser.nextInt();
+            } else {
+                parser.skipValue();
+            }
+        }
+        parser.endObject();
+        return new Position(posX, posY);
+    }
+
+    /**
+     * MODIFIES: game, parser
+     * EFFECTS: adds the saved food to the game
+     * 
+     * @param game   the game to update
+     * @param parser the parser positioned at the saved food
+     */
+    private static void readFood(Game game, JsonPullParser parser) {
+        parser.beginObject();
+        while (parser.hasNext()) {
+            if (parser.nextName().equals("food")) {
+                game.getFood().add(readPosition(parser));
+            } else {
+                parser.skipValue();
+            }
+        }
+        parser.endObject();
+    }
+
+    /**
+     * MODIFIES: game, parser
+     * EFFECTS: reads the saved achievements into the game like
+     * updateAchievements: sets the values of the statistical achievements and
+     * stops at the first other achievement, which is added
+     * 
+     * @param game   the game to update
+     * @param snake1 the first snake
+     * @param snake2 the second snake
+     * @param parser the parser positioned at the saved achievements
+     * @return false if it stopped at a general achievement
+     */
+    private static boolean readAchievements(Game game, Snake snake1, Snake snake2, JsonPullParser parser) {
+        boolean complete = true;
+        parser.beginObject();
+        while (parser.hasNext()) {
+            if (!parser.nextName().equals("achievements")) {
+                parser.skipValue();
+                continue;
+            }
+            parser.beginArray();
+            while (parser.hasNext()) {
+                if (complete) {
+                    complete = readAchievement(game, snake1, snake2, parser);
+                } else {
+                    parser.skipValue();
+                }
+            }
+            parser.endArray();
+        }
+        parser.endObject();
+        return complete;
+    }
+
+    /**
+     * MODIFIES: game, parser
+     * EFFECTS: reads a saved achievement; sets the value of the statistical
+     * achievement with its title and snake if there is one, otherwise adds it
+     * as a general achievement
+     * 
+     * @param game   the game to update
+     * @param snake1 the first snake
+     * @param snake2 the second snake
+     * @param parser the parser positioned at the saved achievement
+     * @return false if it was added as a general achievement
+     */
+    private static boolean readAchievement(Game game, Snake snake1, Snake snake2, JsonPullParser parser) {
+        String title = null;
+        String description = null;
+        String snakeName = null;
+        Double value = null;
+        parser.beginObject();
+        while (parser.hasNext()) {
+            String name = parser.nextName();
+            if (name.equals("value")) {
+                value = parser.nextDouble();
+            } else if (name.equals("title") || name.equals("description") || name.equals("snake")) {
+                String string = parser.nextString();
+                title = name.equals("title") ? string : title;
+                description = name.equals("description") ? string : description;
+                snakeName = name.equals("snake") ? string : snakeName;
+            } else {
+                parser.skipValue();
+            }
+        }
+        parser.endObject();
+        return applyAchievement(game, title, description, snake1.getName().equals(snakeName) ? snake1 : snake2,
+                value);
+    }
+
+    /**
+     * MODIFIES: game
+     * EFFECTS: sets the value of the statistical achievement with the given
+     * title and snake if there is one, otherwise adds a general achievement
+     * 
+     * @param game        the game to update
+     * @param title       the title of the achievement
+     * @param description the description of the achievement
+     * @param snake       the snake of the achievement
+     * @param value       the saved value, or null if there is none
+     * @return false if a general achievement was added
+     */
+    private static boolean applyAchievement(Game game, String title, String description, Snake snake,
+            Double value) {
+        Achievement saved = game.getAchievements().getAchievement(title, snake);
+        if (saved instanceof StatisticalAchievement && value != null) {
+            ((StatisticalAchievement) saved).setValue(value);
+            return true;
+        }
+        game.getAchievements().addAchievement(new GeneralAchievement(title, description, snake));
+        return false;
+    }
+
     /**
      * REQUIRES: json is a valid JSON object; game, snake1, snake2 are valid and not
      * null
@@ -66,7 +317,7 @@ public class JsonLoader {
         game.setNoEatCount2(noEatCount2);
         game.setScore1(score1);
         game.setScore2(score2);
-        Game.setTicksPerSecond(ticksPerSecond);
+        game.getConfig().setTicksPerSecond(ticksPerSecond);
 
         updateSnake(snake1, json);
         updateSnake(snake2, json);
@@ -123,9 +374,9 @@ public class JsonLoader {
         snake.setDirection(Direction.valueOf(snakeJson.getJSONObject("direction").getString("name")));
 
         // update snake body
-        List<Position> body = snake.getBody();
         for (Object bodyPart : snakeJson.getJSONArray("body")) {
-            body.add(new Position(((JSONObject) bodyPart).getInt("posX"), ((JSONObject) bodyPart).getInt("posY")));
+            snake.addBodyPart(new Position(((JSONObject) bodyPart).getInt("posX"),
+                    ((JSONObject) bodyPart).getInt("posY")));
         }
 
     }
@@ -0,0 +1,682 @@
+package persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.json.JSONException;
+
+/**
+ * Reads JSON one token at a time from UTF-8 bytes, so a saved game can be
+ * loaded straight into the model without building a JSONObject tree first.
+ * peek() tells what comes next; the other methods consume the next token and
+ * throw a JSONException if it is not of the expected kind or the input is
+ * malformed. Compressed files (see SaveCodec) are parsed as they are
+ * decompressed, through a buffer that is refilled from the stream.
+ */
+public class JsonPullParser implements Closeable {
+    // smaller files are read at once, larger ones are memory-mapped
+    private static final long MAP_THRESHOLD = 1 << 20;
+    private static final int BUFFER_SIZE = 1 << 16;
+    // the longest number nextLong reads without falling back to readNumber
+    private static final int MAX_PLAIN_NUMBER = 20;
+    // the bytes that have been read but not parsed yet
+    private ByteBuffer input;
+    // where input is refilled from, or null if input holds all of the JSON
+    private final ReadableByteChannel source;
+    // the number of bytes parsed before those in input
+    private long discarded;
+    // inObject[i] and hasElements[i] describe the object or array at depth i
+    private boolean[] inObject = new boolean[16];
+    private boolean[] hasElements = new boolean[16];
+    private int depth;
+    // true between a name and its value
+    private boolean afterName;
+    // the next token if peek() has found it already
+    private Token peeked;
+    private final StringBuilder text = new StringBuilder();
+
+    /**
+     * The kinds of tokens
+     */
+    public enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    /**
+     * REQUIRES: input holds UTF-8 encoded JSON between its position and limit
+     * EFFECTS: constructs a parser of the given bytes
+     *
+     * @param input the bytes to parse
+     */
+    public JsonPullParser(ByteBuffer input) {
+        this.input = input;
+        this.source = null;
+    }
+
+    /**
+     * REQUIRES: source reads UTF-8 encoded JSON
+     * EFFECTS: constructs a parser that reads the given channel as it parses
+     *
+     * @param source the channel to parse
+     */
+    public JsonPullParser(ReadableByteChannel source) {
+        this.input = ByteBuffer.allocate(BUFFER_SIZE).flip();
+        this.source = source;
+    }
+
+    /**
+     * EFFECTS: returns a parser of the given file, which is read at once if it
+     * is small and memory-mapped otherwise; a compressed file is decompressed
+     * as it is parsed, and the parser has to be closed
+     *
+     * @param path the file to parse
+     * @return a parser of the file
+     * @throws IOException if the file cannot be read
+     */
+    public static JsonPullParser open(String path) throws IOException {
+        Path file = Paths.get(path);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(4);
+            channel.read(header, 0);
+            if (SaveCodec.detect(header.array(), header.position()) != SaveCodec.PLAIN) {
+                return new JsonPullParser(Channels.newChannel(SaveCodec.decompress(Files.newInputStream(file))));
+            }
+            long size = channel.size();
+            if (size < MAP_THRESHOLD) {
+                return new JsonPullParser(ByteBuffer.wrap(Files.readAllBytes(file)));
+            }
+            // the mapping stays valid after the channel is closed
+            return new JsonPullParser(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: returns the kind of the next token without consuming it
+     *
+     * @return the kind of the next token
+     */
+    public Token peek() {
+        if (peeked == null) {
+            peeked = findNext();
+        }
+        return peeked;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: returns whether the current object or array has another element
+     *
+     * @return whether there is another element
+     */
+    public boolean hasNext() {
+        Token next = peek();
+        return next != Token.END_OBJECT && next != Token.END_ARRAY && next != Token.END_DOCUMENT;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: consumes the start of an object
+     */
+    public void beginObject() {
+        consume(Token.BEGIN_OBJECT);
+        push(true);
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: consumes the end of the current object
+     */
+    public void endObject() {
+        consume(Token.END_OBJECT);
+        depth--;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: consumes the start of an array
+     */
+    public void beginArray() {
+        consume(Token.BEGIN_ARRAY);
+        push(false);
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: consumes the end of the current array
+     */
+    public void endArray() {
+        consume(Token.END_ARRAY);
+        depth--;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: consumes the name of the next member of the current object and
+     * returns it
+     *
+     * @return the name
+     */
+    public String nextName() {
+        expect(Token.NAME);
+        String name = readString();
+        skipWhitespace();
+        if (!available(1) || input.get() != ':') {
+            throw syntaxError("Expected ':'");
+        }
+        afterName = true;
+        return name;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: consumes a string and returns it
+     *
+     * @return the string
+     */
+    public String nextString() {
+        expect(Token.STRING);
+        String string = readString();
+        element();
+        return string;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: consumes a number that fits into an int and returns it
+     *
+     * @return the number
+     */
+    public int nextInt() {
+        long value = nextLong();
+        if ((int) value != value) {
+            throw syntaxError("Number too large for an int");
+        }
+        return (int) value;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: consumes a whole number and returns it
+     *
+     * @return the number
+     */
+    public long nextLong() {
+        expect(Token.NUMBER);
+        // the whole number is in input, so that it can be read again
+        available(MAX_PLAIN_NUMBER);
+        int start = input.position();
+        boolean negative = input.get(start) == '-';
+        if (negative) {
+            input.get();
+        }
+        long value = 0;
+        int digits = 0;
+        while (input.hasRemaining() && isDigit(input.get(input.position())) && digits < 18) {
+            value = value * 10 + (input.get() - '0');
+            digits++;
+        }
+        if (digits == 0 || input.hasRemaining() && isNumberPart(input.get(input.position()))) {
+            // not a plain int (e.g. 1.0 or 1e3): parse it as a double
+            input.position(start);
+            return toWhole(parseNumber(readNumber()));
+        }
+        element();
+        return negative ? -value : value;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: consumes a number and returns it
+     *
+     * @return the number
+     */
+    public double nextDouble() {
+        expect(Token.NUMBER);
+        return parseNumber(readNumber());
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: consumes a boolean and returns it
+     *
+     * @return the boolean
+     */
+    public boolean nextBoolean() {
+        expect(Token.BOOLEAN);
+        boolean value = input.get(input.position()) == 't';
+        readLiteral(value ? "true" : "false");
+        return value;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: consumes a null
+     */
+    public void nextNull() {
+        expect(Token.NULL);
+        readLiteral("null");
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: consumes the next value, including everything in it if it is an
+     * object or array
+     */
+    public void skipValue() {
+        switch (peek()) {
+            case BEGIN_OBJECT:
+                beginObject();
+                while (hasNext()) {
+                    nextName();
+                    skipValue();
+                }
+                endObject();
+                break;
+            case BEGIN_ARRAY:
+                beginArray();
+                while (hasNext()) {
+                    skipValue();
+                }
+                endArray();
+                break;
+            default:
+                skipScalar();
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: consumes the next string, number, boolean or null
+     */
+    private void skipScalar() {
+        switch (peek()) {
+            case STRING:
+                nextString();
+                break;
+            case NUMBER:
+                nextDouble();
+                break;
+            case BOOLEAN:
+                nextBoolean();
+                break;
+            case NULL:
+                nextNull();
+                break;
+            default:
+                throw syntaxError("Expected a value but was " + peek());
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: skips the separator before the next token and returns the kind
+     * of the next token
+     *
+     * @return the kind of the next token
+     */
+    private Token findNext() {
+        skipWhitespace();
+        if (!available(1)) {
+            if (depth > 0 || afterName) {
+                throw syntaxError("Unexpected end of input");
+            }
+            return Token.END_DOCUMENT;
+        }
+        byte c = input.get(input.position());
+        if (depth == 0 && hasElements[0]) {
+            throw syntaxError("Unexpected data after the end");
+        }
+        if (!afterName && hasElements[depth] && c != '}' && c != ']') {
+            if (c != ',') {
+                throw syntaxError("Expected ','");
+            }
+            input.get();
+            skipWhitespace();
+            if (!available(1)) {
+                throw syntaxError("Unexpected end of input");
+            }
+            c = input.get(input.position());
+        }
+        return tokenAt(c);
+    }
+
+    /**
+     * EFFECTS: returns the kind of the token that starts with the given byte
+     *
+     * @param c the first byte of the token
+     * @return the kind of the token
+     */
+    private Token tokenAt(byte c) {
+        switch (c) {
+            case '{':
+                return Token.BEGIN_OBJECT;
+            case '}':
+                return Token.END_OBJECT;
+            case '[':
+                return Token.BEGIN_ARRAY;
+            case ']':
+                return Token.END_ARRAY;
+            case '"':
+                return inObject[depth] && !afterName ? Token.NAME : Token.STRING;
+            case 't':
+            case 'f':
+                return Token.BOOLEAN;
+            case 'n':
+                return Token.NULL;
+            default:
+                if (c == '-' || isDigit(c)) {
+                    return Token.NUMBER;
+                }
+                throw syntaxError("Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: checks that the next token is of the given kind and forgets that
+     * it was peeked, so the caller can read it
+     *
+     * @param token the expected kind of token
+     */
+    private void expect(Token token) {
+        Token next = peek();
+        if (next != token) {
+            throw syntaxError("Expected " + token + " but was " + next);
+        }
+        peeked = null;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: consumes a one-byte token of the given kind; brackets that open
+     * an object or array count as an element of the enclosing one
+     *
+     * @param token the expected kind of token
+     */
+    private void consume(Token token) {
+        expect(token);
+        if (token == Token.END_OBJECT || token == Token.END_ARRAY) {
+            if (depth == 0 || afterName || inObject[depth] != (token == Token.END_OBJECT)) {
+                throw syntaxError("Unexpected " + token);
+            }
+            input.get();
+            return;
+        }
+        input.get();
+        element();
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: goes one level deeper into a new object or array
+     *
+     * @param object whether it is an object
+     */
+    private void push(boolean object) {
+        depth++;
+        if (depth == inObject.length) {
+            inObject = Arrays.copyOf(inObject, depth * 2);
+            hasElements = Arrays.copyOf(hasElements, depth * 2);
+        }
+        inObject[depth] = object;
+        hasElements[depth] = false;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: records that a value of the current object or array was read
+     */
+    private void element() {
+        hasElements[depth] = true;
+        afterName = false;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: reads a quoted string, resolving escapes and decoding UTF-8
+     *
+     * @return the string
+     */
+    private String readString() {
+        input.get();
+        text.setLength(0);
+        while (available(1)) {
+            int c = input.get() & 0xFF;
+            if (c == '"') {
+                return text.toString();
+            } else if (c == '\\') {
+                readEscape();
+            } else if (c < 0x80) {
+                text.append((char) c);
+            } else {
+                readMultiByte(c);
+            }
+        }
+        throw syntaxError("Unterminated string");
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: reads the rest of an escape sequence and appends the character
+     */
+    private void readEscape() {
+        if (!available(1)) {
+            throw syntaxError("Unterminated string");
+        }
+        char c = (char) input.get();
+        switch (c) {
+            case 'b':
+                text.append('\b');
+                break;
+            case 'f':
+                text.append('\f');
+                break;
+            case 'n':
+                text.append('\n');
+                break;
+            case 'r':
+                text.append('\r');
+                break;
+            case 't':
+                text.append('\t');
+                break;
+            case 'u':
+                text.append(readHexChar());
+                break;
+            default:
+                // \" \\ and \/ stand for themselves
+                text.append(c);
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: reads the four hex digits of a \\u escape
+     *
+     * @return the character
+     */
+    private char readHexChar() {
+        if (!available(4)) {
+            throw syntaxError("Unterminated escape");
+        }
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            int digit = Character.digit(input.get(), 16);
+            if (digit < 0) {
+                throw syntaxError("Malformed escape");
+            }
+            value = value * 16 + digit;
+        }
+        return (char) value;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: decodes the UTF-8 sequence that starts with the given byte and
+     * appends the character
+     *
+     * @param first the first byte of the sequence
+     */
+    private void readMultiByte(int first) {
+        int length = first >= 0xF0 ? 4 : first >= 0xE0 ? 3 : 2;
+        if (!available(length - 1)) {
+            throw syntaxError("Unterminated string");
+        }
+        byte[] bytes = new byte[length];
+        bytes[0] = (byte) first;
+        input.get(bytes, 1, length - 1);
+        text.append(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: reads the characters of a number
+     *
+     * @return the characters of the number
+     */
+    private String readNumber() {
+        text.setLength(0);
+        while (available(1) && isNumberPart(input.get(input.position()))) {
+            text.append((char) input.get());
+        }
+        element();
+        return text.toString();
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: reads the given literal
+     *
+     * @param literal the expected literal
+     */
+    private void readLiteral(String literal) {
+        for (int i = 0; i < literal.length(); i++) {
+            if (!available(1) || input.get() != literal.charAt(i)) {
+                throw syntaxError("Expected " + literal);
+            }
+        }
+        element();
+    }
+
+    /**
+     * EFFECTS: returns the value of the given number
+     *
+     * @param number the characters of the number
+     * @return the value of the number
+     */
+    private double parseNumber(String number) {
+        try {
+            return Double.parseDouble(number);
+        } catch (NumberFormatException e) {
+            throw syntaxError("Malformed number " + number);
+        }
+    }
+
+    /**
+     * EFFECTS: returns the given number as a long if it is whole
+     *
+     * @param value the number
+     * @return the number as a long
+     */
+    private long toWhole(double value) {
+        if (value != Math.rint(value) || Math.abs(value) >= 0x1p63) {
+            throw syntaxError("Expected a whole number but was " + value);
+        }
+        return (long) value;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: skips spaces, tabs and line breaks
+     */
+    private void skipWhitespace() {
+        while (available(1)) {
+            byte c = input.get(input.position());
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return;
+            }
+            input.get();
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: returns whether at least the given number of bytes are left to
+     * parse, refilling input from the source if there are fewer in it
+     *
+     * @param count the number of bytes
+     * @return whether there are that many bytes
+     */
+    private boolean available(int count) {
+        if (input.remaining() >= count || source == null) {
+            return input.remaining() >= count;
+        }
+        discarded += input.position();
+        input.compact();
+        try {
+            while (input.position() < count && source.read(input) >= 0) {
+                // read until there are enough bytes or the source ends
+            }
+        } catch (IOException e) {
+            throw new JSONException("Error reading input", e);
+        } finally {
+            input.flip();
+        }
+        return input.remaining() >= count;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: closes the source, if any
+     *
+     * @throws IOException if closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        if (source != null) {
+            source.close();
+        }
+    }
+
+    /**
+     * EFFECTS: returns whether the given byte is a decimal digit
+     *
+     * @param c the byte
+     * @return whether it is a digit
+     */
+    private static boolean isDigit(byte c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * EFFECTS: returns whether the given byte can be part of a number
+     *
+     * @param c the byte
+     * @return whether it can be part of a number
+     */
+    private static boolean isNumberPart(byte c) {
+        return isDigit(c) || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E';
+    }
+
+    /**
+     * EFFECTS: returns an exception that describes a syntax error at the current
+     * position
+     *
+     * @param message the description of the error
+     * @return the exception
+     */
+    private JSONException syntaxError(String message) {
+        return new JSONException(message + " at byte " + (discarded + input.position()));
+    }
+}
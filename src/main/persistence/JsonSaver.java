@@ -1,6 +1,9 @@
 package persistence;
 
-import java.io.PrintWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Paths;
 
 /**
  * The class that is used to save Jsonizable objects to a file
@@ -11,19 +14,96 @@ public class JsonSaver {
     /**
      * REQUIRES: path is a valid path that can be written to; toSave is a valid
      * Jsonizable object
-     * EFFECTS: saves the given Jsonizable object to the given path in JSON format
+     * EFFECTS: saves the given Jsonizable object to the given path in compact
+     * JSON format
      * 
      * @param path   the path to save the object to
      * @param toSave the object to save
      */
     public static boolean saveGame(String path, Jsonizable toSave) {
-        try (PrintWriter writer = new PrintWriter(path)) {
-            writer.print(toSave.toJson().toString(TAB));
-            System.out.println("Game successfully saved to " + path);
-            return true;
+        return saveGame(path, toSave, false);
+    }
+
+    /**
+     * REQUIRES: path is a valid path that can be written to; toSave is a valid
+     * Jsonizable object
+     * EFFECTS: saves the given Jsonizable object to the given path in JSON
+     * format, streaming it to the file without building it in memory first
+     * 
+     * @param path   the path to save the object to
+     * @param toSave the object to save
+     * @param pretty whether to indent the JSON for reading
+     */
+    public static boolean saveGame(String path, Jsonizable toSave, boolean pretty) {
+        return saveGame(path, toSave, pretty, SaveCodec.PLAIN);
+    }
+
+    /**
+     * REQUIRES: path is a valid path that can be written to; toSave is a valid
+     * Jsonizable object
+     * EFFECTS: saves the given Jsonizable object to the given path in JSON
+     * format, compressed with the given codec as it is streamed to the file
+     * 
+     * @param path   the path to save the object to
+     * @param toSave the object to save
+     * @param pretty whether to indent the JSON for reading
+     * @param codec  the codec to compress the JSON with
+     */
+    public static boolean saveGame(String path, Jsonizable toSave, boolean pretty, SaveCodec codec) {
+        try {
+            writeJson(path, toSave, pretty, codec);
         } catch (Exception e) {
             System.out.println("Error saving file: " + e.getMessage());
             return false;
         }
+        System.out.println("Game successfully saved to " + path);
+        return true;
+    }
+
+    /**
+     * REQUIRES: path is a valid path that can be written to; toSave is a valid
+     * Jsonizable object
+     * EFFECTS: writes the given Jsonizable object to the given path in JSON
+     * format; the file is written under a temporary name and then renamed, so
+     * it is never left half written
+     * 
+     * @param path   the path to save the object to
+     * @param toSave the object to save
+     * @param pretty whether to indent the JSON for reading
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeJson(String path, Jsonizable toSave, boolean pretty) throws IOException {
+        writeJson(path, toSave, pretty, SaveCodec.PLAIN);
+    }
+
+    /**
+     * REQUIRES: path is a valid path that can be written to; toSave is a valid
+     * Jsonizable object
+     * EFFECTS: writes the given Jsonizable object to the given path in JSON
+     * format, compressed with the given codec as it is written; the file is
+     * replaced atomically like by writeJson(path, toSave, pretty)
+     * 
+     * @param path   the path to save the object to
+     * @param toSave the object to save
+     * @param pretty whether to indent the JSON for reading
+     * @param codec  the codec to compress the JSON with
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeJson(String path, Jsonizable toSave, boolean pretty, SaveCodec codec)
+            throws IOException {
+        AtomicFiles.write(Paths.get(path), channel -> {
+            if (codec == SaveCodec.PLAIN) {
+                JsonStreamWriter writer = new JsonStreamWriter(channel, pretty ? TAB : 0);
+                toSave.writeJson(writer);
+                writer.flush();
+                return;
+            }
+            // closing the stream ends the compressed data and leaves the channel open
+            try (OutputStream out = codec.compress(channel)) {
+                JsonStreamWriter writer = new JsonStreamWriter(Channels.newChannel(out), pretty ? TAB : 0);
+                toSave.writeJson(writer);
+                writer.flush();
+            }
+        });
     }
 }
\ No newline at end of file
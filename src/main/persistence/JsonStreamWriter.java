@@ -0,0 +1,382 @@
+package persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.json.JSONObject;
+
+/**
+ * Writes JSON token by token to a channel through a reusable buffer, so large
+ * objects can be saved without building a JSONObject tree or one big string
+ * first. Output is compact unless an indent is given, in which case it is
+ * laid out like JSONObject.toString(indent).
+ * Strings are escaped and fractions formatted the way JSONObject does it, so
+ * the output parses back to the same values that toJson() produces.
+ */
+public class JsonStreamWriter implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final int indent;
+    // hasElements[i] tells whether the object or array at depth i has an element yet
+    private boolean[] hasElements = new boolean[16];
+    private int depth;
+    // true between a name and its value
+    private boolean afterName;
+
+    /**
+     * REQUIRES: channel != null and indent >= 0
+     * EFFECTS: constructs a writer that writes to the given channel, compact if
+     * indent is 0 and pretty-printed with the given indent otherwise
+     *
+     * @param channel the channel to write to
+     * @param indent  the number of spaces per level, or 0 for compact output
+     */
+    public JsonStreamWriter(WritableByteChannel channel, int indent) {
+        this.channel = channel;
+        this.indent = indent;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: starts an object
+     *
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonStreamWriter beginObject() throws IOException {
+        return open('{');
+    }
+
+    /**
+     * REQUIRES: an object is open
+     * MODIFIES: this
+     * EFFECTS: ends the innermost object
+     *
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonStreamWriter endObject() throws IOException {
+        return close('}');
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: starts an array
+     *
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonStreamWriter beginArray() throws IOException {
+        return open('[');
+    }
+
+    /**
+     * REQUIRES: an array is open
+     * MODIFIES: this
+     * EFFECTS: ends the innermost array
+     *
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonStreamWriter endArray() throws IOException {
+        return close(']');
+    }
+
+    /**
+     * REQUIRES: an object is open and the previous name has a value
+     * MODIFIES: this
+     * EFFECTS: writes the name of the next member of the innermost object
+     *
+     * @param name the name of the member
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonStreamWriter name(String name) throws IOException {
+        separate();
+        writeQuoted(name);
+        write(indent > 0 ? ": " : ":");
+        afterName = true;
+        return this;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: writes the given string, or null
+     *
+     * @param value the string
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonStreamWriter value(String value) throws IOException {
+        separate();
+        if (value == null) {
+            write("null");
+        } else {
+            writeQuoted(value);
+        }
+        return this;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: writes the given number
+     *
+     * @param value the number
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonStreamWriter value(long value) throws IOException {
+        separate();
+        writeLong(value);
+        return this;
+    }
+
+    /**
+     * REQUIRES: value is finite
+     * MODIFIES: this
+     * EFFECTS: writes the given number, without a fraction if it is whole
+     *
+     * @param value the number
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonStreamWriter value(double value) throws IOException {
+        separate();
+        write(JSONObject.numberToString(value));
+        return this;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: writes the given object with its writeJson method
+     *
+     * @param value the object
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonStreamWriter value(Jsonizable value) throws IOException {
+        value.writeJson(this);
+        return this;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: writes the given JSON object as a value
+     *
+     * @param value the JSON object
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonStreamWriter value(JSONObject value) throws IOException {
+        separate();
+        write(value.toString());
+        return this;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: writes the buffered output to the channel
+     *
+     * @throws IOException if writing fails
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: writes the buffered output and closes the channel
+     *
+     * @throws IOException if writing or closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: writes the opening bracket and goes one level deeper
+     *
+     * @param bracket the opening bracket
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    private JsonStreamWriter open(char bracket) throws IOException {
+        separate();
+        write(bracket);
+        depth++;
+        if (depth == hasElements.length) {
+            hasElements = Arrays.copyOf(hasElements, depth * 2);
+        }
+        hasElements[depth] = false;
+        return this;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: goes one level up and writes the closing bracket, on its own line
+     * when pretty-printing a non-empty object or array
+     *
+     * @param bracket the closing bracket
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    private JsonStreamWriter close(char bracket) throws IOException {
+        boolean empty = !hasElements[depth];
+        depth--;
+        if (!empty) {
+            newLine();
+        }
+        write(bracket);
+        return this;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: writes what goes before the next name or value: nothing after a
+     * name, otherwise a comma if it is not the first element and a new line
+     * when pretty-printing
+     *
+     * @throws IOException if writing fails
+     */
+    private void separate() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth == 0) {
+            return;
+        }
+        if (hasElements[depth]) {
+            write(',');
+        }
+        hasElements[depth] = true;
+        newLine();
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: starts a new line indented to the current depth when
+     * pretty-printing
+     *
+     * @throws IOException if writing fails
+     */
+    private void newLine() throws IOException {
+        if (indent == 0) {
+            return;
+        }
+        write('\n');
+        for (int i = 0; i < depth * indent; i++) {
+            write(' ');
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: writes the given string in quotes, escaped like JSONObject.quote
+     *
+     * @param text the string
+     * @throws IOException if writing fails
+     */
+    private void writeQuoted(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < ' ' || c > '~' || c == '"' || c == '\\' || c == '/') {
+                write(JSONObject.quote(text));
+                return;
+            }
+        }
+        // names and most values are plain ASCII and need no escaping
+        write('"');
+        write(text);
+        write('"');
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: writes the decimal digits of the given number
+     *
+     * @param value the number
+     * @throws IOException if writing fails
+     */
+    private void writeLong(long value) throws IOException {
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                write(Long.toString(value));
+                return;
+            }
+            write('-');
+            value = -value;
+        }
+        long divisor = 1;
+        while (divisor <= value / 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            write((char) ('0' + value / divisor % 10));
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: writes the given text in UTF-8
+     *
+     * @param text the text
+     * @throws IOException if writing fails
+     */
+    private void write(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                // rare: encode the rest at once so that surrogate pairs stay together
+                write(text.substring(i).getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            write(c);
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: writes the given bytes
+     *
+     * @param bytes the bytes
+     * @throws IOException if writing fails
+     */
+    private void write(byte[] bytes) throws IOException {
+        for (byte b : bytes) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.put(b);
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: writes the given ASCII character
+     *
+     * @param c the character
+     * @throws IOException if writing fails
+     */
+    private void write(char c) throws IOException {
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+        buffer.put((byte) c);
+    }
+}
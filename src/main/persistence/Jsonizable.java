@@ -1,5 +1,7 @@
 package persistence;
 
+import java.io.IOException;
+
 import org.json.JSONObject;
 
 /**
@@ -12,4 +14,16 @@ public interface Jsonizable {
      * @return the JSON representation of the object
      */
     JSONObject toJson();
+
+    /**
+     * MODIFIES: writer
+     * EFFECTS: writes the JSON representation of the object to the given writer;
+     * the same JSON as toJson(), which is used unless overridden
+     * 
+     * @param writer the writer to write to
+     * @throws IOException if writing fails
+     */
+    default void writeJson(JsonStreamWriter writer) throws IOException {
+        writer.value(toJson());
+    }
 }
@@ -0,0 +1,174 @@
+package persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import model.AchievementCollection;
+import model.Game;
+import model.Snake;
+import model.achievements.Achievement;
+import model.achievements.StatisticalAchievement;
+
+/**
+ * The achievements of a game whose playable state has been loaded without
+ * them (see BinarySnapshot.decodePlayable), so that the game can go on while
+ * they are read. They are hydrated on a background thread, which only reads
+ * the saved bytes into detached achievements, and merged into the game on the
+ * game thread between two ticks.
+ * <p>
+ * The game keeps counting while they load, so merging adds what was counted
+ * since the load to each saved value, and adds the saved achievements that
+ * were not unlocked again in the meantime.
+ */
+public class PendingAchievements {
+    private final ByteBuffer section;
+    private final Game game;
+    private final Snake snake1;
+    private final Snake snake2;
+    // the values of the statistical achievements of the game when it was loaded
+    private final Map<Achievement, Double> baselines = new IdentityHashMap<>();
+    // values set by a journal after the snapshot, by index in the saved achievements
+    private final Map<Integer, Double> overrides = new HashMap<>();
+    private CompletableFuture<List<Achievement>> hydration;
+    private boolean merged;
+
+    /**
+     * REQUIRES: the section passed the checksum of its snapshot; game, snake1,
+     * snake2 are valid and not null
+     * EFFECTS: constructs the achievements in the given section, which belong
+     * to the given game, remembering the values the game has counted so far
+     *
+     * @param section the achievements of a snapshot
+     * @param game    the game they belong to
+     * @param snake1  the first snake
+     * @param snake2  the second snake
+     */
+    PendingAchievements(ByteBuffer section, Game game, Snake snake1, Snake snake2) {
+        this.section = section;
+        this.game = game;
+        this.snake1 = snake1;
+        this.snake2 = snake2;
+        for (Achievement achievement : game.getAchievements().getAchievements()) {
+            if (achievement instanceof StatisticalAchievement) {
+                baselines.put(achievement, achievement.getValue());
+            }
+        }
+    }
+
+    /**
+     * REQUIRES: hydration has not started
+     * MODIFIES: this
+     * EFFECTS: replaces the value of the saved achievement with the given index
+     *
+     * @param index the index of the achievement among the saved ones
+     * @param value the value to set
+     */
+    void setValue(int index, double value) {
+        overrides.put(index, value);
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: starts reading the achievements on a background thread, unless
+     * it has started already
+     */
+    public synchronized void start() {
+        if (hydration == null) {
+            hydration = CompletableFuture.supplyAsync(this::hydrate);
+        }
+    }
+
+    /**
+     * REQUIRES: called on the game thread between two ticks
+     * MODIFIES: this, game
+     * EFFECTS: merges the achievements into the game if they have been read;
+     * returns whether they have been merged
+     *
+     * @return whether the achievements have been merged
+     */
+    public boolean mergeIfReady() {
+        start();
+        if (!merged && hydration.isDone()) {
+            merge();
+        }
+        return merged;
+    }
+
+    /**
+     * REQUIRES: called on the game thread between two ticks
+     * MODIFIES: this, game
+     * EFFECTS: waits until the achievements have been read and merges them into
+     * the game, unless they have been merged already
+     */
+    public void mergeNow() {
+        start();
+        if (!merged) {
+            merge();
+        }
+    }
+
+    /**
+     * EFFECTS: returns whether the achievements have been merged into the game
+     *
+     * @return whether the achievements have been merged
+     */
+    public boolean isMerged() {
+        return merged;
+    }
+
+    /**
+     * EFFECTS: reads the achievements and applies the values set by a journal
+     *
+     * @return the saved achievements, detached from the game
+     * @throws CompletionException if the achievements are malformed
+     */
+    private List<Achievement> hydrate() {
+        List<Achievement> saved;
+        try {
+            saved = BinarySnapshot.readAchievements(section.duplicate(), snake1, snake2);
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+        for (Map.Entry<Integer, Double> override : overrides.entrySet()) {
+            Achievement achievement = override.getKey() < saved.size() ? saved.get(override.getKey()) : null;
+            if (!(achievement instanceof StatisticalAchievement)) {
+                throw new CompletionException(new IOException("Journal sets the value of no statistic"));
+            }
+            ((StatisticalAchievement) achievement).setValue(override.getValue());
+        }
+        return saved;
+    }
+
+    /**
+     * REQUIRES: hydration has started
+     * MODIFIES: this, game
+     * EFFECTS: waits for the achievements and merges them into the game; if
+     * they cannot be read, the game goes on without them
+     */
+    private void merge() {
+        merged = true;
+        List<Achievement> saved;
+        try {
+            saved = hydration.join();
+        } catch (CompletionException e) {
+            System.out.println("Error loading achievements: " + e.getCause().getMessage());
+            return;
+        }
+        AchievementCollection achievements = game.getAchievements();
+        for (Achievement achievement : saved) {
+            Achievement live = achievements.getAchievement(achievement.getTitle(), achievement.getSnake());
+            if (achievement instanceof StatisticalAchievement && live instanceof StatisticalAchievement) {
+                double counted = live.getValue() - baselines.getOrDefault(live, 0.0);
+                ((StatisticalAchievement) live).setValue(achievement.getValue() + counted);
+            } else {
+                achievements.addAchievement(achievement);
+            }
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package persistence;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+import model.Game;
+
+/**
+ * Many saved games in one directory, each in its own slot: the file
+ * name.json, written like JsonSaver.writeJson. A small index file next to
+ * them holds the metadata of every slot (see SaveSlot), so listing the saves
+ * reads only the index. The index is replaced atomically after the save it
+ * describes has been written, and updates of it hold a lock on a lock file,
+ * so saves to different slots can run at the same time, even from several
+ * processes, without losing each other's entries.
+ */
+public class SaveCatalog {
+    public static final String DEFAULT_DIRECTORY = "data/saves";
+    private static final String INDEX_NAME = "catalog.idx";
+    private static final String LOCK_NAME = "catalog.lock";
+    private static final String SAVE_SUFFIX = ".json";
+    private static final int MAGIC = 0x534E4B43;
+    private static final int VERSION = 1;
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+    // a file lock is held by the whole process, so threads take turns on this first
+    private static final Object UPDATE_LOCK = new Object();
+    private final Path directory;
+    private final SaveCodec codec;
+
+    /**
+     * EFFECTS: constructs a catalog of the saves in the given directory, which
+     * writes them compressed with the given codec
+     *
+     * @param directory the directory of the saves, created on the first save
+     * @param codec     the codec to compress the saves with
+     */
+    public SaveCatalog(String directory, SaveCodec codec) {
+        this.directory = Paths.get(directory);
+        this.codec = codec;
+    }
+
+    /**
+     * REQUIRES: called on the game thread between two ticks
+     * MODIFIES: this
+     * EFFECTS: saves the given game to the slot with the given name, replacing
+     * the save in it if any, and returns its metadata
+     *
+     * @param name the name of the slot, letters, digits, '_' and '-' only
+     * @param game the game to save
+     * @return the metadata of the save
+     * @throws IOException if the save or the index cannot be written
+     */
+    public SaveSlot save(String name, Game game) throws IOException {
+        SaveSlot slot = SaveSlot.describe(name, game, System.currentTimeMillis());
+        save(slot, game);
+        return slot;
+    }
+
+    /**
+     * REQUIRES: called on the game thread between two ticks
+     * MODIFIES: this
+     * EFFECTS: saves the given game to a new slot named after the current time
+     * and returns its metadata
+     *
+     * @param game the game to save
+     * @return the metadata of the save
+     * @throws IOException if the save or the index cannot be written
+     */
+    public SaveSlot saveNew(Game game) throws IOException {
+        return saveNew(describeNew(game), game);
+    }
+
+    /**
+     * REQUIRES: called on the game thread between two ticks
+     * MODIFIES: this
+     * EFFECTS: takes a snapshot of the given game and its metadata now and
+     * saves it to a new slot named after the current time on a background
+     * thread; returns the save, which completes with the metadata of the slot
+     * or exceptionally with the IOException that stopped it
+     *
+     * @param game the game to save
+     * @return the save in progress
+     */
+    public CompletableFuture<SaveSlot> saveNewInBackground(Game game) {
+        SaveSlot described = describeNew(game);
+        Jsonizable snapshot = game.snapshot();
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return saveNew(described, snapshot);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * REQUIRES: toSave does not change while it is saved and is described by
+     * slot
+     * MODIFIES: this
+     * EFFECTS: saves the given object to the slot of the given metadata,
+     * replacing the save in it if any
+     *
+     * @param slot   the metadata of the save
+     * @param toSave the game or snapshot to save
+     * @throws IOException if the save or the index cannot be written
+     */
+    public void save(SaveSlot slot, Jsonizable toSave) throws IOException {
+        Path file = pathOf(slot.getName());
+        Files.createDirectories(directory);
+        JsonSaver.writeJson(file.toString(), toSave, false, codec);
+        updateIndex(slots -> slots.put(slot.getName(), slot));
+    }
+
+    /**
+     * EFFECTS: returns the metadata of all saves, the newest first, reading
+     * only the index
+     *
+     * @return the metadata of all saves
+     * @throws IOException if the index cannot be read
+     */
+    public List<SaveSlot> list() throws IOException {
+        List<SaveSlot> slots = new ArrayList<>(readIndex().values());
+        slots.sort(Comparator.comparingLong(SaveSlot::getTimestamp).reversed());
+        return slots;
+    }
+
+    /**
+     * REQUIRES: game, snake1, snake2 are valid and not null
+     * MODIFIES: game
+     * EFFECTS: loads the save in the slot with the given name into the given
+     * game; returns false if it cannot be read
+     *
+     * @param name the name of the slot
+     * @param game the game to load into
+     * @return whether the save was loaded
+     */
+    public boolean load(String name, Game game) {
+        return JsonLoader.loadGame(pathOf(name).toString(), game, game.getSnake1(), game.getSnake2());
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: removes the slot with the given name and its save; returns
+     * whether there was one
+     *
+     * @param name the name of the slot
+     * @return whether the slot existed
+     * @throws IOException if the index cannot be written or the save deleted
+     */
+    public boolean delete(String name) throws IOException {
+        boolean[] removed = new boolean[1];
+        updateIndex(slots -> removed[0] = slots.remove(name) != null);
+        // after the index, so that a listed slot always has its save
+        Files.deleteIfExists(pathOf(name));
+        return removed[0];
+    }
+
+    /**
+     * EFFECTS: returns the metadata of the given game saved now to a slot named
+     * after the current time, which may be taken already
+     *
+     * @param game the game
+     * @return the metadata
+     */
+    private static SaveSlot describeNew(Game game) {
+        long now = System.currentTimeMillis();
+        String name = "save-" + new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date(now));
+        return SaveSlot.describe(name, game, now);
+    }
+
+    /**
+     * REQUIRES: toSave does not change while it is saved and is described by
+     * described
+     * MODIFIES: this
+     * EFFECTS: saves the given object to a new slot, named like the described
+     * one or, if that is taken, with the first free suffix "-1", "-2", ...;
+     * returns the metadata of the slot
+     *
+     * @param described the metadata of the save
+     * @param toSave    the game or snapshot to save
+     * @return the metadata of the slot
+     * @throws IOException if the save or the index cannot be written
+     */
+    private SaveSlot saveNew(SaveSlot described, Jsonizable toSave) throws IOException {
+        SaveSlot slot = described.withName(claimName(described.getName()));
+        try {
+            save(slot, toSave);
+        } catch (IOException e) {
+            Files.deleteIfExists(pathOf(slot.getName()));
+            throw e;
+        }
+        return slot;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: claims the first free name among the given one and the given
+     * one with the suffix "-1", "-2", ... by creating its save, which is empty
+     * until it is written; creating a file fails if it exists, so no other
+     * thread or process can claim the same name
+     *
+     * @param name the name to claim, or to claim with a suffix if it is taken
+     * @return the claimed name
+     * @throws IOException if the save cannot be created
+     */
+    private String claimName(String name) throws IOException {
+        Files.createDirectories(directory);
+        for (int i = 0; ; i++) {
+            String claimed = i == 0 ? name : name + "-" + i;
+            try {
+                Files.createFile(pathOf(claimed));
+                return claimed;
+            } catch (FileAlreadyExistsException e) {
+                // taken by an earlier save in the same millisecond
+            }
+        }
+    }
+
+    /**
+     * EFFECTS: returns the file of the slot with the given name
+     *
+     * @param name the name of the slot
+     * @return the file of the slot
+     * @throws IllegalArgumentException if the name is not a valid slot name
+     */
+    private Path pathOf(String name) {
+        if (!NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid slot name " + name);
+        }
+        return directory.resolve(name + SAVE_SUFFIX);
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: applies the given change to the slots in the index and writes it
+     * back while no other thread or process updates the index
+     *
+     * @param change the change to the slots, by name
+     * @throws IOException if the index cannot be read or written
+     */
+    private void updateIndex(Consumer<Map<String, SaveSlot>> change) throws IOException {
+        Files.createDirectories(directory);
+        synchronized (UPDATE_LOCK) {
+            try (FileChannel lockChannel = FileChannel.open(directory.resolve(LOCK_NAME),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                // released when the channel is closed
+                lockChannel.lock();
+                Map<String, SaveSlot> slots = readIndex();
+                change.accept(slots);
+                writeIndex(slots);
+            }
+        }
+    }
+
+    /**
+     * EFFECTS: returns the slots in the index by name; no slots if there is no
+     * index yet
+     *
+     * @return the slots by name
+     * @throws IOException if the index cannot be read or is malformed
+     */
+    private Map<String, SaveSlot> readIndex() throws IOException {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(directory.resolve(INDEX_NAME));
+        } catch (NoSuchFileException e) {
+            return new LinkedHashMap<>();
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (bytes.length < 10 || in.readInt() != MAGIC || in.readShort() != VERSION) {
+            throw new IOException("Not a save catalog index");
+        }
+        int count = in.readInt();
+        Map<String, SaveSlot> slots = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            SaveSlot slot = SaveSlot.read(in);
+            slots.put(slot.getName(), slot);
+        }
+        return slots;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: replaces the index with the given slots
+     *
+     * @param slots the slots by name
+     * @throws IOException if the index cannot be written
+     */
+    private void writeIndex(Map<String, SaveSlot> slots) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeInt(slots.size());
+        for (SaveSlot slot : slots.values()) {
+            slot.write(out);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        AtomicFiles.write(directory.resolve(INDEX_NAME), channel -> {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        });
+    }
+}
@@ -0,0 +1,188 @@
+package persistence;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * The ways a saved game or a replay can be compressed. Compression is a
+ * streaming stage between the writer and the file, so nothing is held in
+ * memory beyond a buffer. A reader picks the codec from the first bytes of
+ * the file (see decompress): GZIP files start with the gzip magic number,
+ * FAST files with "SNKZ" followed by a zlib stream at the fastest level, and
+ * anything else is read as it is. Saves, whose body segments repeat the same
+ * few keys, shrink to about a tenth with either; FAST files are slightly
+ * larger than GZIP ones but are written in well under the time.
+ */
+public enum SaveCodec {
+    PLAIN {
+        @Override
+        public OutputStream compress(OutputStream out) {
+            return out;
+        }
+
+        @Override
+        InputStream open(InputStream in) {
+            return in;
+        }
+    },
+    GZIP {
+        @Override
+        public OutputStream compress(OutputStream out) throws IOException {
+            return new GZIPOutputStream(out, BUFFER_SIZE, true);
+        }
+
+        @Override
+        InputStream open(InputStream in) throws IOException {
+            return new GZIPInputStream(in, BUFFER_SIZE);
+        }
+    },
+    FAST {
+        @Override
+        public OutputStream compress(OutputStream out) throws IOException {
+            out.write(FAST_MAGIC);
+            return new DeflaterOutputStream(out, new Deflater(Deflater.BEST_SPEED), BUFFER_SIZE, true) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        def.end();
+                    }
+                }
+            };
+        }
+
+        @Override
+        InputStream open(InputStream in) throws IOException {
+            if (in.skip(FAST_MAGIC.length) != FAST_MAGIC.length) {
+                throw new IOException("Truncated header");
+            }
+            return new InflaterInputStream(in, new Inflater(), BUFFER_SIZE) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        inf.end();
+                    }
+                }
+            };
+        }
+    };
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final byte[] FAST_MAGIC = { 'S', 'N', 'K', 'Z' };
+    private static final int GZIP_MAGIC = 0x1F8B;
+
+    /**
+     * MODIFIES: out
+     * EFFECTS: returns a stream that compresses what is written to it into the
+     * given stream; flushing it flushes all data written so far, and closing
+     * it writes the end of the compressed data and closes the given stream
+     *
+     * @param out the stream to write the compressed data to
+     * @return the compressing stream
+     * @throws IOException if the header cannot be written
+     */
+    public abstract OutputStream compress(OutputStream out) throws IOException;
+
+    /**
+     * MODIFIES: in
+     * EFFECTS: returns a stream of the uncompressed data in the given stream,
+     * which starts with the header of this codec
+     *
+     * @param in the stream of compressed data
+     * @return the stream of the uncompressed data
+     * @throws IOException if the header is malformed
+     */
+    abstract InputStream open(InputStream in) throws IOException;
+
+    /**
+     * MODIFIES: channel
+     * EFFECTS: returns a stream that compresses what is written to it into the
+     * given channel; closing it writes the end of the compressed data but
+     * leaves the channel open, e.g. so that it can still be forced to the disk
+     *
+     * @param channel the channel to write the compressed data to
+     * @return the compressing stream
+     * @throws IOException if the header cannot be written
+     */
+    public OutputStream compress(WritableByteChannel channel) throws IOException {
+        return compress(new ChannelOutputStream(channel));
+    }
+
+    /**
+     * EFFECTS: returns the codec of the data that starts with the given bytes
+     *
+     * @param header the first bytes of the data, at most 4 are looked at
+     * @param length the number of bytes in header
+     * @return the codec of the data
+     */
+    public static SaveCodec detect(byte[] header, int length) {
+        if (length >= 2 && ((header[0] & 0xFF) << 8 | header[1] & 0xFF) == GZIP_MAGIC) {
+            return GZIP;
+        }
+        if (length >= FAST_MAGIC.length) {
+            for (int i = 0; i < FAST_MAGIC.length; i++) {
+                if (header[i] != FAST_MAGIC[i]) {
+                    return PLAIN;
+                }
+            }
+            return FAST;
+        }
+        return PLAIN;
+    }
+
+    /**
+     * MODIFIES: in
+     * EFFECTS: returns a stream of the uncompressed data in the given stream,
+     * picking the codec from its first bytes; closing it closes the given
+     * stream
+     *
+     * @param in the stream of possibly compressed data
+     * @return the stream of the uncompressed data
+     * @throws IOException if the data cannot be read or its header is malformed
+     */
+    public static InputStream decompress(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in, BUFFER_SIZE);
+        byte[] header = new byte[FAST_MAGIC.length];
+        buffered.mark(header.length);
+        int length = buffered.readNBytes(header, 0, header.length);
+        buffered.reset();
+        return detect(header, length).open(buffered);
+    }
+
+    /**
+     * Writes to a channel and leaves it open when closed
+     */
+    private static final class ChannelOutputStream extends OutputStream {
+        private final WritableByteChannel channel;
+
+        ChannelOutputStream(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+}
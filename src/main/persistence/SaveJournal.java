@@ -0,0 +1,874 @@
+package persistence;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.CRC32;
+
+import model.Direction;
+import model.Game;
+import model.Position;
+import model.Snake;
+import model.achievements.Achievement;
+import model.achievements.StatisticalAchievement;
+
+/**
+ * Saves a game incrementally, so that saving costs as much as the changes
+ * since the last save rather than as much as the whole game. A save is a
+ * checkpoint, which is a binary snapshot (see BinarySnapshot) of the whole
+ * game, and a journal next to it with one record per tick after the
+ * checkpoint. Loading decodes the checkpoint and replays the journal.
+ * <p>
+ * The journal starts with a 16 byte header: the magic number "SNKJ", the
+ * format version (2 bytes), reserved flags (2 bytes) and the payload length
+ * and CRC32 of its checkpoint, so that a journal left over from an older
+ * checkpoint is never replayed onto a newer one. Each record is its length,
+ * its payload and the CRC32 of the payload; a record that was cut short by a
+ * crash fails its checksum and ends the replay there. A payload holds:
+ * <ul>
+ * <li>the number of the record since the checkpoint (int)</li>
+ * <li>the step of each snake: the direction ordinal of its move, plus 0x40 if
+ * it grew afterwards (byte)</li>
+ * <li>a bit mask of the changed counters (byte) followed by their values
+ * (ints): scores, no-eat counts, apples eaten and ticks per second</li>
+ * <li>the removed and then the added food: a count (byte) and packed cells</li>
+ * <li>the changed achievement values: a count (byte), then the index in the
+ * collection (short) and the value (double) of each</li>
+ * </ul>
+ * Anything that is not a single tick of the game, such as loading another
+ * game or unlocking an achievement, is saved by writing a new checkpoint.
+ * <p>
+ * The changes are encoded on the game thread; writing them, including the
+ * checkpoints with their forced and renamed files, can be left to a
+ * background thread so that the disk never holds up a tick.
+ * Since the achievement set only changes with a checkpoint, the indices in the
+ * records are those of the checkpoint, which is what lets loadPlayable defer
+ * the values until the achievements of the checkpoint are read.
+ */
+public class SaveJournal implements AutoCloseable {
+    static final int MAGIC = 0x534E4B4A;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    private static final String SUFFIX = ".journal";
+    // flag of the step of a snake that grew after moving
+    private static final int GREW = 0x40;
+    // scores, no-eat counts and apples eaten of both snakes, ticks per second
+    private static final int COUNTERS = 7;
+    // the most changes of one kind a record can hold
+    private static final int MAX_CHANGES = 255;
+    private static final int RECORD_CAPACITY = 8192;
+
+    private final Path checkpointPath;
+    private final Path journalPath;
+    private final int checkpointInterval;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_CAPACITY);
+    private final CRC32 crc = new CRC32();
+    // writes the files in the order the saves were made; null to write them on the game thread
+    private final ExecutorService writer;
+    // only used by the thread that writes
+    private FileChannel journal;
+    // whether the journal on the disk cannot take the next record, so the next save is a checkpoint
+    private volatile boolean broken = true;
+    // the first error of a write that has not been reported yet
+    private final AtomicReference<IOException> failure = new AtomicReference<>();
+    // number of records since the last checkpoint
+    private int sequence;
+    private int checkpoints;
+    // the saved state of the game, which the next record is the change from
+    private final int[] heads = new int[2];
+    private final int[] tails = new int[2];
+    private final int[] lengths = new int[2];
+    private final int[] counters = new int[COUNTERS];
+    private final int[] liveCounters = new int[COUNTERS];
+    private int[] food = new int[4];
+    private int foodCount;
+    private int[] liveFood = new int[4];
+    private int liveFoodCount;
+    private double[] values = new double[0];
+
+    /**
+     * REQUIRES: path is a file that can be written to; checkpointInterval > 0
+     * EFFECTS: constructs a journal that saves checkpoints to the given path
+     * and records to the path followed by ".journal"; a new checkpoint is
+     * written after the given number of records
+     *
+     * @param path               the path of the checkpoint
+     * @param checkpointInterval the number of records between two checkpoints
+     */
+    public SaveJournal(String path, int checkpointInterval) {
+        this(path, checkpointInterval, false);
+    }
+
+    /**
+     * REQUIRES: path is a file that can be written to; checkpointInterval > 0
+     * EFFECTS: constructs a journal that saves checkpoints to the given path
+     * and records to the path followed by ".journal"; a new checkpoint is
+     * written after the given number of records. If inBackground, the files
+     * are written by a background thread, and errors are reported by the save
+     * after the one that failed.
+     *
+     * @param path               the path of the checkpoint
+     * @param checkpointInterval the number of records between two checkpoints
+     * @param inBackground       whether to write the files on a background thread
+     */
+    public SaveJournal(String path, int checkpointInterval, boolean inBackground) {
+        this.checkpointPath = Paths.get(path);
+        this.journalPath = journalPath(path);
+        this.checkpointInterval = checkpointInterval;
+        this.writer = inBackground ? Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "save-journal");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    /**
+     * REQUIRES: called once after every tick of the game
+     * MODIFIES: this, the files of the journal
+     * EFFECTS: saves the changes of the given game since the last save,
+     * writing a new checkpoint if they are not a single tick or the journal
+     * is due for one
+     *
+     * @param game the game
+     * @throws IOException if writing this or an earlier save failed; the next
+     *                     save is a checkpoint
+     */
+    public void record(Game game) throws IOException {
+        if (broken || sequence >= checkpointInterval || !encodeRecord(game)) {
+            checkpoint(game);
+            return;
+        }
+        ByteBuffer bytes = finishRecord();
+        write(() -> append(bytes));
+        sequence++;
+        remember(game);
+        reportFailure();
+    }
+
+    /**
+     * MODIFIES: this, the files of the journal
+     * EFFECTS: saves the whole game as a new checkpoint with an empty journal;
+     * each file is replaced atomically
+     *
+     * @param game the game
+     * @throws IOException if writing this or an earlier save failed
+     */
+    public void checkpoint(Game game) throws IOException {
+        ByteBuffer snapshot = BinarySnapshot.encode(game);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putShort((short) VERSION).putShort((short) 0);
+        header.putInt(snapshot.getInt(8)).putInt(snapshot.getInt(12));
+        header.flip();
+        broken = false;
+        write(() -> {
+            closeJournal();
+            AtomicFiles.write(checkpointPath, channel -> writeFully(channel, snapshot));
+            AtomicFiles.write(journalPath, channel -> writeFully(channel, header));
+            journal = FileChannel.open(journalPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        });
+        sequence = 0;
+        checkpoints++;
+        remember(game);
+        reportFailure();
+    }
+
+    /**
+     * MODIFIES: this, the files of the journal
+     * EFFECTS: closes the journal and deletes it and its checkpoint, after the
+     * saves before it have been written, so that a game that has ended cannot
+     * be loaded from them; the next save is a checkpoint
+     *
+     * @throws IOException if writing this or an earlier save failed
+     */
+    public void discard() throws IOException {
+        broken = true;
+        write(() -> {
+            closeJournal();
+            // the checkpoint first: a journal without its checkpoint is never loaded
+            Files.deleteIfExists(checkpointPath);
+            Files.deleteIfExists(journalPath);
+        });
+        reportFailure();
+    }
+
+    /**
+     * EFFECTS: returns how many checkpoints have been written
+     *
+     * @return the number of checkpoints written
+     */
+    public int getCheckpointCount() {
+        return checkpoints;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: waits for the saves to be written, forces the records to the
+     * disk and closes the journal; a journal written in the background cannot
+     * save anymore, any other saves a checkpoint next
+     *
+     * @throws IOException if writing a save, forcing or closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        broken = true;
+        write(() -> {
+            if (journal != null) {
+                journal.force(false);
+            }
+            closeJournal();
+        });
+        if (writer != null) {
+            writer.shutdown();
+            try {
+                writer.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        reportFailure();
+    }
+
+    /**
+     * REQUIRES: a checkpoint has been saved to path
+     * EFFECTS: returns a new game of the board size in the checkpoint at the
+     * given path, with the checkpoint loaded and the journal replayed
+     *
+     * @param path the path of the checkpoint
+     * @return the game
+     * @throws IOException if the checkpoint or the journal cannot be read
+     */
+    public static Game load(String path) throws IOException {
+        ByteBuffer snapshot = ByteBuffer.wrap(Files.readAllBytes(Paths.get(path)));
+        Game game = BinarySnapshot.decodeNewGame(snapshot.duplicate());
+        replay(journalPath(path), snapshot, game, game.getSnake1(), game.getSnake2());
+        return game;
+    }
+
+    /**
+     * REQUIRES: game, snake1, snake2 are valid and not null
+     * MODIFIES: game, snake1, snake2
+     * EFFECTS: loads the checkpoint at the given path into the given objects
+     * and replays its journal; returns false if they cannot be read
+     *
+     * @param path   the path of the checkpoint
+     * @param game   the game to update
+     * @param snake1 the first snake to update
+     * @param snake2 the second snake to update
+     * @return whether the game was loaded
+     */
+    public static boolean loadGame(String path, Game game, Snake snake1, Snake snake2) {
+        try {
+            ByteBuffer snapshot = ByteBuffer.wrap(Files.readAllBytes(Paths.get(path)));
+            BinarySnapshot.decode(snapshot.duplicate(), game, snake1, snake2);
+            replay(journalPath(path), snapshot, game, snake1, snake2);
+            return true;
+        } catch (Exception e) {
+            System.out.println("Error loading file: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * REQUIRES: game, snake1, snake2 are valid and not null
+     * MODIFIES: game, snake1, snake2
+     * EFFECTS: loads the playable state of the checkpoint at the given path
+     * into the given objects and replays its journal, leaving out the
+     * achievements; returns them to be merged later, or null if the files
+     * cannot be read
+     *
+     * @param path   the path of the checkpoint
+     * @param game   the game to update
+     * @param snake1 the first snake to update
+     * @param snake2 the second snake to update
+     * @return the achievements of the save, not loaded yet, or null
+     */
+    public static PendingAchievements loadPlayable(String path, Game game, Snake snake1, Snake snake2) {
+        try {
+            ByteBuffer snapshot = ByteBuffer.wrap(Files.readAllBytes(Paths.get(path)));
+            PendingAchievements pending = BinarySnapshot.decodePlayable(snapshot.duplicate(), game, snake1, snake2);
+            replay(journalPath(path), snapshot, game, snake1, snake2, pending);
+            return pending;
+        } catch (Exception e) {
+            System.out.println("Error loading file: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * EFFECTS: returns the path of the journal of the checkpoint at the given
+     * path
+     *
+     * @param path the path of the checkpoint
+     * @return the path of the journal
+     */
+    public static Path journalPath(String path) {
+        return Paths.get(path + SUFFIX);
+    }
+
+    /**
+     * REQUIRES: the checkpoint has been loaded into the given objects
+     * MODIFIES: game, snake1, snake2
+     * EFFECTS: replays the records of the journal at the given path that
+     * belong to the given checkpoint, up to the first incomplete one; returns
+     * the number of records replayed
+     *
+     * @param path     the path of the journal
+     * @param snapshot the checkpoint, including its header
+     * @param game     the game to update
+     * @param snake1   the first snake to update
+     * @param snake2   the second snake to update
+     * @return the number of records replayed
+     * @throws IOException if the journal cannot be read or a record is malformed
+     */
+    static int replay(Path path, ByteBuffer snapshot, Game game, Snake snake1, Snake snake2)
+            throws IOException {
+        return replay(path, snapshot, game, snake1, snake2, null);
+    }
+
+    /**
+     * REQUIRES: the playable state of the checkpoint has been loaded into the
+     * given objects, and its achievements too unless pending is given
+     * MODIFIES: game, snake1, snake2, pending
+     * EFFECTS: replays the records of the journal at the given path that
+     * belong to the given checkpoint, up to the first incomplete one, setting
+     * the achievement values on pending if given; returns the number of
+     * records replayed
+     *
+     * @param path     the path of the journal
+     * @param snapshot the checkpoint, including its header
+     * @param game     the game to update
+     * @param snake1   the first snake to update
+     * @param snake2   the second snake to update
+     * @param pending  the achievements of the checkpoint not loaded yet, or null
+     * @return the number of records replayed
+     * @throws IOException if the journal cannot be read or a record is malformed
+     */
+    private static int replay(Path path, ByteBuffer snapshot, Game game, Snake snake1, Snake snake2,
+            PendingAchievements pending) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(path));
+        if (!belongsTo(bytes, snapshot)) {
+            return 0;
+        }
+        int replayed = 0;
+        for (ByteBuffer payload = nextRecord(bytes); payload != null; payload = nextRecord(bytes)) {
+            replayed++;
+            applyRecord(payload, replayed, game, snake1, snake2, pending);
+        }
+        return replayed;
+    }
+
+    /**
+     * MODIFIES: bytes
+     * EFFECTS: reads the header of the journal and returns whether it belongs
+     * to the given checkpoint
+     *
+     * @param bytes    the journal
+     * @param snapshot the checkpoint, including its header
+     * @return whether the journal belongs to the checkpoint
+     * @throws IOException if the bytes are not a journal
+     */
+    private static boolean belongsTo(ByteBuffer bytes, ByteBuffer snapshot) throws IOException {
+        if (bytes.remaining() < HEADER_BYTES || bytes.getInt() != MAGIC) {
+            throw new IOException("Not a save journal");
+        }
+        int version = bytes.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported journal version " + version);
+        }
+        bytes.getShort();
+        int length = bytes.getInt();
+        int checksum = bytes.getInt();
+        return snapshot.remaining() >= BinarySnapshot.HEADER_BYTES
+                && length == snapshot.getInt(snapshot.position() + 8)
+                && checksum == snapshot.getInt(snapshot.position() + 12);
+    }
+
+    /**
+     * MODIFIES: bytes
+     * EFFECTS: returns the payload of the next record of the journal, or null
+     * if there is no complete record left
+     *
+     * @param bytes the journal, positioned at a record
+     * @return the payload of the record, or null
+     */
+    private static ByteBuffer nextRecord(ByteBuffer bytes) {
+        if (bytes.remaining() < 2 * Integer.BYTES) {
+            return null;
+        }
+        int length = bytes.getInt(bytes.position());
+        if (length < 0 || length > bytes.remaining() - 2 * Integer.BYTES) {
+            return null;
+        }
+        ByteBuffer payload = bytes.slice();
+        payload.position(Integer.BYTES);
+        payload.limit(Integer.BYTES + length);
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        if ((int) crc.getValue() != bytes.getInt(bytes.position() + Integer.BYTES + length)) {
+            return null;
+        }
+        bytes.position(bytes.position() + 2 * Integer.BYTES + length);
+        return payload;
+    }
+
+    /**
+     * REQUIRES: the payload passed its checksum
+     * MODIFIES: payload, game, snake1, snake2, pending
+     * EFFECTS: applies the changes of the record to the given objects, the
+     * achievement values to pending if given
+     *
+     * @param payload  the payload of the record
+     * @param sequence the number the record should have
+     * @param game     the game to update
+     * @param snake1   the first snake to update
+     * @param snake2   the second snake to update
+     * @param pending  the achievements of the checkpoint not loaded yet, or null
+     * @throws IOException if the record is malformed
+     */
+    private static void applyRecord(ByteBuffer payload, int sequence, Game game, Snake snake1, Snake snake2,
+            PendingAchievements pending) throws IOException {
+        try {
+            if (payload.getInt() != sequence) {
+                throw new IOException("Journal record out of order");
+            }
+            applyStep(payload.get(), snake1);
+            applyStep(payload.get(), snake2);
+            applyCounters(payload, game, snake1, snake2);
+            for (int count = payload.get() & 0xFF; count > 0; count--) {
+                game.getFood().remove(Position.unpack(payload.getInt()));
+            }
+            for (int count = payload.get() & 0xFF; count > 0; count--) {
+                game.getFood().add(Position.unpack(payload.getInt()));
+            }
+            if (pending == null) {
+                applyValues(payload, game.getAchievements().getAchievements());
+            } else {
+                deferValues(payload, pending);
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Malformed journal record", e);
+        }
+    }
+
+    /**
+     * MODIFIES: snake
+     * EFFECTS: moves the snake like a tick of the game did
+     *
+     * @param step  the step of the snake
+     * @param snake the snake to move
+     */
+    private static void applyStep(int step, Snake snake) {
+        snake.setDirection(Direction.values()[step & ~GREW]);
+        snake.move();
+        if ((step & GREW) != 0) {
+            snake.grow();
+        }
+    }
+
+    /**
+     * MODIFIES: payload, game, snake1, snake2
+     * EFFECTS: sets the counters that changed in the record
+     *
+     * @param payload the payload positioned at the counters
+     * @param game    the game to update
+     * @param snake1  the first snake to update
+     * @param snake2  the second snake to update
+     */
+    private static void applyCounters(ByteBuffer payload, Game game, Snake snake1, Snake snake2) {
+        int[] counters = new int[COUNTERS];
+        readCounters(game, snake1, snake2, counters);
+        int changed = payload.get();
+        for (int i = 0; i < COUNTERS; i++) {
+            if ((changed & (1 << i)) != 0) {
+                counters[i] = payload.getInt();
+            }
+        }
+        game.setScore1(counters[0]);
+        game.setScore2(counters[1]);
+        game.setNoEatCount1(counters[2]);
+        game.setNoEatCount2(counters[3]);
+        snake1.setNumApplesEaten(counters[4]);
+        snake2.setNumApplesEaten(counters[5]);
+        game.getConfig().setTicksPerSecond(counters[6]);
+    }
+
+    /**
+     * MODIFIES: payload, achievements
+     * EFFECTS: sets the achievement values that changed in the record
+     *
+     * @param payload      the payload positioned at the values
+     * @param achievements the achievements of the game
+     * @throws IOException if a value belongs to no statistical achievement
+     */
+    private static void applyValues(ByteBuffer payload, List<Achievement> achievements) throws IOException {
+        for (int count = payload.get() & 0xFF; count > 0; count--) {
+            Achievement achievement = achievements.get(payload.getShort());
+            if (!(achievement instanceof StatisticalAchievement)) {
+                throw new IOException("Journal sets the value of " + achievement.getTitle());
+            }
+            ((StatisticalAchievement) achievement).setValue(payload.getDouble());
+        }
+    }
+
+    /**
+     * MODIFIES: payload, pending
+     * EFFECTS: sets the achievement values that changed in the record on the
+     * achievements that are not loaded yet
+     *
+     * @param payload the payload positioned at the values
+     * @param pending the achievements of the checkpoint not loaded yet
+     */
+    private static void deferValues(ByteBuffer payload, PendingAchievements pending) {
+        for (int count = payload.get() & 0xFF; count > 0; count--) {
+            pending.setValue(payload.getShort(), payload.getDouble());
+        }
+    }
+
+    /**
+     * MODIFIES: counters
+     * EFFECTS: copies the counters of the game into the given array, in the
+     * order of the record
+     *
+     * @param game     the game
+     * @param snake1   the first snake
+     * @param snake2   the second snake
+     * @param counters the array to copy into
+     */
+    private static void readCounters(Game game, Snake snake1, Snake snake2, int[] counters) {
+        counters[0] = game.getScore1();
+        counters[1] = game.getScore2();
+        counters[2] = game.getNoEatCount1();
+        counters[3] = game.getNoEatCount2();
+        counters[4] = snake1.getNumApplesEaten();
+        counters[5] = snake2.getNumApplesEaten();
+        counters[6] = game.getConfig().getTicksPerSecond();
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: encodes the changes of the game since the last save as the next
+     * record; returns false if they are not a single tick that fits a record
+     *
+     * @param game the game
+     * @return whether the record was encoded
+     */
+    private boolean encodeRecord(Game game) {
+        record.clear();
+        record.position(Integer.BYTES);
+        record.putInt(sequence + 1);
+        if (!putStep(game.getSnake1(), 0) || !putStep(game.getSnake2(), 1)) {
+            return false;
+        }
+        putCounters(game);
+        return putFood(game.getFood()) && putValues(game.getAchievements().getAchievements());
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: encodes the step of the snake with the given index; returns
+     * false if the snake did not make exactly one move since the last save
+     *
+     * @param snake the snake
+     * @param index the index of the snake
+     * @return whether the step was encoded
+     */
+    private boolean putStep(Snake snake, int index) {
+        Direction direction = snake.getDirection();
+        int length = snake.getBody().size();
+        int grew = length - lengths[index];
+        // a move appends the old head to the body and removes the old tail
+        if (snake.getHeadCell() != direction.move(heads[index])
+                || grew < 0 || grew > 1
+                || snake.getLastRemovedCell() != tails[index]
+                || length > 0 && snake.getBodyCell(length - 1) != heads[index]
+                || grew == 1 && snake.getBodyCell(0) != tails[index]) {
+            return false;
+        }
+        record.put((byte) (direction.ordinal() | (grew == 1 ? GREW : 0)));
+        return true;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: encodes the counters that changed since the last save
+     *
+     * @param game the game
+     */
+    private void putCounters(Game game) {
+        readCounters(game, game.getSnake1(), game.getSnake2(), liveCounters);
+        int start = record.position();
+        int changed = 0;
+        record.put((byte) 0);
+        for (int i = 0; i < COUNTERS; i++) {
+            if (liveCounters[i] != counters[i]) {
+                changed |= 1 << i;
+                record.putInt(liveCounters[i]);
+            }
+        }
+        record.put(start, (byte) changed);
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: encodes the food that was removed and added since the last
+     * save; returns false if there are too many changes
+     *
+     * @param live the food of the game
+     * @return whether the food was encoded
+     */
+    private boolean putFood(Set<Position> live) {
+        if (liveFood.length < live.size()) {
+            liveFood = new int[live.size()];
+        }
+        liveFoodCount = 0;
+        for (Position pos : live) {
+            liveFood[liveFoodCount++] = pos.pack();
+        }
+        return putMissing(food, foodCount, liveFood, liveFoodCount)
+                && putMissing(liveFood, liveFoodCount, food, foodCount);
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: encodes the cells of the first array that are not in the second
+     * one; returns false if there are too many
+     *
+     * @param cells      the cells to encode
+     * @param count      the number of cells to encode
+     * @param other      the cells to leave out
+     * @param otherCount the number of cells to leave out
+     * @return whether the cells were encoded
+     */
+    private boolean putMissing(int[] cells, int count, int[] other, int otherCount) {
+        int start = record.position();
+        int missing = 0;
+        record.put((byte) 0);
+        for (int i = 0; i < count; i++) {
+            if (!contains(other, otherCount, cells[i])) {
+                if (++missing > MAX_CHANGES) {
+                    return false;
+                }
+                record.putInt(cells[i]);
+            }
+        }
+        record.put(start, (byte) missing);
+        return true;
+    }
+
+    /**
+     * EFFECTS: returns whether the first count cells contain the given cell
+     *
+     * @param cells the cells
+     * @param count the number of cells to look at
+     * @param cell  the cell to look for
+     * @return whether the cell is among them
+     */
+    private static boolean contains(int[] cells, int count, int cell) {
+        for (int i = 0; i < count; i++) {
+            if (cells[i] == cell) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: encodes the achievement values that changed since the last
+     * save; returns false if achievements were added or there are too many
+     * changes
+     *
+     * @param achievements the achievements of the game
+     * @return whether the values were encoded
+     */
+    private boolean putValues(List<Achievement> achievements) {
+        if (achievements.size() != values.length) {
+            return false;
+        }
+        int start = record.position();
+        int changed = 0;
+        record.put((byte) 0);
+        for (int i = 0; i < values.length; i++) {
+            double value = achievements.get(i).getValue();
+            if (Double.compare(value, values[i]) != 0) {
+                if (++changed > MAX_CHANGES) {
+                    return false;
+                }
+                record.putShort((short) i).putDouble(value);
+            }
+        }
+        record.put(start, (byte) changed);
+        return true;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: adds the length and the checksum to the encoded record and
+     * returns its bytes, copied if they are written in the background
+     *
+     * @return the bytes of the record
+     */
+    private ByteBuffer finishRecord() {
+        int length = record.position() - Integer.BYTES;
+        crc.reset();
+        crc.update(record.array(), Integer.BYTES, length);
+        record.putInt(0, length);
+        record.putInt((int) crc.getValue());
+        record.flip();
+        return writer == null ? record : ByteBuffer.wrap(Arrays.copyOf(record.array(), record.limit()));
+    }
+
+    /**
+     * MODIFIES: this, the files of the journal
+     * EFFECTS: writes the given record to the end of the journal
+     *
+     * @param bytes the bytes of the record
+     * @throws IOException if the journal is not open or writing fails
+     */
+    private void append(ByteBuffer bytes) throws IOException {
+        if (journal == null) {
+            throw new IOException("Journal is not open");
+        }
+        writeFully(journal, bytes);
+    }
+
+    /**
+     * MODIFIES: this, the files of the journal
+     * EFFECTS: runs the given write, on the background thread if there is
+     * one; if it fails, the journal is closed, the next save is a checkpoint
+     * and the error is kept to be reported
+     *
+     * @param write the write
+     */
+    private void write(FileWrite write) {
+        Runnable task = () -> {
+            try {
+                write.run();
+            } catch (IOException e) {
+                broken = true;
+                failure.compareAndSet(null, e);
+                try {
+                    closeJournal();
+                } catch (IOException closing) {
+                    e.addSuppressed(closing);
+                }
+            }
+        };
+        if (writer == null) {
+            task.run();
+        } else {
+            writer.execute(task);
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: throws the error of a write that failed since the last report,
+     * if any
+     *
+     * @throws IOException the error of the failed write
+     */
+    private void reportFailure() throws IOException {
+        IOException failed = failure.getAndSet(null);
+        if (failed != null) {
+            throw failed;
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: remembers the state of the given game as the saved state
+     *
+     * @param game the game
+     */
+    private void remember(Game game) {
+        rememberSnake(game.getSnake1(), 0);
+        rememberSnake(game.getSnake2(), 1);
+        readCounters(game, game.getSnake1(), game.getSnake2(), counters);
+        Set<Position> live = game.getFood();
+        if (food.length < live.size()) {
+            food = new int[live.size()];
+        }
+        foodCount = 0;
+        for (Position pos : live) {
+            food[foodCount++] = pos.pack();
+        }
+        List<Achievement> achievements = game.getAchievements().getAchievements();
+        if (values.length != achievements.size()) {
+            values = new double[achievements.size()];
+        }
+        for (int i = 0; i < values.length; i++) {
+            values[i] = achievements.get(i).getValue();
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: remembers the head, tail and length of the given snake
+     *
+     * @param snake the snake
+     * @param index the index of the snake
+     */
+    private void rememberSnake(Snake snake, int index) {
+        int length = snake.getBody().size();
+        heads[index] = snake.getHeadCell();
+        tails[index] = length > 0 ? snake.getBodyCell(0) : snake.getHeadCell();
+        lengths[index] = length;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: closes the journal if it is open
+     *
+     * @throws IOException if closing fails
+     */
+    private void closeJournal() throws IOException {
+        if (journal != null) {
+            FileChannel open = journal;
+            journal = null;
+            open.close();
+        }
+    }
+
+    /**
+     * A write of the files of the journal
+     */
+    private interface FileWrite {
+        /**
+         * MODIFIES: the files of the journal
+         * EFFECTS: writes to the files
+         *
+         * @throws IOException if writing fails
+         */
+        void run() throws IOException;
+    }
+
+    /**
+     * MODIFIES: channel, bytes
+     * EFFECTS: writes the remaining bytes to the given channel
+     *
+     * @param channel the channel
+     * @param bytes   the bytes to write
+     * @throws IOException if writing fails
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package persistence;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import model.Game;
+import model.achievements.Stat;
+
+/**
+ * What the save catalog (see SaveCatalog) knows about a saved game without
+ * reading it: its name, when it was saved, the scores, the board size, the
+ * number of ticks played and the lengths of the snakes.
+ */
+public final class SaveSlot {
+    private final String name;
+    private final long timestamp;
+    private final int score1;
+    private final int score2;
+    private final int width;
+    private final int height;
+    private final long ticks;
+    private final int length1;
+    private final int length2;
+
+    /**
+     * EFFECTS: constructs the metadata of a save
+     *
+     * @param name      the name of the slot
+     * @param timestamp when the game was saved, in milliseconds since the epoch
+     * @param score1    the score of the first snake
+     * @param score2    the score of the second snake
+     * @param width     the width of the board
+     * @param height    the height of the board
+     * @param ticks     the number of ticks played
+     * @param length1   the length of the first snake, head included
+     * @param length2   the length of the second snake, head included
+     */
+    SaveSlot(String name, long timestamp, int score1, int score2, int width, int height, long ticks,
+            int length1, int length2) {
+        this.name = name;
+        this.timestamp = timestamp;
+        this.score1 = score1;
+        this.score2 = score2;
+        this.width = width;
+        this.height = height;
+        this.ticks = ticks;
+        this.length1 = length1;
+        this.length2 = length2;
+    }
+
+    /**
+     * EFFECTS: returns the metadata of the given game saved in the slot with
+     * the given name at the given time
+     *
+     * @param name      the name of the slot
+     * @param game      the game
+     * @param timestamp when the game is saved, in milliseconds since the epoch
+     * @return the metadata
+     */
+    public static SaveSlot describe(String name, Game game, long timestamp) {
+        long ticks = (long) game.getAchievements().getStat(Stat.TOTAL_ROUNDS, game.getSnake1()).getValue();
+        return new SaveSlot(name, timestamp, game.getScore1(), game.getScore2(), game.getMaxX(), game.getMaxY(),
+                ticks, game.getSnake1().getBody().size() + 1, game.getSnake2().getBody().size() + 1);
+    }
+
+    /**
+     * EFFECTS: returns the same metadata for the slot with the given name
+     *
+     * @param name the name of the slot
+     * @return the metadata
+     */
+    SaveSlot withName(String name) {
+        return new SaveSlot(name, timestamp, score1, score2, width, height, ticks, length1, length2);
+    }
+
+    /**
+     * EFFECTS: writes the metadata to the given output
+     *
+     * @param out the output
+     * @throws IOException if writing fails
+     */
+    void write(DataOutput out) throws IOException {
+        out.writeUTF(name);
+        out.writeLong(timestamp);
+        out.writeInt(score1);
+        out.writeInt(score2);
+        out.writeInt(width);
+        out.writeInt(height);
+        out.writeLong(ticks);
+        out.writeInt(length1);
+        out.writeInt(length2);
+    }
+
+    /**
+     * EFFECTS: reads metadata written by write from the given input
+     *
+     * @param in the input
+     * @return the metadata
+     * @throws IOException if reading fails
+     */
+    static SaveSlot read(DataInput in) throws IOException {
+        return new SaveSlot(in.readUTF(), in.readLong(), in.readInt(), in.readInt(), in.readInt(), in.readInt(),
+                in.readLong(), in.readInt(), in.readInt());
+    }
+
+    /**
+     * EFFECTS: returns the name of the slot
+     *
+     * @return the name of the slot
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * EFFECTS: returns when the game was saved, in milliseconds since the epoch
+     *
+     * @return when the game was saved
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * EFFECTS: returns the score of the first snake
+     *
+     * @return the score of the first snake
+     */
+    public int getScore1() {
+        return score1;
+    }
+
+    /**
+     * EFFECTS: returns the score of the second snake
+     *
+     * @return the score of the second snake
+     */
+    public int getScore2() {
+        return score2;
+    }
+
+    /**
+     * EFFECTS: returns the width of the board
+     *
+     * @return the width of the board
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * EFFECTS: returns the height of the board
+     *
+     * @return the height of the board
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * EFFECTS: returns the number of ticks played
+     *
+     * @return the number of ticks played
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * EFFECTS: returns the length of the first snake, head included
+     *
+     * @return the length of the first snake
+     */
+    public int getLength1() {
+        return length1;
+    }
+
+    /**
+     * EFFECTS: returns the length of the second snake, head included
+     *
+     * @return the length of the second snake
+     */
+    public int getLength2() {
+        return length2;
+    }
+
+    /**
+     * EFFECTS: returns a one-line summary of the save for choosing it
+     */
+    @Override
+    public String toString() {
+        return name + " (" + new SimpleDateFormat("yyyy-MM-dd HH:mm").format(new Date(timestamp)) + "): "
+                + score1 + " - " + score2 + ", " + width + "x" + height + ", " + ticks + " ticks, lengths "
+                + length1 + " and " + length2;
+    }
+}
@@ -0,0 +1,24 @@
+package persistence;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import model.Event;
+
+/**
+ * Encodes every event as a line of text: the ISO-8601 time, a tab and the
+ * description.
+ */
+public class TextEventEncoder implements EventEncoder {
+
+    @Override
+    public byte[] startFile() {
+        return new byte[0];
+    }
+
+    @Override
+    public byte[] encode(Event event) {
+        String line = Instant.ofEpochMilli(event.getTime()) + "\t" + event.getDescription().replace('\n', ' ') + "\n";
+        return line.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,226 @@
+package ui;
+
+import model.Position;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Paints a board of square cells into a cached image, so that a frame costs
+ * as much as the cells that changed rather than as much as the board. A frame
+ * is drawn by filling the cells that are not background with fillCell and
+ * ending it with showFrame, which compares it with the image and paints and
+ * repaints only the cells whose color differs. Cells that were filled in the
+ * last frame but not in this one go back to the background, so only the cells
+ * of these two frames are looked at. Must be used on the event dispatch
+ * thread.
+ */
+public class BoardView extends JComponent {
+    private static final long serialVersionUID = 1L;
+    private final int columns;
+    private final int rows;
+    private final int cellSize;
+    private final int background;
+    // the color of the lines around each cell, or null for none
+    private final Color lineColor;
+    private final BufferedImage image;
+    // the color of each cell in the image
+    private final int[] shown;
+    // the color of each cell in the frame being drawn
+    private final int[] frame;
+    // the number of the last frame each cell was filled in
+    private final int[] filledIn;
+    private int[] filled;
+    private int filledCount;
+    private int[] lastFilled;
+    private int lastFilledCount;
+    private int frameNumber = 1;
+    private int painted;
+    // the colors cells have been shown in, so that painting a cell allocates none
+    private Color[] colors = new Color[0];
+
+    /**
+     * REQUIRES: columns, rows and cellSize are positive; background != null
+     * EFFECTS: constructs a board of the given size with every cell in the
+     * background color
+     *
+     * @param columns    the number of columns
+     * @param rows       the number of rows
+     * @param cellSize   the width and height of a cell in pixels
+     * @param background the color of empty cells
+     * @param lineColor  the color of the lines around each cell, or null for none
+     */
+    public BoardView(int columns, int rows, int cellSize, Color background, Color lineColor) {
+        this.columns = columns;
+        this.rows = rows;
+        this.cellSize = cellSize;
+        this.background = background.getRGB();
+        this.lineColor = lineColor;
+        this.image = new BufferedImage(columns * cellSize, rows * cellSize, BufferedImage.TYPE_INT_RGB);
+        this.shown = new int[columns * rows];
+        this.frame = new int[columns * rows];
+        this.filledIn = new int[columns * rows];
+        this.filled = new int[columns * rows];
+        this.lastFilled = new int[columns * rows];
+        Graphics2D g = image.createGraphics();
+        for (int i = 0; i < shown.length; i++) {
+            shown[i] = this.background;
+            frame[i] = this.background;
+            paintCell(g, i);
+        }
+        g.dispose();
+        setPreferredSize(new Dimension(image.getWidth(), image.getHeight()));
+        setOpaque(true);
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: fills the cell at the given coordinates with the given color in
+     * the frame being drawn, unless it is off the board
+     *
+     * @param x     the column of the cell
+     * @param y     the row of the cell
+     * @param color the color to fill the cell with
+     */
+    public void fillCell(int x, int y, Color color) {
+        if (x < 0 || x >= columns || y < 0 || y >= rows) {
+            return;
+        }
+        int index = y * columns + x;
+        if (filledIn[index] != frameNumber) {
+            filledIn[index] = frameNumber;
+            filled[filledCount++] = index;
+        }
+        frame[index] = color.getRGB();
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: fills the cell at the given packed coordinates (see
+     * Position.pack) with the given color in the frame being drawn, unless it
+     * is off the board
+     *
+     * @param cell  the packed coordinates of the cell
+     * @param color the color to fill the cell with
+     */
+    public void fillCell(int cell, Color color) {
+        fillCell(Position.unpackX(cell), Position.unpackY(cell), color);
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: shows the frame drawn since the last one, painting and
+     * repainting only the cells that changed, and starts the next frame with
+     * every cell in the background color
+     */
+    public void showFrame() {
+        painted = 0;
+        Graphics2D g = image.createGraphics();
+        try {
+            // cells of the last frame not filled again are background by now
+            for (int i = 0; i < lastFilledCount; i++) {
+                paintIfChanged(g, lastFilled[i]);
+            }
+            for (int i = 0; i < filledCount; i++) {
+                paintIfChanged(g, filled[i]);
+            }
+        } finally {
+            g.dispose();
+        }
+        for (int i = 0; i < filledCount; i++) {
+            frame[filled[i]] = background;
+        }
+        int[] swap = lastFilled;
+        lastFilled = filled;
+        lastFilledCount = filledCount;
+        filled = swap;
+        filledCount = 0;
+        frameNumber++;
+    }
+
+    /**
+     * EFFECTS: returns how many cells the last frame painted
+     *
+     * @return the number of cells painted by the last frame
+     */
+    public int getPaintedCellCount() {
+        return painted;
+    }
+
+    /**
+     * REQUIRES: 0 <= x < columns and 0 <= y < rows
+     * EFFECTS: returns the color the cell at the given coordinates is shown in
+     *
+     * @param x the column of the cell
+     * @param y the row of the cell
+     * @return the color of the cell
+     */
+    public Color getCellColor(int x, int y) {
+        return colorOf(shown[y * columns + x]);
+    }
+
+    /**
+     * EFFECTS: draws the cached image of the board
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        g.drawImage(image, 0, 0, null);
+    }
+
+    /**
+     * MODIFIES: this, g
+     * EFFECTS: paints the cell with the given index into the image and
+     * schedules its repaint if its color changed in this frame
+     *
+     * @param g     the graphics of the image
+     * @param index the index of the cell
+     */
+    private void paintIfChanged(Graphics2D g, int index) {
+        if (frame[index] == shown[index]) {
+            return;
+        }
+        shown[index] = frame[index];
+        paintCell(g, index);
+        painted++;
+        repaint(index % columns * cellSize, index / columns * cellSize, cellSize, cellSize);
+    }
+
+    /**
+     * MODIFIES: g
+     * EFFECTS: paints the cell with the given index in its shown color
+     *
+     * @param g     the graphics of the image
+     * @param index the index of the cell
+     */
+    private void paintCell(Graphics2D g, int index) {
+        int x = index % columns * cellSize;
+        int y = index / columns * cellSize;
+        g.setColor(colorOf(shown[index]));
+        g.fillRect(x, y, cellSize, cellSize);
+        if (lineColor != null) {
+            g.setColor(lineColor);
+            g.drawRect(x, y, cellSize - 1, cellSize - 1);
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: returns the color with the given RGB value, made the first time
+     * it is asked for; a board only uses a handful of colors
+     *
+     * @param rgb the RGB value of the color
+     * @return the color
+     */
+    private Color colorOf(int rgb) {
+        for (Color color : colors) {
+            if (color.getRGB() == rgb) {
+                return color;
+            }
+        }
+        colors = Arrays.copyOf(colors, colors.length + 1);
+        colors[colors.length - 1] = new Color(rgb);
+        return colors[colors.length - 1];
+    }
+}
@@ -4,32 +4,70 @@ import model.Event;
 import model.*;
 import model.achievements.Achievement;
 import model.achievements.GeneralAchievement;
+import model.achievements.Stat;
+import persistence.AutoSaver;
+import persistence.InputRecorder;
 import persistence.JsonLoader;
-import persistence.JsonSaver;
+import persistence.PendingAchievements;
+import persistence.SaveCatalog;
+import persistence.SaveCodec;
+import persistence.SaveJournal;
+import persistence.SaveSlot;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
 
 public class GameView implements ActionListener, KeyListener, WindowListener {
     public static final int ROWS = 30;
     public static final int COLUMNS = 50;
     public static final int GRID_SIZE = 10;
+    // how far back the "Recent Unlocks" filter looks
+    private static final long RECENT_MILLIS = 5 * 60 * 1000;
+    private static final String SAVE_PATH = "data/save1.json";
+    private static final long AUTOSAVE_MILLIS = 30 * 1000;
+    private static final String JOURNAL_PATH = "data/save1.snk";
+    private static final int CHECKPOINT_TICKS = 1000;
+    private static final String REPLAY_PATH = "data/replay.snkr";
+    private static final String LAST_GAME = "Last game";
     private final Game game;
+    // writes saves in the background so that saving never holds up a tick
+    private final AutoSaver autoSaver = new AutoSaver(SAVE_PATH, AUTOSAVE_MILLIS, SaveCodec.FAST);
+    // saves every tick, so that a crash loses at most the tick in progress; the
+    // files are written in the background like the autosaves
+    private final SaveJournal journal = new SaveJournal(JOURNAL_PATH, CHECKPOINT_TICKS, true);
+    // records the seed and the inputs of a new game so that it can be replayed;
+    // null for a loaded game, which its seed does not describe
+    private InputRecorder recorder;
+    private boolean loaded = false;
+    // the achievements of the loaded journal until they are merged into the game
+    private PendingAchievements pendingAchievements;
+    // every game saved from the menu gets its own slot
+    private final SaveCatalog catalog = new SaveCatalog(SaveCatalog.DEFAULT_DIRECTORY, SaveCodec.FAST);
+    // the last save to the catalog, which is written in the background
+    private CompletableFuture<?> catalogSave = CompletableFuture.completedFuture(null);
+    private final EventIndex eventIndex = new EventIndex(EventLog.getInstance());
     JDialog selectDifficultyWindow;
     JDialog loadWindow;
     JButton yesLoadButton;
     JButton noLoadButton;
+    JComboBox<Object> saveComboBox;
     JButton exportAchievementsButton;
     JButton nextButton;
     JFrame gameWindow;
-    JPanel gamePanel;
+    BoardView gamePanel;
     JMenuBar menuBar;
     JMenu fileMenu;
     JMenuItem saveMenuItem;
     JPanel scorePanel;
+    JLabel scoreLabel1;
+    JLabel scoreLabel2;
     JTextPane achievementsPanel;
     JScrollPane achievementScrollPane;
     JComboBox<String> achievementFilterComboBox;
@@ -45,14 +83,12 @@ public class GameView implements ActionListener, KeyListener, WindowListener {
          * EFFECTS: tick the game and update the game view
          */
         public void actionPerformed(ActionEvent e) {
+            mergeAchievements(false);
+            recordInputs();
             tick();
-            // update round achievements
-            game.getAchievements().getAchievement("Total Rounds", game.getSnake1()).updateValue(1);
-            game.getAchievements().getAchievement("Total Rounds", game.getSnake2()).updateValue(1);
-            // update step for different directions
-            updateStepAchievement(game.getSnake1());
-            updateStepAchievement(game.getSnake2());
-
+            // update round and step achievements
+            game.updateRoundAchievements();
+            recordTick();
         }
     };
     private boolean isPaused = false;
@@ -64,33 +100,6 @@ public class GameView implements ActionListener, KeyListener, WindowListener {
         game = new Game(COLUMNS, ROWS);
     }
 
-    /**
-     * MODIFIES: this
-     * EFFECTS: updates the step achievement for the snake
-     *
-     * @param snake the snake to update the step achievement for
-     * @param game  the game to update the step achievement for
-     */
-    public static void updateStep(Snake snake, Game game) {
-        switch (snake.getDirection()) {
-            case UP:
-                game.getAchievements().getAchievement("Step Upwards", snake).updateValue(1);
-                break;
-            case DOWN:
-                game.getAchievements().getAchievement("Step Downwards", snake).updateValue(1);
-                break;
-            case LEFT:
-                game.getAchievements().getAchievement("Step Leftwards", snake).updateValue(1);
-                break;
-            case RIGHT:
-                game.getAchievements().getAchievement("Step Rightwards", snake).updateValue(1);
-                break;
-            case PAUSE:
-                break;
-
-        }
-    }
-
     /**
      * MODIFIES: this
      * EFFECTS: adds the statistical achievements to the selected achievements list
@@ -133,6 +142,17 @@ public class GameView implements ActionListener, KeyListener, WindowListener {
      * EFFECTS: logs the events when the window is closed
      */
     public void windowClosing(WindowEvent e) {
+        try {
+            // finish writing the last saves
+            catalogSave.join();
+            autoSaver.close();
+            journal.close();
+            if (recorder != null) {
+                recorder.close();
+            }
+        } catch (IOException ex) {
+            System.out.println("Error closing journal: " + ex.getMessage());
+        }
         System.out.println("Game ended. Logging events...");
         for (Event event : EventLog.getInstance()) {
             System.out.println(event.toString());
@@ -163,8 +183,32 @@ public class GameView implements ActionListener, KeyListener, WindowListener {
      * EFFECTS: starts the game loop with a timer set to the ticks per second
      */
     public void beginTicks() {
-        gameTimer = new Timer(1000 / Game.getTicksPerSecond(), gameLoop);
+        gameTimer = new Timer((int) game.getConfig().getTickDelayMillis(), gameLoop);
         gameTimer.start();
+        autoSaver.start();
+        if (!loaded) {
+            try {
+                recorder = new InputRecorder(REPLAY_PATH, game, SaveCodec.FAST);
+            } catch (IOException e) {
+                System.out.println("Error recording inputs: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: records the directions the snakes are about to move in
+     */
+    private void recordInputs() {
+        if (recorder == null) {
+            return;
+        }
+        try {
+            recorder.beforeTick(game);
+        } catch (IOException e) {
+            System.out.println("Error recording inputs: " + e.getMessage());
+            recorder = null;
+        }
     }
 
     /**
@@ -177,9 +221,48 @@ public class GameView implements ActionListener, KeyListener, WindowListener {
             checkSpeedyAchievement();
             setUpEndWindow();
         }
+        // the board and the score repaint what changed themselves
         render();
-        gameWindow.revalidate();
-        gameWindow.repaint();
+    }
+
+    /**
+     * MODIFIES: this, game
+     * EFFECTS: merges the achievements of the loaded journal into the game once
+     * they have been read, or waits for them if asked to
+     *
+     * @param wait whether to wait until they have been read
+     */
+    private void mergeAchievements(boolean wait) {
+        if (pendingAchievements == null) {
+            return;
+        }
+        if (wait) {
+            pendingAchievements.mergeNow();
+        }
+        if (pendingAchievements.mergeIfReady()) {
+            pendingAchievements = null;
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: saves the changes of the last tick to the journal, and the
+     * whole game if an automatic save is due; saves nothing once the game has
+     * ended
+     */
+    private void recordTick() {
+        if (pendingAchievements != null || game.isEnded()) {
+            // a save now would lose the achievements that are still loading, or
+            // save a game that is over
+            return;
+        }
+        // the JSON save of the last game, next to the journal
+        autoSaver.onTick(game::snapshot);
+        try {
+            journal.record(game);
+        } catch (IOException e) {
+            System.out.println("Error saving tick: " + e.getMessage());
+        }
     }
 
     /**
@@ -187,14 +270,11 @@ public class GameView implements ActionListener, KeyListener, WindowListener {
      * EFFECTS: renders the game view for the current game state
      */
     public void render() {
-        // clear the board
-        for (int i = 0; i < ROWS * COLUMNS; i++) {
-            JPanel grid = (JPanel) gamePanel.getComponent(i);
-            grid.setBackground(Color.WHITE);
-        }
         drawScore();
         drawSnake();
         drawFood();
+        // cells not drawn in this frame are cleared
+        gamePanel.showFrame();
     }
 
     /**
@@ -202,11 +282,8 @@ public class GameView implements ActionListener, KeyListener, WindowListener {
      * EFFECTS: draws the score panel on the game window
      */
     public void drawScore() {
-        scorePanel.removeAll();
-        scorePanel.add(new JLabel("Score 1: \t" + game.getScore1()));
-        scorePanel.add(new JLabel("Score 2: \t" + game.getScore2()));
-        scorePanel.revalidate();
-        scorePanel.repaint();
+        scoreLabel1.setText("Score 1: \t" + game.getScore1());
+        scoreLabel2.setText("Score 2: \t" + game.getScore2());
     }
 
     /**
@@ -216,15 +293,15 @@ public class GameView implements ActionListener, KeyListener, WindowListener {
      */
     public void drawSnake() {
         Snake snake1 = game.getSnake1();
-        setColorByPosition(snake1.getHead(), Color.BLUE);
-        for (Position pos : snake1.getBody()) {
-            setColorByPosition(pos, Color.CYAN);
+        gamePanel.fillCell(snake1.getHeadCell(), Color.BLUE);
+        for (int i = 0; i < snake1.getBody().size(); i++) {
+            gamePanel.fillCell(snake1.getBodyCell(i), Color.CYAN);
         }
 
         Snake snake2 = game.getSnake2();
-        setColorByPosition(snake2.getHead(), Color.GREEN);
-        for (Position pos : snake2.getBody()) {
-            setColorByPosition(pos, Color.ORANGE);
+        gamePanel.fillCell(snake2.getHeadCell(), Color.GREEN);
+        for (int i = 0; i < snake2.getBody().size(); i++) {
+            gamePanel.fillCell(snake2.getBodyCell(i), Color.ORANGE);
         }
     }
 
@@ -252,7 +329,7 @@ public class GameView implements ActionListener, KeyListener, WindowListener {
             return;
         }
 
-        if (game.getAchievements().getAchievement("Total Rounds", game.getSnake1()).getValue() <= 10) {
+        if (game.getAchievements().getStat(Stat.TOTAL_ROUNDS, game.getSnake1()).getValue() <= 10) {
             game.getAchievements().addAchievement(
                     new GeneralAchievement("The Speedy", "Finish the game in less than 20 rounds", game.getSnake1()));
             game.getAchievements().addAchievement(
@@ -269,12 +346,7 @@ public class GameView implements ActionListener, KeyListener, WindowListener {
      * @param color the color to set the grid to
      */
     public void setColorByPosition(Position p, Color color) {
-        int index = (p.getPosY() * COLUMNS) - 1 + p.getPosX() - 1;
-        if (index < 0 || index >= ROWS * COLUMNS) {
-            return;
-        }
-        JPanel grid = (JPanel) gamePanel.getComponent(index);
-        grid.setBackground(color);
+        gamePanel.fillCell(p.getPosX(), p.getPosY(), color);
     }
 
     /**
@@ -302,7 +374,21 @@ public class GameView implements ActionListener, KeyListener, WindowListener {
     public void displayLoadWindow() {
         loadWindow = new JDialog(gameWindow, "Snake Game");
         JPanel loadPanel = new JPanel();
-        loadPanel.add(new JLabel("Do you want to load the previous game?"));
+        loadPanel.add(new JLabel("Do you want to load a saved game?"));
+        saveComboBox = new JComboBox<>();
+        // deleted when the game ends, so only a match that is not over is offered
+        if (Files.exists(Paths.get(JOURNAL_PATH)) || Files.exists(Paths.get(SAVE_PATH))) {
+            saveComboBox.addItem(LAST_GAME);
+        }
+        try {
+            // only the index is read, however many saves there are
+            for (SaveSlot slot : catalog.list()) {
+                saveComboBox.addItem(slot);
+            }
+        } catch (IOException e) {
+            System.out.println("Error listing saves: " + e.getMessage());
+        }
+        loadPanel.add(saveComboBox);
         yesLoadButton = new JButton("Yes");
         yesLoadButton.addActionListener(this);
         loadPanel.add(yesLoadButton);
@@ -334,20 +420,14 @@ public class GameView implements ActionListener, KeyListener, WindowListener {
 
     /**
      * MODIFIES: this
-     * EFFECTS: creates the grids for the game window and returns the panel
-     * containing the grids
+     * EFFECTS: creates the board for the game window, with a cell for every
+     * position of the game, and returns it
      *
-     * @return the panel containing the grids
+     * @return the board
      */
-    public JPanel createGrids() {
-        this.gamePanel = new JPanel();
-        this.gamePanel.setLayout(new GridLayout(ROWS, COLUMNS));
-        for (int i = 0; i < ROWS * COLUMNS; i++) {
-            JPanel grid = new JPanel();
-            grid.setSize(GRID_SIZE, GRID_SIZE);
-            grid.setBorder(BorderFactory.createLineBorder(java.awt.Color.BLACK));
-            this.gamePanel.add(grid);
-        }
+    public BoardView createBoard() {
+        this.gamePanel = new BoardView(game.getMaxX() + 1, game.getMaxY() + 1, GRID_SIZE, Color.WHITE,
+                Color.BLACK);
         return this.gamePanel;
     }
 
@@ -360,13 +440,13 @@ public class GameView implements ActionListener, KeyListener, WindowListener {
     public void setDifficulty(String selectedDifficulty) {
         switch (selectedDifficulty) {
             case "Easy":
-                Game.setTicksPerSecond(5);
+                game.getConfig().setTicksPerSecond(5);
                 break;
             case "Medium":
-                Game.setTicksPerSecond(10);
+                game.getConfig().setTicksPerSecond(10);
                 break;
             case "Hard":
-                Game.setTicksPerSecond(15);
+                game.getConfig().setTicksPerSecond(15);
                 break;
         }
     }
@@ -379,12 +459,14 @@ public class GameView implements ActionListener, KeyListener, WindowListener {
         gameWindow = new JFrame("Snake Game");
         gameWindow.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         gameWindow.setResizable(false);
-        gameWindow.add(createGrids());
+        gameWindow.add(createBoard());
         gameWindow.add(setUpMenuBar(), BorderLayout.NORTH);
 
         scorePanel = new JPanel();
-        scorePanel.add(new JLabel("Score 1: \t" + game.getScore1()));
-        scorePanel.add(new JLabel("Score 2: \t" + game.getScore2()));
+        scoreLabel1 = new JLabel("Score 1: \t" + game.getScore1());
+        scorePanel.add(scoreLabel1);
+        scoreLabel2 = new JLabel("Score 2: \t" + game.getScore2());
+        scorePanel.add(scoreLabel2);
         gameWindow.add(scorePanel, BorderLayout.SOUTH);
 
         gameWindow.addKeyListener(this);
@@ -428,6 +510,21 @@ public class GameView implements ActionListener, KeyListener, WindowListener {
 
         gameTimer.stop();
         game.endGame();
+        discardLastGame();
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: deletes the journal and the automatic save of the game, which has
+     * ended, so that "Last game" does not offer a match that is over
+     */
+    private void discardLastGame() {
+        autoSaver.discard();
+        try {
+            journal.discard();
+        } catch (IOException e) {
+            System.out.println("Error discarding journal: " + e.getMessage());
+        }
     }
 
     /**
@@ -464,7 +561,7 @@ public class GameView implements ActionListener, KeyListener, WindowListener {
         achievementPanel.setLayout(new BoxLayout(achievementPanel, BoxLayout.Y_AXIS));
         achievementPanel.add(new JLabel("Achievements"));
         achievementFilterComboBox = new JComboBox<>(
-                new String[] { "All", "Snake 1", "Snake 2", "Special", "Statistical" });
+                new String[] { "All", "Snake 1", "Snake 2", "Special", "Statistical", "Recent Unlocks" });
         achievementFilterComboBox.setSelectedItem(null);
         achievementPanel.add(achievementFilterComboBox);
         achievementFilterComboBox.addActionListener(this);
@@ -479,16 +576,6 @@ public class GameView implements ActionListener, KeyListener, WindowListener {
         achievementPanel.add(achievementScrollPane, BorderLayout.AFTER_LINE_ENDS);
     }
 
-    /**
-     * MODIFIES: this
-     * EFFECTS: updates the step achievement for the snake
-     *
-     * @param snake the snake to update the step achievement for
-     */
-    private void updateStepAchievement(Snake snake) {
-        updateStep(snake, game);
-    }
-
     @Override
     public void windowClosed(WindowEvent e) {
         for (Event event : EventLog.getInstance()) {
@@ -524,10 +611,31 @@ public class GameView implements ActionListener, KeyListener, WindowListener {
             case "Statistical":
                 getStatisticalAchievements(allAchievements, selectedAchievements);
                 break;
+            case "Recent Unlocks":
+                showRecentUnlocks();
+                return;
         }
         extractAchievementsString(selectedAchievements);
     }
 
+    /**
+     * MODIFIES: this
+     * EFFECTS: shows the achievements that either snake unlocked in the last
+     * five minutes, as recorded in the event log
+     */
+    private void showRecentUnlocks() {
+        StringBuilder text = new StringBuilder();
+        for (Snake snake : new Snake[] { game.getSnake1(), game.getSnake2() }) {
+            for (Event event : eventIndex.queryLast(RECENT_MILLIS, EventCategory.ACHIEVEMENT, snake.getName())) {
+                if (event.getType() == EventType.ACHIEVEMENT_ADDED) {
+                    text.append(snake.getName()).append(": ").append(event.getDescription()).append("\n");
+                }
+            }
+        }
+        achievementsPanel.setText(text.toString());
+        gameWindow.pack();
+    }
+
     /**
      * MODIFIES: this
      * EFFECTS: adds the achievements for the snake to the selected achievements
@@ -580,7 +688,8 @@ public class GameView implements ActionListener, KeyListener, WindowListener {
         } else if (source == this.noLoadButton) {
             loadOrNot(false);
         } else if (source == this.saveMenuItem) {
-            JsonSaver.saveGame("data/save1.json", game);
+            mergeAchievements(true);
+            saveToCatalog();
             game.endGame();
             setUpEndWindow();
         } else if (source == this.difficultyComboBox) {
@@ -594,6 +703,18 @@ public class GameView implements ActionListener, KeyListener, WindowListener {
         }
     }
 
+    /**
+     * MODIFIES: this
+     * EFFECTS: saves the game as it is now to a new slot of the catalog in the
+     * background
+     */
+    private void saveToCatalog() {
+        catalogSave = catalog.saveNewInBackground(game).exceptionally(e -> {
+            System.out.println("Error saving game: " + e.getCause().getMessage());
+            return null;
+        });
+    }
+
     /**
      * MODIFIES: this
      * EFFECTS: handles the difficulty selected by the user
@@ -617,6 +738,7 @@ public class GameView implements ActionListener, KeyListener, WindowListener {
      * EFFECTS: exports the achievements to a text file
      */
     private void exportAchievements() {
+        mergeAchievements(true);
         AchievementCollection achievements = game.getAchievements();
         try (FileWriter file = new FileWriter("data/achievements.txt")) {
             file.write(achievements.toString());
@@ -643,15 +765,30 @@ public class GameView implements ActionListener, KeyListener, WindowListener {
 
     /**
      * MODIFIES: this
-     * EFFECTS: loads the game if the user clicks yes, otherwise starts a new game
+     * EFFECTS: loads the selected save if the user clicks yes, otherwise starts a
+     * new game
      *
      * @param load whether the user wants to load the game
      */
     private void loadOrNot(boolean load) {
         loadWindow.setVisible(load);
         loadWindow.dispose();
-        if (load) {
-            JsonLoader.loadGame("data/save1.json", game, game.getSnake1(), game.getSnake2());
+        loaded = load;
+        Object selected = saveComboBox.getSelectedItem();
+        if (load && selected instanceof SaveSlot) {
+            catalog.load(((SaveSlot) selected).getName(), game);
+            setUpGameWindow();
+        } else if (load && Files.exists(Paths.get(JOURNAL_PATH))) {
+            // the journal is at most a tick behind, so it is never older than the save;
+            // the match goes on while its achievements are read in the background
+            game.getFood().clear();
+            pendingAchievements = SaveJournal.loadPlayable(JOURNAL_PATH, game, game.getSnake1(), game.getSnake2());
+            if (pendingAchievements != null) {
+                pendingAchievements.start();
+            }
+            setUpGameWindow();
+        } else if (load) {
+            JsonLoader.loadGame(SAVE_PATH, game, game.getSnake1(), game.getSnake2());
             setUpGameWindow();
         } else {
             displaySelectDifficultyWindow();
@@ -2,10 +2,21 @@ package ui;
 
 import java.util.Scanner;
 
+import model.EventLog;
+import persistence.BinaryEventEncoder;
+import persistence.EventLogFileSink;
+import persistence.InputLog;
+
 /**
  * Driver class for the game
  */
 public class Main {
+    private static final String EVENT_LOG_PATH = "data/events.bin";
+    private static final long EVENT_LOG_FLUSH_MILLIS = 500;
+    private static final long EVENT_LOG_MAX_BYTES = 8L << 20;
+    private static final int EVENT_LOG_BACKUPS = 3;
+    private static final String REPLAY_PATH = "data/replay.snkr";
+
     /**
      * Main method for the game
      * EFFECTS: starts the game
@@ -13,10 +24,11 @@ public class Main {
      * @throws Exception if there is an error in the game
      */
     public static void main(String[] args) throws Exception {
+        startEventLogSink();
 //        ask the user which version of the game they want to play
         try (Scanner scanner = new Scanner(System.in)) {
             System.out.println("Select which version of the game you want to play: "
-                    + "(1) Swing GUI, (2) Lanterna Terminal");
+                    + "(1) Swing GUI, (2) Lanterna Terminal, (3) Replay of the last Swing game");
             while (true) {
                 int choice = scanner.nextInt();
                 if (choice == 1) {
@@ -27,10 +39,26 @@ public class Main {
                     TerminalGame gameHandler = new TerminalGame();
                     gameHandler.start();
                     break;
+                } else if (choice == 3) {
+                    new ReplayViewer(InputLog.read(REPLAY_PATH)).display();
+                    break;
                 } else {
-                    System.out.println("Invalid input. Please enter 1 or 2.");
+                    System.out.println("Invalid input. Please enter 1, 2 or 3.");
                 }
             }
         }
     }
+
+    /**
+     * EFFECTS: starts writing the event log to a binary file in the background
+     * (see headless.EventLogTool to read it); the remaining events are written
+     * when the program exits
+     * @throws Exception if the file cannot be opened
+     */
+    private static void startEventLogSink() throws Exception {
+        EventLogFileSink sink = new EventLogFileSink(EventLog.getInstance(), EVENT_LOG_PATH, EVENT_LOG_FLUSH_MILLIS,
+                EVENT_LOG_MAX_BYTES, EVENT_LOG_BACKUPS, new BinaryEventEncoder());
+        sink.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(sink::close));
+    }
 }
@@ -0,0 +1,158 @@
+package ui;
+
+import headless.ReplayEngine;
+import model.Game;
+import model.Position;
+import model.Snake;
+import persistence.InputLog;
+import persistence.InputRecorder;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.io.IOException;
+
+/**
+ * Shows a recorded game (see InputRecorder) in a window and lets the user
+ * scrub through it: space plays and pauses, left and right step one tick,
+ * page up and page down jump a keyframe interval back and forth, home and end
+ * jump to the start and the end. Going back or past a keyframe seeks from the
+ * nearest keyframe instead of playing the game again from the start.
+ */
+public class ReplayViewer {
+    private final InputLog log;
+    private final ReplayEngine engine;
+    private final int columns;
+    private final int rows;
+    private Game game;
+    // the tick the shown game is before
+    private long tick;
+    private JFrame window;
+    private BoardView board;
+    private JLabel status;
+    private Timer timer;
+
+    /**
+     * EFFECTS: constructs a viewer of the given recorded game at its start
+     *
+     * @param log the recorded game
+     */
+    public ReplayViewer(InputLog log) {
+        this.log = log;
+        this.engine = new ReplayEngine(log);
+        this.game = log.newGame();
+        this.columns = game.getMaxX() + 1;
+        this.rows = game.getMaxY() + 1;
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: shows the replay window, paused at the start
+     */
+    public void display() {
+        window = new JFrame("Snake Game Replay");
+        window.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        board = new BoardView(columns, rows, GameView.GRID_SIZE, Color.WHITE, null);
+        status = new JLabel();
+        window.add(board);
+        window.add(status, BorderLayout.SOUTH);
+        window.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                handleKey(e.getKeyCode());
+            }
+        });
+        timer = new Timer((int) game.getConfig().getTickDelayMillis(), (ActionEvent e) -> moveTo(tick + 1));
+        render();
+        window.pack();
+        window.setResizable(false);
+        window.setVisible(true);
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: plays, pauses or moves the replay for the given key
+     *
+     * @param key the code of the key pressed
+     */
+    private void handleKey(int key) {
+        if (key == KeyEvent.VK_SPACE) {
+            if (timer.isRunning()) {
+                timer.stop();
+            } else {
+                timer.start();
+            }
+        } else if (key == KeyEvent.VK_RIGHT) {
+            moveTo(tick + 1);
+        } else if (key == KeyEvent.VK_LEFT) {
+            moveTo(tick - 1);
+        } else if (key == KeyEvent.VK_PAGE_DOWN) {
+            moveTo(tick + InputRecorder.DEFAULT_KEYFRAME_TICKS);
+        } else if (key == KeyEvent.VK_PAGE_UP) {
+            moveTo(tick - InputRecorder.DEFAULT_KEYFRAME_TICKS);
+        } else if (key == KeyEvent.VK_HOME) {
+            moveTo(0);
+        } else if (key == KeyEvent.VK_END) {
+            moveTo(Long.MAX_VALUE);
+        }
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: shows the recorded game before the given tick, or at its end;
+     * plays on from the shown game if no keyframe lies in between, and seeks
+     * otherwise
+     *
+     * @param target the tick to move to
+     */
+    private void moveTo(long target) {
+        target = Math.max(0, Math.min(target, engine.getMaxTicks()));
+        try {
+            if (target < tick || log.findKeyframe(target) != log.findKeyframe(tick)) {
+                int keyframe = log.findKeyframe(target);
+                game = keyframe < 0 ? log.newGame() : log.loadKeyframe(keyframe);
+                tick = keyframe < 0 ? 0 : log.getKeyframeTick(keyframe);
+            }
+            tick += engine.advance(game, tick, target);
+        } catch (IOException e) {
+            System.out.println("Error seeking replay: " + e.getMessage());
+        }
+        if (game.isEnded() && timer.isRunning()) {
+            timer.stop();
+        }
+        render();
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: draws the shown game and its tick
+     */
+    private void render() {
+        drawSnake(game.getSnake1(), Color.BLUE, Color.CYAN);
+        drawSnake(game.getSnake2(), Color.GREEN, Color.ORANGE);
+        for (Position pos : game.getFood()) {
+            board.fillCell(pos.getPosX(), pos.getPosY(), Color.RED);
+        }
+        status.setText("Tick " + tick + (log.getTicks() >= 0 ? " / " + log.getTicks() : "")
+                + "   Score 1: " + game.getScore1() + "   Score 2: " + game.getScore2()
+                + (game.isEnded() ? "   Game over" : ""));
+        board.showFrame();
+    }
+
+    /**
+     * MODIFIES: this
+     * EFFECTS: draws the given snake with the given colors
+     *
+     * @param snake the snake
+     * @param head  the color of the head
+     * @param body  the color of the body
+     */
+    private void drawSnake(Snake snake, Color head, Color body) {
+        board.fillCell(snake.getHeadCell(), head);
+        for (int i = 0; i < snake.getBody().size(); i++) {
+            board.fillCell(snake.getBodyCell(i), body);
+        }
+    }
+}
@@ -15,10 +15,15 @@ import com.googlecode.lanterna.terminal.DefaultTerminalFactory;
 import model.*;
 import model.achievements.Achievement;
 import model.achievements.GeneralAchievement;
+import model.achievements.Stat;
 import persistence.JsonSaver;
 import persistence.JsonLoader;
+import persistence.SaveCatalog;
+import persistence.SaveCodec;
+import persistence.SaveSlot;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Scanner;
 
 /**
@@ -26,9 +31,13 @@ import java.util.Scanner;
  */
 public class TerminalGame {
     private Game game;
+    private final GameConfig config = new GameConfig();
     private Screen screen;
     private WindowBasedTextGUI endGui;
     private Scanner scanner;
+    private final SaveCatalog catalog = new SaveCatalog(SaveCatalog.DEFAULT_DIRECTORY, SaveCodec.FAST);
+    // the slot to load, or null for the last game
+    private SaveSlot slot;
 
     /**
      * EFFECTS: Ask the user for the difficulty level and start the game
@@ -56,9 +65,12 @@ public class TerminalGame {
                 // divide the columns in two
                 (terminalSize.getColumns() - 1) / 2,
                 // first row is reserved
-                terminalSize.getRows() - 2);
+                terminalSize.getRows() - 2,
+                config);
 
-        if (load) {
+        if (load && slot != null) {
+            catalog.load(slot.getName(), game);
+        } else if (load) {
             JsonLoader.loadGame("data/save1.json", game, game.getSnake1(), game.getSnake2());
         }
 
@@ -67,7 +79,8 @@ public class TerminalGame {
 
     /**
      * MODIFIES: this
-     * EFFECTS: ask the user for the difficulty level and set the ticks per second (faster speed for higher difficulty)
+     * EFFECTS: ask the user for the difficulty level and set the ticks per second of the game configuration (faster
+     * speed for higher difficulty)
      */
     private void chooseDifficulty() {
         int difficulty = 0;
@@ -77,11 +90,11 @@ public class TerminalGame {
         }
 
         if (difficulty == 1) {
-            Game.setTicksPerSecond(5);
+            config.setTicksPerSecond(5);
         } else if (difficulty == 2) {
-            Game.setTicksPerSecond(10);
+            config.setTicksPerSecond(10);
         } else {
-            Game.setTicksPerSecond(15);
+            config.setTicksPerSecond(15);
         }
     }
 
@@ -101,9 +114,40 @@ public class TerminalGame {
                 break;
             }
         }
+        if (load) {
+            chooseSave();
+        }
         return load;
     }
 
+    /**
+     * MODIFIES: this
+     * EFFECTS: lists the saves in the catalog and asks the user which one to
+     * load; 0 stands for the last game
+     */
+    private void chooseSave() {
+        List<SaveSlot> slots;
+        try {
+            slots = catalog.list();
+        } catch (IOException e) {
+            System.out.println("Error listing saves: " + e.getMessage());
+            return;
+        }
+        if (slots.isEmpty()) {
+            return;
+        }
+        System.out.println("0: Last game");
+        for (int i = 0; i < slots.size(); i++) {
+            System.out.println((i + 1) + ": " + slots.get(i));
+        }
+        System.out.println("Which game do you want to load? (0-" + slots.size() + ")");
+        int choice = -1;
+        while (choice < 0 || choice > slots.size()) {
+            choice = scanner.nextInt();
+        }
+        slot = choice > 0 ? slots.get(choice - 1) : null;
+    }
+
     /**
      * EFFECTS: start the game rounds. Moves the snakes and update stats. If the
      * game is ended, print out all achievements.
@@ -116,13 +160,9 @@ public class TerminalGame {
     private void beginTicks() throws IOException, InterruptedException {
         while (!game.isEnded() || endGui.getActiveWindow() != null) {
             tick();
-            // update round achievements
-            game.getAchievements().getAchievement("Total Rounds", game.getSnake1()).updateValue(1);
-            game.getAchievements().getAchievement("Total Rounds", game.getSnake2()).updateValue(1);
-            // update step for different directions
-            updateStepAchievement(game.getSnake1());
-            updateStepAchievement(game.getSnake2());
-            Thread.sleep(1000L / Game.getTicksPerSecond());
+            // update round and step achievements
+            game.updateRoundAchievements();
+            Thread.sleep(game.getConfig().getTickDelayMillis());
         }
         // check The Speedy achievement
         checkSpeedyAchievement();
@@ -138,24 +178,13 @@ public class TerminalGame {
         System.exit(0);
     }
 
-    /**
-     * MODIFIES: this
-     * EFFECTS: check if any of the achievement is achieved. If so, add it to the
-     * achievement collection
-     * 
-     * @param snake the snake to check
-     */
-    private void updateStepAchievement(Snake snake) {
-        GameView.updateStep(snake, game);
-    }
-
     /**
      * MODIFIES: this
      * EFFECTS: check if the "The Speedy" achievement is achieved. If so, add it to
      * the achievement collection
      */
     private void checkSpeedyAchievement() {
-        if (game.getAchievements().getAchievement("Total Rounds", game.getSnake1()).getValue() <= 10) {
+        if (game.getAchievements().getStat(Stat.TOTAL_ROUNDS, game.getSnake1()).getValue() <= 10) {
             game.getAchievements().addAchievement(
                     new GeneralAchievement("The Speedy", "Finish the game in less than 20 rounds", game.getSnake1()));
             game.getAchievements().addAchievement(
@@ -213,14 +242,14 @@ public class TerminalGame {
                 || stroke.getKeyType() == KeyType.ArrowRight || stroke.getKeyType() == KeyType.ArrowLeft) {
             game.getSnake1().setDirection(dir);
             // update key stroke stat
-            game.getAchievements().getAchievement("Key Stroke", game.getSnake1()).updateValue(1);
+            game.getAchievements().getStat(Stat.KEY_STROKE, game.getSnake1()).updateValue(1);
         } else if (stroke.getKeyType() == KeyType.Character && stroke.getCharacter() == 'w'
                 || stroke.getKeyType() == KeyType.Character && stroke.getCharacter() == 'a'
                 || stroke.getKeyType() == KeyType.Character && stroke.getCharacter() == 's'
                 || stroke.getKeyType() == KeyType.Character && stroke.getCharacter() == 'd') {
             game.getSnake2().setDirection(dir);
             // update key stroke stat
-            game.getAchievements().getAchievement("Key Stroke", game.getSnake2()).updateValue(1);
+            game.getAchievements().getStat(Stat.KEY_STROKE, game.getSnake2()).updateValue(1);
         }
     }
 
@@ -318,7 +347,12 @@ public class TerminalGame {
                 .addButton(MessageDialogButton.Yes)
                 .build()
                 .showDialog(pauseGui).equals(MessageDialogButton.Yes)) {
-            JsonSaver.saveGame("data/save1.json", game);
+            JsonSaver.saveGame("data/save1.json", game, false, SaveCodec.FAST);
+            try {
+                catalog.saveNew(game);
+            } catch (IOException e) {
+                System.out.println("Error saving game: " + e.getMessage());
+            }
             game.endGame();
         }
 
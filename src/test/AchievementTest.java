@@ -1,7 +1,9 @@
 import model.AchievementCollection;
+import model.Direction;
 import model.Snake;
 import model.achievements.Achievement;
 import model.achievements.GeneralAchievement;
+import model.achievements.Stat;
 import model.achievements.StatisticalAchievement;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,13 +13,14 @@ import static org.junit.jupiter.api.Assertions.*;
 public class AchievementTest {
     private AchievementCollection ac;
     private Snake snake1;
+    private Snake snake2;
     private Achievement a1;
     private Achievement a2;
 
     @BeforeEach
     public void setUp() {
         snake1 = new Snake(1, 1, "one");
-        Snake snake2 = new Snake(1, 2, "two");
+        snake2 = new Snake(1, 2, "two");
         ac = new AchievementCollection(snake1, snake2);
         a1 = new GeneralAchievement("a1", "a1", snake1);
         a2 = new StatisticalAchievement("a2", "a2", snake1, 1);
@@ -29,6 +32,38 @@ public class AchievementTest {
         assertFalse(ac.addAchievement(a1));
     }
 
+    @Test
+    public void testAddSameTitleForSameSnake() {
+        assertTrue(ac.addAchievement(a1));
+        assertFalse(ac.addAchievement(new GeneralAchievement("a1", "other", snake1)));
+        assertTrue(ac.addAchievement(new GeneralAchievement("a1", "a1", snake2)));
+        assertEquals(a1, ac.getAchievement("a1", snake1));
+        assertEquals(16, ac.getAchievements().size());
+    }
+
+    @Test
+    public void testGetStat() {
+        for (Stat stat : Stat.values()) {
+            StatisticalAchievement achievement = ac.getStat(stat, snake1);
+            assertEquals(stat.getTitle(), achievement.getTitle());
+            assertEquals(achievement, ac.getAchievement(stat.getTitle(), snake1));
+            assertNotEquals(achievement, ac.getStat(stat, snake2));
+        }
+        ac.getStat(Stat.APPLES_EATEN, snake2).updateValue(1);
+        assertEquals(1, ac.getAchievement("Apples Eaten", snake2).getValue());
+        assertNull(ac.getStat(Stat.KEY_STROKE, new Snake(0, 0, "other")));
+        assertNull(ac.getAchievement("Key Stroke", new Snake(0, 0, "other")));
+    }
+
+    @Test
+    public void testStepStat() {
+        assertEquals(Stat.STEP_UPWARDS, Stat.step(Direction.UP));
+        assertEquals(Stat.STEP_DOWNWARDS, Stat.step(Direction.DOWN));
+        assertEquals(Stat.STEP_LEFTWARDS, Stat.step(Direction.LEFT));
+        assertEquals(Stat.STEP_RIGHTWARDS, Stat.step(Direction.RIGHT));
+        assertNull(Stat.step(Direction.PAUSE));
+    }
+
     @Test
     public void testGetNoExistingAchievement() {
         ac.addAchievement(a1);
@@ -0,0 +1,130 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import model.Game;
+import persistence.AutoSaver;
+import persistence.Jsonizable;
+
+public class AutoSaverTest {
+    private Path dir;
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("autosave");
+        file = dir.resolve("save.json");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path path : files.toArray(Path[]::new)) {
+                Files.delete(path);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    private JSONObject read() throws IOException {
+        return new JSONObject(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testSavesWhenDue() throws Exception {
+        Game game = new Game(10, 10);
+        AutoSaver saver = new AutoSaver(file.toString(), 60 * 1000);
+        saver.start();
+        // not due before the first interval has passed
+        assertFalse(saver.onTick(game::snapshot));
+        saver.close();
+        assertFalse(Files.exists(file));
+
+        AutoSaver eager = new AutoSaver(file.toString(), 1);
+        eager.start();
+        Thread.sleep(5);
+        game.setScore1(5);
+        assertTrue(eager.onTick(game::snapshot));
+        // changes after the snapshot was taken are not saved
+        game.setScore1(6);
+        eager.close();
+        assertEquals(5, read().getInt("score1"));
+        assertEquals(1, eager.getSaveCount());
+    }
+
+    @Test
+    public void testDiscard() throws Exception {
+        AutoSaver saver = new AutoSaver(file.toString(), 60 * 1000);
+        saver.start();
+        saver.save(() -> new JSONObject().put("score1", 1));
+        // replaces the pending snapshot, or deletes it once it is written
+        saver.discard();
+        saver.close();
+        assertFalse(Files.exists(file));
+
+        AutoSaver next = new AutoSaver(file.toString(), 60 * 1000);
+        next.start();
+        next.discard();
+        next.save(() -> new JSONObject().put("score1", 2));
+        next.close();
+        assertEquals(2, read().getInt("score1"));
+    }
+
+    @Test
+    public void testReplacesAtomically() throws Exception {
+        Files.write(file, "{\"score1\": 1}".getBytes(StandardCharsets.UTF_8));
+        AutoSaver saver = new AutoSaver(file.toString(), 60 * 1000);
+        saver.start();
+        Jsonizable failing = () -> {
+            throw new IllegalStateException("not saved");
+        };
+        Jsonizable second = () -> new JSONObject().put("score1", 2);
+        try {
+            saver.save(failing);
+        } finally {
+            saver.save(second);
+            saver.close();
+        }
+        assertEquals(2, read().getInt("score1"));
+        // no temporary files are left behind
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    public void testFailedSaveKeepsOldFile() throws Exception {
+        Files.write(file, "{\"score1\": 1}".getBytes(StandardCharsets.UTF_8));
+        AutoSaver saver = new AutoSaver(file.toString(), 60 * 1000);
+        saver.start();
+        saver.save(new Jsonizable() {
+            @Override
+            public JSONObject toJson() {
+                return null;
+            }
+
+            @Override
+            public void writeJson(persistence.JsonStreamWriter writer) throws IOException {
+                writer.beginObject().name("score1");
+                throw new IOException("disk full");
+            }
+        });
+        saver.close();
+        assertEquals(1, read().getInt("score1"));
+        assertEquals(0, saver.getSaveCount());
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(1, files.count());
+        }
+    }
+}
@@ -0,0 +1,176 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import headless.EventLogTool;
+import model.Event;
+import model.EventLog;
+import model.EventType;
+import model.Game;
+import persistence.BinaryEventEncoder;
+import persistence.BinaryEventReader;
+import persistence.EventLogFileSink;
+
+public class BinaryEventLogTest {
+
+    private static List<Event> readAll(byte[] bytes, List<Long> matchIds) throws IOException {
+        List<Event> events = new ArrayList<>();
+        try (BinaryEventReader reader = new BinaryEventReader(new ByteArrayInputStream(bytes))) {
+            while (reader.advance()) {
+                events.add(reader.toEvent());
+                matchIds.add(reader.getMatchId());
+            }
+        }
+        return events;
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        List<Event> events = new ArrayList<>();
+        events.add(new Event(1_700_000_000_000L, 7, EventType.ACHIEVEMENT_UPDATED, "Step Upwards", "one", 1));
+        events.add(new Event(1_700_000_000_005L, 7, EventType.ACHIEVEMENT_UPDATED, "Step Upwards", "one", -2.5));
+        // clocks of different threads may go back a little
+        events.add(new Event(1_700_000_000_003L, 300, EventType.GAME_ENDED, null, null, 0));
+        events.add(new Event(1_700_000_000_010L, EventType.MESSAGE, "\u00fcn\u00efcode \n text", null, 0));
+        BinaryEventEncoder encoder = new BinaryEventEncoder();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(encoder.startFile());
+        for (Event event : events) {
+            out.write(encoder.encode(event));
+        }
+        List<Long> matchIds = new ArrayList<>();
+        List<Event> read = readAll(out.toByteArray(), matchIds);
+        assertEquals(events, read);
+        assertEquals(List.of(7L, 7L, 300L, Event.NO_MATCH), matchIds);
+        assertEquals(300, read.get(2).getMatchId());
+        assertEquals(-2.5, read.get(1).getValue());
+        assertNull(read.get(2).getFirstArgument());
+        assertEquals("one", read.get(0).getSnakeName());
+    }
+
+    @Test
+    public void testCompact() throws IOException {
+        BinaryEventEncoder encoder = new BinaryEventEncoder();
+        encoder.startFile();
+        Event event = new Event(EventType.ACHIEVEMENT_UPDATED, "Step Rightwards", "one", 1);
+        assertTrue(encoder.encode(event).length > 20);
+        // the strings are defined once; the time is a small difference
+        Event next = new Event(event.getTime() + 100, EventType.ACHIEVEMENT_UPDATED, "Step Rightwards", "one", 1);
+        assertEquals(9, encoder.encode(next).length);
+    }
+
+    @Test
+    public void testMultiplexedSegments() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int match = 0; match < 3; match++) {
+            BinaryEventEncoder encoder = new BinaryEventEncoder();
+            // every encoder starts its own segment; segments can be concatenated
+            out.write(encoder.startFile());
+            out.write(encoder.encode(new Event(System.currentTimeMillis(), match, EventType.ACHIEVEMENT_ADDED,
+                    "The Eater" + match, "two", 0)));
+        }
+        List<Long> matchIds = new ArrayList<>();
+        List<Event> read = readAll(out.toByteArray(), matchIds);
+        assertEquals(List.of(0L, 1L, 2L), matchIds);
+        assertEquals("Added achievement The Eater2", read.get(2).getDescription());
+    }
+
+    @Test
+    public void testMalformed() {
+        byte[] notALog = "hello".getBytes();
+        assertThrows(IOException.class, () -> readAll(notALog, new ArrayList<>()));
+        BinaryEventEncoder encoder = new BinaryEventEncoder();
+        byte[] header = encoder.startFile();
+        byte[] event = encoder.encode(new Event("truncated"));
+        byte[] truncated = new byte[header.length + event.length - 1];
+        System.arraycopy(header, 0, truncated, 0, header.length);
+        System.arraycopy(event, 0, truncated, header.length, event.length - 1);
+        assertThrows(IOException.class, () -> readAll(truncated, new ArrayList<>()));
+    }
+
+    @Test
+    public void testSinkWritesBinary() throws Exception {
+        Path dir = Files.createTempDirectory("events");
+        Path file = dir.resolve("events.bin");
+        EventLog log = EventLog.configure(1 << 10, EventLog.OverflowPolicy.BLOCK);
+        try {
+            EventLogFileSink sink = new EventLogFileSink(log, file.toString(), 1, 1 << 20, 1,
+                    new BinaryEventEncoder());
+            sink.start();
+            for (int i = 0; i < 3000; i++) {
+                log.log(3, EventType.ACHIEVEMENT_UPDATED, "Key Stroke", "one", i);
+            }
+            sink.close();
+            List<Long> matchIds = new ArrayList<>();
+            List<Event> read = readAll(Files.readAllBytes(file), matchIds);
+            assertEquals(3000, read.size());
+            assertEquals(2999, read.get(2999).getValue());
+            assertFalse(matchIds.contains(Event.NO_MATCH));
+        } finally {
+            EventLog.configure(EventLog.DEFAULT_CAPACITY, EventLog.OverflowPolicy.DROP_OLDEST);
+            for (Path p : Files.list(dir).toArray(Path[]::new)) {
+                Files.delete(p);
+            }
+            Files.delete(dir);
+        }
+    }
+
+    @Test
+    public void testConcurrentMatchesShareALog() throws Exception {
+        Path dir = Files.createTempDirectory("events");
+        Path file = dir.resolve("events.bin");
+        Path merged = dir.resolve("merged.bin");
+        EventLog log = EventLog.configure(1 << 10, EventLog.OverflowPolicy.BLOCK);
+        try {
+            EventLogFileSink sink = new EventLogFileSink(log, file.toString(), 1, 1 << 20, 1,
+                    new BinaryEventEncoder());
+            sink.start();
+            // two matches of one process log into the same log at the same time
+            Game first = new Game(20, 20);
+            Game second = new Game(20, 20);
+            for (int i = 0; i < 10; i++) {
+                first.updateRoundAchievements();
+                second.updateRoundAchievements();
+            }
+            second.endGame();
+            sink.close();
+            long firstId = first.getConfig().getMatchId();
+            long secondId = second.getConfig().getMatchId();
+            assertNotEquals(firstId, secondId);
+            List<Long> matchIds = new ArrayList<>();
+            List<Event> read = readAll(Files.readAllBytes(file), matchIds);
+            assertEquals(read.size(), matchIds.stream().filter(id -> id == firstId || id == secondId).count());
+            assertEquals(matchIds.stream().filter(id -> id == firstId).count() + 1,
+                    matchIds.stream().filter(id -> id == secondId).count());
+            assertEquals(EventType.GAME_ENDED, read.get(read.size() - 1).getType());
+            assertEquals(secondId, read.get(read.size() - 1).getMatchId());
+
+            // merging keeps the match ids the events were logged with
+            EventLogTool.main(new String[] { "merge", merged.toString(), file.toString(), file.toString() });
+            List<Long> mergedIds = new ArrayList<>();
+            readAll(Files.readAllBytes(merged), mergedIds);
+            List<Long> twice = new ArrayList<>(matchIds);
+            twice.addAll(matchIds);
+            assertEquals(twice, mergedIds);
+        } finally {
+            EventLog.configure(EventLog.DEFAULT_CAPACITY, EventLog.OverflowPolicy.DROP_OLDEST);
+            for (Path p : Files.list(dir).toArray(Path[]::new)) {
+                Files.delete(p);
+            }
+            Files.delete(dir);
+        }
+    }
+}
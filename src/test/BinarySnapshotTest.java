@@ -0,0 +1,209 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.zip.CRC32;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import headless.SaveConverter;
+import model.Direction;
+import model.Game;
+import model.Position;
+import model.achievements.GeneralAchievement;
+import model.achievements.Stat;
+import persistence.BinarySnapshot;
+import persistence.PendingAchievements;
+
+public class BinarySnapshotTest {
+    private Game game;
+
+    @BeforeEach
+    void setUp() {
+        game = new Game(40, 30);
+        game.getFood().clear();
+        game.getFood().add(new Position(5, 6));
+        game.getFood().add(new Position(7, 8));
+        // a body that winds in all four directions
+        int[][] steps = { { 1, 0 }, { 1, 0 }, { 0, 1 }, { 0, 1 }, { -1, 0 }, { 0, -1 }, { 1, 0 } };
+        int x = 10;
+        int y = 10;
+        game.getSnake1().addBodyPart(new Position(x, y));
+        for (int[] step : steps) {
+            x += step[0];
+            y += step[1];
+            game.getSnake1().addBodyPart(new Position(x, y));
+        }
+        // a body that jumps, which is saved as packed cells
+        game.getSnake2().addBodyPart(new Position(1, 20));
+        game.getSnake2().addBodyPart(new Position(3, 25));
+        game.getSnake2().setDirection(Direction.LEFT);
+        game.getSnake2().eatApple();
+        game.setScore1(4);
+        game.setScore2(9);
+        game.setNoEatCount1(2);
+        game.getConfig().setTicksPerSecond(15);
+        game.getAchievements().getStat(Stat.KEY_STROKE, game.getSnake2()).setValue(42.5);
+        game.getAchievements().addAchievement(new GeneralAchievement("The \u00dcber", "Won", game.getSnake1()));
+    }
+
+    private static Game emptyGame() {
+        Game loaded = new Game(40, 30);
+        loaded.getFood().clear();
+        return loaded;
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Game loaded = emptyGame();
+        BinarySnapshot.decode(BinarySnapshot.encode(game), loaded, loaded.getSnake1(), loaded.getSnake2());
+        assertTrue(game.toJson().similar(loaded.toJson()));
+        assertEquals(game.getSnake1().getBody(), loaded.getSnake1().getBody());
+        assertEquals(game.getSnake2().getBody(), loaded.getSnake2().getBody());
+        assertEquals(1, loaded.getSnake2().getNumApplesEaten());
+        assertEquals(15, loaded.getConfig().getTicksPerSecond());
+        assertEquals(game.getFood(), loaded.getFood());
+        assertEquals(game.getAchievements().getAchievements().size(),
+                loaded.getAchievements().getAchievements().size());
+    }
+
+    @Test
+    public void testDecodePlayable() throws IOException {
+        Game loaded = emptyGame();
+        PendingAchievements pending = BinarySnapshot.decodePlayable(BinarySnapshot.encode(game), loaded,
+                loaded.getSnake1(), loaded.getSnake2());
+        assertEquals(game.getSnake1().getBody(), loaded.getSnake1().getBody());
+        assertEquals(game.getFood(), loaded.getFood());
+        assertEquals(9, loaded.getScore2());
+        assertNull(loaded.getAchievements().getAchievement("The \u00dcber", loaded.getSnake1()));
+        // counted after the load, so added to the saved value
+        loaded.getAchievements().getStat(Stat.KEY_STROKE, loaded.getSnake2()).updateValue(2);
+        assertFalse(pending.isMerged());
+        pending.mergeNow();
+        assertTrue(pending.isMerged());
+        assertTrue(pending.mergeIfReady());
+        assertEquals(44.5, loaded.getAchievements().getStat(Stat.KEY_STROKE, loaded.getSnake2()).getValue());
+        assertNotNull(loaded.getAchievements().getAchievement("The \u00dcber", loaded.getSnake1()));
+        assertEquals(game.getAchievements().getAchievements().size(),
+                loaded.getAchievements().getAchievements().size());
+    }
+
+    @Test
+    public void testReadsVersion1() throws IOException {
+        ByteBuffer snapshot = BinarySnapshot.encode(game);
+        // version 1 is the sections one after the other, without the table in front
+        int table = 5 * Integer.BYTES;
+        ByteBuffer old = ByteBuffer.allocate(snapshot.remaining() - table);
+        old.putInt(snapshot.getInt(0)).putShort((short) 1).putShort((short) 0);
+        old.putInt(snapshot.getInt(8) - table).putInt(0);
+        old.put(snapshot.array(), 16 + table, snapshot.remaining() - 16 - table);
+        CRC32 crc = new CRC32();
+        crc.update(old.array(), 16, old.capacity() - 16);
+        old.putInt(12, (int) crc.getValue());
+        old.flip();
+        Game loaded = BinarySnapshot.decodeNewGame(old.duplicate());
+        assertTrue(game.toJson().similar(loaded.toJson()));
+        Game lazy = emptyGame();
+        BinarySnapshot.decodePlayable(old, lazy, lazy.getSnake1(), lazy.getSnake2()).mergeNow();
+        assertTrue(game.toJson().similar(lazy.toJson()));
+    }
+
+    @Test
+    public void testSaveAndLoadFile() {
+        assertTrue(BinarySnapshot.saveGame("data/testSnapshot.snap", game));
+        try {
+            Game loaded = emptyGame();
+            assertTrue(BinarySnapshot.loadGame("data/testSnapshot.snap", loaded, loaded.getSnake1(),
+                    loaded.getSnake2()));
+            assertTrue(game.toJson().similar(loaded.toJson()));
+        } finally {
+            new java.io.File("data/testSnapshot.snap").delete();
+        }
+        assertFalse(BinarySnapshot.loadGame("data/missing.snap", game, game.getSnake1(), game.getSnake2()));
+    }
+
+    @Test
+    public void testCompactBody() {
+        Game longGame = new Game(100, 100);
+        // up and down the columns, so every segment is next to the previous one
+        for (int i = 0; i < 4000; i++) {
+            int column = i / 40;
+            longGame.getSnake1().addBodyPart(new Position(column, column % 2 == 0 ? i % 40 : 39 - i % 40));
+        }
+        int size = BinarySnapshot.encode(longGame).remaining();
+        int empty = BinarySnapshot.encode(new Game(100, 100)).remaining();
+        // the first cell and 2 bits for each other segment
+        assertEquals(4 + 3999 / 4 + 1, size - empty);
+    }
+
+    @Test
+    public void testDecodeNewGame() throws IOException {
+        Game loaded = BinarySnapshot.decodeNewGame(BinarySnapshot.encode(game));
+        assertEquals(40, loaded.getMaxX());
+        assertEquals(30, loaded.getMaxY());
+        assertTrue(game.toJson().similar(loaded.toJson()));
+    }
+
+    @Test
+    public void testCorrupted() {
+        ByteBuffer snapshot = BinarySnapshot.encode(game);
+        int score = game.getScore1();
+        ByteBuffer flipped = copy(snapshot);
+        flipped.put(40, (byte) (flipped.get(40) ^ 1));
+        assertThrows(IOException.class, () -> decodeInto(flipped));
+        ByteBuffer truncated = copy(snapshot);
+        truncated.limit(truncated.limit() - 1);
+        assertThrows(IOException.class, () -> decodeInto(truncated));
+        ByteBuffer version = copy(snapshot);
+        version.putShort(4, (short) 99);
+        assertThrows(IOException.class, () -> decodeInto(version));
+        ByteBuffer notSnapshot = ByteBuffer.wrap("{\"score1\": 1}".getBytes());
+        assertFalse(BinarySnapshot.isSnapshot(notSnapshot));
+        assertThrows(IOException.class, () -> decodeInto(notSnapshot));
+        assertTrue(BinarySnapshot.isSnapshot(snapshot));
+        assertEquals(score, game.getScore1());
+    }
+
+    @Test
+    public void testConvert() throws IOException {
+        Path json = Paths.get("data/testConvert.json");
+        Path snapshot = Paths.get("data/testConvert.snap");
+        Path back = Paths.get("data/testConvertBack.json");
+        try {
+            Files.write(json, game.toJson().toString().getBytes());
+            assertTrue(SaveConverter.convert(json.toString(), snapshot.toString(), 40, 30, false));
+            Game loaded = BinarySnapshot.decodeNewGame(ByteBuffer.wrap(Files.readAllBytes(snapshot)));
+            assertEquals(game.getSnake1().getBody(), loaded.getSnake1().getBody());
+            assertTrue(SaveConverter.convert(snapshot.toString(), back.toString(), 0, 0, true));
+            JSONObject converted = new JSONObject(new String(Files.readAllBytes(back)));
+            assertNotNull(converted.getJSONObject("snake1"));
+            assertTrue(loaded.toJson().similar(converted));
+        } finally {
+            Files.deleteIfExists(json);
+            Files.deleteIfExists(snapshot);
+            Files.deleteIfExists(back);
+        }
+    }
+
+    private static ByteBuffer copy(ByteBuffer bytes) {
+        ByteBuffer copy = ByteBuffer.allocate(bytes.remaining());
+        copy.put(bytes.duplicate());
+        copy.flip();
+        return copy;
+    }
+
+    private void decodeInto(ByteBuffer bytes) throws IOException {
+        Game loaded = emptyGame();
+        BinarySnapshot.decode(bytes, loaded, loaded.getSnake1(), loaded.getSnake2());
+    }
+}
@@ -0,0 +1,59 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.awt.Color;
+
+import org.junit.jupiter.api.Test;
+
+import model.Position;
+import ui.BoardView;
+
+public class BoardViewTest {
+
+    @Test
+    public void testPaintsOnlyChangedCells() {
+        BoardView board = new BoardView(20, 10, 10, Color.WHITE, Color.BLACK);
+        for (int x = 2; x < 8; x++) {
+            board.fillCell(x, 4, Color.CYAN);
+        }
+        board.fillCell(8, 4, Color.BLUE);
+        board.showFrame();
+        assertEquals(7, board.getPaintedCellCount());
+        assertEquals(Color.BLUE, board.getCellColor(8, 4));
+        // a step to the right: the tail clears, the old head turns into body
+        for (int x = 3; x < 9; x++) {
+            board.fillCell(x, 4, Color.CYAN);
+        }
+        board.fillCell(Position.pack(9, 4), Color.BLUE);
+        board.showFrame();
+        assertEquals(3, board.getPaintedCellCount());
+        assertEquals(Color.WHITE, board.getCellColor(2, 4));
+        assertEquals(Color.CYAN, board.getCellColor(8, 4));
+        assertEquals(Color.BLUE, board.getCellColor(9, 4));
+        // colors are made once, not for every cell
+        assertSame(board.getCellColor(3, 4), board.getCellColor(8, 4));
+        // the same frame again paints nothing
+        for (int x = 3; x < 9; x++) {
+            board.fillCell(x, 4, Color.CYAN);
+        }
+        board.fillCell(9, 4, Color.BLUE);
+        board.showFrame();
+        assertEquals(0, board.getPaintedCellCount());
+    }
+
+    @Test
+    public void testClearsAndIgnoresOffBoard() {
+        BoardView board = new BoardView(5, 5, 4, Color.WHITE, null);
+        board.fillCell(0, 0, Color.RED);
+        board.fillCell(0, 0, Color.GREEN);
+        board.fillCell(-1, 2, Color.RED);
+        board.fillCell(5, 5, Color.RED);
+        board.showFrame();
+        assertEquals(1, board.getPaintedCellCount());
+        assertEquals(Color.GREEN, board.getCellColor(0, 0));
+        // an empty frame clears what the last one drew
+        board.showFrame();
+        assertEquals(1, board.getPaintedCellCount());
+        assertEquals(Color.WHITE, board.getCellColor(0, 0));
+    }
+}
@@ -0,0 +1,72 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import model.CellRing;
+import model.Position;
+
+public class CellRingTest {
+    private CellRing ring;
+
+    @BeforeEach
+    public void setUp() {
+        ring = new CellRing();
+    }
+
+    @Test
+    public void testPackUnpack() {
+        int cell = Position.pack(-1, 300);
+        assertEquals(-1, Position.unpackX(cell));
+        assertEquals(300, Position.unpackY(cell));
+        assertEquals(new Position(7, -2), Position.unpack(new Position(7, -2).pack()));
+    }
+
+    @Test
+    public void testAddAndRemove() {
+        ring.addLast(Position.pack(1, 1));
+        ring.addLast(Position.pack(2, 1));
+        ring.addFirst(Position.pack(0, 1));
+        assertEquals(3, ring.size());
+        assertEquals(Position.pack(0, 1), ring.get(0));
+        assertEquals(Position.pack(2, 1), ring.get(2));
+        assertTrue(ring.contains(Position.pack(1, 1)));
+
+        assertEquals(Position.pack(0, 1), ring.removeFirst());
+        assertEquals(2, ring.size());
+        assertFalse(ring.contains(Position.pack(0, 1)));
+    }
+
+    @Test
+    public void testGrowAcrossWrap() {
+        // move the start of the ring away from index 0 before growing
+        for (int i = 0; i < 10; i++) {
+            ring.addLast(i);
+            ring.removeFirst();
+        }
+        for (int i = 0; i < 100; i++) {
+            ring.addLast(i);
+        }
+        ring.addFirst(-1);
+        assertEquals(101, ring.size());
+        assertEquals(-1, ring.get(0));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, ring.get(i + 1));
+        }
+    }
+
+    @Test
+    public void testPositionView() {
+        List<Position> view = ring.asPositions();
+        assertTrue(view.isEmpty());
+        ring.addLast(Position.pack(3, 4));
+        assertEquals(List.of(new Position(3, 4)), view);
+        assertThrows(UnsupportedOperationException.class, () -> view.add(new Position(0, 0)));
+        assertThrows(IndexOutOfBoundsException.class, () -> view.get(1));
+    }
+}
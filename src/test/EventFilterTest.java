@@ -0,0 +1,83 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import model.Event;
+import model.EventCategory;
+import model.EventFilter;
+import model.EventLog;
+import model.EventType;
+import model.Game;
+
+public class EventFilterTest {
+
+    @AfterEach
+    void tearDown() {
+        System.clearProperty(EventFilter.PROPERTY);
+        EventLog.configure(EventLog.DEFAULT_CAPACITY, EventLog.OverflowPolicy.DROP_OLDEST);
+    }
+
+    @Test
+    public void testKeepAllByDefault() {
+        EventFilter filter = new EventFilter();
+        for (EventCategory category : EventCategory.values()) {
+            assertEquals(1, filter.getSampling(category));
+            assertTrue(filter.accept(category));
+        }
+    }
+
+    @Test
+    public void testSampling() {
+        EventFilter filter = new EventFilter().setSampling(EventCategory.STATISTIC, 3)
+                .setSampling(EventCategory.ACHIEVEMENT, 0);
+        int kept = 0;
+        for (int i = 0; i < 30; i++) {
+            if (filter.accept(EventCategory.STATISTIC)) {
+                kept++;
+            }
+        }
+        assertEquals(10, kept);
+        assertFalse(filter.accept(EventCategory.ACHIEVEMENT));
+        assertTrue(filter.accept(EventCategory.LIFECYCLE));
+    }
+
+    @Test
+    public void testParse() {
+        EventFilter filter = EventFilter.parse("statistic=0, Achievement=4,");
+        assertEquals(0, filter.getSampling(EventCategory.STATISTIC));
+        assertEquals(4, filter.getSampling(EventCategory.ACHIEVEMENT));
+        assertEquals(1, filter.getSampling(EventCategory.LIFECYCLE));
+        assertThrows(IllegalArgumentException.class, () -> EventFilter.parse("statistic"));
+        assertThrows(IllegalArgumentException.class, () -> EventFilter.parse("statistic=-1"));
+        assertThrows(IllegalArgumentException.class, () -> EventFilter.parse("unknown=1"));
+    }
+
+    @Test
+    public void testFromSystemProperty() {
+        System.setProperty(EventFilter.PROPERTY, "statistic=0");
+        EventLog log = EventLog.configure(16, EventLog.OverflowPolicy.DROP_OLDEST);
+        assertEquals(0, log.getFilter().getSampling(EventCategory.STATISTIC));
+        System.setProperty(EventFilter.PROPERTY, "statistic");
+        assertEquals(1, EventFilter.fromSystemProperty().getSampling(EventCategory.STATISTIC));
+    }
+
+    @Test
+    public void testLogFiltersBeforeConstructing() {
+        EventLog log = EventLog.configure(1 << 10, EventLog.OverflowPolicy.DROP_OLDEST);
+        log.setFilter(new EventFilter().setSampling(EventCategory.STATISTIC, 0));
+        Game game = new Game(10, 10);
+        game.tick();
+        game.updateRoundAchievements();
+        log.logEvent(new Event("explicit"));
+        for (Event event : log) {
+            assertTrue(event.getType().getCategory() != EventCategory.STATISTIC);
+        }
+        assertFalse(log.shouldLog(EventType.ACHIEVEMENT_UPDATED));
+        assertTrue(log.shouldLog(EventType.GAME_ENDED));
+        assertEquals("explicit", log.snapshot().get(log.snapshot().size() - 1).getDescription());
+    }
+}
@@ -0,0 +1,96 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import model.AchievementCollection;
+import model.Event;
+import model.EventCategory;
+import model.EventIndex;
+import model.EventLog;
+import model.EventType;
+import model.Snake;
+import model.achievements.GeneralAchievement;
+
+public class EventIndexTest {
+    private EventLog log;
+    private EventIndex index;
+    private Snake one;
+    private Snake two;
+    private AchievementCollection achievements;
+
+    @BeforeEach
+    void setUp() {
+        log = EventLog.configure(64, EventLog.OverflowPolicy.DROP_OLDEST);
+        index = new EventIndex(log);
+        one = new Snake(1, 1, "one");
+        two = new Snake(1, 2, "two");
+        achievements = new AchievementCollection(one, two);
+    }
+
+    @AfterEach
+    void tearDown() {
+        EventLog.configure(EventLog.DEFAULT_CAPACITY, EventLog.OverflowPolicy.DROP_OLDEST);
+    }
+
+    @Test
+    public void testQueryByCategoryAndSnake() {
+        achievements.addAchievement(new GeneralAchievement("The Eater", "Eat", two));
+        achievements.addAchievement(new GeneralAchievement("The Eater", "Eat", one));
+        achievements.addAchievement(new GeneralAchievement("The Eater", "Eat", two));
+        log.log(EventType.ACHIEVEMENT_UPDATED, "Key Stroke", "two", 1);
+
+        List<Event> unlocks = index.queryLast(60_000, EventCategory.ACHIEVEMENT, "two");
+        assertEquals(2, unlocks.size());
+        assertEquals(EventType.ACHIEVEMENT_ADDED, unlocks.get(0).getType());
+        assertEquals(EventType.ACHIEVEMENT_REJECTED, unlocks.get(1).getType());
+        assertEquals(3, index.queryLast(60_000, EventCategory.ACHIEVEMENT, null).size());
+        // the initialization of the statistics, the unlocks and the update
+        assertEquals(4, index.queryLast(60_000, null, "two").size());
+        assertEquals(0, index.queryLast(60_000, null, "three").size());
+        assertEquals(6, index.query(Long.MIN_VALUE, Long.MAX_VALUE, null, null).size());
+    }
+
+    @Test
+    public void testQueryByTime() {
+        long now = System.currentTimeMillis();
+        log.logEvent(new Event("now"));
+        assertEquals(0, index.query(now + 60_000, Long.MAX_VALUE, null, null).size());
+        assertEquals(0, index.query(Long.MIN_VALUE, now - 60_000, null, null).size());
+        assertEquals(0, index.query(now, now, null, null).size());
+        List<Event> all = index.query(now - 60_000, now + 60_000, EventCategory.MESSAGE, null);
+        assertEquals(1, all.size());
+        assertEquals("now", all.get(0).getDescription());
+    }
+
+    @Test
+    public void testIncrementalUpdate() {
+        assertEquals(2, index.queryLast(60_000, EventCategory.LIFECYCLE, null).size());
+        log.log(EventType.GAME_ENDED, null);
+        assertEquals(3, index.queryLast(60_000, EventCategory.LIFECYCLE, null).size());
+        log.clear();
+        List<Event> events = index.queryLast(60_000, null, null);
+        assertEquals(1, events.size());
+        assertEquals(EventType.LOG_CLEARED, events.get(0).getType());
+    }
+
+    @Test
+    public void testOverwrittenEventsLeaveIndex() {
+        for (int i = 0; i < 200; i++) {
+            log.log(EventType.ACHIEVEMENT_UPDATED, "Key Stroke", i % 2 == 0 ? "one" : "two", 1);
+            if (i % 50 == 0) {
+                index.update();
+            }
+        }
+        List<Event> events = index.queryLast(60_000, EventCategory.STATISTIC, "one");
+        assertEquals(32, events.size());
+        assertEquals(0, index.queryLast(60_000, EventCategory.LIFECYCLE, null).size());
+        for (Event event : events) {
+            assertTrue(event.getSnakeName().equals("one"));
+        }
+    }
+}
@@ -0,0 +1,139 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import model.Event;
+import model.EventLog;
+import persistence.BinaryEventEncoder;
+import persistence.BinaryEventReader;
+import persistence.EventEncoder;
+import persistence.EventLogFileSink;
+
+public class EventLogFileSinkTest {
+    private Path dir;
+    private Path file;
+    private EventLog log;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("events");
+        file = dir.resolve("events.log");
+        log = EventLog.configure(1 << 10, EventLog.OverflowPolicy.BLOCK);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        EventLog.configure(EventLog.DEFAULT_CAPACITY, EventLog.OverflowPolicy.DROP_OLDEST);
+        for (Path p : Files.list(dir).toArray(Path[]::new)) {
+            Files.delete(p);
+        }
+        Files.delete(dir);
+    }
+
+    @Test
+    public void testWritesEventsInOrder() throws Exception {
+        EventLogFileSink sink = new EventLogFileSink(log, file.toString(), 1, 1 << 20, 1);
+        sink.start();
+        // more events than the log holds: logging waits for the sink
+        for (int i = 0; i < 5000; i++) {
+            log.logEvent(new Event("E" + i));
+        }
+        sink.close();
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(5000, lines.size());
+        for (int i = 0; i < 5000; i++) {
+            assertTrue(lines.get(i).endsWith("\tE" + i));
+        }
+    }
+
+    @Test
+    public void testAppends() throws Exception {
+        Files.write(file, List.of("old"));
+        EventLogFileSink sink = new EventLogFileSink(log, file.toString(), 1000, 1 << 20, 1);
+        sink.start();
+        log.logEvent(new Event("multi\nline"));
+        sink.close();
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        assertEquals("old", lines.get(0));
+        assertTrue(lines.get(1).endsWith("\tmulti line"));
+    }
+
+    @Test
+    public void testRotates() throws Exception {
+        EventLogFileSink sink = new EventLogFileSink(log, file.toString(), 1, 200, 2);
+        sink.start();
+        for (int i = 0; i < 100; i++) {
+            log.logEvent(new Event("Event number " + i));
+        }
+        sink.close();
+        assertTrue(Files.size(file) <= 200);
+        assertTrue(Files.size(dir.resolve("events.log.1")) <= 200);
+        assertTrue(Files.exists(dir.resolve("events.log.2")));
+        assertFalse(Files.exists(dir.resolve("events.log.3")));
+        List<String> lines = Files.readAllLines(file);
+        assertTrue(lines.get(lines.size() - 1).endsWith("\tEvent number 99"));
+    }
+
+    @Test
+    public void testRecoversFromFailedRotation() throws Exception {
+        // a directory that is not empty in the way of the rotated file makes rotating fail
+        Path blocker = dir.resolve("events.log.1");
+        Files.createDirectory(blocker);
+        Files.createFile(blocker.resolve("x"));
+        CountDownLatch reopened = new CountDownLatch(2);
+        BinaryEventEncoder binary = new BinaryEventEncoder();
+        EventEncoder encoder = new EventEncoder() {
+            @Override
+            public byte[] startFile() {
+                reopened.countDown();
+                return binary.startFile();
+            }
+
+            @Override
+            public byte[] encode(Event event) {
+                return binary.encode(event);
+            }
+        };
+        EventLogFileSink sink = new EventLogFileSink(log, file.toString(), 1, 300, 1, encoder);
+        sink.start();
+        for (int i = 0; i < 50; i++) {
+            log.logEvent(new Event("Before " + i));
+        }
+        assertTrue(reopened.await(5, TimeUnit.SECONDS));
+        Path moved = dir.resolve("moved");
+        Files.move(blocker, moved);
+        for (int i = 0; i < 50; i++) {
+            log.logEvent(new Event("After " + i));
+        }
+        sink.close();
+        Files.delete(moved.resolve("x"));
+        Files.delete(moved);
+        // both files decode to the end, every string defined before its use
+        readDescriptions(dir.resolve("events.log.1"));
+        List<String> descriptions = readDescriptions(file);
+        assertEquals("After 49", descriptions.get(descriptions.size() - 1));
+    }
+
+    private static List<String> readDescriptions(Path path) throws IOException {
+        List<String> descriptions = new ArrayList<>();
+        try (BinaryEventReader reader = new BinaryEventReader(path.toString())) {
+            while (reader.advance()) {
+                descriptions.add(reader.toEvent().getDescription());
+            }
+        }
+        return descriptions;
+    }
+}
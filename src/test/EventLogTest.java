@@ -1,6 +1,7 @@
 
 import model.Event;
 import model.EventLog;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -9,6 +10,7 @@ import java.util.Iterator;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -54,4 +56,85 @@ public class EventLogTest {
 		assertEquals("Event log cleared.", itr.next().getDescription());
 		assertFalse(itr.hasNext());
 	}
+
+	@Test
+	public void testDropOldest() {
+		EventLog el = EventLog.configure(5, EventLog.OverflowPolicy.DROP_OLDEST);
+		assertEquals(8, el.getCapacity());
+		assertSame(el, EventLog.getInstance());
+		for (int i = 0; i < 20; i++) {
+			el.logEvent(new Event("E" + i));
+		}
+		List<Event> events = el.snapshot();
+		assertEquals(8, events.size());
+		assertEquals("E12", events.get(0).getDescription());
+		assertEquals("E19", events.get(7).getDescription());
+	}
+
+	@Test
+	public void testDrain() {
+		EventLog el = EventLog.configure(4, EventLog.OverflowPolicy.DROP_OLDEST);
+		for (int i = 0; i < 3; i++) {
+			el.logEvent(new Event("E" + i));
+		}
+		List<Event> drained = new ArrayList<>();
+		assertEquals(2, el.drainTo(drained, 2));
+		assertEquals(1, el.drainTo(drained, 10));
+		assertEquals(0, el.drainTo(drained, 10));
+		assertEquals("E2", drained.get(2).getDescription());
+		// draining does not remove events from snapshots
+		assertEquals(3, el.snapshot().size());
+	}
+
+	@Test
+	public void testBlockUntilDrained() throws InterruptedException {
+		EventLog el = EventLog.configure(4, EventLog.OverflowPolicy.BLOCK);
+		Thread producer = new Thread(() -> {
+			for (int i = 0; i < 100; i++) {
+				el.logEvent(new Event("E" + i));
+			}
+		});
+		producer.start();
+		List<Event> drained = new ArrayList<>();
+		while (drained.size() < 100) {
+			el.drainTo(drained, 3);
+			assertTrue(el.snapshot().size() <= 4);
+		}
+		producer.join();
+		for (int i = 0; i < 100; i++) {
+			assertEquals("E" + i, drained.get(i).getDescription());
+		}
+	}
+
+	@Test
+	public void testConcurrentProducers() throws InterruptedException {
+		EventLog el = EventLog.configure(1 << 12, EventLog.OverflowPolicy.DROP_OLDEST);
+		Thread[] producers = new Thread[4];
+		for (int p = 0; p < producers.length; p++) {
+			String name = "P" + p + "-";
+			producers[p] = new Thread(() -> {
+				for (int i = 0; i < 1000; i++) {
+					el.logEvent(new Event(name + i));
+				}
+			});
+			producers[p].start();
+		}
+		for (Thread producer : producers) {
+			producer.join();
+		}
+		List<Event> events = el.snapshot();
+		assertEquals(4000, events.size());
+		int[] next = new int[producers.length];
+		for (Event event : events) {
+			String[] parts = event.getDescription().substring(1).split("-");
+			int p = Integer.parseInt(parts[0]);
+			// events of one producer keep their order
+			assertEquals(next[p]++, Integer.parseInt(parts[1]));
+		}
+	}
+
+	@AfterEach
+	public void restoreLog() {
+		EventLog.configure(EventLog.DEFAULT_CAPACITY, EventLog.OverflowPolicy.DROP_OLDEST);
+	}
 }
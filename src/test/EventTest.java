@@ -1,5 +1,6 @@
 
 import model.Event;
+import model.EventType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -55,4 +56,23 @@ public class EventTest {
 		int expectedHash = 13 * e.getDate().hashCode() + e.getDescription().hashCode();
 		assertEquals(expectedHash, e.hashCode());
 	}
+
+	@Test
+	public void testTypedEvent() {
+		Event typed = new Event(EventType.ACHIEVEMENT_UPDATED, "Step Upwards", "one", 1);
+		assertEquals(EventType.ACHIEVEMENT_UPDATED, typed.getType());
+		assertEquals("Updated achievement Step Upwards from one by 1.0", typed.getDescription());
+		assertEquals(typed.getTime(), typed.getDate().getTime());
+		assertEquals("Added achievement {second}", new Event(EventType.ACHIEVEMENT_ADDED, "{second}").getDescription());
+		assertEquals("Game ended", new Event(EventType.GAME_ENDED, null).getDescription());
+		assertEquals(EventType.MESSAGE, e.getType());
+	}
+
+	@Test
+	public void testTypedEventEquals() {
+		Event typed = new Event(EventType.GAME_ENDED, null);
+		Event plain = new Event("Game ended");
+		// both describe the same thing; they are equal if logged in the same millisecond
+		assertEquals(typed.getTime() == plain.getTime(), typed.equals(plain));
+	}
 }
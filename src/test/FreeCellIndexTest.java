@@ -0,0 +1,90 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import model.FreeCellIndex;
+import model.OccupancyGrid;
+import model.Position;
+
+public class FreeCellIndexTest {
+    private FreeCellIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new FreeCellIndex(3, 2);
+    }
+
+    @Test
+    public void testInitiallyFree() {
+        assertEquals(6, index.size());
+        Set<Integer> cells = new HashSet<>();
+        for (int i = 0; i < index.size(); i++) {
+            cells.add(index.get(i));
+        }
+        assertEquals(6, cells.size());
+        assertTrue(cells.contains(Position.pack(2, 1)));
+        assertTrue(index.covers(2, 1));
+        assertFalse(index.covers(3, 1));
+    }
+
+    @Test
+    public void testTakeAndRelease() {
+        index.take(1, 1);
+        index.take(1, 1);
+        assertEquals(5, index.size());
+        assertFalse(index.isFree(1, 1));
+        for (int i = 0; i < index.size(); i++) {
+            assertTrue(index.get(i) != Position.pack(1, 1));
+        }
+
+        index.release(1, 1);
+        index.release(1, 1);
+        assertEquals(6, index.size());
+        assertTrue(index.isFree(1, 1));
+    }
+
+    @Test
+    public void testFollowsGrid() {
+        OccupancyGrid grid = new OccupancyGrid(4, 3, 2, index);
+        grid.occupy(0, 0, 0);
+        grid.occupy(1, 0, 0);
+        // outside of the indexed region
+        grid.occupy(0, 3, 2);
+        assertEquals(5, index.size());
+        grid.vacate(0, 0, 0);
+        assertFalse(index.isFree(0, 0));
+        grid.vacate(1, 0, 0);
+        assertTrue(index.isFree(0, 0));
+        assertEquals(6, index.size());
+    }
+
+    @Test
+    public void testSort() {
+        FreeCellIndex other = new FreeCellIndex(3, 2);
+        index.take(0, 0);
+        index.take(2, 1);
+        index.take(1, 0);
+        index.release(0, 0);
+        other.take(1, 0);
+        other.take(2, 1);
+        index.sort();
+        other.sort();
+        // the same free cells, taken in different orders, end up in the same slots
+        int[] rowMajor = {Position.pack(0, 0), Position.pack(2, 0), Position.pack(0, 1), Position.pack(1, 1)};
+        assertEquals(rowMajor.length, index.size());
+        for (int i = 0; i < rowMajor.length; i++) {
+            assertEquals(rowMajor[i], index.get(i));
+            assertEquals(rowMajor[i], other.get(i));
+        }
+        index.take(2, 0);
+        index.release(2, 0);
+        assertTrue(index.isFree(2, 0));
+        assertEquals(4, index.size());
+    }
+}
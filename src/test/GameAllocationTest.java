@@ -0,0 +1,101 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.jupiter.api.Test;
+
+import com.sun.management.ThreadMXBean;
+
+import model.EventCategory;
+import model.EventFilter;
+import model.EventLog;
+import model.Game;
+import model.Position;
+
+/**
+ * Checks that Game.tick does not allocate in steady state (no food eaten, no
+ * achievement unlocked) using the allocated-bytes counter of the current thread,
+ * and that neither does a whole round, tick and round achievements, while
+ * statistic events are filtered out of the event log
+ */
+public class GameAllocationTest {
+
+    @Test
+    public void testTickDoesNotAllocate() {
+        Game game = newSteadyGame();
+        long allocated = measureAllocation(game, false);
+
+        assertFalse(game.isEnded());
+        assertEquals(200, game.getSnake1().getBody().size());
+        assertEquals(0, allocated);
+    }
+
+    @Test
+    public void testRoundDoesNotAllocateWithoutStatisticEvents() {
+        EventLog log = EventLog.getInstance();
+        EventFilter filter = log.getFilter();
+        // every round achievement update logs a statistic event otherwise
+        log.setFilter(new EventFilter().setSampling(EventCategory.STATISTIC, 0));
+        try {
+            Game game = newSteadyGame();
+            long allocated = measureAllocation(game, true);
+
+            assertFalse(game.isEnded());
+            assertEquals(200, game.getSnake1().getBody().size());
+            assertEquals(0, allocated);
+        } finally {
+            log.setFilter(filter);
+        }
+    }
+
+    /**
+     * Returns a game whose snakes have grown to 200 cells and can move right for
+     * thousands of ticks without eating or ending the game
+     */
+    private static Game newSteadyGame() {
+        // a long board so that both snakes can move right for thousands of ticks;
+        // the food is behind them and is never eaten
+        Game game = new Game(6000, 10);
+        game.getFood().clear();
+        game.getFood().add(new Position(0, 5));
+        for (int i = 0; i < 200; i++) {
+            game.getSnake1().grow();
+            game.getSnake2().grow();
+            game.tick();
+        }
+
+        // stay below the 1000 rounds that unlock "The Survivor"
+        game.setNoEatCount1(0);
+        game.setNoEatCount2(0);
+        return game;
+    }
+
+    /**
+     * Returns the fewest bytes the current thread allocated in several rounds of
+     * 150 ticks of the given game, each followed by the round achievements if
+     * rounds is true
+     */
+    private static long measureAllocation(Game game, boolean rounds) {
+        ThreadMXBean bean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assertTrue(bean.isThreadAllocatedMemorySupported());
+        bean.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+
+        // the JIT may allocate a few bytes on this thread while it swaps in
+        // compiled code, so take the best of several rounds
+        long allocated = Long.MAX_VALUE;
+        for (int round = 0; round < 6; round++) {
+            long before = bean.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < 150; i++) {
+                game.tick();
+                if (rounds) {
+                    game.updateRoundAchievements();
+                }
+            }
+            allocated = Math.min(allocated, bean.getThreadAllocatedBytes(threadId) - before);
+        }
+        return allocated;
+    }
+}
@@ -0,0 +1,60 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import model.Game;
+import model.GameConfig;
+import model.GameRandom;
+
+public class GameRandomTest {
+    @Test
+    public void testSameSeedSameSequence() {
+        GameRandom first = new GameRandom(42);
+        GameRandom second = new GameRandom(42);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(first.nextLong(), second.nextLong());
+        }
+        assertEquals(42, first.getSeed());
+        assertNotEquals(new GameRandom(1).nextLong(), new GameRandom(2).nextLong());
+    }
+
+    @Test
+    public void testKnownValues() {
+        // reference values of SplitMix64 with seed 0
+        GameRandom random = new GameRandom(0);
+        assertEquals(0xE220A8397B1DCDAFL, random.nextLong());
+        assertEquals(0x6E789E6AA1B965F4L, random.nextLong());
+    }
+
+    @Test
+    public void testNextIntInBounds() {
+        GameRandom random = new GameRandom(7);
+        int[] counts = new int[5];
+        for (int i = 0; i < 10000; i++) {
+            int value = random.nextInt(5);
+            assertTrue(value >= 0 && value < 5);
+            counts[value]++;
+        }
+        for (int count : counts) {
+            assertTrue(count > 1800 && count < 2200);
+        }
+        assertEquals(0, random.nextInt(1));
+        int large = random.nextInt(Integer.MAX_VALUE);
+        assertTrue(large >= 0);
+    }
+
+    @Test
+    public void testSeededGamesAreEqual() {
+        Game first = new Game(30, 20, new GameConfig(10, 1234));
+        Game second = new Game(30, 20, new GameConfig(10, 1234));
+        assertEquals(1234, first.getConfig().getSeed());
+        for (int i = 0; i < 20; i++) {
+            first.spawnNewFood();
+            second.spawnNewFood();
+        }
+        assertEquals(first.getFood(), second.getFood());
+        assertEquals(first.getAchievements().toString(), second.getAchievements().toString());
+    }
+}
@@ -0,0 +1,63 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import model.Game;
+import model.GameSnapshot;
+import model.Position;
+import model.achievements.GeneralAchievement;
+import model.achievements.Stat;
+import persistence.JsonSaver;
+
+public class GameSnapshotTest {
+    private Game game;
+
+    @BeforeEach
+    void setUp() {
+        game = new Game(20, 20);
+        for (int i = 5; i < 10; i++) {
+            game.getSnake1().addBodyPart(new Position(i, 5));
+        }
+        game.setScore2(3);
+        game.getAchievements().getStat(Stat.KEY_STROKE, game.getSnake1()).setValue(7);
+        game.getAchievements().addAchievement(new GeneralAchievement("Winner", "Won", game.getSnake2()));
+    }
+
+    @Test
+    public void testSnapshotIsImmutable() {
+        JSONObject before = game.toJson();
+        GameSnapshot snapshot = game.snapshot();
+        assertTrue(before.similar(snapshot.toJson()));
+        for (int i = 0; i < 5; i++) {
+            game.tick();
+        }
+        game.getSnake1().addBodyPart(new Position(1, 2));
+        game.setScore2(10);
+        game.getAchievements().getStat(Stat.KEY_STROKE, game.getSnake1()).setValue(8);
+        assertTrue(before.similar(snapshot.toJson()));
+        assertFalse(before.similar(game.toJson()));
+    }
+
+    @Test
+    public void testWriteJsonMatchesToJson() throws IOException {
+        Path file = Files.createTempFile("snapshot", ".json");
+        try {
+            GameSnapshot snapshot = game.snapshot();
+            JsonSaver.writeJson(file.toString(), snapshot, false);
+            JSONObject written = new JSONObject(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+            assertTrue(snapshot.toJson().similar(written));
+            assertEquals(5, written.getJSONObject("snake1").getJSONArray("body").length());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -10,6 +10,7 @@ import org.junit.jupiter.api.Test;
 import model.Direction;
 
 import model.Game;
+import model.GameConfig;
 import model.Position;
 import model.Snake;
 
@@ -49,6 +50,18 @@ public class GameTest {
         assertFalse(game.isValidPosition(new Position(100, 100)));
     }
 
+    @Test
+    public void testOccupancyFollowsSnakes() {
+        game.getFood().clear();
+        game.getFood().add(new Position(4, 3));
+        game.tick();
+        assertTrue(game.isValidPosition(new Position(1, 1)));
+        assertFalse(game.isValidPosition(new Position(2, 1)));
+        assertFalse(game.isValidPosition(new Position(2, 5)));
+        assertTrue(game.getOccupancy().isOccupied(2, 1));
+        assertFalse(game.getOccupancy().isOccupied(1, 5));
+    }
+
     @Test
     public void testTick() {
         game.tick();
@@ -118,6 +131,25 @@ public class GameTest {
         }
     }
 
+    @Test
+    public void testEatFoodInFront() {
+        game.getFood().clear();
+        game.getFood().add(new Position(2, 1));
+        game.tick();
+        assertEquals(1, game.getScore1());
+        assertEquals(0, game.getScore2());
+        assertEquals(1, game.getSnake1().getBody().size());
+        assertEquals(1, game.getFood().size());
+        assertFalse(game.getFood().contains(new Position(2, 1)));
+        assertEquals(1, game.getAchievements().getAchievement("Apples Eaten", game.getSnake1()).getValue());
+
+        game.getFood().clear();
+        game.getFood().add(new Position(3, 5));
+        game.tick();
+        assertEquals(1, game.getScore2());
+        assertEquals(1, game.getSnake2().getBody().size());
+    }
+
     @Test
     public void testSpawnNewFood() {
         game.spawnNewFood();
@@ -136,6 +168,24 @@ public class GameTest {
         assertFalse(food.isEmpty());
     }
 
+    @Test
+    public void testSpawnFillsBoard() {
+        // 5 * 6 spawn cells, two taken by the snake heads
+        while (game.getFood().size() < 28) {
+            game.spawnNewFood();
+        }
+        game.spawnNewFood();
+        assertEquals(28, game.getFood().size());
+        for (Position pos : game.getFood()) {
+            assertFalse(game.getSnake1().hasCollided(pos));
+            assertFalse(game.getSnake2().hasCollided(pos));
+        }
+        assertFalse(game.isValidPosition(new Position(0, 0)));
+
+        game.getFood().clear();
+        assertTrue(game.isValidPosition(new Position(0, 0)));
+    }
+
     @Test
     public void testNoEatCount() {
         game.setNoEatCount1(10);
@@ -146,8 +196,19 @@ public class GameTest {
 
     @Test
     public void testChooseDifficulty() {
-        Game.setTicksPerSecond(10);
-        assertEquals(10, Game.getTicksPerSecond());
+        game.getConfig().setTicksPerSecond(15);
+        assertEquals(15, game.getConfig().getTicksPerSecond());
+        assertEquals(66, game.getConfig().getTickDelayMillis());
+    }
+
+    @Test
+    public void testIndependentConfigs() {
+        Game other = new Game(5, 6, new GameConfig(5));
+        game.getConfig().setTicksPerSecond(15);
+        assertEquals(5, other.getConfig().getTicksPerSecond());
+        assertEquals(200, other.getConfig().getTickDelayMillis());
+        assertEquals(GameConfig.DEFAULT_TICKS_PER_SECOND, new Game(5, 6).getConfig().getTicksPerSecond());
+        assertEquals(1000, new GameConfig(0).getTickDelayMillis());
     }
 
     @Test
@@ -354,7 +415,7 @@ public class GameTest {
 
     @Test
     public void testGameToJson() {
-        Game.setTicksPerSecond(5);
+        game.getConfig().setTicksPerSecond(5);
         JSONObject json = new JSONObject();
         json.put("snake1", game.getSnake1().toJson());
         json.put("snake2", game.getSnake2().toJson());
@@ -0,0 +1,74 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import headless.Controller;
+import headless.GreedyController;
+import headless.HeadlessRunner;
+import headless.SimulationResult;
+import model.Direction;
+import model.Game;
+import model.Position;
+
+public class HeadlessRunnerTest {
+    private static final Controller KEEP_DIRECTION = (game, snake) -> null;
+
+    @Test
+    public void testRunUntilWall() {
+        HeadlessRunner runner = new HeadlessRunner(() -> new Game(10, 10), () -> KEEP_DIRECTION,
+                () -> KEEP_DIRECTION, 1000);
+        SimulationResult result = runner.run();
+        // both snakes start at x = 1 and leave the board after x = 10
+        assertEquals(10, result.getTicks());
+        assertEquals(1, result.getGames());
+        assertEquals(1, result.getEndedGames());
+        assertTrue(result.getElapsedNanos() > 0);
+        assertTrue(result.getTicksPerSecond() > 0);
+    }
+
+    @Test
+    public void testTickLimit() {
+        HeadlessRunner runner = new HeadlessRunner(() -> new Game(10, 10), () -> KEEP_DIRECTION,
+                () -> KEEP_DIRECTION, 3);
+        SimulationResult result = runner.run();
+        assertEquals(3, result.getTicks());
+        assertEquals(0, result.getEndedGames());
+    }
+
+    @Test
+    public void testRunParallel() {
+        HeadlessRunner runner = new HeadlessRunner(() -> new Game(20, 20), GreedyController::new,
+                GreedyController::new, 500);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        SimulationResult result;
+        try {
+            result = runner.runParallel(16, pool);
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(16, result.getGames());
+        assertTrue(result.getTicks() >= 16);
+        assertTrue(result.getTicks() <= 16 * 500);
+        assertTrue(result.toString().contains("Games: 16"));
+    }
+
+    @Test
+    public void testGreedyController() {
+        Game game = new Game(10, 10);
+        game.getFood().clear();
+        game.getFood().add(new Position(1, 4));
+        // snake 1 at (1, 1) should head down towards the food
+        assertEquals(Direction.DOWN, new GreedyController().nextDirection(game, game.getSnake1()));
+
+        // surrounded by the wall and snake 2: nowhere to go
+        Game corner = new Game(1, 2);
+        corner.getSnake1().setHead(new Position(0, 0));
+        corner.getSnake2().setHead(new Position(1, 0));
+        corner.getSnake2().addBodyPart(new Position(0, 1));
+        assertNull(new GreedyController().nextDirection(corner, corner.getSnake1()));
+    }
+}
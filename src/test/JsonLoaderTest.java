@@ -1,17 +1,28 @@
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Scanner;
 
+import org.json.JSONException;
 import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import model.Direction;
 import model.Game;
+import model.Position;
 import model.Snake;
+import model.achievements.Stat;
 import persistence.JsonLoader;
+import persistence.JsonSaver;
 
 public class JsonLoaderTest {
     String jsonStr;
@@ -41,7 +52,7 @@ public class JsonLoaderTest {
         assertEquals(14, game.getAchievements().getAchievements().size());
         assertEquals(0, game.getScore1());
         assertEquals(0, game.getScore2());
-        assertEquals(0, Game.getTicksPerSecond());
+        assertEquals(0, game.getConfig().getTicksPerSecond());
         assertEquals(1, snake1.getHead().getPosX());
         assertEquals(1, snake1.getHead().getPosY());
         assertEquals(2, snake1.getBody().size());
@@ -61,6 +72,62 @@ public class JsonLoaderTest {
         assertFalse(JsonLoader.loadGame("data/invalid::://\\GameSave.json", game, snake1, snake2));
     }
 
+    @Test
+    void testLoadSavedGame() throws Exception {
+        Game saved = new Game(40, 40);
+        for (int i = 0; i < 30; i++) {
+            saved.getSnake1().addBodyPart(new Position(i, 20));
+            saved.getSnake2().addBodyPart(new Position(i, 30));
+        }
+        saved.getSnake2().setDirection(Direction.UP);
+        saved.setScore1(7);
+        saved.setNoEatCount2(3);
+        saved.getAchievements().getStat(Stat.STEP_UPWARDS, saved.getSnake1()).setValue(12.5);
+        Path file = Files.createTempFile("saved", ".json");
+        try {
+            assertTrue(JsonSaver.saveGame(file.toString(), saved));
+
+            Game game = new Game(40, 40);
+            assertTrue(JsonLoader.loadGame(file.toString(), game, game.getSnake1(), game.getSnake2()));
+            assertEquals(saved.getSnake1().getBody(), game.getSnake1().getBody());
+            assertEquals(saved.getSnake2().getBody(), game.getSnake2().getBody());
+            assertEquals(Direction.UP, game.getSnake2().getDirection());
+            assertEquals(7, game.getScore1());
+            assertEquals(3, game.getNoEatCount2());
+            assertEquals(12.5, game.getAchievements().getStat(Stat.STEP_UPWARDS, game.getSnake1()).getValue());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void testLoadMatchesUpdateGame() throws Exception {
+        for (String path : new String[] { "data/testGameSave.json", "data/testGeneralAchievementSave.json" }) {
+            // new games spawn food at random
+            Game streamed = new Game(10, 10);
+            streamed.getFood().clear();
+            JsonLoader.loadGame(path, streamed, streamed.getSnake1(), streamed.getSnake2());
+            Game fromTree = new Game(10, 10);
+            fromTree.getFood().clear();
+            JsonLoader.updateGame(fromTree, fromTree.getSnake1(), fromTree.getSnake2(),
+                    new JSONObject(new String(Files.readAllBytes(Paths.get(path)), StandardCharsets.UTF_8)));
+            assertTrue(fromTree.toJson().similar(streamed.toJson()));
+        }
+    }
+
+    @Test
+    void testLoadMalformed() throws Exception {
+        Path file = Files.createTempFile("malformed", ".json");
+        try {
+            Files.write(file, "{\"score1\": 1,".getBytes(StandardCharsets.UTF_8));
+            Game game = new Game(10, 10);
+            assertThrows(JSONException.class,
+                    () -> JsonLoader.loadGame(file.toString(), game, game.getSnake1(), game.getSnake2()));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
     @Test
     void testLoadGeneralAchievement() {
         // read from data/testGeneralAchievementSave.json
@@ -0,0 +1,101 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.json.JSONException;
+import org.junit.jupiter.api.Test;
+
+import persistence.JsonPullParser;
+import persistence.JsonPullParser.Token;
+
+public class JsonPullParserTest {
+
+    private static JsonPullParser parser(String json) {
+        return new JsonPullParser(ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testTokens() {
+        JsonPullParser parser = parser(" {\"a\": [1, -2.5, \"x\", true, false, null], \"b\" :{}}\n");
+        assertEquals(Token.BEGIN_OBJECT, parser.peek());
+        parser.beginObject();
+        assertEquals(Token.NAME, parser.peek());
+        assertEquals("a", parser.nextName());
+        parser.beginArray();
+        assertEquals(1, parser.nextInt());
+        assertEquals(-2.5, parser.nextDouble());
+        assertEquals(Token.STRING, parser.peek());
+        assertEquals("x", parser.nextString());
+        assertTrue(parser.nextBoolean());
+        assertFalse(parser.nextBoolean());
+        assertEquals(Token.NULL, parser.peek());
+        parser.nextNull();
+        assertFalse(parser.hasNext());
+        parser.endArray();
+        assertEquals("b", parser.nextName());
+        parser.beginObject();
+        assertFalse(parser.hasNext());
+        parser.endObject();
+        parser.endObject();
+        assertEquals(Token.END_DOCUMENT, parser.peek());
+    }
+
+    @Test
+    public void testNumbers() {
+        JsonPullParser parser = parser("[0, -17, 12345678901234, 3.0, 1e3, 0.25]");
+        parser.beginArray();
+        assertEquals(0, parser.nextInt());
+        assertEquals(-17, parser.nextInt());
+        assertEquals(12345678901234L, parser.nextLong());
+        assertEquals(3, parser.nextInt());
+        assertEquals(1000, parser.nextLong());
+        assertThrows(JSONException.class, parser::nextInt);
+        parser.endArray();
+        assertThrows(JSONException.class, () -> parser("12345678901").nextInt());
+    }
+
+    @Test
+    public void testStrings() {
+        JsonPullParser parser = parser("[\"tab\\there \\\"q\\\" \\\\ \\/ \\u00e9\", \"\u00fcber \ud83d\udc0d\"]");
+        parser.beginArray();
+        assertEquals("tab\there \"q\" \\ / \u00e9", parser.nextString());
+        assertEquals("\u00fcber \ud83d\udc0d", parser.nextString());
+        parser.endArray();
+    }
+
+    @Test
+    public void testSkipValue() {
+        JsonPullParser parser = parser("{\"skip\": {\"a\": [1, {\"b\": null}], \"c\": \"d\"}, \"keep\": 5}");
+        parser.beginObject();
+        assertEquals("skip", parser.nextName());
+        parser.skipValue();
+        assertEquals("keep", parser.nextName());
+        assertEquals(5, parser.nextInt());
+        parser.endObject();
+        assertEquals(Token.END_DOCUMENT, parser.peek());
+    }
+
+    @Test
+    public void testMalformed() {
+        assertThrows(JSONException.class, () -> readAll("{\"a\" 1}"));
+        assertThrows(JSONException.class, () -> readAll("[1 2]"));
+        assertThrows(JSONException.class, () -> readAll("[1,"));
+        assertThrows(JSONException.class, () -> readAll("{\"a\": \"open"));
+        assertThrows(JSONException.class, () -> readAll("[1]]"));
+        assertThrows(JSONException.class, () -> readAll("{\"a\": 1]"));
+        assertThrows(JSONException.class, () -> readAll("[1] [2]"));
+        assertThrows(JSONException.class, () -> readAll("[nul]"));
+        assertThrows(JSONException.class, () -> readAll("[?]"));
+        assertThrows(JSONException.class, () -> parser("{\"a\": 1}").nextName());
+    }
+
+    private static void readAll(String json) {
+        JsonPullParser parser = parser(json);
+        parser.skipValue();
+        parser.skipValue();
+    }
+}
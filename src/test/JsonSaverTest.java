@@ -1,17 +1,24 @@
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
+import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import model.Game;
+import model.achievements.GeneralAchievement;
 import persistence.JsonSaver;
+import persistence.Jsonizable;
 
 public class JsonSaverTest {
     Game game;
@@ -33,12 +40,49 @@ public class JsonSaverTest {
                 sb.append((char) reader.read());
             }
             String fileContents = sb.toString();
-            assertEquals(fileContents, game.getSnake1().toJson().toString(4));
+            assertTrue(new JSONObject(fileContents).similar(game.getSnake1().toJson()));
+            assertFalse(fileContents.contains("\n"));
         } catch (IOException e) {
             fail("IOException should not have been thrown");
         }
     }
 
+    @Test
+    public void testSavePretty() throws IOException {
+        assertTrue(JsonSaver.saveGame("data/testSnakeSave.json", game.getSnake1(), true));
+        String fileContents = new String(Files.readAllBytes(Paths.get("data/testSnakeSave.json")),
+                StandardCharsets.UTF_8);
+        assertTrue(new JSONObject(fileContents).similar(game.getSnake1().toJson()));
+        assertTrue(fileContents.startsWith("{\n    \""));
+        assertTrue(fileContents.contains("\"head\": {\n        \"posX\": 1,\n        \"posY\": 1\n    },"));
+        assertTrue(fileContents.contains("\"body\": [],"));
+    }
+
+    @Test
+    public void testSaveWholeGame() throws IOException {
+        for (int i = 0; i < 20; i++) {
+            game.tick();
+        }
+        game.getAchievements().addAchievement(new GeneralAchievement("\u00dcber \"Snake\"", "a\tb",
+                game.getSnake2()));
+        for (boolean pretty : new boolean[] { false, true }) {
+            assertTrue(JsonSaver.saveGame("data/testSnakeSave.json", game, pretty));
+            String fileContents = new String(Files.readAllBytes(Paths.get("data/testSnakeSave.json")),
+                    StandardCharsets.UTF_8);
+            assertTrue(new JSONObject(fileContents).similar(game.toJson()));
+        }
+    }
+
+    @Test
+    public void testSaveWithoutWriteJson() throws IOException {
+        // objects that only implement toJson are written from their JSON tree
+        Jsonizable toSave = () -> new JSONObject().put("empty", new JSONObject());
+        assertTrue(JsonSaver.saveGame("data/testSnakeSave.json", toSave, true));
+        String fileContents = new String(Files.readAllBytes(Paths.get("data/testSnakeSave.json")),
+                StandardCharsets.UTF_8);
+        assertEquals("{\"empty\":{}}", fileContents);
+    }
+
     @Test
     public void testSaveWithException() {
         boolean res = JsonSaver.saveGame("data/illegal:\"\"\0path.json", game);
@@ -0,0 +1,89 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import model.Direction;
+import model.OccupancyGrid;
+import model.Position;
+import model.Snake;
+
+public class OccupancyGridTest {
+    private OccupancyGrid grid;
+
+    @BeforeEach
+    public void setUp() {
+        grid = new OccupancyGrid(4, 3, 2);
+    }
+
+    @Test
+    public void testContains() {
+        assertTrue(grid.contains(0, 0));
+        assertTrue(grid.contains(3, 2));
+        assertFalse(grid.contains(4, 2));
+        assertFalse(grid.contains(3, 3));
+        assertFalse(grid.contains(-1, 0));
+        assertEquals(4, grid.getWidth());
+        assertEquals(3, grid.getHeight());
+    }
+
+    @Test
+    public void testOccupyAndVacate() {
+        grid.occupy(0, 1, 2);
+        grid.occupy(0, 1, 2);
+        grid.occupy(1, 3, 0);
+        assertEquals(2, grid.count(0, 1, 2));
+        assertEquals(0, grid.count(1, 1, 2));
+        assertTrue(grid.isOccupied(1, 2));
+        assertTrue(grid.isOccupied(3, 0));
+
+        grid.vacate(0, 1, 2);
+        assertTrue(grid.isOccupied(1, 2));
+        grid.vacate(0, 1, 2);
+        assertFalse(grid.isOccupied(1, 2));
+        assertFalse(grid.isOccupied(10, 10));
+    }
+
+    @Test
+    public void testSnakeOnGrid() {
+        Snake snake = new Snake(0, 0, "a", grid, 1);
+        assertEquals(1, grid.count(1, 0, 0));
+        snake.grow();
+        snake.move();
+        snake.move();
+        // head at (2, 0), body covers (1, 0)
+        assertFalse(grid.isOccupied(0, 0));
+        assertTrue(grid.isOccupied(1, 0));
+        assertTrue(grid.isOccupied(2, 0));
+        assertTrue(snake.hasCollided(new Position(1, 0)));
+        assertFalse(snake.hasCollidedWithSelf());
+
+        snake.setHead(new Position(1, 0));
+        assertFalse(grid.isOccupied(2, 0));
+        assertEquals(2, grid.count(1, 1, 0));
+        assertTrue(snake.hasCollidedWithSelf());
+    }
+
+    @Test
+    public void testSnakeLeavesGrid() {
+        Snake snake = new Snake(3, 1, "a", grid, 0);
+        snake.grow();
+        snake.move();
+        snake.grow();
+        snake.move();
+        // head at (5, 1), body covers (3, 1) and (4, 1)
+        assertTrue(snake.hasCollided(new Position(5, 1)));
+        assertTrue(snake.hasCollided(new Position(4, 1)));
+        assertTrue(snake.hasCollided(new Position(3, 1)));
+        assertFalse(snake.hasCollided(new Position(6, 1)));
+        assertFalse(snake.hasCollidedWithSelf());
+
+        snake.setDirection(Direction.LEFT);
+        snake.move();
+        assertTrue(snake.hasCollidedWithSelf());
+        assertFalse(snake.hasCollided(new Position(3, 1)));
+        assertFalse(grid.isOccupied(3, 1));
+    }
+}
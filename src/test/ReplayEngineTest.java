@@ -0,0 +1,177 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import headless.GreedyController;
+import headless.ReplayEngine;
+import headless.SimulationResult;
+import model.Direction;
+import model.Game;
+import model.GameConfig;
+import model.Snake;
+import persistence.InputLog;
+import persistence.InputRecorder;
+
+public class ReplayEngineTest {
+    private static void assertSameGame(Game expected, Game actual) {
+        assertTrue(expected.toJson().similar(actual.toJson()));
+        assertArrayEquals(expected.getSnake1().copyBodyCells(), actual.getSnake1().copyBodyCells());
+        assertArrayEquals(expected.getSnake2().copyBodyCells(), actual.getSnake2().copyBodyCells());
+        assertEquals(expected.getFood(), actual.getFood());
+    }
+
+    private static void steer(Snake snake, Direction direction) {
+        if (direction != null) {
+            snake.setDirection(direction);
+        }
+    }
+
+    // plays a game with greedy bots, recording it, and returns the recording
+    private static byte[] record(Game game, long maxTicks, boolean close) throws IOException {
+        return record(game, maxTicks, close, InputRecorder.DEFAULT_KEYFRAME_TICKS);
+    }
+
+    private static byte[] record(Game game, long maxTicks, boolean close, int keyframeInterval)
+            throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        InputRecorder recorder = new InputRecorder(out, game, keyframeInterval);
+        GreedyController bot1 = new GreedyController();
+        GreedyController bot2 = new GreedyController();
+        for (long tick = 0; tick < maxTicks && !game.isEnded(); tick++) {
+            steer(game.getSnake1(), bot1.nextDirection(game, game.getSnake1()));
+            steer(game.getSnake2(), bot2.nextDirection(game, game.getSnake2()));
+            recorder.beforeTick(game);
+            game.tick();
+            game.updateRoundAchievements();
+        }
+        assertEquals(game.isEnded() ? recorder.getTicks() : maxTicks, recorder.getTicks());
+        if (close) {
+            recorder.close();
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testReplayRecordedGame() throws IOException {
+        Game game = new Game(30, 20, new GameConfig(10, 99));
+        byte[] recording = record(game, 500, true);
+        InputLog log = InputLog.decode(ByteBuffer.wrap(recording));
+        assertEquals(99, log.getSeed());
+        assertTrue(log.getInputCount() > 2);
+        assertTrue(log.getTicks() > 0);
+        assertTrue(game.getScore1() + game.getScore2() > 0);
+        // a few bytes per input
+        assertTrue(recording.length < 28 + 4 * log.getInputCount() + 8);
+        assertSameGame(game, new ReplayEngine(log).replay());
+    }
+
+    @Test
+    public void testReplayRunner() throws IOException {
+        Game game = new Game(30, 20, new GameConfig(10, 5));
+        InputLog log = InputLog.decode(ByteBuffer.wrap(record(game, 300, true)));
+        SimulationResult result = new ReplayEngine(log).newRunner().runParallel(4);
+        assertEquals(4, result.getGames());
+        assertEquals(4 * log.getTicks(), result.getTicks());
+        assertEquals(4L * game.getScore1(), result.getScore1());
+    }
+
+    @Test
+    public void testLogWithoutEnd() throws IOException {
+        Game game = new Game(30, 20, new GameConfig(10, 17));
+        byte[] recording = record(game, 200, false);
+        InputLog log = InputLog.decode(ByteBuffer.wrap(recording));
+        assertEquals(-1, log.getTicks());
+        // an input cut short is dropped
+        InputLog cut = InputLog.decode(ByteBuffer.wrap(Arrays.copyOf(recording, recording.length - 1)));
+        assertEquals(log.getInputCount() - 1, cut.getInputCount());
+        assertEquals(log.getInputDirection(0), cut.getInputDirection(0));
+    }
+
+    @Test
+    public void testInputsAtTicks() throws IOException {
+        Game game = new Game(30, 20, new GameConfig(10, 3));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputRecorder recorder = new InputRecorder(out, game)) {
+            recorder.beforeTick(game);
+            game.tick();
+            game.updateRoundAchievements();
+            game.getSnake2().setDirection(Direction.UP);
+            recorder.beforeTick(game);
+            game.tick();
+            game.updateRoundAchievements();
+        }
+        InputLog log = InputLog.decode(ByteBuffer.wrap(out.toByteArray()));
+        // both directions are recorded before the first tick
+        assertEquals(3, log.getInputCount());
+        assertEquals(0, log.getInputTick(1));
+        assertEquals(1, log.getInputTick(2));
+        assertEquals(1, log.getInputSnake(2));
+        assertEquals(Direction.UP, log.getInputDirection(2));
+        assertEquals(2, log.getTicks());
+        assertSameGame(game, new ReplayEngine(log).replay());
+    }
+
+    @Test
+    public void testSeek() throws IOException {
+        Game game = new Game(30, 20, new GameConfig(10, 42));
+        InputLog log = InputLog.decode(ByteBuffer.wrap(record(game, 400, true, 50)));
+        assertEquals((log.getTicks() - 1) / 50, log.getKeyframeCount());
+        assertEquals(50, log.getKeyframeTick(0));
+        ReplayEngine engine = new ReplayEngine(log);
+        for (long tick : new long[] {0, 1, 49, 50, 51, 123, 250, log.getTicks() - 1}) {
+            Game expected = log.newGame();
+            engine.advance(expected, 0, tick);
+            assertSameGame(expected, engine.seek(tick));
+        }
+        // past the end is the end
+        assertSameGame(game, engine.seek(log.getTicks() + 100));
+        assertSameGame(game, engine.seek(log.getTicks()));
+    }
+
+    @Test
+    public void testKeyframeGoesOn() throws IOException {
+        Game game = new Game(30, 20, new GameConfig(10, 8));
+        InputLog log = InputLog.decode(ByteBuffer.wrap(record(game, 300, true, 100)));
+        ReplayEngine engine = new ReplayEngine(log);
+        Game keyframe = log.loadKeyframe(log.findKeyframe(150));
+        assertEquals(100, log.getKeyframeTick(log.findKeyframe(150)));
+        assertEquals(-1, log.findKeyframe(99));
+        engine.advance(keyframe, 100, log.getTicks());
+        assertSameGame(game, keyframe);
+        assertEquals(game.isEnded(), keyframe.isEnded());
+    }
+
+    @Test
+    public void testKeyframesWithoutIndex() throws IOException {
+        Game game = new Game(30, 20, new GameConfig(10, 5));
+        byte[] recording = record(game, 230, false, 40);
+        InputLog log = InputLog.decode(ByteBuffer.wrap(recording));
+        assertEquals(-1, log.getTicks());
+        // the keyframes are found while reading the inputs
+        assertEquals(5, log.getKeyframeCount());
+        assertEquals(200, log.getKeyframeTick(4));
+        Game expected = log.newGame();
+        ReplayEngine engine = new ReplayEngine(log);
+        engine.advance(expected, 0, 210);
+        assertSameGame(expected, engine.seek(210));
+        // a keyframe cut short ends the log
+        int cut = recording.length;
+        while (InputLog.decode(ByteBuffer.wrap(Arrays.copyOf(recording, cut))).getKeyframeCount() == 5) {
+            cut--;
+        }
+        assertEquals(4, InputLog.decode(ByteBuffer.wrap(Arrays.copyOf(recording, cut))).getKeyframeCount());
+    }
+
+    @Test
+    public void testNotAnInputLog() {
+        assertThrows(IOException.class, () -> InputLog.decode(ByteBuffer.wrap(new byte[40])));
+    }
+}
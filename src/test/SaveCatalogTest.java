@@ -0,0 +1,168 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import model.Game;
+import model.Position;
+import persistence.SaveCatalog;
+import persistence.SaveCodec;
+import persistence.SaveSlot;
+
+public class SaveCatalogTest {
+    private Path dir;
+    private SaveCatalog catalog;
+    private Game game;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("catalog");
+        catalog = new SaveCatalog(dir.resolve("saves").toString(), SaveCodec.FAST);
+        game = new Game(40, 30);
+        game.getSnake1().addBodyPart(new Position(2, 1));
+        game.getSnake1().addBodyPart(new Position(3, 1));
+        game.setScore1(5);
+        game.setScore2(2);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toArray(Path[]::new)) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void testSaveAndList() throws IOException {
+        assertTrue(catalog.list().isEmpty());
+        SaveSlot first = catalog.save("first", game);
+        game.tick();
+        game.updateRoundAchievements();
+        game.setScore2(9);
+        catalog.save(SaveSlot.describe("second", game, first.getTimestamp() + 1000), game);
+        List<SaveSlot> slots = catalog.list();
+        assertEquals(2, slots.size());
+        // the newest first
+        SaveSlot second = slots.get(0);
+        assertEquals("second", second.getName());
+        assertEquals(5, second.getScore1());
+        assertEquals(9, second.getScore2());
+        assertEquals(40, second.getWidth());
+        assertEquals(30, second.getHeight());
+        assertEquals(1, second.getTicks());
+        assertEquals(3, second.getLength1());
+        assertEquals(1, second.getLength2());
+        assertEquals("first", slots.get(1).getName());
+        assertEquals(0, slots.get(1).getTicks());
+        assertTrue(second.toString().startsWith("second ("));
+    }
+
+    @Test
+    public void testReplaceLoadAndDelete() throws IOException {
+        catalog.save("slot", game);
+        game.setScore1(11);
+        catalog.save("slot", game);
+        assertEquals(1, catalog.list().size());
+        assertEquals(11, catalog.list().get(0).getScore1());
+        Game loaded = new Game(40, 30);
+        assertTrue(catalog.load("slot", loaded));
+        assertEquals(11, loaded.getScore1());
+        assertEquals(game.getSnake1().getBody(), loaded.getSnake1().getBody());
+        assertTrue(catalog.delete("slot"));
+        assertFalse(catalog.delete("slot"));
+        assertTrue(catalog.list().isEmpty());
+        assertFalse(catalog.load("slot", loaded));
+    }
+
+    @Test
+    public void testListReadsOnlyIndex() throws IOException {
+        catalog.save("slot", game);
+        // a save that cannot be parsed does not matter for listing
+        Files.write(dir.resolve("saves").resolve("slot.json"), new byte[] { '{' });
+        assertEquals(5, catalog.list().get(0).getScore1());
+        Files.write(dir.resolve("saves").resolve("catalog.idx"), new byte[] { 1, 2, 3 });
+        assertThrows(IOException.class, () -> catalog.list());
+    }
+
+    @Test
+    public void testInvalidName() {
+        assertThrows(IllegalArgumentException.class, () -> catalog.save("../escape", game));
+        assertThrows(IllegalArgumentException.class, () -> catalog.save("", game));
+    }
+
+    @Test
+    public void testConcurrentSaves() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> saves = new ArrayList<>();
+        try {
+            for (int i = 0; i < 40; i++) {
+                String name = "slot" + i;
+                // each thread saves its own game, as the catalogs of separate windows would
+                Game own = new Game(40, 30);
+                own.setScore1(i);
+                saves.add(pool.submit(() -> new SaveCatalog(dir.resolve("saves").toString(), SaveCodec.PLAIN)
+                        .save(name, own)));
+            }
+            for (Future<?> save : saves) {
+                save.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        List<SaveSlot> slots = catalog.list();
+        assertEquals(40, slots.size());
+        for (SaveSlot slot : slots) {
+            assertEquals(slot.getName(), "slot" + slot.getScore1());
+        }
+    }
+
+    @Test
+    public void testSaveNewNamesAreUnique() throws IOException {
+        // saves in the same millisecond get a suffix instead of replacing each other
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            game.setScore1(i);
+            names.add(catalog.saveNew(game).getName());
+        }
+        assertEquals(20, names.stream().distinct().count());
+        List<SaveSlot> slots = catalog.list();
+        assertEquals(20, slots.size());
+        for (SaveSlot slot : slots) {
+            Game loaded = new Game(40, 30);
+            assertTrue(catalog.load(slot.getName(), loaded));
+            assertEquals(slot.getScore1(), loaded.getScore1());
+        }
+    }
+
+    @Test
+    public void testSaveNewInBackground() throws IOException {
+        CompletableFuture<SaveSlot> save = catalog.saveNewInBackground(game);
+        // the game goes on while it is saved; the save is of the game when it was started
+        game.setScore1(50);
+        SaveSlot slot = save.join();
+        assertEquals(5, slot.getScore1());
+        assertEquals(slot.getName(), catalog.list().get(0).getName());
+        Game loaded = new Game(40, 30);
+        assertTrue(catalog.load(slot.getName(), loaded));
+        assertEquals(5, loaded.getScore1());
+        assertEquals(slot.getLength1() - 1, loaded.getSnake1().getBody().size());
+    }
+}
@@ -0,0 +1,145 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import model.Direction;
+import model.Game;
+import model.GameConfig;
+import model.Position;
+import persistence.InputLog;
+import persistence.InputRecorder;
+import persistence.JsonLoader;
+import persistence.JsonPullParser;
+import persistence.JsonSaver;
+import persistence.SaveCodec;
+
+public class SaveCodecTest {
+    private Path dir;
+    private Game game;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("codec");
+        game = new Game(300, 300);
+        // long enough that the JSON does not fit into the buffer of the parser
+        for (int y = 2; y < 290; y++) {
+            for (int x = 10; x < 20; x++) {
+                game.getSnake2().addBodyPart(new Position(x, y));
+            }
+        }
+        game.setScore1(42);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (Path file : Files.list(dir).toArray(Path[]::new)) {
+            Files.delete(file);
+        }
+        Files.delete(dir);
+    }
+
+    private static byte[] compress(SaveCodec codec, byte[] data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = codec.compress(bytes)) {
+            out.write(data);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        byte[] data = game.toJson().toString().getBytes(StandardCharsets.UTF_8);
+        for (SaveCodec codec : SaveCodec.values()) {
+            byte[] compressed = compress(codec, data);
+            assertEquals(codec, SaveCodec.detect(compressed, compressed.length));
+            try (InputStream in = SaveCodec.decompress(new ByteArrayInputStream(compressed))) {
+                assertArrayEquals(data, in.readAllBytes());
+            }
+        }
+        assertEquals(SaveCodec.PLAIN, SaveCodec.detect(new byte[] { '{' }, 1));
+        assertEquals(SaveCodec.PLAIN, SaveCodec.detect(new byte[0], 0));
+    }
+
+    @Test
+    public void testSaveAndLoadCompressed() throws IOException {
+        long plainSize = 0;
+        for (SaveCodec codec : SaveCodec.values()) {
+            Path file = dir.resolve(codec + ".json");
+            assertTrue(JsonSaver.saveGame(file.toString(), game, true, codec));
+            if (codec == SaveCodec.PLAIN) {
+                plainSize = Files.size(file);
+            } else {
+                // the repeated keys of the body segments compress well
+                assertTrue(Files.size(file) * 10 < plainSize);
+            }
+            Game loaded = new Game(300, 300);
+            loaded.getFood().clear();
+            assertTrue(JsonLoader.loadGame(file.toString(), loaded, loaded.getSnake1(), loaded.getSnake2()));
+            assertEquals(game.getSnake2().getBody(), loaded.getSnake2().getBody());
+            assertEquals(42, loaded.getScore1());
+        }
+    }
+
+    @Test
+    public void testParserRefills() throws IOException {
+        byte[] data = "{\"a\": [12345678901234567, \"\\u00e9t\\u00e9\", 1.5e3, true]}"
+                .getBytes(StandardCharsets.UTF_8);
+        // one byte at a time, so that every token spans a refill
+        InputStream slow = new ByteArrayInputStream(data) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1));
+            }
+        };
+        try (JsonPullParser parser = new JsonPullParser(Channels.newChannel(slow))) {
+            parser.beginObject();
+            assertEquals("a", parser.nextName());
+            parser.beginArray();
+            assertEquals(12345678901234567L, parser.nextLong());
+            assertEquals("\u00e9t\u00e9", parser.nextString());
+            assertEquals(1500, parser.nextLong());
+            assertTrue(parser.nextBoolean());
+            parser.endArray();
+            parser.endObject();
+        }
+    }
+
+    @Test
+    public void testCompressedReplay() throws IOException {
+        Path file = dir.resolve("replay.snkr");
+        Game recorded = new Game(30, 20, new GameConfig(10, 7));
+        InputRecorder recorder = new InputRecorder(file.toString(), recorded, SaveCodec.FAST);
+        for (int tick = 0; tick < 20; tick++) {
+            if (tick == 5) {
+                recorded.getSnake2().setDirection(Direction.UP);
+            }
+            recorder.beforeTick(recorded);
+            recorded.tick();
+        }
+        // every input is flushed, so a crash keeps what was recorded
+        InputLog unclosed = InputLog.read(file.toString());
+        assertEquals(-1, unclosed.getTicks());
+        assertEquals(3, unclosed.getInputCount());
+        recorder.close();
+        byte[] bytes = Files.readAllBytes(file);
+        assertEquals(SaveCodec.FAST, SaveCodec.detect(bytes, bytes.length));
+        assertEquals(20, InputLog.read(file.toString()).getTicks());
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+        assertEquals(3, InputLog.read(file.toString()).getInputCount());
+    }
+}
@@ -0,0 +1,253 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import model.Direction;
+import model.Game;
+import model.Position;
+import model.achievements.GeneralAchievement;
+import model.achievements.Stat;
+import persistence.PendingAchievements;
+import persistence.SaveJournal;
+
+public class SaveJournalTest {
+    private Path dir;
+    private String path;
+    private Path journalPath;
+    private Game game;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("journal");
+        path = dir.resolve("save.snk").toString();
+        journalPath = SaveJournal.journalPath(path);
+        game = new Game(300, 20);
+        game.getFood().clear();
+        // in the way of the first snake, so that it grows
+        game.getFood().add(new Position(4, 1));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (Path file : Files.list(dir).toArray(Path[]::new)) {
+            Files.delete(file);
+        }
+        Files.delete(dir);
+    }
+
+    private void tick(SaveJournal journal) throws IOException {
+        game.tick();
+        game.updateRoundAchievements();
+        journal.record(game);
+    }
+
+    private static void assertSameGame(Game expected, Game actual) {
+        assertTrue(expected.toJson().similar(actual.toJson()));
+        assertArrayEquals(expected.getSnake1().copyBodyCells(), actual.getSnake1().copyBodyCells());
+        assertArrayEquals(expected.getSnake2().copyBodyCells(), actual.getSnake2().copyBodyCells());
+        assertEquals(expected.getFood(), actual.getFood());
+        assertEquals(expected.getAchievements().toString(), actual.getAchievements().toString());
+    }
+
+    @Test
+    public void testReplayJournal() throws IOException {
+        try (SaveJournal journal = new SaveJournal(path, 1000)) {
+            for (int i = 0; i < 50; i++) {
+                if (i == 20) {
+                    game.getSnake2().setDirection(Direction.UP);
+                } else if (i == 25) {
+                    game.getSnake2().setDirection(Direction.RIGHT);
+                }
+                tick(journal);
+            }
+            assertEquals(1, journal.getCheckpointCount());
+        }
+        assertTrue(game.getScore1() > 0);
+        assertTrue(game.getSnake1().getBody().size() > 0);
+        assertSameGame(game, SaveJournal.load(path));
+    }
+
+    @Test
+    public void testRecordSizeIndependentOfLength() throws IOException {
+        for (int x = 100; x < 250; x++) {
+            game.getSnake2().addBodyPart(new Position(x, 10));
+        }
+        try (SaveJournal journal = new SaveJournal(path, 1000)) {
+            tick(journal);
+            tick(journal);
+            long before = Files.size(journalPath);
+            tick(journal);
+            assertTrue(Files.size(journalPath) - before < 100);
+        }
+    }
+
+    @Test
+    public void testCheckpointInterval() throws IOException {
+        try (SaveJournal journal = new SaveJournal(path, 10)) {
+            for (int i = 0; i < 25; i++) {
+                tick(journal);
+            }
+            // the first record, then after every 10 records
+            assertEquals(3, journal.getCheckpointCount());
+        }
+        assertSameGame(game, SaveJournal.load(path));
+    }
+
+    @Test
+    public void testCheckpointWhenNotATick() throws IOException {
+        try (SaveJournal journal = new SaveJournal(path, 1000)) {
+            tick(journal);
+            tick(journal);
+            game.getAchievements().addAchievement(new GeneralAchievement("Winner", "Won", game.getSnake1()));
+            tick(journal);
+            assertEquals(2, journal.getCheckpointCount());
+            game.getSnake2().addBodyPart(new Position(50, 5));
+            journal.record(game);
+            assertEquals(3, journal.getCheckpointCount());
+            tick(journal);
+            assertEquals(3, journal.getCheckpointCount());
+        }
+        assertSameGame(game, SaveJournal.load(path));
+    }
+
+    @Test
+    public void testTornRecord() throws IOException {
+        JSONObject previous;
+        try (SaveJournal journal = new SaveJournal(path, 1000)) {
+            for (int i = 0; i < 10; i++) {
+                tick(journal);
+            }
+            previous = game.toJson();
+            tick(journal);
+        }
+        byte[] bytes = Files.readAllBytes(journalPath);
+        Files.write(journalPath, Arrays.copyOf(bytes, bytes.length - 3));
+        // the record of the last tick is lost, the others are replayed
+        assertTrue(previous.similar(SaveJournal.load(path).toJson()));
+    }
+
+    @Test
+    public void testStaleJournalIgnored() throws IOException {
+        byte[] stale;
+        try (SaveJournal journal = new SaveJournal(path, 1000)) {
+            for (int i = 0; i < 5; i++) {
+                tick(journal);
+            }
+            stale = Files.readAllBytes(journalPath);
+            journal.checkpoint(game);
+        }
+        // as if a crash happened between writing the checkpoint and its journal
+        Files.write(journalPath, stale);
+        assertSameGame(game, SaveJournal.load(path));
+    }
+
+    @Test
+    public void testWritesInBackground() throws IOException {
+        try (SaveJournal journal = new SaveJournal(path, 10, true)) {
+            for (int i = 0; i < 25; i++) {
+                tick(journal);
+            }
+            assertEquals(3, journal.getCheckpointCount());
+        }
+        // closing waits until everything is written
+        assertSameGame(game, SaveJournal.load(path));
+        // an error of the background thread is reported by a later save
+        SaveJournal failing = new SaveJournal(dir.resolve("missing").resolve("save.snk").toString(), 10, true);
+        assertThrows(IOException.class, () -> {
+            try {
+                for (int i = 0; i < 5; i++) {
+                    tick(failing);
+                }
+            } finally {
+                failing.close();
+            }
+        });
+    }
+
+    @Test
+    public void testDiscard() throws IOException {
+        try (SaveJournal journal = new SaveJournal(path, 10, true)) {
+            for (int i = 0; i < 5; i++) {
+                tick(journal);
+            }
+            journal.discard();
+        }
+        // deleted after the saves before it, so nothing is left to load
+        assertFalse(Files.exists(Paths.get(path)));
+        assertFalse(Files.exists(SaveJournal.journalPath(path)));
+        try (SaveJournal journal = new SaveJournal(path, 10)) {
+            tick(journal);
+            journal.discard();
+            assertFalse(Files.exists(Paths.get(path)));
+            // saving again starts with a new checkpoint
+            tick(journal);
+            assertEquals(2, journal.getCheckpointCount());
+        }
+        assertSameGame(game, SaveJournal.load(path));
+    }
+
+    @Test
+    public void testLoadGame() throws IOException {
+        try (SaveJournal journal = new SaveJournal(path, 1000)) {
+            for (int i = 0; i < 8; i++) {
+                tick(journal);
+            }
+        }
+        Game loaded = new Game(300, 20);
+        loaded.getFood().clear();
+        assertTrue(SaveJournal.loadGame(path, loaded, loaded.getSnake1(), loaded.getSnake2()));
+        assertSameGame(game, loaded);
+        // the loaded game goes on like the saved one
+        game.tick();
+        loaded.tick();
+        assertArrayEquals(game.getSnake1().copyBodyCells(), loaded.getSnake1().copyBodyCells());
+        assertFalse(SaveJournal.loadGame(dir.resolve("missing.snk").toString(), loaded,
+                loaded.getSnake1(), loaded.getSnake2()));
+    }
+
+    @Test
+    public void testLoadPlayable() throws IOException {
+        try (SaveJournal journal = new SaveJournal(path, 1000)) {
+            for (int i = 0; i < 30; i++) {
+                if (i == 10) {
+                    game.getAchievements().addAchievement(new GeneralAchievement("Winner", "Won", game.getSnake1()));
+                }
+                tick(journal);
+            }
+        }
+        Game loaded = new Game(300, 20);
+        loaded.getFood().clear();
+        PendingAchievements pending = SaveJournal.loadPlayable(path, loaded, loaded.getSnake1(), loaded.getSnake2());
+        // the playable state is there before the achievements
+        assertArrayEquals(game.getSnake1().copyBodyCells(), loaded.getSnake1().copyBodyCells());
+        assertEquals(game.getScore1(), loaded.getScore1());
+        assertEquals(0, loaded.getAchievements().getStat(Stat.TOTAL_ROUNDS, loaded.getSnake1()).getValue());
+        pending.mergeNow();
+        assertSameGame(game, loaded);
+
+        Game going = new Game(300, 20);
+        going.getFood().clear();
+        pending = SaveJournal.loadPlayable(path, going, going.getSnake1(), going.getSnake2());
+        pending.start();
+        going.updateRoundAchievements();
+        going.updateRoundAchievements();
+        pending.mergeNow();
+        assertEquals(32, going.getAchievements().getStat(Stat.TOTAL_ROUNDS, going.getSnake1()).getValue());
+        assertNull(SaveJournal.loadPlayable(dir.resolve("missing.snk").toString(), going,
+                going.getSnake1(), going.getSnake2()));
+    }
+}
@@ -1,4 +1,5 @@
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
@@ -89,6 +90,19 @@ public class SnakeTest {
         assertTrue(snake.hasCollided(new Position(2, 1)));
     }
 
+    @Test
+    public void testLongSnake() {
+        for (int i = 0; i < 50; i++) {
+            snake.grow();
+            snake.move();
+        }
+        assertEquals(50, snake.getBody().size());
+        assertEquals(new Position(51, 1), snake.getHead());
+        assertEquals(new Position(50, 1), snake.getBody().get(49));
+        assertTrue(snake.hasCollided(new Position(1, 1)));
+        assertFalse(snake.hasCollided(new Position(0, 0)));
+    }
+
     @Test
     public void testEatApple() {
         snake.eatApple();